@@ -0,0 +1,142 @@
+package fr.esgi.domain;
+
+/**
+ * Splits an amount in cents between participants, exactly.
+ * <br>
+ * Every strategy returns shares that add up to the amount : the exact shares are rounded down to
+ * the cent, then the cents left over go one by one to the largest remainders (largest remainder
+ * method), ties going to the first participants. Ten euros split three ways give 3.34, 3.33 and 3.33.
+ * <br>
+ * Only {@code long} arithmetic is used, the conversion from and to {@code BigDecimal} is left to the
+ * callers. Amounts are bounded by {@link #MAX_CENTS} and weights by {@link #MAX_WEIGHT} so that
+ * {@code amount * weight} cannot overflow.
+ */
+public final class SplitAllocator {
+
+    // Montant maximal d'une dépense (precision 10, scale 2 en base)
+    public static final long MAX_CENTS  = 9_999_999_999L;
+    public static final long MAX_WEIGHT = 100_000_000L;
+
+    // Pourcentages exprimés en points de base : 100 % = 10 000
+    public static final long FULL_PERCENTAGE = 10_000L;
+
+    private SplitAllocator() {
+    }
+
+    /**
+     * Splits the amount in {@code participants} equal shares.
+     */
+    public static long[] even(long cents, int participants) {
+        checkAmount(cents);
+        if (participants <= 0) {
+            throw new IllegalArgumentException("Au moins un participant est requis");
+        }
+
+        long[] shares = new long[participants];
+        long   base   = cents / participants;
+        long   left   = cents % participants;
+        for (int i = 0; i < participants; i++) {
+            shares[i] = i < left ? base + 1 : base;
+        }
+        return shares;
+    }
+
+    /**
+     * Splits the amount proportionally to positive weights.
+     */
+    public static long[] weighted(long cents, long[] weights) {
+        checkAmount(cents);
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("Au moins un participant est requis");
+        }
+
+        long total = 0;
+        for (long weight : weights) {
+            if (weight <= 0 || weight > MAX_WEIGHT) {
+                throw new IllegalArgumentException("Les poids doivent être compris entre 1 et " + MAX_WEIGHT);
+            }
+            total += weight;
+        }
+        return allocate(cents, weights, total);
+    }
+
+    /**
+     * Splits the amount by percentages in basis points, which must add up to {@value #FULL_PERCENTAGE}.
+     */
+    public static long[] percentages(long cents, long[] basisPoints) {
+        checkAmount(cents);
+        if (basisPoints.length == 0) {
+            throw new IllegalArgumentException("Au moins un participant est requis");
+        }
+
+        long total = 0;
+        for (long share : basisPoints) {
+            if (share < 0) {
+                throw new IllegalArgumentException("Les pourcentages ne peuvent pas être négatifs");
+            }
+            total += share;
+        }
+        if (total != FULL_PERCENTAGE) {
+            throw new IllegalArgumentException("La somme des pourcentages doit être égale à 100");
+        }
+        return allocate(cents, basisPoints, FULL_PERCENTAGE);
+    }
+
+    /**
+     * Checks exact shares, which must add up to the amount, and returns them.
+     */
+    public static long[] exact(long cents, long[] shares) {
+        checkAmount(cents);
+        if (shares.length == 0) {
+            throw new IllegalArgumentException("Au moins un participant est requis");
+        }
+
+        long total = 0;
+        for (long share : shares) {
+            if (share < 0) {
+                throw new IllegalArgumentException("Les montants ne peuvent pas être négatifs");
+            }
+            total += share;
+        }
+        if (total != cents) {
+            throw new IllegalArgumentException("La somme des montants doit être égale au montant de la dépense");
+        }
+        return shares.clone();
+    }
+
+    /**
+     * Largest remainder : {@code shares[i] = floor(cents * weights[i] / total)}, then one more cent for
+     * the {@code cents - sum(shares)} largest remainders. Fewer cents than participants are left over,
+     * and they are at most a few dozen : a selection by repeated scan costs less than a sort.
+     */
+    private static long[] allocate(long cents, long[] weights, long total) {
+        int    n          = weights.length;
+        long[] shares     = new long[n];
+        long[] remainders = new long[n];
+        long   allocated  = 0;
+        for (int i = 0; i < n; i++) {
+            long product = cents * weights[i];
+            shares[i]     = product / total;
+            remainders[i] = product % total;
+            allocated += shares[i];
+        }
+
+        for (long left = cents - allocated; left > 0; left--) {
+            int largest = 0;
+            for (int i = 1; i < n; i++) {
+                if (remainders[i] > remainders[largest]) {
+                    largest = i;
+                }
+            }
+            shares[largest]++;
+            remainders[largest] = -1;
+        }
+        return shares;
+    }
+
+    private static void checkAmount(long cents) {
+        if (cents < 0 || cents > MAX_CENTS) {
+            throw new IllegalArgumentException("Montant invalide : " + cents + " centimes");
+        }
+    }
+}
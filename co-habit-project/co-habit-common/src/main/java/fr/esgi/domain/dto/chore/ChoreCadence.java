@@ -0,0 +1,18 @@
+package fr.esgi.domain.dto.chore;
+
+public enum ChoreCadence {
+    DAILY("Quotidienne"),
+    WEEKLY("Hebdomadaire"),
+    BIWEEKLY("Toutes les deux semaines"),
+    MONTHLY("Mensuelle");
+
+    private final String frenchLabel;
+
+    ChoreCadence(String frenchLabel) {
+        this.frenchLabel = frenchLabel;
+    }
+
+    public String getFrenchLabel() {
+        return frenchLabel;
+    }
+}
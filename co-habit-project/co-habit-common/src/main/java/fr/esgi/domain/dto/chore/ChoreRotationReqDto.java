@@ -0,0 +1,66 @@
+package fr.esgi.domain.dto.chore;
+
+import fr.esgi.domain.dto.task.TaskPriority;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Requête de création de rotation de corvée")
+public class ChoreRotationReqDto {
+
+    @NotBlank(message = "Le titre de la corvée est requis")
+    @Size(min = 2, max = 100, message = "Le titre doit contenir entre 2 et 100 caractères")
+    @Schema(description = "Titre de la corvée", example = "Sortir les poubelles")
+    private String title;
+
+    @Size(max = 500, message = "La description ne peut pas dépasser 500 caractères")
+    @Schema(description = "Description de la corvée", example = "Poubelle jaune et poubelle grise")
+    private String description;
+
+    @NotNull(message = "La priorité est requise")
+    @Schema(description = "Priorité des tâches générées", example = "MEDIUM")
+    private TaskPriority priority;
+
+    @NotNull(message = "La cadence est requise")
+    @Schema(description = "Cadence de la corvée", example = "WEEKLY")
+    private ChoreCadence cadence;
+
+    @NotNull(message = "La date de première occurrence est requise")
+    @Schema(description = "Date de la première occurrence", example = "2025-02-03")
+    private LocalDate startDate;
+
+    @Schema(description = "Date de la dernière occurrence possible, incluse (optionnelle)", example = "2025-12-31")
+    private LocalDate endDate;
+
+    @Min(value = 1, message = "Au moins une occurrence doit être générée à l'avance")
+    @Max(value = 12, message = "Au plus 12 occurrences peuvent être générées à l'avance")
+    @Schema(description = "Nombre d'occurrences générées à l'avance (4 par défaut)", example = "4")
+    private Integer occurrencesAhead;
+
+    @Schema(description = "Identifiants des membres de la rotation (si vide, tous les colocataires présents à chaque génération y participent)")
+    private Set<Long> memberIds;
+
+    @Schema(description = "Jours de la semaine sans corvée, les occurrences tombant ces jours-là sont sautées", example = "[\"SUNDAY\"]")
+    private Set<DayOfWeek> skippedDays;
+
+    @Schema(description = "Début d'une période sans corvée, incluse (optionnelle)", example = "2025-07-14")
+    private LocalDate pausedFrom;
+
+    @Schema(description = "Fin de la période sans corvée, incluse (optionnelle, sans fin si absente)", example = "2025-08-15")
+    private LocalDate pausedUntil;
+}
@@ -0,0 +1,66 @@
+package fr.esgi.domain.dto.chore;
+
+import fr.esgi.domain.dto.task.TaskPriority;
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Set;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Réponse de rotation de corvée")
+public class ChoreRotationResDto {
+
+    @Schema(description = "Identifiant unique de la rotation", example = "1")
+    private Long id;
+
+    @Schema(description = "Titre de la corvée", example = "Sortir les poubelles")
+    private String title;
+
+    @Schema(description = "Description de la corvée", example = "Poubelle jaune et poubelle grise")
+    private String description;
+
+    @Schema(description = "Priorité des tâches générées", example = "MEDIUM")
+    private TaskPriority priority;
+
+    @Schema(description = "Cadence de la corvée", example = "WEEKLY")
+    private ChoreCadence cadence;
+
+    @Schema(description = "Date de la première occurrence", example = "2025-02-03")
+    private String startDate;
+
+    @Schema(description = "Date de la dernière occurrence possible", example = "2025-12-31")
+    private String endDate;
+
+    @Schema(description = "Nombre d'occurrences générées à l'avance", example = "4")
+    private int occurrencesAhead;
+
+    @Schema(description = "Date de génération de la prochaine occurrence", example = "2025-02-10")
+    private String nextGenerationDate;
+
+    @Schema(description = "Jours de la semaine sans corvée")
+    private Set<DayOfWeek> skippedDays;
+
+    @Schema(description = "Début de la période sans corvée", example = "2025-07-14")
+    private String pausedFrom;
+
+    @Schema(description = "Fin de la période sans corvée", example = "2025-08-15")
+    private String pausedUntil;
+
+    @Schema(description = "Indique si des occurrences restent à générer", example = "true")
+    private boolean active;
+
+    @Schema(description = "Identifiant de la colocation", example = "1")
+    private Long colocationId;
+
+    @Schema(description = "Membres choisis, vide si tous les colocataires participent")
+    private List<UserProfileResDto> members;
+}
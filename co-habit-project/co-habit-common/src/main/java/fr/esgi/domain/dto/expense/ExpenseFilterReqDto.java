@@ -0,0 +1,29 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Filtres de l'historique des dépenses, tous optionnels")
+public class ExpenseFilterReqDto {
+
+    @Schema(description = "Uniquement les dépenses réglées (true) ou non réglées (false)", example = "false")
+    private Boolean settled;
+
+    @Schema(description = "Identifiant du payeur", example = "1")
+    private Long payerId;
+
+    @Schema(description = "Date de création minimale, incluse", example = "2025-01-01")
+    private LocalDate from;
+
+    @Schema(description = "Date de création maximale, incluse", example = "2025-01-31")
+    private LocalDate to;
+}
@@ -0,0 +1,21 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Ligne rejetée lors d'un import de dépenses")
+public class ExpenseImportErrorResDto {
+
+    @Schema(description = "Numéro de la ligne dans le fichier, en-tête exclu, à partir de 1", example = "12")
+    private int row;
+
+    @Schema(description = "Raison du rejet", example = "Le montant doit être supérieur à 0")
+    private String message;
+}
@@ -0,0 +1,23 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Résultat d'un import de dépenses")
+public class ExpenseImportResDto {
+
+    @Schema(description = "Nombre de dépenses importées", example = "1250")
+    private int importedExpenses;
+
+    @Schema(description = "Lignes rejetées, les autres lignes étant importées")
+    private List<ExpenseImportErrorResDto> errors;
+}
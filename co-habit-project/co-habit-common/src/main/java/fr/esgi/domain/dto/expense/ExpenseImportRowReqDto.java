@@ -0,0 +1,37 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Dépense à importer, validée ligne par ligne")
+public class ExpenseImportRowReqDto {
+
+    @Schema(description = "Date de la dépense (si vide, date de l'import)", example = "2025-01-15")
+    private LocalDate date;
+
+    @Schema(description = "Titre de la dépense", example = "Courses supermarché")
+    private String title;
+
+    @Schema(description = "Description de la dépense (si vide, le titre)", example = "Courses pour la colocation du 15 janvier")
+    private String description;
+
+    @Schema(description = "Montant de la dépense", example = "45.99")
+    private BigDecimal amount;
+
+    @Schema(description = "Email du payeur, membre de la colocation (si vide, l'utilisateur connecté)", example = "alice@example.com")
+    private String payerEmail;
+
+    @Schema(description = "Emails des participants, membres de la colocation (si vide, tous les colocataires participent)")
+    private Set<String> participantEmails;
+}
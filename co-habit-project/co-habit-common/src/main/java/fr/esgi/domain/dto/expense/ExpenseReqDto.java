@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
@@ -41,4 +42,8 @@ public class ExpenseReqDto {
     
     @Schema(description = "Identifiants des participants à la dépense (si vide, tous les colocataires participent)")
     private Set<Long> participantIds;
+    
+    @Valid
+    @Schema(description = "Répartition de la dépense (si absente, parts égales entre les participants)")
+    private ExpenseSplitReqDto split;
 }
@@ -0,0 +1,27 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Répartition d'une dépense entre ses participants")
+public class ExpenseSplitReqDto {
+
+    @NotNull(message = "Le type de répartition est requis")
+    @Schema(description = "Type de répartition", example = "WEIGHTED")
+    private SplitType type;
+
+    @Schema(description = "Part de chaque participant, par identifiant : poids (WEIGHTED), montant en euros (EXACT) "
+            + "ou pourcentage (PERCENTAGE). Ignoré pour EQUAL", example = "{\"1\": 2, \"2\": 1}")
+    private Map<Long, BigDecimal> shares;
+}
@@ -0,0 +1,24 @@
+package fr.esgi.domain.dto.expense;
+
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Solde d'un membre de la colocation")
+public class MemberBalanceResDto {
+
+    @Schema(description = "Membre de la colocation")
+    private UserProfileResDto user;
+
+    @Schema(description = "Solde net : positif si le membre doit être remboursé, négatif s'il doit de l'argent", example = "-12.50")
+    private BigDecimal balance;
+}
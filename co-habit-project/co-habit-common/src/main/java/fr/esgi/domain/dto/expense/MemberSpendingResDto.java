@@ -0,0 +1,27 @@
+package fr.esgi.domain.dto.expense;
+
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Dépenses payées par un membre de la colocation sur une période")
+public class MemberSpendingResDto {
+
+    @Schema(description = "Membre de la colocation")
+    private UserProfileResDto user;
+
+    @Schema(description = "Montant total payé par le membre", example = "245.90")
+    private BigDecimal total;
+
+    @Schema(description = "Nombre de dépenses payées par le membre", example = "7")
+    private long expenseCount;
+}
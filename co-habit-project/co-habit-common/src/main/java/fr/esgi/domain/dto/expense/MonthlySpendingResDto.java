@@ -0,0 +1,30 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Dépenses d'une colocation sur un mois")
+public class MonthlySpendingResDto {
+
+    @Schema(description = "Mois (yyyy-MM)", example = "2025-01")
+    private String month;
+
+    @Schema(description = "Montant total des dépenses du mois", example = "612.40")
+    private BigDecimal total;
+
+    @Schema(description = "Nombre de dépenses du mois", example = "14")
+    private long expenseCount;
+
+    @Schema(description = "Dépenses du mois par payeur, du plus gros montant au plus petit")
+    private List<MemberSpendingResDto> members;
+}
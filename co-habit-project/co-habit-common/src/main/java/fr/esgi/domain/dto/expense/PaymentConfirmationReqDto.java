@@ -0,0 +1,27 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.Set;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Requête de confirmation groupée des paiements reçus")
+public class PaymentConfirmationReqDto {
+
+    @NotEmpty(message = "Au moins une dépense est requise")
+    @Size(max = 500, message = "Au plus 500 dépenses peuvent être confirmées à la fois")
+    @Schema(description = "Identifiants des dépenses dont l'utilisateur est le payeur", example = "[12, 15, 18]")
+    private Set<Long> expenseIds;
+
+    @Schema(description = "Identifiants des participants dont le paiement est confirmé (si vide, tous les participants)")
+    private Set<Long> participantUserIds;
+}
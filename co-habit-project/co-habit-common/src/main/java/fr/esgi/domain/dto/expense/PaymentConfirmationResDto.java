@@ -0,0 +1,21 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Résultat d'une confirmation groupée des paiements")
+public class PaymentConfirmationResDto {
+
+    @Schema(description = "Nombre de paiements nouvellement confirmés", example = "42")
+    private int confirmedPayments;
+
+    @Schema(description = "Nombre de dépenses nouvellement réglées", example = "20")
+    private int settledExpenses;
+}
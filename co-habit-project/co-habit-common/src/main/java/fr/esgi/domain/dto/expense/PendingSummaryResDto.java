@@ -0,0 +1,35 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Paiements et confirmations en attente de l'utilisateur dans une colocation")
+public class PendingSummaryResDto {
+
+    @Schema(description = "Identifiant de la colocation", example = "1")
+    private Long spaceId;
+
+    @Schema(description = "Nom de la colocation", example = "Coloc Centre Ville")
+    private String spaceName;
+
+    @Schema(description = "Nombre de parts que l'utilisateur doit encore payer", example = "3")
+    private long pendingPayments;
+
+    @Schema(description = "Montant total des parts que l'utilisateur doit encore payer", example = "45.50")
+    private BigDecimal pendingPaymentsTotal;
+
+    @Schema(description = "Nombre de parts que l'utilisateur doit encore confirmer en tant que payeur", example = "2")
+    private long pendingConfirmations;
+
+    @Schema(description = "Montant total des parts que l'utilisateur doit encore confirmer", example = "30.00")
+    private BigDecimal pendingConfirmationsTotal;
+}
@@ -0,0 +1,17 @@
+package fr.esgi.domain.dto.expense;
+
+public enum RecurrenceFrequency {
+    WEEKLY("Hebdomadaire"),
+    MONTHLY("Mensuelle"),
+    YEARLY("Annuelle");
+
+    private final String frenchLabel;
+
+    RecurrenceFrequency(String frenchLabel) {
+        this.frenchLabel = frenchLabel;
+    }
+
+    public String getFrenchLabel() {
+        return frenchLabel;
+    }
+}
@@ -0,0 +1,55 @@
+package fr.esgi.domain.dto.expense;
+
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Réponse de dépense récurrente")
+public class RecurringExpenseResDto {
+
+    @Schema(description = "Identifiant unique de la dépense récurrente", example = "1")
+    private Long id;
+
+    @Schema(description = "Titre de la dépense", example = "Loyer")
+    private String title;
+
+    @Schema(description = "Description de la dépense", example = "Loyer mensuel de l'appartement")
+    private String description;
+
+    @Schema(description = "Montant de chaque échéance", example = "1200.00")
+    private BigDecimal amount;
+
+    @Schema(description = "Fréquence des échéances", example = "MONTHLY")
+    private RecurrenceFrequency frequency;
+
+    @Schema(description = "Date de la première échéance", example = "2025-02-01")
+    private String startDate;
+
+    @Schema(description = "Date de la dernière échéance possible", example = "2025-12-31")
+    private String endDate;
+
+    @Schema(description = "Date de la prochaine échéance à générer", example = "2025-03-01")
+    private String nextDueDate;
+
+    @Schema(description = "Indique si des échéances restent à générer", example = "true")
+    private boolean active;
+
+    @Schema(description = "Utilisateur qui paie chaque échéance")
+    private UserProfileResDto payer;
+
+    @Schema(description = "Identifiant de la colocation", example = "1")
+    private Long spaceId;
+
+    @Schema(description = "Participants choisis, vide si tous les colocataires participent")
+    private List<UserProfileResDto> participants;
+}
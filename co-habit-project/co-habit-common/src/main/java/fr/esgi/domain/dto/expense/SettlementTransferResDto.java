@@ -0,0 +1,27 @@
+package fr.esgi.domain.dto.expense;
+
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Virement à effectuer pour solder les comptes de la colocation")
+public class SettlementTransferResDto {
+
+    @Schema(description = "Membre qui doit payer")
+    private UserProfileResDto from;
+
+    @Schema(description = "Membre qui doit être payé")
+    private UserProfileResDto to;
+
+    @Schema(description = "Montant du virement", example = "12.50")
+    private BigDecimal amount;
+}
@@ -0,0 +1,36 @@
+package fr.esgi.domain.dto.expense;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Statistiques de dépenses d'une colocation sur une période")
+public class SpendingStatsResDto {
+
+    @Schema(description = "Premier mois de la période, inclus (yyyy-MM)", example = "2025-01")
+    private String from;
+
+    @Schema(description = "Dernier mois de la période, inclus (yyyy-MM)", example = "2025-12")
+    private String to;
+
+    @Schema(description = "Montant total des dépenses de la période", example = "7348.80")
+    private BigDecimal total;
+
+    @Schema(description = "Nombre de dépenses de la période", example = "168")
+    private long expenseCount;
+
+    @Schema(description = "Dépenses de la période par payeur, du plus gros montant au plus petit")
+    private List<MemberSpendingResDto> members;
+
+    @Schema(description = "Dépenses de chaque mois de la période, y compris les mois sans dépense")
+    private List<MonthlySpendingResDto> months;
+}
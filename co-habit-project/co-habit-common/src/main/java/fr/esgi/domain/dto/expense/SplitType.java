@@ -0,0 +1,18 @@
+package fr.esgi.domain.dto.expense;
+
+public enum SplitType {
+    EQUAL("Parts égales"),
+    WEIGHTED("Parts pondérées"),
+    EXACT("Montants exacts"),
+    PERCENTAGE("Pourcentages");
+
+    private final String frenchLabel;
+
+    SplitType(String frenchLabel) {
+        this.frenchLabel = frenchLabel;
+    }
+
+    public String getFrenchLabel() {
+        return frenchLabel;
+    }
+}
@@ -0,0 +1,24 @@
+package fr.esgi.domain.dto.page;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Page de résultats paginée par curseur")
+public class CursorPageResDto<T> {
+
+    @Schema(description = "Éléments de la page")
+    private List<T> items;
+
+    @Schema(description = "Curseur opaque à renvoyer pour obtenir la page suivante, absent sur la dernière page",
+            example = "MjAyNS0wMS0xNVQxMDozMDowMHw0Mg")
+    private String nextCursor;
+}
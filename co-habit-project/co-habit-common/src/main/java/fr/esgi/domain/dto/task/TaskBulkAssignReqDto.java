@@ -0,0 +1,29 @@
+package fr.esgi.domain.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Requête d'assignation groupée de tâches à un colocataire")
+public class TaskBulkAssignReqDto {
+
+    @NotEmpty(message = "Au moins une tâche est requise")
+    @Size(max = 100, message = "Au plus 100 tâches peuvent être traitées à la fois")
+    @Schema(description = "Identifiants des tâches", example = "[\"9f1c2b\", \"4a7d0e\"]")
+    private List<String> taskIds;
+
+    @NotNull(message = "L'utilisateur assigné est requis")
+    @Schema(description = "ID du colocataire à assigner", example = "2")
+    private Long userId;
+}
@@ -0,0 +1,25 @@
+package fr.esgi.domain.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Requête de création groupée de tâches")
+public class TaskBulkCreateReqDto {
+
+    @NotEmpty(message = "Au moins une tâche est requise")
+    @Size(max = 100, message = "Au plus 100 tâches peuvent être créées à la fois")
+    @Schema(description = "Tâches à créer")
+    private List<@Valid TaskReqDto> tasks;
+}
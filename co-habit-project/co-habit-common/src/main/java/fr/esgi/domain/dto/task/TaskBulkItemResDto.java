@@ -0,0 +1,24 @@
+package fr.esgi.domain.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Résultat d'une tâche d'une opération groupée")
+public class TaskBulkItemResDto {
+
+    @Schema(description = "ID de la tâche", example = "9f1c2b")
+    private String taskId;
+
+    @Schema(description = "Statut HTTP de l'opération sur cette tâche", example = "200")
+    private int status;
+
+    @Schema(description = "Cause de l'échec, absente en cas de succès", example = "Tâche non trouvée")
+    private String error;
+}
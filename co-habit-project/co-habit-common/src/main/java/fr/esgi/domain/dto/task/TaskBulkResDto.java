@@ -0,0 +1,26 @@
+package fr.esgi.domain.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Résultat d'une opération groupée sur des tâches")
+public class TaskBulkResDto {
+
+    @Schema(description = "Nombre de tâches traitées avec succès", example = "12")
+    private int succeeded;
+
+    @Schema(description = "Nombre de tâches en échec", example = "1")
+    private int failed;
+
+    @Schema(description = "Résultat de chaque tâche, dans l'ordre de la requête")
+    private List<TaskBulkItemResDto> items;
+}
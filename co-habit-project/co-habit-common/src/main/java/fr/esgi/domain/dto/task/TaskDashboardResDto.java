@@ -0,0 +1,36 @@
+package fr.esgi.domain.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Tableau de bord des tâches d'une colocation")
+public class TaskDashboardResDto {
+
+    @Schema(description = "Nombre total de tâches", example = "42")
+    private long total;
+
+    @Schema(description = "Tâches ni terminées ni annulées", example = "12")
+    private long open;
+
+    @Schema(description = "Tâches ouvertes dont l'échéance est dépassée", example = "3")
+    private long overdue;
+
+    @Schema(description = "Nombre de tâches par statut, tous les statuts présents")
+    private Map<TaskStatus, Long> byStatus;
+
+    @Schema(description = "Nombre de tâches par priorité, toutes les priorités présentes")
+    private Map<TaskPriority, Long> byPriority;
+
+    @Schema(description = "Tâches ouvertes par colocataire assigné, le plus chargé en premier")
+    private List<TaskWorkloadResDto> workload;
+}
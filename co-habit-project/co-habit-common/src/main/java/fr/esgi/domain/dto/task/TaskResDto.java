@@ -43,4 +43,7 @@ public class TaskResDto extends TaskReqDto {
     
     @Schema(description = "Liste des utilisateurs assignés")
     private List<UserProfileResDto> assignedUsers;
+
+    @Schema(description = "Version de la modification acquittée, en écriture différée (indexée peu après)", example = "42")
+    private Long version;
 }
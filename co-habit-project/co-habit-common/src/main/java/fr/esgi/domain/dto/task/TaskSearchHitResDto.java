@@ -0,0 +1,25 @@
+package fr.esgi.domain.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Tâche trouvée par une recherche")
+public class TaskSearchHitResDto {
+
+    @Schema(description = "Tâche trouvée")
+    private TaskResDto task;
+
+    @Schema(description = "Extraits des champs correspondant au texte cherché, termes trouvés entre balises <em>",
+            example = "{\"title\": [\"Faire les <em>courses</em>\"]}")
+    private Map<String, List<String>> highlights;
+}
@@ -0,0 +1,39 @@
+package fr.esgi.domain.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Critères de recherche des tâches, tous optionnels")
+public class TaskSearchReqDto {
+
+    @Schema(description = "Texte cherché dans le titre et la description", example = "courses")
+    private String text;
+
+    @Schema(description = "Statuts acceptés")
+    private Set<TaskStatus> statuses;
+
+    @Schema(description = "Priorités acceptées")
+    private Set<TaskPriority> priorities;
+
+    @Schema(description = "Tags acceptés, au moins un doit être présent")
+    private Set<String> tags;
+
+    @Schema(description = "Identifiant d'un utilisateur assigné", example = "1")
+    private Long assigneeId;
+
+    @Schema(description = "Échéance minimale, incluse", example = "2025-01-01")
+    private LocalDate dueFrom;
+
+    @Schema(description = "Échéance maximale, incluse", example = "2025-01-31")
+    private LocalDate dueTo;
+}
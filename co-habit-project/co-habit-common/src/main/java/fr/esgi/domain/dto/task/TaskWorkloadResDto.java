@@ -0,0 +1,21 @@
+package fr.esgi.domain.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "Charge de tâches d'un colocataire")
+public class TaskWorkloadResDto {
+
+    @Schema(description = "ID du colocataire", example = "1")
+    private Long userId;
+
+    @Schema(description = "Tâches ouvertes qui lui sont assignées", example = "4")
+    private long openTasks;
+}
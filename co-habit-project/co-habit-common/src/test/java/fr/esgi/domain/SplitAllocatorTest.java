@@ -0,0 +1,69 @@
+package fr.esgi.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class SplitAllocatorTest {
+
+    @Test
+    void even_shouldGiveLeftoverCentsToFirstParticipants() {
+        assertThat(SplitAllocator.even(1000, 3)).containsExactly(334, 333, 333);
+        assertThat(SplitAllocator.even(1001, 2)).containsExactly(501, 500);
+        assertThat(SplitAllocator.even(2, 5)).containsExactly(1, 1, 0, 0, 0);
+    }
+
+    @Test
+    void weighted_shouldGiveLeftoverCentsToLargestRemainders() {
+        // 10.00 en 1:1:1:3 -> 1.666..., 1.666..., 1.666..., 5.00
+        assertThat(SplitAllocator.weighted(1000, new long[]{1, 1, 1, 3})).containsExactly(167, 167, 166, 500);
+        // 1.00 en 1:2 -> 0.333... et 0.666..., le reste le plus grand est le second
+        assertThat(SplitAllocator.weighted(100, new long[]{1, 2})).containsExactly(33, 67);
+    }
+
+    @Test
+    void percentages_shouldAddUpToAmount() {
+        long[] shares = SplitAllocator.percentages(4599, new long[]{3333, 3333, 3334});
+
+        assertThat(shares).containsExactly(1533, 1533, 1533);
+        assertThat(Arrays.stream(shares).sum()).isEqualTo(4599);
+    }
+
+    @Test
+    void weighted_shouldAddUpToAmountForLargeAmounts() {
+        long[] weights = new long[50];
+        Arrays.fill(weights, SplitAllocator.MAX_WEIGHT);
+        weights[0] = 1;
+
+        long[] shares = SplitAllocator.weighted(SplitAllocator.MAX_CENTS, weights);
+
+        assertThat(Arrays.stream(shares).sum()).isEqualTo(SplitAllocator.MAX_CENTS);
+    }
+
+    @Test
+    void exact_shouldReturnSharesMatchingAmount() {
+        long[] requested = {1234, 766};
+        long[] shares    = SplitAllocator.exact(2000, requested);
+
+        assertThat(shares).containsExactly(1234, 766).isNotSameAs(requested);
+    }
+
+    @Test
+    void shouldRejectInvalidSplits() {
+        assertThatThrownBy(() -> SplitAllocator.even(1000, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitAllocator.even(-1, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitAllocator.weighted(1000, new long[]{1, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitAllocator.percentages(1000, new long[]{5000, 4000}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("100");
+        assertThatThrownBy(() -> SplitAllocator.exact(1000, new long[]{500, 400}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
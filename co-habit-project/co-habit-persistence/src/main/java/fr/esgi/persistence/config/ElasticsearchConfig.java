@@ -24,12 +24,20 @@ public class ElasticsearchConfig extends ElasticsearchConfiguration {
     @Value("${elasticsearch.port:9200}")
     private String elasticsearchPort;
 
+    // Une panne d'Elasticsearch ne doit pas bloquer les requêtes plus longtemps que ces délais,
+    // au-delà desquels les tâches sont lues dans leur copie relationnelle
+    @Value("${elasticsearch.connect-timeout-ms:1000}")
+    private long connectTimeoutMs;
+
+    @Value("${elasticsearch.socket-timeout-ms:3000}")
+    private long socketTimeoutMs;
+
     @Override
     public ClientConfiguration clientConfiguration() {
         return ClientConfiguration.builder()
                                   .connectedTo(elasticsearchHost + ":" + elasticsearchPort)
-                                  .withConnectTimeout(5000)
-                                  .withSocketTimeout(3000)
+                                  .withConnectTimeout(connectTimeoutMs)
+                                  .withSocketTimeout(socketTimeoutMs)
                                   .build();
     }
 }
@@ -0,0 +1,55 @@
+package fr.esgi.persistence.config;
+
+import org.hibernate.boot.ResourceStreamLocator;
+import org.hibernate.boot.model.relational.SimpleAuxiliaryDatabaseObject;
+import org.hibernate.boot.spi.AdditionalMappingContributions;
+import org.hibernate.boot.spi.AdditionalMappingContributor;
+import org.hibernate.boot.spi.InFlightMetadataCollector;
+import org.hibernate.boot.spi.MetadataBuildingContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+
+import java.util.Set;
+
+/**
+ * Adds to the generated schema the partial indexes that {@code @Index} cannot express.
+ * <br>
+ * They only cover the rows still pending, a small fraction of {@code expense_participants} once
+ * the expenses are settled, and serve the badge counts of the pending summary. Partial indexes
+ * are PostgreSQL specific : other dialects (H2 in tests) skip them. Registered through
+ * {@code META-INF/services/org.hibernate.boot.spi.AdditionalMappingContributor}.
+ */
+public class PartialIndexContributor implements AdditionalMappingContributor {
+
+    private static final Set<String> DIALECTS = Set.of(PostgreSQLDialect.class.getName());
+
+    @Override
+    public String getContributorName() {
+        return "cohabit-partial-indexes";
+    }
+
+    @Override
+    public void contribute(AdditionalMappingContributions contributions,
+                           InFlightMetadataCollector metadata,
+                           ResourceStreamLocator resourceStreamLocator,
+                           MetadataBuildingContext buildingContext) {
+        // Parts que l'utilisateur n'a pas encore payées
+        contributions.contributeAuxiliaryDatabaseObject(partialIndex(
+                "idx_expense_participants_user_unvalidated",
+                "expense_participants (user_id) WHERE validated = false"));
+
+        // Parts que le payeur n'a pas encore confirmées
+        contributions.contributeAuxiliaryDatabaseObject(partialIndex(
+                "idx_expense_participants_expense_unconfirmed",
+                "expense_participants (expense_id) WHERE confirmed_by_creator = false"));
+    }
+
+    private static SimpleAuxiliaryDatabaseObject partialIndex(String name, String definition) {
+        return new SimpleAuxiliaryDatabaseObject(
+                DIALECTS,
+                null,
+                null,
+                new String[]{"CREATE INDEX IF NOT EXISTS " + name + " ON " + definition},
+                new String[]{"DROP INDEX IF EXISTS " + name}
+        );
+    }
+}
@@ -0,0 +1,228 @@
+package fr.esgi.persistence.config;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import fr.esgi.persistence.document.TaskDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.PutIndexTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.reindex.ReindexRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Manages the physical indexes behind the {@code tasks} alias.
+ * <br>
+ * The tasks are routed by colocation ({@code @Routing} on {@link TaskDocument}) : the index
+ * template {@value #TEMPLATE} gives every {@code tasks-*} index an explicit number of shards and a
+ * mapping where the routing is required, so that a document indexed without it is rejected instead
+ * of landing on the wrong shard. The application reads and writes through the {@value #ALIAS}
+ * alias, which points to a single index.
+ * <br>
+ * {@link #migrate()} moves the documents of the current index to a new one, routed, then swaps the
+ * alias atomically. It is needed once for an index created before the routing, and whenever the
+ * number of shards changes. Writes made to the old index during the reindex are lost : run it
+ * with the writes stopped, see {@link TaskIndexMigrationRunner}.
+ * <br>
+ * The reindex runs as an Elasticsearch task ({@code wait_for_completion=false}), polled every
+ * {@code cohabit.tasks.index.reindex-poll-ms} : its duration grows with the number of tasks and is
+ * not bounded by the socket timeout of the client.
+ */
+@Component
+@ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = true)
+@Log4j2
+public class TaskIndexManager {
+
+    static final String ALIAS    = "tasks";
+    static final String TEMPLATE = "tasks";
+    static final String PATTERN  = "tasks-*";
+
+    // Renseigne _routing à partir de la colocation de chaque document copié
+    static final String ROUTING_SCRIPT = "ctx._routing = String.valueOf(ctx._source.colocationId)";
+
+    private static final DateTimeFormatter VERSION = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final ElasticsearchOperations operations;
+    private final ElasticsearchClient     client;
+    private final int                     shards;
+    private final int                     replicas;
+    private final long                    reindexPollMs;
+
+    /**
+     * Result of a migration.
+     *
+     * @param from      Indexes replaced, deleted with the swap of the alias.
+     * @param to        New index behind the alias.
+     * @param documents Documents copied.
+     */
+    public record Migration(List<String> from, String to, long documents) {
+    }
+
+    public TaskIndexManager(
+            ElasticsearchOperations operations,
+            ElasticsearchClient client,
+            @Value("${cohabit.tasks.index.shards:3}") int shards,
+            @Value("${cohabit.tasks.index.replicas:1}") int replicas,
+            @Value("${cohabit.tasks.index.reindex-poll-ms:5000}") long reindexPollMs
+    ) {
+        this.operations    = operations;
+        this.client        = client;
+        this.shards        = shards;
+        this.replicas      = replicas;
+        this.reindexPollMs = reindexPollMs;
+    }
+
+    /**
+     * Puts the index template and, on a new cluster, creates the first index behind the alias.
+     */
+    @PostConstruct
+    public void initialize() {
+        putTemplate();
+        if (!operations.indexOps(IndexCoordinates.of(ALIAS)).exists()) {
+            String index = newIndexName();
+            create(index);
+            operations.indexOps(IndexCoordinates.of(index)).alias(new AliasActions(add(index)));
+            log.info("Index des tâches créé : {} ({} shards)", index, shards);
+        }
+    }
+
+    /**
+     * Copies the tasks to a new index, routed by colocation, then points the alias to it.
+     *
+     * @throws IllegalStateException If some documents could not be copied : the new index is deleted
+     *                               and the alias left untouched.
+     */
+    public Migration migrate() {
+        putTemplate();
+        List<String> sources = currentIndexes();
+        String       target  = newIndexName();
+        create(target);
+
+        String taskId = operations.submitReindex(
+                ReindexRequest.builder(IndexCoordinates.of(ALIAS), IndexCoordinates.of(target))
+                              .withScript(ROUTING_SCRIPT, "painless")
+                              .withRefresh(true)
+                              .build());
+        log.info("Réindexation des tâches vers {} lancée : tâche Elasticsearch {}", target, taskId);
+
+        GetTasksResponse task     = awaitCompletion(taskId);
+        JsonObject       response = task.response() != null ? task.response().toJson().asJsonObject() : null;
+        long             created  = response != null ? response.getJsonNumber("created").longValue() : 0;
+        JsonArray        failures = response != null ? response.getJsonArray("failures") : null;
+        int              failed   = failures != null ? failures.size() : 0;
+        if (task.error() != null || response == null || failed > 0 || response.getBoolean("timed_out", false)) {
+            operations.indexOps(IndexCoordinates.of(target)).delete();
+            throw new IllegalStateException("Réindexation des tâches interrompue : " + failed + " échec(s), " + created
+                                            + " document(s) copié(s)"
+                                            + (task.error() != null ? ", " + task.error().reason() : ""));
+        }
+
+        // Ajout de l'alias et suppression des anciens index en une seule opération : les lectures
+        // voient l'ancien ou le nouvel index, jamais aucun. Un index concret nommé "tasks" (créé
+        // avant l'alias) est supprimé dans la même opération, pour libérer le nom
+        List<AliasAction> actions = new ArrayList<>();
+        actions.add(add(target));
+        for (String source : sources) {
+            actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(source).build()));
+        }
+        operations.indexOps(IndexCoordinates.of(target)).alias(new AliasActions(actions.toArray(AliasAction[]::new)));
+
+        log.info("Tâches migrées de {} vers {} : {} document(s)", sources, target, created);
+        return new Migration(sources, target, created);
+    }
+
+    /**
+     * Polls a reindex task until it completes. A failed poll is retried : the task goes on in the
+     * cluster whatever happens to the client.
+     *
+     * @throws IllegalStateException If the thread is interrupted : the task is left running.
+     */
+    GetTasksResponse awaitCompletion(String taskId) {
+        while (true) {
+            try {
+                GetTasksResponse task = client.tasks().get(request -> request.taskId(taskId));
+                if (task.completed()) {
+                    return task;
+                }
+                log.info("Réindexation des tâches en cours : tâche Elasticsearch {}", taskId);
+            } catch (IOException e) {
+                log.warn("Suivi de la réindexation {} impossible, nouvel essai : {}", taskId, e.getMessage());
+            }
+
+            try {
+                Thread.sleep(reindexPollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Suivi de la réindexation des tâches interrompu, tâche " + taskId
+                                                + " toujours en cours", e);
+            }
+        }
+    }
+
+    /**
+     * Creates or replaces the index template : shards and replicas, and the mapping of
+     * {@link TaskDocument} with a required routing.
+     */
+    void putTemplate() {
+        IndexOperations indexOps = operations.indexOps(TaskDocument.class);
+
+        Document mapping = indexOps.createMapping(TaskDocument.class);
+        mapping.put("_routing", Map.of("required", true));
+
+        Settings settings = new Settings();
+        settings.put("index.number_of_shards", shards);
+        settings.put("index.number_of_replicas", replicas);
+
+        indexOps.putIndexTemplate(PutIndexTemplateRequest.builder()
+                                                         .withName(TEMPLATE)
+                                                         .withIndexPatterns(PATTERN)
+                                                         .withSettings(settings)
+                                                         .withMapping(mapping)
+                                                         .build());
+    }
+
+    /**
+     * Indexes currently read through the alias : those it points to, or the concrete index named
+     * like it, created before the alias existed.
+     */
+    List<String> currentIndexes() {
+        IndexOperations alias = operations.indexOps(IndexCoordinates.of(ALIAS));
+        Set<String>     aliased = alias.getAliases(ALIAS).keySet();
+        if (!aliased.isEmpty()) {
+            return List.copyOf(aliased);
+        }
+        return alias.exists() ? List.of(ALIAS) : List.of();
+    }
+
+    // Sans réglage ni mapping explicite, l'index reçoit ceux du modèle
+    private void create(String index) {
+        operations.indexOps(IndexCoordinates.of(index)).create();
+    }
+
+    private static AliasAction add(String index) {
+        return new AliasAction.Add(AliasActionParameters.builder().withIndices(index).withAliases(ALIAS).build());
+    }
+
+    private static String newIndexName() {
+        return "tasks-" + LocalDateTime.now().format(VERSION);
+    }
+}
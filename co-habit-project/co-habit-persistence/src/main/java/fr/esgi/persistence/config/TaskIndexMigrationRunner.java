@@ -0,0 +1,28 @@
+package fr.esgi.persistence.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reindexes the tasks with their routing at startup, when {@code cohabit.tasks.migrate-index} is
+ * set. Meant to be run once, by a single instance, with the writes to the tasks stopped.
+ */
+@Component
+@ConditionalOnProperty(name = "cohabit.tasks.migrate-index", havingValue = "true")
+@RequiredArgsConstructor
+@Log4j2
+public class TaskIndexMigrationRunner implements ApplicationRunner {
+
+    private final TaskIndexManager taskIndexManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        TaskIndexManager.Migration migration = taskIndexManager.migrate();
+        log.info("Migration de l'index des tâches terminée : {} -> {}, {} document(s)",
+                 migration.from(), migration.to(), migration.documents());
+    }
+}
@@ -11,12 +11,16 @@ import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.Routing;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
-@Document(indexName = "tasks")
+// Les tâches d'une colocation sont routées vers un même shard. L'index, ses shards et son mapping
+// viennent du modèle d'index posé par TaskIndexManager, pas de Spring Data
+@Document(indexName = "tasks", createIndex = false)
+@Routing("colocationId")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -74,6 +78,10 @@ public class TaskDocument {
     @Field(type = FieldType.Keyword)
     private Set<String> tags = new HashSet<>();
 
+    // Rotation de corvée ayant généré la tâche, null pour une tâche créée à la main
+    @Field(type = FieldType.Long, name = "chore_rotation_id")
+    private Long choreRotationId;
+
     public enum TaskPriority {
         LOW,
         MEDIUM,
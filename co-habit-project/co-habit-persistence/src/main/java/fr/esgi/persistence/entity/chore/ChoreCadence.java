@@ -0,0 +1,23 @@
+package fr.esgi.persistence.entity.chore;
+
+import java.time.LocalDate;
+
+public enum ChoreCadence {
+    DAILY,
+    WEEKLY,
+    BIWEEKLY,
+    MONTHLY;
+
+    /**
+     * Date de la n-ième occurrence (0 pour la première, négative avant la première), toujours
+     * calculée depuis la date de début : une corvée du 31 revient au 31 après un mois plus court.
+     */
+    public LocalDate occurrence(LocalDate start, int index) {
+        return switch (this) {
+            case DAILY -> start.plusDays(index);
+            case WEEKLY -> start.plusWeeks(index);
+            case BIWEEKLY -> start.plusWeeks(2L * index);
+            case MONTHLY -> start.plusMonths(index);
+        };
+    }
+}
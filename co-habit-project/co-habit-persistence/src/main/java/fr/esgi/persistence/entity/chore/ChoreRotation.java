@@ -0,0 +1,158 @@
+package fr.esgi.persistence.entity.chore;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Corvée récurrente d'une colocation (vaisselle, poubelles, ménage) tournant entre ses membres.
+ * <br>
+ * Les {@link #occurrencesAhead} prochaines occurrences sont générées à l'avance comme des tâches :
+ * l'occurrence n est générée à la date de l'occurrence n - occurrencesAhead, ce que
+ * {@link #nextGenerationDate} retient pour la prochaine. Chaque tâche générée a un identifiant
+ * dérivé de la rotation et du rang de l'occurrence : une génération rejouée réécrit les mêmes tâches.
+ */
+@Entity
+@Table(name = "chore_rotations", indexes = @Index(name = "idx_chore_rotations_due", columnList = "active, next_generation_date"))
+@NamedEntityGraph(name = ChoreRotation.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("members"),
+        @NamedAttributeNode("skippedDays"),
+        @NamedAttributeNode(value = "colocation", subgraph = "colocation")
+}, subgraphs = @NamedSubgraph(name = "colocation", attributeNodes = @NamedAttributeNode("roommates")))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ChoreRotation {
+
+    // Plan de chargement de la génération : membres, jours sautés et colocataires de la colocation
+    public static final String WITH_DETAILS = "ChoreRotation.withDetails";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chore_rotations_seq")
+    @SequenceGenerator(name = "chore_rotations_seq", sequenceName = "chore_rotations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(length = 500)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TaskDocument.TaskPriority priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChoreCadence cadence;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    // Dernière occurrence possible, incluse (optionnelle)
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // Nombre d'occurrences générées à l'avance
+    @Column(name = "occurrences_ahead", nullable = false)
+    private int occurrencesAhead;
+
+    // Occurrences déjà passées, générées ou sautées
+    @Column(nullable = false)
+    private int occurrences = 0;
+
+    // Date à laquelle générer la prochaine occurrence
+    @Column(name = "next_generation_date", nullable = false)
+    private LocalDate nextGenerationDate;
+
+    // Période sans corvée (vacances), bornes incluses
+    @Column(name = "paused_from")
+    private LocalDate pausedFrom;
+
+    @Column(name = "paused_until")
+    private LocalDate pausedUntil;
+
+    // Dernier membre assigné : départage les membres à égalité de charge, dans l'ordre de la rotation
+    @Column(name = "last_assignee_id")
+    private Long lastAssigneeId;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "colocation_id", nullable = false)
+    private Colocation colocation;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "creator_id", nullable = false)
+    private User creator;
+
+    // Membres de la rotation ; vide, tous les colocataires présents à chaque génération y participent
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+            name = "chore_rotation_members",
+            joinColumns = @JoinColumn(name = "chore_rotation_id"),
+            inverseJoinColumns = @JoinColumn(name = "user_id")
+    )
+    private Set<User> members = new HashSet<>();
+
+    // Jours de la semaine sans corvée : les occurrences tombant ces jours-là sont sautées
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "chore_rotation_skipped_days", joinColumns = @JoinColumn(name = "chore_rotation_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false, length = 10)
+    private Set<DayOfWeek> skippedDays = new HashSet<>();
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextGenerationDate == null) {
+            nextGenerationDate = occurrence(occurrences - occurrencesAhead);
+        }
+    }
+
+    /**
+     * Passe à l'occurrence suivante et renvoie sa date ; les occurrences antérieures à {@code today}
+     * sont sautées sans tâche. Renvoie null, et désactive la rotation, une fois sa date de fin dépassée.
+     */
+    public LocalDate nextOccurrence(LocalDate today) {
+        LocalDate date = occurrence(occurrences);
+        while (date.isBefore(today)) {
+            date = occurrence(++occurrences);
+        }
+        if (endDate != null && date.isAfter(endDate)) {
+            active = false;
+            return null;
+        }
+        occurrences++;
+        nextGenerationDate = occurrence(occurrences - occurrencesAhead);
+        return date;
+    }
+
+    /**
+     * Indique si l'occurrence de cette date est sautée : jour sans corvée ou période de pause.
+     */
+    public boolean skips(LocalDate date) {
+        if (skippedDays.contains(date.getDayOfWeek())) {
+            return true;
+        }
+        return pausedFrom != null && !date.isBefore(pausedFrom) && (pausedUntil == null || !date.isAfter(pausedUntil));
+    }
+
+    private LocalDate occurrence(int index) {
+        return cadence.occurrence(startDate, index);
+    }
+}
@@ -0,0 +1,34 @@
+package fr.esgi.persistence.entity.expense;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Registre des soldes d'une colocation : montant que le débiteur doit encore au créancier,
+ * c'est-à-dire la somme de ses parts non confirmées sur les dépenses payées par le créancier.
+ * <br>
+ * Maintenu dans la transaction de chaque écriture sur les dépenses et reconstruit périodiquement
+ * depuis {@code expense_participants}, il évite de relire tout l'historique pour afficher les soldes.
+ */
+@Entity
+@Table(name = "colocation_balances")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ColocationBalance {
+
+    @EmbeddedId
+    private ColocationBalanceId id;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    public ColocationBalance(ColocationBalanceId id, BigDecimal amount) {
+        this.id     = id;
+        this.amount = amount;
+    }
+}
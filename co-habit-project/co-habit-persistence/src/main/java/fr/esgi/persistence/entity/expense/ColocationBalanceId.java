@@ -0,0 +1,31 @@
+package fr.esgi.persistence.entity.expense;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Clé d'une ligne du registre des soldes. La colocation vient en premier afin que la lecture
+ * des soldes d'une colocation soit un parcours de la clé primaire.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ColocationBalanceId implements Serializable {
+
+    @Column(name = "space_id", nullable = false)
+    private Long spaceId;
+
+    @Column(name = "debtor_id", nullable = false)
+    private Long debtorId;
+
+    @Column(name = "creditor_id", nullable = false)
+    private Long creditorId;
+}
@@ -1,5 +1,6 @@
 package fr.esgi.persistence.entity.expense;
 
+import fr.esgi.domain.SplitAllocator;
 import fr.esgi.persistence.entity.space.Colocation;
 import fr.esgi.persistence.entity.user.User;
 import jakarta.persistence.*;
@@ -9,19 +10,37 @@ import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "expenses")
+@Table(
+        name = "expenses",
+        indexes = @Index(name = "idx_expenses_space_created", columnList = "space_id, created_at, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_expenses_recurring_period", columnNames = {"recurring_expense_id", "recurrence_period"})
+)
+@NamedEntityGraph(name = Expense.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("payer"),
+        @NamedAttributeNode("space"),
+        @NamedAttributeNode(value = "participants", subgraph = "participants")
+}, subgraphs = @NamedSubgraph(name = "participants", attributeNodes = @NamedAttributeNode("user")))
 @Getter
 @Setter
 @NoArgsConstructor
 public class Expense {
+
+    // Plan de chargement du détail d'une dépense : payeur, colocation, participants et leurs utilisateurs
+    public static final String WITH_DETAILS = "Expense.withDetails";
     
+    // Séquence à allocation groupée : contrairement à IDENTITY, elle laisse Hibernate regrouper les insertions en lots JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -47,15 +66,32 @@ public class Expense {
     @JoinColumn(name = "space_id", nullable = false)
     private Colocation space;
     
+    // Dépense récurrente dont cette dépense est une échéance, et date de cette échéance
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recurring_expense_id")
+    private RecurringExpense recurringExpense;
+
+    @Column(name = "recurrence_period")
+    private LocalDate period;
+
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ExpenseParticipant> participants = new HashSet<>();
     
     @Column(nullable = false)
     private boolean settled = false;
     
+    // Verrouillage optimiste : les transitions groupées des paiements incrémentent aussi la version
+    @Version
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        // Date d'origine conservée pour les dépenses importées
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        // Précision de la colonne : l'entité en mémoire et la ligne relue doivent donner le même curseur
+        createdAt = createdAt.truncatedTo(ChronoUnit.MICROS);
     }
     
     private void addParticipant(User user, BigDecimal share) {
@@ -63,15 +99,31 @@ public class Expense {
         participants.add(participant);
     }
     
+    // Parts égales au centime près, leur somme valant le montant ; les centimes restants vont aux premiers utilisateurs par identifiant
     public void distributeEvenly(Set<User> users) {
         if (users.isEmpty()) return;
         
-        BigDecimal shareAmount = amount.divide(BigDecimal.valueOf(users.size()), 2, RoundingMode.HALF_UP);
-        for (User user : users) {
-            addParticipant(user, shareAmount);
+        List<User> ordered = users.stream()
+                .sorted(Comparator.comparing(User::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        distribute(ordered, SplitAllocator.even(amountInCents(), ordered.size()));
+    }
+    
+    // Parts en centimes, dans l'ordre des utilisateurs (voir SplitAllocator)
+    public void distribute(List<User> users, long[] shareCents) {
+        if (users.size() != shareCents.length) {
+            throw new IllegalArgumentException("Une part par participant est requise");
+        }
+        
+        for (int i = 0; i < shareCents.length; i++) {
+            addParticipant(users.get(i), BigDecimal.valueOf(shareCents[i], 2));
         }
     }
     
+    public long amountInCents() {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
     // Vérifie si tous les paiements ont été confirmés par le créateur
     public boolean checkIfFullySettled() {
         if (participants.isEmpty()) {
@@ -82,11 +134,10 @@ public class Expense {
                 .allMatch(ExpenseParticipant::isFullySettled);
         
         // Met à jour l'état de règlement si nécessaire
+        // Une dépense réglée le reste : le règlement ne revient jamais en arrière
         if (allSettled && !settled) {
             settled = true;
             settledAt = LocalDateTime.now();
-        } else if (!allSettled && settled) {
-            settled = false;
         }
         
         return allSettled;
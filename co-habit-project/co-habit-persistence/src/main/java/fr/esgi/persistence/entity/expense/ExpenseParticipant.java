@@ -10,14 +10,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "expense_participants")
+@Table(
+        name = "expense_participants",
+        indexes = @Index(name = "idx_expense_participants_expense_confirmed", columnList = "expense_id, confirmed_by_creator")
+)
 @Getter
 @Setter
 @NoArgsConstructor
 public class ExpenseParticipant {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_participants_seq")
+    @SequenceGenerator(name = "expense_participants_seq", sequenceName = "expense_participants_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -47,6 +51,10 @@ public class ExpenseParticipant {
     @Column(length = 50)
     private String paymentMethod;
     
+    // Verrouillage optimiste : les transitions groupées des paiements incrémentent aussi la version
+    @Version
+    private Long version;
+    
     public ExpenseParticipant(Expense expense, User user, BigDecimal shareAmount) {
         this.expense = expense;
         this.user = user;
@@ -0,0 +1,38 @@
+package fr.esgi.persistence.entity.expense;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Dépenses mensuelles d'une colocation : montant total et nombre des dépenses payées par un membre
+ * dans un mois, d'après leur date de création.
+ * <br>
+ * Maintenu dans la transaction de chaque écriture sur les dépenses et reconstruit périodiquement
+ * depuis {@code expenses}, il évite de relire tout l'historique pour afficher les statistiques.
+ */
+@Entity
+@Table(name = "monthly_spending")
+@Getter
+@Setter
+@NoArgsConstructor
+public class MonthlySpending {
+
+    @EmbeddedId
+    private MonthlySpendingId id;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    public MonthlySpending(MonthlySpendingId id, BigDecimal amount, long expenseCount) {
+        this.id           = id;
+        this.amount       = amount;
+        this.expenseCount = expenseCount;
+    }
+}
@@ -0,0 +1,33 @@
+package fr.esgi.persistence.entity.expense;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Clé d'une ligne des dépenses mensuelles. La colocation puis le mois viennent en premier afin
+ * que la lecture d'une période soit un parcours d'intervalle de la clé primaire.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class MonthlySpendingId implements Serializable {
+
+    @Column(name = "space_id", nullable = false)
+    private Long spaceId;
+
+    // Premier jour du mois
+    @Column(name = "month_start", nullable = false)
+    private LocalDate month;
+
+    @Column(name = "payer_id", nullable = false)
+    private Long payerId;
+}
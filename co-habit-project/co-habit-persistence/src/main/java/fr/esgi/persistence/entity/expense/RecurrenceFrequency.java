@@ -0,0 +1,21 @@
+package fr.esgi.persistence.entity.expense;
+
+import java.time.LocalDate;
+
+public enum RecurrenceFrequency {
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    /**
+     * Date de la n-ième échéance (0 pour la première), toujours calculée depuis la date de début :
+     * une échéance au 31 revient au 31 après un mois plus court.
+     */
+    public LocalDate occurrence(LocalDate start, int index) {
+        return switch (this) {
+            case WEEKLY -> start.plusWeeks(index);
+            case MONTHLY -> start.plusMonths(index);
+            case YEARLY -> start.plusYears(index);
+        };
+    }
+}
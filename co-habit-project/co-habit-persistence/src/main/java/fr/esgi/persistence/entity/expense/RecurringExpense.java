@@ -0,0 +1,124 @@
+package fr.esgi.persistence.entity.expense;
+
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Dépense récurrente d'une colocation (loyer, charges, abonnements).
+ * <br>
+ * Chaque échéance est générée comme une {@link Expense} rattachée à sa définition et à sa période ;
+ * la contrainte d'unicité sur (recurring_expense_id, recurrence_period) des dépenses garantit
+ * qu'une période n'est générée qu'une fois, même si deux générations se chevauchent.
+ */
+@Entity
+@Table(name = "recurring_expenses", indexes = @Index(name = "idx_recurring_expenses_due", columnList = "active, next_due_date"))
+@NamedEntityGraph(name = RecurringExpense.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("payer"),
+        @NamedAttributeNode(value = "space", subgraph = "space"),
+        @NamedAttributeNode("participants")
+}, subgraphs = @NamedSubgraph(name = "space", attributeNodes = @NamedAttributeNode("roommates")))
+@Getter
+@Setter
+@NoArgsConstructor
+public class RecurringExpense {
+
+    // Plan de chargement de la génération : payeur, participants et colocataires de la colocation
+    public static final String WITH_DETAILS = "RecurringExpense.withDetails";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recurring_expenses_seq")
+    @SequenceGenerator(name = "recurring_expenses_seq", sequenceName = "recurring_expenses_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecurrenceFrequency frequency;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    // Dernière échéance possible, incluse (optionnelle)
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // Prochaine échéance à générer, dérivée de startDate et du nombre d'échéances déjà générées
+    @Column(name = "next_due_date", nullable = false)
+    private LocalDate nextDueDate;
+
+    @Column(nullable = false)
+    private int occurrences = 0;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payer_id", nullable = false)
+    private User payer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "space_id", nullable = false)
+    private Colocation space;
+
+    // Participants choisis ; vide, tous les colocataires présents à chaque échéance participent
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+            name = "recurring_expense_participants",
+            joinColumns = @JoinColumn(name = "recurring_expense_id"),
+            inverseJoinColumns = @JoinColumn(name = "user_id")
+    )
+    private Set<User> participants = new HashSet<>();
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextDueDate == null) {
+            nextDueDate = startDate;
+        }
+    }
+
+    /**
+     * Crée la dépense de l'échéance courante puis passe à la suivante ; la définition est désactivée
+     * une fois sa date de fin dépassée.
+     */
+    public Expense nextOccurrence(Set<User> users) {
+        Expense expense = new Expense();
+        expense.setTitle(title);
+        expense.setDescription(description);
+        expense.setAmount(amount);
+        expense.setPayer(payer);
+        expense.setSpace(space);
+        expense.setRecurringExpense(this);
+        expense.setPeriod(nextDueDate);
+        expense.setCreatedAt(nextDueDate.atStartOfDay());
+        expense.distributeEvenly(users);
+
+        occurrences++;
+        nextDueDate = frequency.occurrence(startDate, occurrences);
+        if (endDate != null && nextDueDate.isAfter(endDate)) {
+            active = false;
+        }
+        return expense;
+    }
+}
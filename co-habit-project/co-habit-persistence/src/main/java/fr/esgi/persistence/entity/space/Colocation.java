@@ -1,7 +1,6 @@
 package fr.esgi.persistence.entity.space;
 
 import fr.esgi.persistence.entity.user.User;
-import fr.esgi.persistence.repository.space.ColocationRepository;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,11 +11,18 @@ import java.util.*;
 
 @Entity
 @Table(name = "colocations")
+@NamedEntityGraph(name = Colocation.WITH_MEMBERS, attributeNodes = {
+        @NamedAttributeNode("manager"),
+        @NamedAttributeNode("roommates")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Colocation {
 
+    // Plan de chargement des listes de colocations : gestionnaire et colocataires dans la même requête
+    public static final String WITH_MEMBERS = "Colocation.withMembers";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -39,6 +45,11 @@ public class Colocation {
     @Column(name = "max_roommates")
     private Integer maxRoommates;
 
+    // Nombre de colocataires dénormalisé : après insertion, seules les requêtes gardées
+    // de ColocationRepository (reserveRoommateSlot / releaseRoommateSlot) le modifient
+    @Column(name = "current_roommates", nullable = false, updatable = false)
+    private int currentRoommates;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -78,16 +89,25 @@ public class Colocation {
         this.name    = name;
         this.address = address;
         this.manager = manager;
-        this.roommates.add(manager); // Le manager est automatiquement ajouté comme colocataire
+        this.addRoommate(manager); // Le manager est automatiquement ajouté comme colocataire
     }
 
     // Méthodes utilitaires pour gérer les colocataires
+    public void setRoommates(Set<User> roommates) {
+        this.roommates        = roommates;
+        this.currentRoommates = roommates == null ? 0 : roommates.size();
+    }
+
     public void addRoommate(User user) {
-        roommates.add(user);
+        if (roommates.add(user)) {
+            currentRoommates++;
+        }
     }
 
     public void removeRoommate(User user) {
-        roommates.remove(user);
+        if (roommates.remove(user)) {
+            currentRoommates--;
+        }
     }
 
     public boolean isManager(User user) {
@@ -99,11 +119,11 @@ public class Colocation {
     }
 
     public boolean isFull() {
-        return maxRoommates != null && roommates.size() >= maxRoommates;
+        return maxRoommates != null && currentRoommates >= maxRoommates;
     }
 
     public int getCurrentRoommatesCount() {
-        return roommates.size();
+        return currentRoommates;
     }
 
     // Méthodes utilitaires pour gérer les stocks
@@ -116,19 +136,4 @@ public class Colocation {
         stocks.remove(stock);
         stock.setColocation(null);
     }
-
-    /**
-     * Generates and sets a unique invitation code for the colocation
-     */
-    public void generateInvitationCode(ColocationRepository repository) {
-        String code;
-        do {
-            code = UUID.randomUUID()
-                      .toString()
-                      .substring(0, 5)
-                      .toUpperCase();
-        } while (repository.findByInvitationCode(code).isPresent());
-        
-        this.invitationCode = code;
-    }
 }
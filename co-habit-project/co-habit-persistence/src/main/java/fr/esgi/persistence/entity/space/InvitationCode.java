@@ -6,38 +6,50 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
+/**
+ * Code d'invitation attribué à une colocation.
+ * <br>
+ * L'identifiant provient d'une séquence à allocation groupée : l'allocateur en dérive le code
+ * par une permutation réversible, le code lui-même n'est donc pas stocké ici et retrouver
+ * l'invitation d'un code revient à une lecture par clé primaire.
+ */
 @Entity
 @Table(name = "invitation_codes")
 @Getter
 @Setter
 @NoArgsConstructor
 public class InvitationCode {
-    
+
+    // Durée de validité d'un code d'invitation
+    public static final Duration VALIDITY = Duration.ofDays(7);
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invitation_codes_seq")
+    @SequenceGenerator(name = "invitation_codes_seq", sequenceName = "invitation_codes_seq", allocationSize = 50)
     private Long id;
-    
-    @Column(nullable = false, unique = true)
-    private String code;
-    
-    @Column(nullable = false)
+
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
-    
-    // Champ calculé non persisté (exemple)
-    @Transient
-    private boolean isExpired;
-    
-    // Méthode utilitaire (pas de @Transient nécessaire)
-    private String generateUniqueCode() {
-        return UUID.randomUUID().toString();
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
     }
-    
-    // Méthode pour calculer le champ transient
+
     public boolean isExpired() {
-        // Logique pour déterminer si le code a expiré
-        return createdAt.isBefore(LocalDateTime.now().minusDays(7));
+        return createdAt.isBefore(expirationThreshold());
+    }
+
+    /**
+     * Date de création en deçà de laquelle un code est expiré, à passer en paramètre des requêtes
+     * afin qu'elles restent indexables (pas de calcul sur la colonne).
+     */
+    public static LocalDateTime expirationThreshold() {
+        return LocalDateTime.now().minus(VALIDITY);
     }
 }
@@ -10,11 +10,15 @@ import java.util.List;
 
 @Entity
 @Table(name = "stocks")
+@NamedEntityGraph(name = StockEntity.WITH_ITEMS, attributeNodes = @NamedAttributeNode("items"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class StockEntity {
 
+    // Plan de chargement des listes de stocks : le nombre d'articles est calculé sur les items
+    public static final String WITH_ITEMS = "StockEntity.withItems";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
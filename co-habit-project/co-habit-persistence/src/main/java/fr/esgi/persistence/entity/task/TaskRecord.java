@@ -0,0 +1,216 @@
+package fr.esgi.persistence.entity.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Copie relationnelle d'une tâche, lue à la place de l'index quand Elasticsearch est indisponible.
+ * <br>
+ * Chaque écriture de tâche y est faite avant l'indexation ; {@link #pendingSync} marque les tâches
+ * que l'index n'a pas encore reçues, rejouées au rétablissement d'Elasticsearch. Une tâche supprimée
+ * sans que l'index ait pu l'être reste une pierre tombale ({@link #deleted}) jusqu'au rejeu, et toute
+ * tâche supprimée tant que les tâches de l'index ne sont pas toutes recopiées ({@link TaskRecordBackfill}).
+ * <br>
+ * {@link #dueSort} et {@link #createdSort} sont les valeurs de tri de l'index (millisecondes UTC, une
+ * date absente triée en dernier) : un curseur de pagination reste valable d'un stockage à l'autre.
+ */
+@Entity
+@Table(name = "task_records", indexes = {
+        @Index(name = "idx_task_records_colocation_order", columnList = "colocation_id, due_sort, created_sort DESC, id"),
+        @Index(name = "idx_task_records_pending", columnList = "pending_sync")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class TaskRecord implements Persistable<String> {
+
+    // Identifiant de la tâche dans l'index
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "colocation_id", nullable = false)
+    private Long colocationId;
+
+    @Column(name = "colocation_name")
+    private String colocationName;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "user_keycloak_sub")
+    private String userKeycloakSub;
+
+    @Column(name = "user_name")
+    private String userName;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(length = 500)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TaskDocument.TaskStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TaskDocument.TaskPriority priority;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "creator_id")
+    private Long creatorId;
+
+    @Column(name = "chore_rotation_id")
+    private Long choreRotationId;
+
+    // Échéance croissante, les tâches sans échéance en dernier (Long.MAX_VALUE, comme missing _last)
+    @Column(name = "due_sort", nullable = false)
+    private long dueSort;
+
+    // Création décroissante, les tâches sans date en dernier (Long.MIN_VALUE, comme missing _last)
+    @Column(name = "created_sort", nullable = false)
+    private long createdSort;
+
+    // Les collections d'une page de tâches sont chargées par lots, pas une requête par tâche
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "task_record_assignees", joinColumns = @JoinColumn(name = "task_id"))
+    @Column(name = "user_id", nullable = false)
+    @BatchSize(size = 100)
+    private Set<Long> assignedUserIds = new HashSet<>();
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "task_record_assignee_subs", joinColumns = @JoinColumn(name = "task_id"))
+    @Column(name = "keycloak_sub", nullable = false)
+    @BatchSize(size = 100)
+    private Set<String> assignedToUserKeycloakSubs = new HashSet<>();
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "task_record_tags", joinColumns = @JoinColumn(name = "task_id"))
+    @Column(name = "tag", nullable = false)
+    @BatchSize(size = 100)
+    private Set<String> tags = new HashSet<>();
+
+    @Column(nullable = false)
+    private boolean deleted = false;
+
+    // Écriture pas encore reçue par l'index
+    @Column(name = "pending_sync", nullable = false)
+    private boolean pendingSync = false;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // L'identifiant vient de l'index : sans ce marqueur, save() relirait la tâche avant de l'insérer
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newRecord;
+
+    public TaskRecord(String id) {
+        this.id        = id;
+        this.newRecord = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    /**
+     * Recopie l'état d'une tâche ; la tâche n'est plus supprimée.
+     */
+    public void apply(TaskDocument task) {
+        this.colocationId               = task.getColocationId();
+        this.colocationName             = task.getColocationName();
+        this.userId                     = task.getUserId();
+        this.userKeycloakSub            = task.getUserKeycloakSub();
+        this.userName                   = task.getUserName();
+        this.title                      = task.getTitle();
+        this.description                = task.getDescription();
+        this.status                     = task.getStatus();
+        this.priority                   = task.getPriority();
+        this.createdAt                  = task.getCreatedAt();
+        this.dueDate                    = task.getDueDate();
+        this.completedAt                = task.getCompletedAt();
+        this.creatorId                  = task.getCreatorId();
+        this.choreRotationId            = task.getChoreRotationId();
+        this.dueSort                    = dueSort(task.getDueDate());
+        this.createdSort                = createdSort(task.getCreatedAt());
+        this.deleted                    = false;
+        replace(this.assignedUserIds, task.getAssignedUserIds());
+        replace(this.assignedToUserKeycloakSubs, task.getAssignedToUserKeycloakSubs());
+        replace(this.tags, task.getTags());
+    }
+
+    public TaskDocument toDocument() {
+        return TaskDocument.builder()
+                           .id(id)
+                           .colocationId(colocationId)
+                           .colocationName(colocationName)
+                           .userId(userId)
+                           .userKeycloakSub(userKeycloakSub)
+                           .userName(userName)
+                           .title(title)
+                           .description(description)
+                           .status(status)
+                           .priority(priority)
+                           .createdAt(createdAt)
+                           .dueDate(dueDate)
+                           .completedAt(completedAt)
+                           .creatorId(creatorId)
+                           .choreRotationId(choreRotationId)
+                           .assignedUserIds(new HashSet<>(assignedUserIds))
+                           .assignedToUserKeycloakSubs(new HashSet<>(assignedToUserKeycloakSubs))
+                           .tags(new HashSet<>(tags))
+                           .build();
+    }
+
+    public static long dueSort(LocalDateTime dueDate) {
+        return dueDate == null ? Long.MAX_VALUE : dueDate.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static long createdSort(LocalDateTime createdAt) {
+        return createdAt == null ? Long.MIN_VALUE : createdAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void onStored() {
+        newRecord = false;
+    }
+
+    // La collection gérée par Hibernate est modifiée sur place, pas remplacée
+    private static <T> void replace(Set<T> target, Set<T> values) {
+        target.clear();
+        if (values != null) {
+            target.addAll(values);
+        }
+    }
+}
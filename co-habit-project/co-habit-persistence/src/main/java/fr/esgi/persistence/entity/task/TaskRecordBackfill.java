@@ -0,0 +1,38 @@
+package fr.esgi.persistence.entity.task;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avancement de la recopie des tâches de l'index dans leur copie relationnelle ({@link TaskRecord}),
+ * une seule ligne ({@link #ID}).
+ * <br>
+ * Les colocations sont recopiées par identifiant croissant, {@link #lastColocationId} étant la
+ * dernière recopiée. Tant que {@link #completedAt} est nul, la copie relationnelle n'a pas toutes les
+ * tâches et ne remplace pas l'index.
+ */
+@Entity
+@Table(name = "task_record_backfill")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TaskRecordBackfill {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "last_colocation_id", nullable = false)
+    private long lastColocationId;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,57 @@
+package fr.esgi.persistence.repository.chore;
+
+import fr.esgi.persistence.entity.chore.ChoreRotation;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChoreRotationRepository extends JpaRepository<ChoreRotation, Long> {
+
+    @EntityGraph(attributePaths = {"members", "skippedDays"})
+    List<ChoreRotation> findByColocationIdAndActiveTrueOrderByIdAsc(Long colocationId);
+
+    // Rotations à générer hors skippedIds, verrouillées jusqu'à la fin de la transaction de génération ;
+    // celles déjà verrouillées par un autre nœud sont sautées (délai de verrou -2 : SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query(
+            """
+                    SELECT r FROM ChoreRotation r
+                    WHERE r.active = true AND r.nextGenerationDate <= :today AND r.id NOT IN :skippedIds
+                    ORDER BY r.nextGenerationDate, r.id
+                    """
+    )
+    List<ChoreRotation> lockDue(@Param("today") LocalDate today, @Param("skippedIds") Collection<Long> skippedIds, Limit limit);
+
+    // Une rotation si elle est encore à générer, verrouillée comme par lockDue
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT r FROM ChoreRotation r WHERE r.id = :id AND r.active = true AND r.nextGenerationDate <= :today")
+    List<ChoreRotation> lockDueById(@Param("id") Long id, @Param("today") LocalDate today);
+
+    // Identifiants des rotations à générer dans l'ordre de lockDue, sans verrou
+    @Query(
+            """
+                    SELECT r.id FROM ChoreRotation r
+                    WHERE r.active = true AND r.nextGenerationDate <= :today AND r.id NOT IN :skippedIds
+                    ORDER BY r.nextGenerationDate, r.id
+                    """
+    )
+    List<Long> findDueIds(@Param("today") LocalDate today, @Param("skippedIds") Collection<Long> skippedIds, Limit limit);
+
+    @EntityGraph(ChoreRotation.WITH_DETAILS)
+    List<ChoreRotation> findWithDetailsByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,16 @@
+package fr.esgi.persistence.repository.expense;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the amount a debtor still owes to a creditor within a colocation,
+ * aggregated over every share not yet confirmed by the payer of the expense.
+ */
+public interface BalanceLine {
+
+    Long getDebtorId();
+
+    Long getCreditorId();
+
+    BigDecimal getAmount();
+}
@@ -0,0 +1,52 @@
+package fr.esgi.persistence.repository.expense;
+
+import fr.esgi.persistence.entity.expense.ColocationBalance;
+import fr.esgi.persistence.entity.expense.ColocationBalanceId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ColocationBalanceRepository extends JpaRepository<ColocationBalance, ColocationBalanceId> {
+
+    // Soldes non nuls d'une colocation, lus sur le préfixe de la clé primaire
+    @Query(
+            """
+                    SELECT b.id.debtorId AS debtorId, b.id.creditorId AS creditorId, b.amount AS amount
+                    FROM ColocationBalance b
+                    WHERE b.id.spaceId = :spaceId
+                    AND b.amount <> 0
+                    """
+    )
+    List<BalanceLine> findLinesBySpaceId(@Param("spaceId") Long spaceId);
+
+    // Incrément atomique en une instruction : la ligne est créée au premier montant, sans course entre
+    // deux transactions qui la trouveraient toutes deux absente (ON CONFLICT sous PostgreSQL)
+    @Modifying
+    @Query(
+            """
+                    INSERT INTO ColocationBalance (id.spaceId, id.debtorId, id.creditorId, amount)
+                    VALUES (:spaceId, :debtorId, :creditorId, :delta)
+                    ON CONFLICT (id) DO UPDATE SET amount = amount + excluded.amount
+                    """
+    )
+    void addToAmount(@Param("spaceId") Long spaceId,
+                     @Param("debtorId") Long debtorId,
+                     @Param("creditorId") Long creditorId,
+                     @Param("delta") BigDecimal delta);
+
+    // Verrouille les lignes d'une colocation le temps de la réconciliation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ColocationBalance b WHERE b.id.spaceId = :spaceId")
+    List<ColocationBalance> lockBySpaceId(@Param("spaceId") Long spaceId);
+
+    @Query("SELECT DISTINCT b.id.spaceId FROM ColocationBalance b")
+    List<Long> findSpaceIds();
+}
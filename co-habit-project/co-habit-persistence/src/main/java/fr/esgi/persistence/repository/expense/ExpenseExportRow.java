@@ -0,0 +1,35 @@
+package fr.esgi.persistence.repository.expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of one share of an expense, flattened with its expense and payer for the exports.
+ * An expense without participants yields a single row whose share columns are null.
+ */
+public interface ExpenseExportRow {
+
+    Long getExpenseId();
+
+    LocalDateTime getCreatedAt();
+
+    String getTitle();
+
+    String getDescription();
+
+    BigDecimal getAmount();
+
+    String getPayerEmail();
+
+    String getParticipantEmail();
+
+    BigDecimal getShareAmount();
+
+    Boolean getValidated();
+
+    Boolean getConfirmed();
+
+    Boolean getSettled();
+
+    LocalDateTime getSettledAt();
+}
@@ -4,10 +4,13 @@ import fr.esgi.persistence.entity.expense.Expense;
 import fr.esgi.persistence.entity.expense.ExpenseParticipant;
 import fr.esgi.persistence.entity.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,4 +30,129 @@ public interface ExpenseParticipantRepository extends JpaRepository<ExpenseParti
     
     @Query("SELECT ep FROM ExpenseParticipant ep WHERE ep.expense.payer = :payer AND ep.confirmedByCreator = false")
     List<ExpenseParticipant> findPendingConfirmationsByPayer(@Param("payer") User payer);
+
+    // Parts que l'utilisateur doit encore payer, comptées et totalisées par colocation
+    // (index partiel idx_expense_participants_user_unvalidated)
+    @Query(
+            """
+                    SELECT s.id AS spaceId, s.name AS spaceName, COUNT(ep.id) AS count, SUM(ep.shareAmount) AS total
+                    FROM ExpenseParticipant ep
+                    JOIN ep.expense e
+                    JOIN e.space s
+                    WHERE ep.user.id = :userId
+                    AND ep.validated = false
+                    GROUP BY s.id, s.name
+                    """
+    )
+    List<PendingShareTotal> sumPendingPaymentsByUserId(@Param("userId") Long userId);
+
+    // Parts que le payeur doit encore confirmer, comptées et totalisées par colocation
+    // (index partiel idx_expense_participants_expense_unconfirmed)
+    @Query(
+            """
+                    SELECT s.id AS spaceId, s.name AS spaceName, COUNT(ep.id) AS count, SUM(ep.shareAmount) AS total
+                    FROM ExpenseParticipant ep
+                    JOIN ep.expense e
+                    JOIN e.space s
+                    WHERE e.payer.id = :payerId
+                    AND ep.confirmedByCreator = false
+                    GROUP BY s.id, s.name
+                    """
+    )
+    List<PendingShareTotal> sumPendingConfirmationsByPayerId(@Param("payerId") Long payerId);
+
+    // Participants de plusieurs dépenses et leurs utilisateurs, en une seule requête
+    @Query("SELECT ep FROM ExpenseParticipant ep JOIN FETCH ep.user WHERE ep.expense.id IN :expenseIds")
+    List<ExpenseParticipant> findWithUserByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds);
+
+    // Dettes restantes d'une colocation, agrégées par couple (débiteur, créancier) en une seule requête
+    @Query(
+            """
+                    SELECT ep.user.id AS debtorId, e.payer.id AS creditorId, SUM(ep.shareAmount) AS amount
+                    FROM ExpenseParticipant ep
+                    JOIN ep.expense e
+                    WHERE e.space.id = :spaceId
+                    AND ep.confirmedByCreator = false
+                    AND ep.user.id <> e.payer.id
+                    GROUP BY ep.user.id, e.payer.id
+                    """
+    )
+    List<BalanceLine> sumOutstandingBySpaceId(@Param("spaceId") Long spaceId);
+
+    // Parts non confirmées de plusieurs dépenses, agrégées par (colocation, débiteur, créancier) : ce qu'une
+    // confirmation groupée retire du registre des soldes
+    @Query(
+            """
+                    SELECT e.space.id AS spaceId, ep.user.id AS debtorId, e.payer.id AS creditorId, SUM(ep.shareAmount) AS amount
+                    FROM ExpenseParticipant ep
+                    JOIN ep.expense e
+                    WHERE e.id IN :expenseIds
+                    AND ep.confirmedByCreator = false
+                    AND ep.user.id <> e.payer.id
+                    GROUP BY e.space.id, ep.user.id, e.payer.id
+                    """
+    )
+    List<SpaceBalanceLine> sumUnconfirmedByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds);
+
+    // Idem, restreint à certains participants
+    @Query(
+            """
+                    SELECT e.space.id AS spaceId, ep.user.id AS debtorId, e.payer.id AS creditorId, SUM(ep.shareAmount) AS amount
+                    FROM ExpenseParticipant ep
+                    JOIN ep.expense e
+                    WHERE e.id IN :expenseIds
+                    AND ep.user.id IN :userIds
+                    AND ep.confirmedByCreator = false
+                    AND ep.user.id <> e.payer.id
+                    GROUP BY e.space.id, ep.user.id, e.payer.id
+                    """
+    )
+    List<SpaceBalanceLine> sumUnconfirmedByExpenseIdsAndUserIds(@Param("expenseIds") Collection<Long> expenseIds,
+                                                                @Param("userIds") Collection<Long> userIds);
+
+    // Valide le paiement d'un participant en une requête, seulement s'il ne l'est pas encore :
+    // de deux validations concurrentes, une seule modifie la ligne
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+            """
+                    UPDATE ExpenseParticipant ep
+                    SET ep.validated = true, ep.validatedAt = :now, ep.paymentMethod = :paymentMethod, ep.version = ep.version + 1
+                    WHERE ep.expense.id = :expenseId
+                    AND ep.user.id = :userId
+                    AND ep.validated = false
+                    """
+    )
+    int validate(@Param("expenseId") Long expenseId,
+                 @Param("userId") Long userId,
+                 @Param("paymentMethod") String paymentMethod,
+                 @Param("now") LocalDateTime now);
+
+    boolean existsByExpenseIdAndUserId(Long expenseId, Long userId);
+
+    // Confirme en une requête tous les paiements non confirmés de plusieurs dépenses
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+            """
+                    UPDATE ExpenseParticipant ep
+                    SET ep.confirmedByCreator = true, ep.confirmedByCreatorAt = :now, ep.version = ep.version + 1
+                    WHERE ep.expense.id IN :expenseIds
+                    AND ep.confirmedByCreator = false
+                    """
+    )
+    int confirmByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds, @Param("now") LocalDateTime now);
+
+    // Confirme en une requête les paiements non confirmés de certains participants de plusieurs dépenses
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+            """
+                    UPDATE ExpenseParticipant ep
+                    SET ep.confirmedByCreator = true, ep.confirmedByCreatorAt = :now, ep.version = ep.version + 1
+                    WHERE ep.expense.id IN :expenseIds
+                    AND ep.user.id IN :userIds
+                    AND ep.confirmedByCreator = false
+                    """
+    )
+    int confirmByExpenseIdsAndUserIds(@Param("expenseIds") Collection<Long> expenseIds,
+                                      @Param("userIds") Collection<Long> userIds,
+                                      @Param("now") LocalDateTime now);
 }
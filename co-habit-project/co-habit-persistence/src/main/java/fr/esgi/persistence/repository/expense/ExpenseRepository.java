@@ -3,15 +3,26 @@ package fr.esgi.persistence.repository.expense;
 import fr.esgi.persistence.entity.expense.Expense;
 import fr.esgi.persistence.entity.space.Colocation;
 import fr.esgi.persistence.entity.user.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
     
     List<Expense> findBySpace(Colocation space);
     
@@ -24,7 +35,141 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     
     @Query("SELECT e FROM Expense e WHERE e.space = :space AND (e.payer = :user OR EXISTS (SELECT p FROM e.participants p WHERE p.user = :user))")
     List<Expense> findBySpaceAndUserInvolved(@Param("space") Colocation space, @Param("user") User user);
-    
-    @Query("SELECT e FROM Expense e WHERE e.space = :space ORDER BY e.createdAt DESC")
-    List<Expense> findBySpaceOrderByCreatedAtDesc(@Param("space") Colocation space);
+
+    // Dépense avec payeur, colocation et participants (et leurs utilisateurs), en une requête
+    @EntityGraph(Expense.WITH_DETAILS)
+    Optional<Expense> findWithDetailsById(Long id);
+
+    // Plusieurs dépenses avec leur détail, en une requête : l'ordre n'est pas garanti
+    @EntityGraph(Expense.WITH_DETAILS)
+    List<Expense> findWithDetailsByIdIn(Collection<Long> ids);
+
+    // Dépenses d'un utilisateur (payeur ou participant), première page de l'historique
+    @Query(
+            """
+                    SELECT e.id AS id, e.title AS title, e.description AS description, e.amount AS amount,
+                    e.createdAt AS createdAt, e.settledAt AS settledAt, e.settled AS settled,
+                    s.id AS spaceId, s.name AS spaceName,
+                    p.id AS payerId, p.email AS payerEmail, p.username AS payerUsername,
+                    p.firstName AS payerFirstName, p.lastName AS payerLastName
+                    FROM Expense e
+                    JOIN e.space s
+                    JOIN e.payer p
+                    WHERE e.id IN (
+                        SELECT x.id FROM Expense x WHERE x.payer.id = :userId
+                        UNION
+                        SELECT ep.expense.id FROM ExpenseParticipant ep WHERE ep.user.id = :userId
+                    )
+                    ORDER BY e.createdAt DESC, e.id DESC
+                    """
+    )
+    List<ExpenseSummary> findSummariesByUserInvolved(@Param("userId") Long userId, Limit limit);
+
+    // Dépenses d'un utilisateur situées après le curseur (createdAt, id)
+    @Query(
+            """
+                    SELECT e.id AS id, e.title AS title, e.description AS description, e.amount AS amount,
+                    e.createdAt AS createdAt, e.settledAt AS settledAt, e.settled AS settled,
+                    s.id AS spaceId, s.name AS spaceName,
+                    p.id AS payerId, p.email AS payerEmail, p.username AS payerUsername,
+                    p.firstName AS payerFirstName, p.lastName AS payerLastName
+                    FROM Expense e
+                    JOIN e.space s
+                    JOIN e.payer p
+                    WHERE e.id IN (
+                        SELECT x.id FROM Expense x WHERE x.payer.id = :userId
+                        UNION
+                        SELECT ep.expense.id FROM ExpenseParticipant ep WHERE ep.user.id = :userId
+                    )
+                    AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id))
+                    ORDER BY e.createdAt DESC, e.id DESC
+                    """
+    )
+    List<ExpenseSummary> findSummariesByUserInvolvedAfter(@Param("userId") Long userId,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("id") Long id,
+                                                          Limit limit);
+
+    // Historique complet d'une colocation, une ligne par part, lu en flux pour les exports : projection sans
+    // entité gérée, rapatriée par lots de 500 lignes (curseur côté serveur dans une transaction en lecture seule)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(
+            """
+                    SELECT e.id AS expenseId, e.createdAt AS createdAt, e.title AS title, e.description AS description,
+                    e.amount AS amount, p.email AS payerEmail, u.email AS participantEmail, ep.shareAmount AS shareAmount,
+                    ep.validated AS validated, ep.confirmedByCreator AS confirmed, e.settled AS settled, e.settledAt AS settledAt
+                    FROM Expense e
+                    JOIN e.payer p
+                    LEFT JOIN e.participants ep
+                    LEFT JOIN ep.user u
+                    WHERE e.space.id = :spaceId
+                    ORDER BY e.createdAt, e.id, ep.id
+                    """
+    )
+    Stream<ExpenseExportRow> streamExportRowsBySpaceId(@Param("spaceId") Long spaceId);
+
+    @Query("SELECT DISTINCT e.space.id FROM Expense e")
+    List<Long> findSpaceIds();
+
+    long countByIdIn(Collection<Long> ids);
+
+    // Dépenses d'une colocation agrégées par payeur et par mois de création, pour reconstruire les dépenses mensuelles
+    @Query(
+            """
+                    SELECT extract(year from e.createdAt) AS createdYear, extract(month from e.createdAt) AS createdMonth,
+                    e.payer.id AS payerId, SUM(e.amount) AS amount, COUNT(e) AS expenseCount
+                    FROM Expense e
+                    WHERE e.space.id = :spaceId
+                    GROUP BY extract(year from e.createdAt), extract(month from e.createdAt), e.payer.id
+                    """
+    )
+    List<MonthlyPayerTotal> sumMonthlyBySpaceId(@Param("spaceId") Long spaceId);
+
+    // Réserve les dépenses d'une confirmation en incrémentant leur version, si l'utilisateur en est le payeur.
+    // Première écriture de la transaction : une confirmation concurrente des mêmes dépenses attend sa fin,
+    // puis relit les parts qu'elle a confirmées, sans verrou pris en lecture
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+            """
+                    UPDATE Expense e
+                    SET e.version = e.version + 1
+                    WHERE e.id IN :ids
+                    AND e.payer.id = :payerId
+                    """
+    )
+    int claimByIdsAndPayerId(@Param("ids") Collection<Long> ids, @Param("payerId") Long payerId);
+
+    // Règle d'office les dépenses dont le payeur a confirmé tous les paiements
+    @Modifying(clearAutomatically = true)
+    @Query(
+            """
+                    UPDATE Expense e
+                    SET e.settled = true, e.settledAt = :now, e.version = e.version + 1
+                    WHERE e.id IN :ids
+                    AND e.settled = false
+                    """
+    )
+    int settleByIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Règle les dépenses dont chaque participant a validé son paiement et l'a vu confirmé
+    @Modifying(clearAutomatically = true)
+    @Query(
+            """
+                    UPDATE Expense e
+                    SET e.settled = true, e.settledAt = :now, e.version = e.version + 1
+                    WHERE e.id IN :ids
+                    AND e.settled = false
+                    AND EXISTS (SELECT ep.id FROM ExpenseParticipant ep WHERE ep.expense = e)
+                    AND NOT EXISTS (
+                        SELECT ep.id
+                        FROM ExpenseParticipant ep
+                        WHERE ep.expense = e
+                        AND (ep.validated = false OR ep.confirmedByCreator = false)
+                    )
+                    """
+    )
+    int settleFullySettledByIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,81 @@
+package fr.esgi.persistence.repository.expense;
+
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.expense.ExpenseParticipant;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Critères de recherche de l'historique des dépenses.
+ * <br>
+ * Un critère n'est ajouté que si sa valeur est renseignée, la requête générée ne contient donc
+ * que les conditions utiles et reste servie par l'index (space_id, created_at, id).
+ */
+public final class ExpenseSpecifications {
+
+    // Ordre de l'historique, identique à celui de l'index et du curseur
+    public static final Sort HISTORY_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private ExpenseSpecifications() {
+    }
+
+    public static Specification<Expense> inSpace(Long spaceId) {
+        return (root, query, cb) -> cb.equal(root.get("space").get("id"), spaceId);
+    }
+
+    public static Specification<Expense> settled(Boolean settled) {
+        return settled == null ? null : (root, query, cb) -> cb.equal(root.get("settled"), settled);
+    }
+
+    public static Specification<Expense> paidBy(Long payerId) {
+        return payerId == null ? null : (root, query, cb) -> cb.equal(root.get("payer").get("id"), payerId);
+    }
+
+    public static Specification<Expense> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Expense> createdBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    // Dépenses dont l'utilisateur n'a pas encore payé sa part
+    public static Specification<Expense> pendingPaymentOf(Long userId) {
+        return (root, query, cb) -> {
+            Subquery<Long> pending = query.subquery(Long.class);
+            Root<ExpenseParticipant> participant = pending.from(ExpenseParticipant.class);
+            pending.select(participant.get("id"))
+                   .where(cb.equal(participant.get("expense"), root),
+                          cb.equal(participant.get("user").get("id"), userId),
+                          cb.isFalse(participant.get("validated")));
+            return cb.exists(pending);
+        };
+    }
+
+    // Dépenses payées par l'utilisateur dont au moins une part reste à confirmer
+    public static Specification<Expense> pendingConfirmationOf(Long payerId) {
+        return (root, query, cb) -> {
+            Subquery<Long> pending = query.subquery(Long.class);
+            Root<ExpenseParticipant> participant = pending.from(ExpenseParticipant.class);
+            pending.select(participant.get("id"))
+                   .where(cb.equal(participant.get("expense"), root),
+                          cb.isFalse(participant.get("confirmedByCreator")));
+            return cb.and(cb.equal(root.get("payer").get("id"), payerId), cb.exists(pending));
+        };
+    }
+
+    // Dépenses situées après le curseur dans l'ordre de l'historique : (created_at, id) < (:createdAt, :id)
+    public static Specification<Expense> after(LocalDateTime createdAt, Long id) {
+        if (createdAt == null || id == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id))
+        );
+    }
+}
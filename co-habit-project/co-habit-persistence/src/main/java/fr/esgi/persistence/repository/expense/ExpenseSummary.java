@@ -0,0 +1,39 @@
+package fr.esgi.persistence.repository.expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of an expense with its payer and colocation, read in a single statement
+ * without hydrating the {@code Expense}, {@code User} and {@code Colocation} entities.
+ */
+public interface ExpenseSummary {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    BigDecimal getAmount();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getSettledAt();
+
+    boolean isSettled();
+
+    Long getSpaceId();
+
+    String getSpaceName();
+
+    Long getPayerId();
+
+    String getPayerEmail();
+
+    String getPayerUsername();
+
+    String getPayerFirstName();
+
+    String getPayerLastName();
+}
@@ -0,0 +1,20 @@
+package fr.esgi.persistence.repository.expense;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the expenses of a colocation aggregated by payer and calendar month of creation,
+ * used to rebuild the monthly rollup.
+ */
+public interface MonthlyPayerTotal {
+
+    Integer getCreatedYear();
+
+    Integer getCreatedMonth();
+
+    Long getPayerId();
+
+    BigDecimal getAmount();
+
+    Long getExpenseCount();
+}
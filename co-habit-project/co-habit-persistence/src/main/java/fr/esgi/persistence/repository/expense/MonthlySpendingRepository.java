@@ -0,0 +1,59 @@
+package fr.esgi.persistence.repository.expense;
+
+import fr.esgi.persistence.entity.expense.MonthlySpending;
+import fr.esgi.persistence.entity.expense.MonthlySpendingId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MonthlySpendingRepository extends JpaRepository<MonthlySpending, MonthlySpendingId> {
+
+    // Dépenses d'une période, lues sur un intervalle de la clé primaire : au plus une ligne par mois et par payeur
+    @Query(
+            """
+                    SELECT s.id.month AS month, s.id.payerId AS payerId, s.amount AS amount, s.expenseCount AS expenseCount
+                    FROM MonthlySpending s
+                    WHERE s.id.spaceId = :spaceId
+                    AND s.id.month BETWEEN :from AND :to
+                    AND s.expenseCount > 0
+                    ORDER BY s.id.month, s.id.payerId
+                    """
+    )
+    List<SpendingLine> findLinesBySpaceIdAndMonthBetween(@Param("spaceId") Long spaceId,
+                                                         @Param("from") LocalDate from,
+                                                         @Param("to") LocalDate to);
+
+    // Incrément atomique en une instruction : la ligne est créée par la première dépense du mois, sans course
+    // entre deux transactions qui la trouveraient toutes deux absente (ON CONFLICT sous PostgreSQL)
+    @Modifying
+    @Query(
+            """
+                    INSERT INTO MonthlySpending (id.spaceId, id.month, id.payerId, amount, expenseCount)
+                    VALUES (:spaceId, :month, :payerId, :amount, :count)
+                    ON CONFLICT (id) DO UPDATE SET amount = amount + excluded.amount,
+                                                   expenseCount = expenseCount + excluded.expenseCount
+                    """
+    )
+    void addToTotals(@Param("spaceId") Long spaceId,
+                     @Param("month") LocalDate month,
+                     @Param("payerId") Long payerId,
+                     @Param("amount") BigDecimal amount,
+                     @Param("count") long count);
+
+    // Verrouille les lignes d'une colocation le temps de la reconstruction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MonthlySpending s WHERE s.id.spaceId = :spaceId")
+    List<MonthlySpending> lockBySpaceId(@Param("spaceId") Long spaceId);
+
+    @Query("SELECT DISTINCT s.id.spaceId FROM MonthlySpending s")
+    List<Long> findSpaceIds();
+}
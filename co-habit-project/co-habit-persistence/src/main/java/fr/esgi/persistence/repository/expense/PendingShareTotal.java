@@ -0,0 +1,17 @@
+package fr.esgi.persistence.repository.expense;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the shares still pending in a colocation : how many of them and their total amount.
+ */
+public interface PendingShareTotal {
+
+    Long getSpaceId();
+
+    String getSpaceName();
+
+    Long getCount();
+
+    BigDecimal getTotal();
+}
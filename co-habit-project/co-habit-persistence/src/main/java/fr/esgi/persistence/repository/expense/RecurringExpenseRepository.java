@@ -0,0 +1,57 @@
+package fr.esgi.persistence.repository.expense;
+
+import fr.esgi.persistence.entity.expense.RecurringExpense;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+
+    @EntityGraph(attributePaths = {"payer", "participants"})
+    List<RecurringExpense> findBySpaceIdAndActiveTrueOrderByNextDueDateAscIdAsc(Long spaceId);
+
+    // Définitions dues hors skippedIds, verrouillées jusqu'à la fin de la transaction de génération ;
+    // celles déjà verrouillées par un autre nœud sont sautées (délai de verrou -2 : SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query(
+            """
+                    SELECT r FROM RecurringExpense r
+                    WHERE r.active = true AND r.nextDueDate <= :today AND r.id NOT IN :skippedIds
+                    ORDER BY r.nextDueDate, r.id
+                    """
+    )
+    List<RecurringExpense> lockDue(@Param("today") LocalDate today, @Param("skippedIds") Collection<Long> skippedIds, Limit limit);
+
+    // Une définition si elle est encore due, verrouillée comme par lockDue
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT r FROM RecurringExpense r WHERE r.id = :id AND r.active = true AND r.nextDueDate <= :today")
+    List<RecurringExpense> lockDueById(@Param("id") Long id, @Param("today") LocalDate today);
+
+    // Identifiants des définitions dues dans l'ordre de lockDue, sans verrou
+    @Query(
+            """
+                    SELECT r.id FROM RecurringExpense r
+                    WHERE r.active = true AND r.nextDueDate <= :today AND r.id NOT IN :skippedIds
+                    ORDER BY r.nextDueDate, r.id
+                    """
+    )
+    List<Long> findDueIds(@Param("today") LocalDate today, @Param("skippedIds") Collection<Long> skippedIds, Limit limit);
+
+    @EntityGraph(RecurringExpense.WITH_DETAILS)
+    List<RecurringExpense> findWithDetailsByIdIn(Collection<Long> ids);
+}
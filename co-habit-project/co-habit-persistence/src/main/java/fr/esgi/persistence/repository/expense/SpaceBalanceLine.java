@@ -0,0 +1,9 @@
+package fr.esgi.persistence.repository.expense;
+
+/**
+ * {@link BalanceLine} that also carries its colocation, for aggregates spanning several colocations.
+ */
+public interface SpaceBalanceLine extends BalanceLine {
+
+    Long getSpaceId();
+}
@@ -0,0 +1,18 @@
+package fr.esgi.persistence.repository.expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projection of what a member paid for a colocation in a month, read from the monthly rollup.
+ */
+public interface SpendingLine {
+
+    LocalDate getMonth();
+
+    Long getPayerId();
+
+    BigDecimal getAmount();
+
+    Long getExpenseCount();
+}
@@ -0,0 +1,14 @@
+package fr.esgi.persistence.repository.space;
+
+/**
+ * Projection of a user's link to a colocation, used to build the membership index
+ * without hydrating {@code Colocation} or {@code User} entities.
+ */
+public interface ColocationMembership {
+
+    Long getColocationId();
+
+    boolean isRoommate();
+
+    boolean isManager();
+}
@@ -2,11 +2,15 @@ package fr.esgi.persistence.repository.space;
 
 import fr.esgi.persistence.entity.space.Colocation;
 import fr.esgi.persistence.entity.user.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,9 +27,38 @@ public interface ColocationRepository extends JpaRepository<Colocation, Long> {
     // Trouver toutes les colocations où un utilisateur est colocataire (using Set contains)
     List<Colocation> findByRoommatesContaining(User user);
 
+    // Variantes chargeant gestionnaire et colocataires en une requête, pour les lectures mappées en ColocationResDto
+    @EntityGraph(Colocation.WITH_MEMBERS)
+    Optional<Colocation> findWithMembersById(Long id);
+
+    @EntityGraph(Colocation.WITH_MEMBERS)
+    List<Colocation> findWithMembersByManager(User manager);
+
+    @EntityGraph(Colocation.WITH_MEMBERS)
+    List<Colocation> findWithMembersByRoommatesContaining(User user);
+
     // Trouver une colocation par code d'invitation
     Optional<Colocation> findByInvitationCode(String invitationCode);
 
+    // Trouver une colocation par code d'invitation non expiré : l'invitation est lue par clé primaire et le seuil
+    // est calculé côté appelant pour rester indexable. Les codes sans invitation (invitationId null) restent valides.
+    @Query(
+            """
+                    SELECT c
+                    FROM Colocation c
+                    WHERE c.invitationCode = :invitationCode
+                    AND NOT EXISTS (
+                        SELECT i.id
+                        FROM InvitationCode i
+                        WHERE i.id = :invitationId
+                        AND i.createdAt < :expirationThreshold
+                    )
+                    """
+    )
+    Optional<Colocation> findByValidInvitationCode(@Param("invitationCode") String invitationCode,
+                                                   @Param("invitationId") Long invitationId,
+                                                   @Param("expirationThreshold") LocalDateTime expirationThreshold);
+
     // Trouver toutes les colocations (gérées ou en tant que colocataire) d'un utilisateur
     @Query("SELECT DISTINCT c FROM Colocation c WHERE c.manager = :user OR :user MEMBER OF c.roommates")
     List<Colocation> findAllByUser(@Param("user") User user);
@@ -34,17 +67,78 @@ public interface ColocationRepository extends JpaRepository<Colocation, Long> {
     List<Colocation> findByCityIgnoreCase(String city);
 
     // Trouver les colocations avec des places disponibles
-    @Query("SELECT c FROM Colocation c WHERE c.maxRoommates IS NULL OR SIZE(c.roommates) < c.maxRoommates")
+    @Query("SELECT c FROM Colocation c WHERE c.maxRoommates IS NULL OR c.currentRoommates < c.maxRoommates")
     List<Colocation> findAvailableColocations();
 
     // Trouver une colocation par nom (insensible à la casse)
     Optional<Colocation> findByNameIgnoreCase(String name);
 
     // Compter le nombre de colocataires dans une colocation
-    @Query("SELECT SIZE(c.roommates) FROM Colocation c WHERE c.id = :colocationId")
+    @Query("SELECT c.currentRoommates FROM Colocation c WHERE c.id = :colocationId")
     Integer countRoommatesByColocationId(@Param("colocationId") Long colocationId);
 
+    // Ajouter un colocataire : 1 si la ligne de jointure est insérée, 0 s'il l'était déjà. Sans charger les
+    // colocataires ; deux ajouts simultanés sont départagés par la clé primaire de la table de jointure
+    @Modifying
+    @Query(
+            value = """
+                    INSERT INTO colocation_roommates (colocation_id, user_id)
+                    SELECT :colocationId, :userId
+                    WHERE NOT EXISTS (SELECT 1 FROM colocation_roommates WHERE colocation_id = :colocationId AND user_id = :userId)
+                    """,
+            nativeQuery = true
+    )
+    int insertRoommate(@Param("colocationId") Long colocationId, @Param("userId") Long userId);
+
+    // Retirer un colocataire : 1 si la ligne de jointure est supprimée, 0 s'il ne l'était pas
+    @Modifying
+    @Query(value = "DELETE FROM colocation_roommates WHERE colocation_id = :colocationId AND user_id = :userId", nativeQuery = true)
+    int deleteRoommate(@Param("colocationId") Long colocationId, @Param("userId") Long userId);
+
+    // Réserver une place de colocataire : une seule requête gardée, 0 si la colocation est pleine. La colocation
+    // chargée avant n'a plus ni le bon nombre de colocataires ni les bons colocataires : le contexte est vidé
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+            """
+                    UPDATE Colocation c
+                    SET c.currentRoommates = c.currentRoommates + 1
+                    WHERE c.id = :colocationId
+                    AND (c.maxRoommates IS NULL OR c.currentRoommates < c.maxRoommates)
+                    """
+    )
+    int reserveRoommateSlot(@Param("colocationId") Long colocationId);
+
+    // Libérer une place de colocataire, le contexte étant vidé comme à la réservation
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+            """
+                    UPDATE Colocation c
+                    SET c.currentRoommates = c.currentRoommates - 1
+                    WHERE c.id = :colocationId
+                    AND c.currentRoommates > 0
+                    """
+    )
+    int releaseRoommateSlot(@Param("colocationId") Long colocationId);
+
     // Vérifier si un utilisateur est dans une colocation spécifique
     @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM Colocation c WHERE c.id = :colocationId AND (:user MEMBER OF c.roommates OR c.manager = :user)")
     boolean isUserInColocation(@Param("colocationId") Long colocationId, @Param("user") User user);
+
+    // Projection des colocations d'un utilisateur (colocataire et/ou gestionnaire) pour l'index d'appartenance
+    @Query(
+            """
+                    SELECT c.id AS colocationId,
+                           CASE WHEN r.id IS NOT NULL THEN true ELSE false END AS roommate,
+                           CASE WHEN c.manager.id = :userId THEN true ELSE false END AS manager
+                    FROM Colocation c
+                    LEFT JOIN c.roommates r ON r.id = :userId
+                    WHERE r.id = :userId
+                    OR c.manager.id = :userId
+                    """
+    )
+    List<ColocationMembership> findMembershipsByUserId(@Param("userId") Long userId);
+
+    // Identifiants des colocations suivantes, par ordre croissant, pour les parcourir par lots
+    @Query("SELECT c.id FROM Colocation c WHERE c.id > :after ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("after") long after, Limit limit);
 }
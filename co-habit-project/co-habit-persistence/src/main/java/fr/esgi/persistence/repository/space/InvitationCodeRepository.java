@@ -0,0 +1,9 @@
+package fr.esgi.persistence.repository.space;
+
+import fr.esgi.persistence.entity.space.InvitationCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InvitationCodeRepository extends JpaRepository<InvitationCode, Long> {
+}
@@ -1,6 +1,7 @@
 package fr.esgi.persistence.repository.space;
 
 import fr.esgi.persistence.entity.space.StockEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +15,10 @@ public interface StockRepository extends JpaRepository<StockEntity, Long> {
 
     List<StockEntity> findByColocationId(Long colocationId);
 
+    // Stocks d'une colocation avec leurs articles, en une requête
+    @EntityGraph(StockEntity.WITH_ITEMS)
+    List<StockEntity> findWithItemsByColocationId(Long colocationId);
+
     Optional<StockEntity> findByIdAndColocationId(Long id, Long colocationId);
 
     List<StockEntity> findByTitleContainingIgnoreCaseAndColocationId(String title, Long colocationId);
@@ -0,0 +1,10 @@
+package fr.esgi.persistence.repository.task;
+
+/**
+ * A task a bulk request could not write.
+ *
+ * @param status HTTP status of the item, as reported by Elasticsearch (404 missing, 409 conflict...).
+ * @param reason Error message of the item.
+ */
+public record TaskBulkFailure(int status, String reason) {
+}
@@ -0,0 +1,75 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requêtes des écritures groupées de tâches.
+ * <br>
+ * Chaque écriture porte le routage de la colocation. Les suppressions sont des scripts painless
+ * exécutés sur le shard, sans relire la tâche : elles ne s'appliquent qu'aux tâches de la colocation
+ * ({@code noop} sinon).
+ */
+final class TaskBulkQueries {
+
+    static final String LANG = "painless";
+
+    // Nouvelles tentatives d'un script en conflit de version avec une écriture concurrente de la tâche
+    static final int RETRY_ON_CONFLICT = 3;
+
+    static final String GUARD = "if (ctx._source.colocationId != params.colocationId) { ctx.op = 'noop'; } else { %s }";
+
+    static final String DELETE = "ctx.op = 'delete';";
+
+    private TaskBulkQueries() {
+    }
+
+    static NativeQuery get(Long colocationId, Collection<String> taskIds) {
+        String routing = TaskSearchQueries.routing(colocationId);
+        return NativeQuery.builder()
+                          .withIdsWithRouting(taskIds.stream().map(id -> new Query.IdWithRouting(id, routing)).toList())
+                          .build();
+    }
+
+    static IndexQuery index(TaskDocument task) {
+        return new IndexQueryBuilder().withId(task.getId())
+                                      .withObject(task)
+                                      .withRouting(TaskSearchQueries.routing(task.getColocationId()))
+                                      .build();
+    }
+
+    static List<UpdateQuery> delete(Long colocationId, Collection<String> taskIds) {
+        return update(colocationId, taskIds, DELETE, params(colocationId));
+    }
+
+    private static List<UpdateQuery> update(Long colocationId, Collection<String> taskIds, String script, Map<String, Object> params) {
+        String routing = TaskSearchQueries.routing(colocationId);
+        String source  = GUARD.formatted(script);
+        return taskIds.stream()
+                      .map(id -> UpdateQuery.builder(id)
+                                            .withRouting(routing)
+                                            .withScriptType(ScriptType.INLINE)
+                                            .withScript(source)
+                                            .withLang(LANG)
+                                            .withParams(params)
+                                            .withRetryOnConflict(RETRY_ON_CONFLICT)
+                                            .build())
+                      .toList();
+    }
+
+    private static Map<String, Object> params(Long colocationId) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("colocationId", colocationId);
+        return params;
+    }
+}
@@ -0,0 +1,38 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes many tasks of a colocation in a single Elasticsearch bulk request, routed to the shard of
+ * the colocation.
+ * <br>
+ * A bulk request is not atomic : each write succeeds or fails on its own. The writes return the
+ * tasks that failed, by id, the others were written. The deletes only apply to the tasks of the
+ * colocation, a task of another colocation sharing the shard is left untouched.
+ */
+public interface TaskBulkRepository {
+
+    /**
+     * Gets the tasks of a colocation among the given ids, in a single multi-get. The get is real
+     * time : a task just written is found before the next refresh.
+     *
+     * @return The tasks found, those missing or of another colocation are left out.
+     */
+    List<TaskDocument> findAllInColocation(Long colocationId, Collection<String> taskIds);
+
+    /**
+     * Indexes the tasks, which must have their id and colocation. Each task is routed to the shard
+     * of its own colocation : a single request may index the tasks of many colocations.
+     */
+    Map<String, TaskBulkFailure> bulkIndex(List<TaskDocument> tasks, RefreshPolicy refreshPolicy);
+
+    /**
+     * Deletes the tasks.
+     */
+    Map<String, TaskBulkFailure> bulkDelete(Long colocationId, Collection<String> taskIds, RefreshPolicy refreshPolicy);
+}
@@ -0,0 +1,90 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.MultiGetItem;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class TaskBulkRepositoryImpl implements TaskBulkRepository {
+
+    private final ElasticsearchOperations operations;
+
+    @Override
+    public List<TaskDocument> findAllInColocation(Long colocationId, Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+        return operations.multiGet(TaskBulkQueries.get(colocationId, taskIds), TaskDocument.class, index())
+                         .stream()
+                         .filter(MultiGetItem::hasItem)
+                         .map(MultiGetItem::getItem)
+                         // Une tâche d'une autre colocation peut partager le shard
+                         .filter(task -> colocationId.equals(task.getColocationId()))
+                         .toList();
+    }
+
+    @Override
+    public Map<String, TaskBulkFailure> bulkIndex(List<TaskDocument> tasks, RefreshPolicy refreshPolicy) {
+        if (tasks.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            // Chaque indexation porte le routage de sa tâche
+            BulkOptions options = BulkOptions.builder().withRefreshPolicy(refreshPolicy).build();
+            operations.bulkIndex(tasks.stream().map(TaskBulkQueries::index).toList(), options, index());
+            return Map.of();
+        } catch (BulkFailureException e) {
+            return failures(e);
+        }
+    }
+
+    @Override
+    public Map<String, TaskBulkFailure> bulkDelete(Long colocationId, Collection<String> taskIds, RefreshPolicy refreshPolicy) {
+        return bulkUpdate(colocationId, TaskBulkQueries.delete(colocationId, taskIds), refreshPolicy);
+    }
+
+    private Map<String, TaskBulkFailure> bulkUpdate(Long colocationId, List<UpdateQuery> updates, RefreshPolicy refreshPolicy) {
+        if (updates.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            operations.bulkUpdate(updates, options(colocationId, refreshPolicy), index());
+            return Map.of();
+        } catch (BulkFailureException e) {
+            return failures(e);
+        }
+    }
+
+    /**
+     * Failed items of a bulk request, by task id : Spring Data reports them all at once in an
+     * exception, once the whole request was processed.
+     */
+    static Map<String, TaskBulkFailure> failures(BulkFailureException exception) {
+        Map<String, TaskBulkFailure> failures = new HashMap<>();
+        exception.getFailedDocuments().forEach((id, details) -> failures.put(
+                id, new TaskBulkFailure(details.status() != null ? details.status() : 500, details.errorMessage())));
+        return failures;
+    }
+
+    private static BulkOptions options(Long colocationId, RefreshPolicy refreshPolicy) {
+        return BulkOptions.builder()
+                          .withRoutingId(TaskSearchQueries.routing(colocationId))
+                          .withRefreshPolicy(refreshPolicy)
+                          .build();
+    }
+
+    private IndexCoordinates index() {
+        return operations.getIndexCoordinatesFor(TaskDocument.class);
+    }
+}
@@ -0,0 +1,22 @@
+package fr.esgi.persistence.repository.task;
+
+import lombok.Getter;
+
+/**
+ * Curseur de pagination refusé par Elasticsearch : la recherche doit reprendre depuis la première page.
+ * <br>
+ * Le point-in-time de la page précédente a expiré ({@link TaskSearchQueries#POINT_IN_TIME_KEEP_ALIVE}
+ * sans demander la page suivante) ou n'existe pas, ou les valeurs de tri du curseur ne correspondent
+ * pas à la recherche. Elasticsearch a répondu : ce n'est pas une panne de l'index.
+ */
+@Getter
+public class TaskCursorException extends RuntimeException {
+
+    // Point-in-time expiré ; sinon curseur illisible
+    private final boolean expired;
+
+    public TaskCursorException(boolean expired, Throwable cause) {
+        super(expired ? "Point-in-time de la recherche expiré" : "Curseur de recherche refusé par Elasticsearch", cause);
+        this.expired = expired;
+    }
+}
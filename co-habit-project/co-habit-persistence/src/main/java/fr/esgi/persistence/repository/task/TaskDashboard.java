@@ -0,0 +1,22 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+
+import java.util.Map;
+
+/**
+ * Task counts of a colocation, read from the aggregations of a single search.
+ *
+ * @param open           Tasks neither completed nor cancelled.
+ * @param overdue        Open tasks whose due date is past.
+ * @param openByAssignee Open tasks per assigned user id, a task assigned to several users counting for each.
+ */
+public record TaskDashboard(
+        long total,
+        long open,
+        long overdue,
+        Map<TaskDocument.TaskStatus, Long> byStatus,
+        Map<TaskDocument.TaskPriority, Long> byPriority,
+        Map<Long, Long> openByAssignee
+) {
+}
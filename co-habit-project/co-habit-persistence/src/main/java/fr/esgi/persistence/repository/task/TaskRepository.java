@@ -7,17 +7,12 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface TaskRepository extends ElasticsearchRepository<TaskDocument, String> {
-    
-    List<TaskDocument> findByColocationId(Long colocationId);
-    
+public interface TaskRepository extends ElasticsearchRepository<TaskDocument, String>, TaskSearchRepository,
+                                        TaskBulkRepository {
+
+    // Requêtes sur toutes les colocations d'un utilisateur : elles interrogent tous les shards.
+    // Les lectures limitées à une colocation passent par TaskSearchRepository, routées vers son shard
     List<TaskDocument> findByUserKeycloakSub(String userKeycloakSub);
     
-    List<TaskDocument> findByColocationIdAndStatus(Long colocationId, String status);
-    
     List<TaskDocument> findByAssignedToUserKeycloakSubs(String assignedToUserKeycloakSub);
-    
-    List<TaskDocument> findByColocationIdAndAssignedToUserKeycloakSubs(Long colocationId, String userKeycloakSub);
-
-    List<TaskDocument> findTop3ByColocationIdOrderByCreatedAtAsc(Long colocationId);
 }
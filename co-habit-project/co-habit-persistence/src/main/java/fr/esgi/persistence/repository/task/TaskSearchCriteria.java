@@ -0,0 +1,44 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Critères de la recherche de tâches d'une colocation. Les critères null ou vides sont ignorés.
+ *
+ * @param text             Texte cherché dans le titre et la description.
+ * @param statuses         Statuts acceptés.
+ * @param excludedStatuses Statuts exclus.
+ * @param dueFrom          Échéance minimale, incluse.
+ * @param dueBefore        Échéance maximale, exclue.
+ * @param searchAfter      Valeurs de tri du dernier résultat de la page précédente, null pour la première page.
+ * @param pointInTime      Lit un instantané de l'index, ouvert à la première page, pour que les pages
+ *                         suivantes ne soient pas décalées par les écritures concurrentes.
+ * @param pointInTimeId    Instantané renvoyé avec la page précédente.
+ * @param size             Nombre maximal de résultats.
+ */
+@Builder
+public record TaskSearchCriteria(
+        Long colocationId,
+        String text,
+        Set<TaskDocument.TaskStatus> statuses,
+        Set<TaskDocument.TaskStatus> excludedStatuses,
+        Set<TaskDocument.TaskPriority> priorities,
+        Set<String> tags,
+        Long assigneeId,
+        LocalDateTime dueFrom,
+        LocalDateTime dueBefore,
+        List<Object> searchAfter,
+        boolean pointInTime,
+        String pointInTimeId,
+        int size
+) {
+
+    public boolean hasText() {
+        return text != null && !text.isBlank();
+    }
+}
@@ -0,0 +1,17 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A task found by a search, with the highlighted fragments of the matching fields and the sort
+ * values to resume the search after it.
+ */
+public record TaskSearchHit(
+        TaskDocument task,
+        Map<String, List<String>> highlights,
+        List<Object> sortValues
+) {
+}
@@ -0,0 +1,14 @@
+package fr.esgi.persistence.repository.task;
+
+import java.util.List;
+
+/**
+ * One page of a task search.
+ *
+ * @param pointInTimeId Point in time to read the next page from, null when the search does not use one.
+ */
+public record TaskSearchPage(
+        List<TaskSearchHit> hits,
+        String pointInTimeId
+) {
+}
@@ -0,0 +1,260 @@
+package fr.esgi.persistence.repository.task;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import fr.esgi.persistence.document.TaskDocument;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.HighlightQuery;
+import org.springframework.data.elasticsearch.core.query.Query.PointInTime;
+import org.springframework.data.elasticsearch.core.query.highlight.Highlight;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightField;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightParameters;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Requêtes Elasticsearch de la recherche de tâches.
+ * <br>
+ * Seul le texte est évalué en contexte de requête et participe au score : la colocation, les
+ * statuts, priorités, tags, l'assigné et l'échéance sont des clauses {@code filter}, sans score,
+ * qu'Elasticsearch met en cache d'une recherche à l'autre. La pagination se fait par
+ * {@code search_after} sur un tri total, départagé par l'identifiant, éventuellement sur un
+ * point-in-time pour que les écritures concurrentes ne décalent pas les pages.
+ * <br>
+ * Les tâches étant routées par colocation, chaque requête est envoyée au seul shard de sa colocation.
+ * <br>
+ * Le tableau de bord est une recherche {@code size=0} : seules les agrégations sont renvoyées,
+ * leur taille dépend du nombre de statuts, de priorités et de colocataires, pas du nombre de tâches.
+ */
+public final class TaskSearchQueries {
+
+    static final String TITLE          = "title";
+    static final String DESCRIPTION    = "description";
+    static final String COLOCATION_ID  = "colocationId";
+    static final String STATUS         = "status";
+    static final String PRIORITY       = "priority";
+    static final String TAGS           = "tags";
+    static final String ASSIGNED_USERS = "assignedUserIds";
+    static final String DUE_DATE       = "due_date";
+    static final String CREATED_AT     = "created_at";
+    // L'identifiant est indexé en keyword dans la source : il départage les égalités de tri
+    static final String ID             = "id";
+
+    // Format de due_date dans le mapping (date_hour_minute_second_millis)
+    private static final DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+    private static final int FRAGMENT_SIZE = 150;
+
+    // Durée de vie d'un point-in-time, prolongée à chaque page : le temps de demander la suivante
+    public static final Duration POINT_IN_TIME_KEEP_ALIVE = Duration.ofMinutes(1);
+
+    // Agrégations du tableau de bord
+    static final String BY_STATUS   = "by_status";
+    static final String BY_PRIORITY = "by_priority";
+    static final String OPEN        = "open";
+    static final String BY_ASSIGNEE = "by_assignee";
+    static final String OVERDUE     = "overdue";
+
+    // Agrégation de la charge des colocataires
+    static final String BY_COLOCATION = "by_colocation";
+
+    // Une colocation compte quelques colocataires, cette borne n'est jamais atteinte en pratique
+    private static final int MAX_ASSIGNEES = 100;
+
+    // Statuts d'une tâche qui n'est plus à faire
+    private static final List<TaskDocument.TaskStatus> CLOSED = List.of(TaskDocument.TaskStatus.COMPLETED,
+                                                                        TaskDocument.TaskStatus.CANCELLED);
+
+    private TaskSearchQueries() {
+    }
+
+    /**
+     * @param pointInTimeId Point in time to search, null to search the live index.
+     */
+    public static NativeQuery search(TaskSearchCriteria criteria, String pointInTimeId) {
+        NativeQueryBuilder builder = NativeQuery.builder()
+                                                .withQuery(query(criteria))
+                                                .withMaxResults(criteria.size())
+                                                // Le nombre total de résultats n'est pas affiché
+                                                .withTrackTotalHits(false);
+
+        sort(criteria).forEach(builder::withSort);
+
+        if (criteria.hasText()) {
+            builder.withHighlightQuery(highlight());
+        }
+        if (criteria.searchAfter() != null && !criteria.searchAfter().isEmpty()) {
+            builder.withSearchAfter(criteria.searchAfter());
+        }
+        if (pointInTimeId != null) {
+            // Un point-in-time couvre déjà l'ensemble de l'index, il ne se combine pas avec un routage
+            builder.withPointInTime(new PointInTime(pointInTimeId, POINT_IN_TIME_KEEP_ALIVE));
+        } else {
+            builder.withRoute(routing(criteria.colocationId()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Counts the tasks of a colocation by status and priority, the open tasks per assignee and the
+     * open tasks due before {@code now}, in a single search returning no hit.
+     */
+    public static NativeQuery dashboard(Long colocationId, LocalDateTime now) {
+        Query open = Query.of(query -> query.bool(bool -> bool.mustNot(closed())));
+        Query overdue = Query.of(query -> query.bool(bool -> bool.mustNot(closed())
+                                                                 .filter(filter -> filter.range(range -> range.date(
+                                                                         date -> date.field(DUE_DATE).lt(format(now)))))));
+
+        return NativeQuery.builder()
+                          .withQuery(query -> query.bool(bool -> bool.filter(filter -> filter.term(
+                                  term -> term.field(COLOCATION_ID).value(colocationId)))))
+                          .withRoute(routing(colocationId))
+                          .withMaxResults(0)
+                          .withTrackTotalHits(true)
+                          .withAggregation(BY_STATUS, Aggregation.of(aggregation -> aggregation.terms(
+                                  terms -> terms.field(STATUS).size(TaskDocument.TaskStatus.values().length))))
+                          .withAggregation(BY_PRIORITY, Aggregation.of(aggregation -> aggregation.terms(
+                                  terms -> terms.field(PRIORITY).size(TaskDocument.TaskPriority.values().length))))
+                          .withAggregation(OPEN, Aggregation.of(aggregation -> aggregation
+                                  .filter(open)
+                                  .aggregations(BY_ASSIGNEE, Aggregation.of(byAssignee -> byAssignee.terms(
+                                          terms -> terms.field(ASSIGNED_USERS).size(MAX_ASSIGNEES))))))
+                          .withAggregation(OVERDUE, Aggregation.of(aggregation -> aggregation.filter(overdue)))
+                          .build();
+    }
+
+    /**
+     * Counts the open tasks per assignee of each colocation, in a single search returning no hit,
+     * sent to the shards of these colocations only.
+     */
+    public static NativeQuery openLoad(Collection<Long> colocationIds) {
+        List<FieldValue> ids = colocationIds.stream().map(FieldValue::of).toList();
+
+        return NativeQuery.builder()
+                          .withQuery(query -> query.bool(bool -> bool.filter(filter -> filter.terms(
+                                                                             terms -> terms.field(COLOCATION_ID).terms(set -> set.value(ids))))
+                                                                     .mustNot(closed())))
+                          .withRoute(colocationIds.stream().map(TaskSearchQueries::routing).collect(Collectors.joining(",")))
+                          .withMaxResults(0)
+                          .withTrackTotalHits(false)
+                          .withAggregation(BY_COLOCATION, Aggregation.of(aggregation -> aggregation
+                                  .terms(terms -> terms.field(COLOCATION_ID).size(colocationIds.size()))
+                                  .aggregations(BY_ASSIGNEE, Aggregation.of(byAssignee -> byAssignee.terms(
+                                          terms -> terms.field(ASSIGNED_USERS).size(MAX_ASSIGNEES))))))
+                          .build();
+    }
+
+    /**
+     * Gets the last {@code count} tasks created in a colocation, most recent first.
+     */
+    public static NativeQuery recent(Long colocationId, int count) {
+        return NativeQuery.builder()
+                          .withQuery(query -> query.bool(bool -> bool.filter(filter -> filter.term(
+                                  term -> term.field(COLOCATION_ID).value(colocationId)))))
+                          .withRoute(routing(colocationId))
+                          .withSort(sort -> sort.field(field -> field.field(CREATED_AT).order(SortOrder.Desc)))
+                          .withMaxResults(count)
+                          .withTrackTotalHits(false)
+                          .build();
+    }
+
+    /**
+     * Routing value of the tasks of a colocation, the one of {@code @Routing} on {@link TaskDocument}.
+     */
+    public static String routing(Long colocationId) {
+        return String.valueOf(colocationId);
+    }
+
+    static Query query(TaskSearchCriteria criteria) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+
+        if (criteria.hasText()) {
+            bool.must(must -> must.multiMatch(match -> match.query(criteria.text())
+                                                            .fields(TITLE + "^2", DESCRIPTION)
+                                                            .type(TextQueryType.BestFields)
+                                                            .operator(Operator.And)
+                                                            .fuzziness("AUTO")));
+        }
+
+        bool.filter(filter -> filter.term(term -> term.field(COLOCATION_ID).value(criteria.colocationId())));
+        terms(bool, STATUS, criteria.statuses(), Enum::name);
+        if (criteria.excludedStatuses() != null && !criteria.excludedStatuses().isEmpty()) {
+            List<FieldValue> excluded = criteria.excludedStatuses().stream().map(status -> FieldValue.of(status.name())).toList();
+            bool.mustNot(mustNot -> mustNot.terms(terms -> terms.field(STATUS).terms(set -> set.value(excluded))));
+        }
+        terms(bool, PRIORITY, criteria.priorities(), Enum::name);
+        terms(bool, TAGS, criteria.tags(), Function.identity());
+        if (criteria.assigneeId() != null) {
+            bool.filter(filter -> filter.term(term -> term.field(ASSIGNED_USERS).value(criteria.assigneeId())));
+        }
+        if (criteria.dueFrom() != null || criteria.dueBefore() != null) {
+            bool.filter(filter -> filter.range(range -> range.date(date -> {
+                date.field(DUE_DATE);
+                if (criteria.dueFrom() != null) {
+                    date.gte(format(criteria.dueFrom()));
+                }
+                if (criteria.dueBefore() != null) {
+                    date.lt(format(criteria.dueBefore()));
+                }
+                return date;
+            })));
+        }
+
+        return bool.build()._toQuery();
+    }
+
+    /**
+     * Best matches first for a text search, closest due date first otherwise, the tasks without due
+     * date last. The id comes last so that the order is total and {@code search_after} skips nothing.
+     */
+    static List<SortOptions> sort(TaskSearchCriteria criteria) {
+        SortOptions byId = SortOptions.of(sort -> sort.field(field -> field.field(ID).order(SortOrder.Asc)));
+        if (criteria.hasText()) {
+            return List.of(SortOptions.of(sort -> sort.score(score -> score.order(SortOrder.Desc))), byId);
+        }
+        return List.of(SortOptions.of(sort -> sort.field(field -> field.field(DUE_DATE).order(SortOrder.Asc).missing("_last"))),
+                       SortOptions.of(sort -> sort.field(field -> field.field(CREATED_AT).order(SortOrder.Desc))),
+                       byId);
+    }
+
+    private static Query closed() {
+        List<FieldValue> closed = CLOSED.stream().map(status -> FieldValue.of(status.name())).toList();
+        return Query.of(query -> query.terms(terms -> terms.field(STATUS).terms(set -> set.value(closed))));
+    }
+
+    private static HighlightQuery highlight() {
+        HighlightParameters parameters = HighlightParameters.builder()
+                                                            .withPreTags("<em>")
+                                                            .withPostTags("</em>")
+                                                            .withFragmentSize(FRAGMENT_SIZE)
+                                                            .withNumberOfFragments(1)
+                                                            .build();
+        return new HighlightQuery(new Highlight(parameters, List.of(new HighlightField(TITLE), new HighlightField(DESCRIPTION))),
+                                  TaskDocument.class);
+    }
+
+    private static <T> void terms(BoolQuery.Builder bool, String field, Collection<T> values, Function<T, String> toValue) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        List<FieldValue> fieldValues = values.stream().map(value -> FieldValue.of(toValue.apply(value))).toList();
+        bool.filter(filter -> filter.terms(terms -> terms.field(field).terms(set -> set.value(fieldValues))));
+    }
+
+    static String format(LocalDateTime dateTime) {
+        return dateTime.format(DUE_DATE_FORMAT);
+    }
+}
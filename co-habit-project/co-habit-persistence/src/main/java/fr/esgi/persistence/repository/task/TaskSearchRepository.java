@@ -0,0 +1,57 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Search, paging and counts of the tasks, on top of the derived finders of {@link TaskRepository}.
+ * <br>
+ * The tasks are routed by colocation : every method reads the single shard of its colocation.
+ */
+public interface TaskSearchRepository {
+
+    /**
+     * Gets a task of a colocation by id, from the shard of the colocation.
+     *
+     * @return The task, empty if it does not exist or belongs to another colocation.
+     */
+    Optional<TaskDocument> findInColocation(Long colocationId, String taskId);
+
+    /**
+     * Gets the last tasks created in a colocation, most recent first.
+     */
+    List<TaskDocument> findRecent(Long colocationId, int count);
+
+    /**
+     * Searches the tasks of a colocation, best matches first when a text is given, closest due date
+     * first otherwise.
+     *
+     * @throws TaskCursorException When Elasticsearch refuses the point in time or the sort values
+     *                             resumed : the search has to restart from the first page.
+     */
+    TaskSearchPage search(TaskSearchCriteria criteria);
+
+    /**
+     * Releases a point in time opened by {@link #search(TaskSearchCriteria)} before it expires.
+     */
+    void closePointInTime(String pointInTimeId);
+
+    /**
+     * Counts the tasks of a colocation by status, priority and assignee, the tasks due before
+     * {@code now} being overdue.
+     */
+    TaskDashboard dashboard(Long colocationId, LocalDateTime now);
+
+    /**
+     * Counts the open tasks of each assignee, for many colocations in a single search.
+     *
+     * @return The open tasks by assignee id, by colocation id. A colocation or an assignee without
+     * open task is left out.
+     */
+    Map<Long, Map<Long, Long>> openTasksByAssignee(Collection<Long> colocationIds);
+}
@@ -0,0 +1,166 @@
+package fr.esgi.persistence.repository.task;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import fr.esgi.persistence.document.TaskDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.elasticsearch.ResourceNotFoundException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.routing.RoutingResolver;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+@RequiredArgsConstructor
+class TaskSearchRepositoryImpl implements TaskSearchRepository {
+
+    private final ElasticsearchOperations operations;
+
+    @Override
+    public Optional<TaskDocument> findInColocation(Long colocationId, String taskId) {
+        TaskDocument task = operations.withRouting(RoutingResolver.just(TaskSearchQueries.routing(colocationId)))
+                                      .get(taskId, TaskDocument.class);
+        // Une tâche d'une autre colocation peut partager le shard
+        return Optional.ofNullable(task).filter(found -> colocationId.equals(found.getColocationId()));
+    }
+
+    @Override
+    public List<TaskDocument> findRecent(Long colocationId, int count) {
+        return operations.search(TaskSearchQueries.recent(colocationId, count), TaskDocument.class)
+                         .getSearchHits()
+                         .stream()
+                         .map(SearchHit::getContent)
+                         .toList();
+    }
+
+    @Override
+    public TaskSearchPage search(TaskSearchCriteria criteria) {
+        String pointInTimeId = criteria.pointInTimeId();
+        if (criteria.pointInTime() && pointInTimeId == null) {
+            pointInTimeId = operations.openPointInTime(operations.getIndexCoordinatesFor(TaskDocument.class),
+                                                       TaskSearchQueries.POINT_IN_TIME_KEEP_ALIVE);
+        }
+
+        SearchHits<TaskDocument> hits = search(criteria, pointInTimeId);
+        List<TaskSearchHit> page = hits.getSearchHits()
+                                       .stream()
+                                       .map(TaskSearchRepositoryImpl::toHit)
+                                       .toList();
+        // Elasticsearch peut renvoyer un nouvel identifiant de point-in-time, c'est lui qu'il faut réutiliser
+        if (pointInTimeId != null && hits.getPointInTimeId() != null) {
+            pointInTimeId = hits.getPointInTimeId();
+        }
+        return new TaskSearchPage(page, pointInTimeId);
+    }
+
+    // Un curseur expiré ou modifié à la main est une erreur du client, distincte d'une panne de l'index
+    private SearchHits<TaskDocument> search(TaskSearchCriteria criteria, String pointInTimeId) {
+        try {
+            return operations.search(TaskSearchQueries.search(criteria, pointInTimeId), TaskDocument.class);
+        } catch (ResourceNotFoundException e) {
+            // search_context_missing_exception : le point-in-time de la page précédente n'existe plus
+            if (criteria.pointInTimeId() != null) {
+                throw new TaskCursorException(true, e);
+            }
+            throw e;
+        } catch (UncategorizedElasticsearchException e) {
+            // Identifiant de point-in-time ou valeurs de tri illisibles
+            if (resumes(criteria) && Integer.valueOf(400).equals(e.getStatusCode())) {
+                throw new TaskCursorException(false, e);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean resumes(TaskSearchCriteria criteria) {
+        return criteria.pointInTimeId() != null || criteria.searchAfter() != null;
+    }
+
+    @Override
+    public void closePointInTime(String pointInTimeId) {
+        operations.closePointInTime(pointInTimeId);
+    }
+
+    @Override
+    public TaskDashboard dashboard(Long colocationId, LocalDateTime now) {
+        SearchHits<TaskDocument> hits = operations.search(TaskSearchQueries.dashboard(colocationId, now), TaskDocument.class);
+        return toDashboard(hits.getTotalHits(), aggregates(hits));
+    }
+
+    @Override
+    public Map<Long, Map<Long, Long>> openTasksByAssignee(Collection<Long> colocationIds) {
+        if (colocationIds.isEmpty()) {
+            return Map.of();
+        }
+        SearchHits<TaskDocument> hits = operations.search(TaskSearchQueries.openLoad(colocationIds), TaskDocument.class);
+        return toOpenLoad(aggregates(hits));
+    }
+
+    static Map<Long, Map<Long, Long>> toOpenLoad(Map<String, Aggregate> aggregates) {
+        Map<Long, Map<Long, Long>> load = new HashMap<>();
+        for (LongTermsBucket colocation : aggregates.get(TaskSearchQueries.BY_COLOCATION).lterms().buckets().array()) {
+            Map<Long, Long> byAssignee = new HashMap<>();
+            for (LongTermsBucket assignee : colocation.aggregations().get(TaskSearchQueries.BY_ASSIGNEE).lterms().buckets().array()) {
+                byAssignee.put(assignee.key(), assignee.docCount());
+            }
+            load.put(colocation.key(), byAssignee);
+        }
+        return load;
+    }
+
+    static TaskDashboard toDashboard(long total, Map<String, Aggregate> aggregates) {
+        Aggregate open = aggregates.get(TaskSearchQueries.OPEN);
+
+        Map<Long, Long> openByAssignee = new HashMap<>();
+        for (LongTermsBucket bucket : open.filter().aggregations().get(TaskSearchQueries.BY_ASSIGNEE).lterms().buckets().array()) {
+            openByAssignee.put(bucket.key(), bucket.docCount());
+        }
+
+        return new TaskDashboard(total,
+                                 open.filter().docCount(),
+                                 aggregates.get(TaskSearchQueries.OVERDUE).filter().docCount(),
+                                 counts(aggregates.get(TaskSearchQueries.BY_STATUS), TaskDocument.TaskStatus.class,
+                                        TaskDocument.TaskStatus::valueOf),
+                                 counts(aggregates.get(TaskSearchQueries.BY_PRIORITY), TaskDocument.TaskPriority.class,
+                                        TaskDocument.TaskPriority::valueOf),
+                                 openByAssignee);
+    }
+
+    private static TaskSearchHit toHit(SearchHit<TaskDocument> hit) {
+        return new TaskSearchHit(hit.getContent(), hit.getHighlightFields(), hit.getSortValues());
+    }
+
+    private static Map<String, Aggregate> aggregates(SearchHits<TaskDocument> hits) {
+        Map<String, Aggregate> aggregates = new HashMap<>();
+        if (hits.getAggregations() instanceof ElasticsearchAggregations elasticsearchAggregations) {
+            for (ElasticsearchAggregation aggregation : elasticsearchAggregations.aggregations()) {
+                aggregates.put(aggregation.aggregation().getName(), aggregation.aggregation().getAggregate());
+            }
+        }
+        return aggregates;
+    }
+
+    // Toutes les valeurs de l'énumération sont présentes, à zéro si aucune tâche ne l'a
+    private static <E extends Enum<E>> Map<E, Long> counts(Aggregate aggregate, Class<E> type, Function<String, E> valueOf) {
+        Map<E, Long> counts = new EnumMap<>(type);
+        for (E value : type.getEnumConstants()) {
+            counts.put(value, 0L);
+        }
+        for (StringTermsBucket bucket : aggregate.sterms().buckets().array()) {
+            counts.put(valueOf.apply(bucket.key().stringValue()), bucket.docCount());
+        }
+        return counts;
+    }
+}
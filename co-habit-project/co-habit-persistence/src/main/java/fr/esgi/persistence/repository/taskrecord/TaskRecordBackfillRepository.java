@@ -0,0 +1,35 @@
+package fr.esgi.persistence.repository.taskrecord;
+
+import fr.esgi.persistence.entity.task.TaskRecordBackfill;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TaskRecordBackfillRepository extends JpaRepository<TaskRecordBackfill, Long> {
+
+    // Crée l'avancement au premier passage, sans erreur si un autre nœud l'a créé en même temps (voir
+    // TaskRecordRepository.insertIfAbsent) ; une ligne existante reste verrouillée par la requête
+    @Modifying
+    @Query(
+            """
+                    INSERT INTO TaskRecordBackfill (id, lastColocationId) VALUES (1, 0)
+                    ON CONFLICT (id) DO UPDATE SET lastColocationId = lastColocationId WHERE 1 = 0
+                    """
+    )
+    void insertIfAbsent();
+
+    // Un seul nœud recopie à la fois : l'avancement verrouillé par un autre est sauté (délai de verrou -2 : SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT b FROM TaskRecordBackfill b WHERE b.id = 1")
+    Optional<TaskRecordBackfill> lock();
+}
@@ -0,0 +1,21 @@
+package fr.esgi.persistence.repository.taskrecord;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Creates the rows of many tasks at once, where {@link TaskRecordRepository#insertIfAbsent} creates
+ * a single one.
+ */
+public interface TaskRecordInsertRepository {
+
+    /**
+     * Creates, as empty tombstones not pending, the rows of the tasks that have none, in multi-row
+     * inserts. A row already there, or created at the same time by another transaction, is left
+     * untouched.
+     *
+     * @param colocationIds The colocation of each task, by task id.
+     * @return The number of rows created.
+     */
+    int insertAllIfAbsent(Map<String, Long> colocationIds, LocalDateTime now);
+}
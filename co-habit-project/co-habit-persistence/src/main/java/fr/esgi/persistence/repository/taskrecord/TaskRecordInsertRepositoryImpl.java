@@ -0,0 +1,46 @@
+package fr.esgi.persistence.repository.taskrecord;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class TaskRecordInsertRepositoryImpl implements TaskRecordInsertRepository {
+
+    // Lignes par insertion : la requête garde une taille bornée, loin de la limite de paramètres du pilote
+    static final int ROWS_PER_INSERT = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertAllIfAbsent(Map<String, Long> colocationIds, LocalDateTime now) {
+        List<Map.Entry<String, Long>> rows     = new ArrayList<>(colocationIds.entrySet());
+        int                           inserted = 0;
+        for (int from = 0; from < rows.size(); from += ROWS_PER_INSERT) {
+            List<Map.Entry<String, Long>> chunk = rows.subList(from, Math.min(from + ROWS_PER_INSERT, rows.size()));
+            Query                         query = entityManager.createQuery(insert(chunk.size()));
+            for (int i = 0; i < chunk.size(); i++) {
+                query.setParameter("id" + i, chunk.get(i).getKey());
+                query.setParameter("colocationId" + i, chunk.get(i).getValue());
+            }
+            inserted += query.setParameter("now", now).executeUpdate();
+        }
+        return inserted;
+    }
+
+    // Même insertion que TaskRecordRepository.insertIfAbsent, une ligne par tâche
+    static String insert(int rows) {
+        StringBuilder hql = new StringBuilder(
+                "INSERT INTO TaskRecord (id, colocationId, title, dueSort, createdSort, deleted, pendingSync, updatedAt) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            hql.append(i == 0 ? "" : ", ")
+               .append("(:id").append(i).append(", :colocationId").append(i).append(", '', 0, 0, true, false, :now)");
+        }
+        return hql.append(" ON CONFLICT (id) DO UPDATE SET colocationId = colocationId WHERE 1 = 0").toString();
+    }
+}
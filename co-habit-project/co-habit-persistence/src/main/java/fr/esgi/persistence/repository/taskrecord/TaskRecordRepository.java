@@ -0,0 +1,155 @@
+package fr.esgi.persistence.repository.taskrecord;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.task.TaskRecord;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Hors du paquet repository.task, réservé aux dépôts Elasticsearch
+@Repository
+public interface TaskRecordRepository extends JpaRepository<TaskRecord, String>, JpaSpecificationExecutor<TaskRecord>,
+                                              TaskRecordInsertRepository {
+
+    interface StatusCount {
+        TaskDocument.TaskStatus getStatus();
+
+        long getCount();
+    }
+
+    interface PriorityCount {
+        TaskDocument.TaskPriority getPriority();
+
+        long getCount();
+    }
+
+    interface AssigneeCount {
+        Long getUserId();
+
+        long getCount();
+    }
+
+    interface ColocationAssigneeCount {
+        Long getColocationId();
+
+        Long getUserId();
+
+        long getCount();
+    }
+
+    Optional<TaskRecord> findByIdAndColocationIdAndDeletedFalse(String id, Long colocationId);
+
+    // Verrou de la tâche le temps de son écriture : l'index la reçoit dans l'ordre des écritures
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TaskRecord t WHERE t.id = :id")
+    Optional<TaskRecord> lockById(@Param("id") String id);
+
+    // Verrous pris dans l'ordre des identifiants, comme par toute écriture groupée : pas d'interblocage entre elles
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TaskRecord t WHERE t.id IN :ids ORDER BY t.id")
+    List<TaskRecord> lockAllById(@Param("ids") Collection<String> ids);
+
+    // Crée la ligne d'une tâche, vide et supprimée, sauf si une autre écriture ou la recopie de l'index l'a
+    // déjà créée : la ligne est ensuite verrouillée puis écrite, sans erreur de clé en double. Renvoie 1 si
+    // elle est créée ; la mise à jour jamais faite tient lieu de DO NOTHING, qu'Hibernate ne traduit pas pour H2
+    @Modifying
+    @Query(
+            """
+                    INSERT INTO TaskRecord (id, colocationId, title, dueSort, createdSort, deleted, pendingSync, updatedAt)
+                    VALUES (:id, :colocationId, '', 0, 0, true, false, :now)
+                    ON CONFLICT (id) DO UPDATE SET colocationId = colocationId WHERE 1 = 0
+                    """
+    )
+    int insertIfAbsent(@Param("id") String id, @Param("colocationId") Long colocationId, @Param("now") LocalDateTime now);
+
+    List<TaskRecord> findByIdInAndColocationIdAndDeletedFalse(Collection<String> ids, Long colocationId);
+
+    @Query(
+            """
+                    SELECT DISTINCT t FROM TaskRecord t JOIN t.assignedToUserKeycloakSubs sub
+                    WHERE sub = :sub AND t.deleted = false
+                    """
+    )
+    List<TaskRecord> findByAssignee(@Param("sub") String keycloakSub);
+
+    List<TaskRecord> findByColocationIdAndDeletedFalseOrderByCreatedSortDescIdAsc(Long colocationId, Limit limit);
+
+    @Query(
+            """
+                    SELECT t.status AS status, COUNT(t) AS count FROM TaskRecord t
+                    WHERE t.colocationId = :colocationId AND t.deleted = false
+                    GROUP BY t.status
+                    """
+    )
+    List<StatusCount> countByStatus(@Param("colocationId") Long colocationId);
+
+    @Query(
+            """
+                    SELECT t.priority AS priority, COUNT(t) AS count FROM TaskRecord t
+                    WHERE t.colocationId = :colocationId AND t.deleted = false
+                    GROUP BY t.priority
+                    """
+    )
+    List<PriorityCount> countByPriority(@Param("colocationId") Long colocationId);
+
+    @Query(
+            """
+                    SELECT COUNT(t) FROM TaskRecord t
+                    WHERE t.colocationId = :colocationId AND t.deleted = false
+                      AND t.status NOT IN :closed AND t.dueDate < :now
+                    """
+    )
+    long countOverdue(@Param("colocationId") Long colocationId,
+                      @Param("closed") Collection<TaskDocument.TaskStatus> closed,
+                      @Param("now") LocalDateTime now);
+
+    @Query(
+            """
+                    SELECT assignee AS userId, COUNT(t) AS count FROM TaskRecord t JOIN t.assignedUserIds assignee
+                    WHERE t.colocationId = :colocationId AND t.deleted = false AND t.status NOT IN :closed
+                    GROUP BY assignee
+                    """
+    )
+    List<AssigneeCount> countOpenByAssignee(@Param("colocationId") Long colocationId,
+                                            @Param("closed") Collection<TaskDocument.TaskStatus> closed);
+
+    // Charge des colocataires de plusieurs colocations en une requête, comme l'agrégation de l'index
+    @Query(
+            """
+                    SELECT t.colocationId AS colocationId, assignee AS userId, COUNT(t) AS count
+                    FROM TaskRecord t JOIN t.assignedUserIds assignee
+                    WHERE t.colocationId IN :colocationIds AND t.deleted = false AND t.status NOT IN :closed
+                    GROUP BY t.colocationId, assignee
+                    """
+    )
+    List<ColocationAssigneeCount> countOpenByColocationAndAssignee(@Param("colocationIds") Collection<Long> colocationIds,
+                                                                   @Param("closed") Collection<TaskDocument.TaskStatus> closed);
+
+    boolean existsByPendingSyncTrue();
+
+    // Tâches à rejouer dans l'index, verrouillées jusqu'à la fin de la transaction de rejeu ; celles
+    // en cours d'écriture ou déjà prises par un autre nœud sont sautées (délai de verrou -2 : SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT t FROM TaskRecord t WHERE t.pendingSync = true ORDER BY t.updatedAt, t.id")
+    List<TaskRecord> lockPending(Limit limit);
+
+    // Pierres tombales gardées pendant la recopie de l'index, pour qu'elle ne recopie pas une tâche supprimée
+    @Modifying
+    @Query("DELETE FROM TaskRecord t WHERE t.deleted = true AND t.pendingSync = false")
+    int deleteTombstones();
+}
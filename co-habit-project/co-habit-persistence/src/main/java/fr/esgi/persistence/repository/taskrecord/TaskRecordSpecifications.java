@@ -0,0 +1,94 @@
+package fr.esgi.persistence.repository.taskrecord;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.task.TaskRecord;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Critères de la recherche de tâches sur la copie relationnelle, ceux de l'index Elasticsearch.
+ * <br>
+ * Un critère n'est ajouté que si sa valeur est renseignée. Le texte n'est pas analysé : chaque mot
+ * doit apparaître dans le titre ou la description, sans tolérance aux fautes ni score.
+ */
+public final class TaskRecordSpecifications {
+
+    // Ordre de la recherche sans texte dans l'index : échéance, création décroissante, identifiant
+    public static final Sort SEARCH_ORDER = Sort.by(Sort.Order.asc("dueSort"), Sort.Order.desc("createdSort"),
+                                                    Sort.Order.asc("id"));
+
+    private TaskRecordSpecifications() {
+    }
+
+    public static Specification<TaskRecord> inColocation(Long colocationId) {
+        return (root, query, cb) -> cb.and(cb.equal(root.get("colocationId"), colocationId), cb.isFalse(root.get("deleted")));
+    }
+
+    public static Specification<TaskRecord> matching(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            List<Predicate> words = new ArrayList<>();
+            for (String word : text.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+                String pattern = "%" + word.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                words.add(cb.or(cb.like(cb.lower(root.get("title")), pattern, '\\'),
+                                cb.like(cb.lower(root.get("description")), pattern, '\\')));
+            }
+            return cb.and(words.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<TaskRecord> withStatus(Collection<TaskDocument.TaskStatus> statuses) {
+        return statuses == null || statuses.isEmpty() ? null : (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<TaskRecord> withoutStatus(Collection<TaskDocument.TaskStatus> statuses) {
+        return statuses == null || statuses.isEmpty() ? null : (root, query, cb) -> cb.not(root.get("status").in(statuses));
+    }
+
+    public static Specification<TaskRecord> withPriority(Collection<TaskDocument.TaskPriority> priorities) {
+        return priorities == null || priorities.isEmpty() ? null : (root, query, cb) -> root.get("priority").in(priorities);
+    }
+
+    // Une tâche portant au moins une des étiquettes
+    public static Specification<TaskRecord> taggedWithAny(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            query.distinct(true);
+            return root.join("tags").in(tags);
+        };
+    }
+
+    public static Specification<TaskRecord> assignedTo(Long userId) {
+        return userId == null ? null : (root, query, cb) -> cb.isMember(userId, root.get("assignedUserIds"));
+    }
+
+    public static Specification<TaskRecord> dueFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), from);
+    }
+
+    public static Specification<TaskRecord> dueBefore(LocalDateTime before) {
+        return before == null ? null : (root, query, cb) -> cb.lessThan(root.get("dueDate"), before);
+    }
+
+    // Tâches situées après le curseur dans l'ordre de recherche :
+    // due_sort > :due OU (due_sort = :due ET (created_sort < :created OU (created_sort = :created ET id > :id)))
+    public static Specification<TaskRecord> after(long dueSort, long createdSort, String id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("dueSort"), dueSort),
+                cb.and(cb.equal(root.get("dueSort"), dueSort),
+                       cb.or(cb.lessThan(root.get("createdSort"), createdSort),
+                             cb.and(cb.equal(root.get("createdSort"), createdSort), cb.greaterThan(root.get("id"), id))))
+        );
+    }
+}
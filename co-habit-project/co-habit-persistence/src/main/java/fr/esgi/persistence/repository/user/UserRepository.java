@@ -3,6 +3,7 @@ package fr.esgi.persistence.repository.user;
 import fr.esgi.persistence.entity.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -15,6 +16,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     
     Optional<User> findByKeyCloakSub(String keyCloakSub);
+
+    @Query("SELECT u.id FROM User u WHERE u.keyCloakSub = :keyCloakSub")
+    Optional<Long> findIdByKeyCloakSub(@Param("keyCloakSub") String keyCloakSub);
     
     List<User> findByFirstNameContainingIgnoreCase(String firstName);
     
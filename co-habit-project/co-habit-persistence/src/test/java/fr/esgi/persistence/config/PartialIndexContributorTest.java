@@ -0,0 +1,33 @@
+package fr.esgi.persistence.config;
+
+import org.hibernate.boot.model.relational.AuxiliaryDatabaseObject;
+import org.hibernate.boot.spi.AdditionalMappingContributions;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PartialIndexContributorTest {
+
+    @Test
+    void shouldContributePartialIndexesForPostgresOnly() {
+        AdditionalMappingContributions contributions = mock(AdditionalMappingContributions.class);
+
+        new PartialIndexContributor().contribute(contributions, null, null, null);
+
+        ArgumentCaptor<AuxiliaryDatabaseObject> captor = ArgumentCaptor.forClass(AuxiliaryDatabaseObject.class);
+        verify(contributions, times(2)).contributeAuxiliaryDatabaseObject(captor.capture());
+
+        List<AuxiliaryDatabaseObject> indexes = captor.getAllValues();
+        assertThat(indexes).extracting(AuxiliaryDatabaseObject::getExportIdentifier).doesNotHaveDuplicates();
+        assertThat(indexes).allMatch(index -> index.appliesToDialect(new PostgreSQLDialect()));
+        assertThat(indexes).noneMatch(index -> index.appliesToDialect(new H2Dialect()));
+    }
+}
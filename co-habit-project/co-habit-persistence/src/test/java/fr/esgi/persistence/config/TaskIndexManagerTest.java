@@ -0,0 +1,122 @@
+package fr.esgi.persistence.config;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.tasks.ElasticsearchTasksClient;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import co.elastic.clients.json.JsonData;
+import fr.esgi.persistence.document.TaskDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.PutIndexTemplateRequest;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.reindex.ReindexRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskIndexManagerTest {
+
+    private static final String TASK_ID = "node-1:42";
+
+    private ElasticsearchOperations  operations;
+    private ElasticsearchTasksClient tasks;
+    private IndexOperations          documentOps;
+    private IndexOperations          indexOps;
+    private TaskIndexManager         manager;
+
+    @BeforeEach
+    void setUp() {
+        operations  = mock(ElasticsearchOperations.class);
+        tasks       = mock(ElasticsearchTasksClient.class);
+        documentOps = mock(IndexOperations.class);
+        indexOps    = mock(IndexOperations.class);
+        when(operations.indexOps(TaskDocument.class)).thenReturn(documentOps);
+        when(operations.indexOps(any(IndexCoordinates.class))).thenReturn(indexOps);
+        when(documentOps.createMapping(TaskDocument.class)).thenReturn(Document.create());
+        when(indexOps.getAliases(TaskIndexManager.ALIAS)).thenReturn(Map.of("tasks-20250101000000", Set.of()));
+        when(operations.submitReindex(any(ReindexRequest.class))).thenReturn(TASK_ID);
+        ElasticsearchClient client = mock(ElasticsearchClient.class);
+        when(client.tasks()).thenReturn(tasks);
+        manager = new TaskIndexManager(operations, client, 6, 1, 0);
+    }
+
+    @Test
+    void migrate_ShouldReindexWithRoutingThenSwapTheAlias() throws
+                                                            IOException {
+        GetTasksResponse running = task(false, null);
+        GetTasksResponse done    = task(true, "{\"created\": 42, \"failures\": [], \"timed_out\": false}");
+        when(tasks.get(any(Function.class))).thenReturn(running, done);
+
+        TaskIndexManager.Migration migration = manager.migrate();
+
+        ArgumentCaptor<PutIndexTemplateRequest> template = ArgumentCaptor.forClass(PutIndexTemplateRequest.class);
+        verify(documentOps).putIndexTemplate(template.capture());
+        assertThat(template.getValue().indexPatterns()).containsExactly(TaskIndexManager.PATTERN);
+        assertThat(template.getValue().settings()).containsEntry("index.number_of_shards", 6);
+        assertThat(template.getValue().mapping()).containsEntry("_routing", Map.of("required", true));
+
+        ArgumentCaptor<ReindexRequest> reindex = ArgumentCaptor.forClass(ReindexRequest.class);
+        verify(operations).submitReindex(reindex.capture());
+        assertThat(reindex.getValue().getScript().getSource()).isEqualTo(TaskIndexManager.ROUTING_SCRIPT);
+        // L'alias n'est basculé qu'une fois la tâche de réindexation terminée
+        verify(tasks, times(2)).get(any(Function.class));
+
+        ArgumentCaptor<AliasActions> aliases = ArgumentCaptor.forClass(AliasActions.class);
+        verify(indexOps).alias(aliases.capture());
+        assertThat(aliases.getValue().getActions()).hasSize(2);
+        assertThat(aliases.getValue().getActions().get(0)).isInstanceOf(AliasAction.Add.class);
+        assertThat(aliases.getValue().getActions().get(1)).isInstanceOf(AliasAction.RemoveIndex.class);
+        assertThat(aliases.getValue().getActions().get(1).getParameters().getIndices()).containsExactly("tasks-20250101000000");
+
+        assertThat(migration.from()).containsExactly("tasks-20250101000000");
+        assertThat(migration.to()).startsWith("tasks-");
+        assertThat(migration.documents()).isEqualTo(42);
+    }
+
+    @Test
+    void migrate_ShouldKeepTheAliasWhenTheReindexFails() throws
+                                                          IOException {
+        GetTasksResponse done = task(true, "{\"created\": 41, \"failures\": [{\"id\": \"task-id\"}], \"timed_out\": false}");
+        when(tasks.get(any(Function.class))).thenReturn(done);
+
+        assertThatThrownBy(() -> manager.migrate()).isInstanceOf(IllegalStateException.class);
+
+        verify(indexOps).delete();
+        verify(indexOps, never()).alias(any(AliasActions.class));
+    }
+
+    @Test
+    void awaitCompletion_ShouldKeepPollingAfterAFailedPoll() throws
+                                                            IOException {
+        GetTasksResponse done = task(true, "{\"created\": 0, \"failures\": []}");
+        when(tasks.get(any(Function.class))).thenThrow(new IOException("socket timeout")).thenReturn(done);
+
+        assertThat(manager.awaitCompletion(TASK_ID)).isSameAs(done);
+    }
+
+    private static GetTasksResponse task(boolean completed, String response) {
+        GetTasksResponse task = mock(GetTasksResponse.class);
+        when(task.completed()).thenReturn(completed);
+        if (response != null) {
+            when(task.response()).thenReturn(JsonData.fromJson(response));
+        }
+        return task;
+    }
+}
@@ -144,6 +144,28 @@ public class ColocationRepositoryTest {
         assertThat(outsiderInColocation).isFalse();
     }
 
+    @Test
+    void testFindMembershipsByUserId() {
+        List<ColocationMembership> managerMemberships = colocationRepository.findMembershipsByUserId(manager.getId());
+        assertThat(managerMemberships).hasSize(1);
+        assertThat(managerMemberships.get(0).getColocationId()).isEqualTo(colocation.getId());
+        assertThat(managerMemberships.get(0).isManager()).isTrue();
+        assertThat(managerMemberships.get(0).isRoommate()).isFalse();
+
+        List<ColocationMembership> roommateMemberships = colocationRepository.findMembershipsByUserId(roommate1.getId());
+        assertThat(roommateMemberships).hasSize(1);
+        assertThat(roommateMemberships.get(0).isManager()).isFalse();
+        assertThat(roommateMemberships.get(0).isRoommate()).isTrue();
+
+        User outsider = new User();
+        outsider.setEmail("outsider@test.com");
+        outsider.setUsername("outsider");
+        outsider.setKeyCloakSub("outsider-keycloak-id");
+        outsider = userRepository.save(outsider);
+
+        assertThat(colocationRepository.findMembershipsByUserId(outsider.getId())).isEmpty();
+    }
+
     @Test
     void testCountRoommatesByColocationId() {
         Integer count = colocationRepository.countRoommatesByColocationId(colocation.getId());
@@ -151,6 +173,37 @@ public class ColocationRepositoryTest {
         assertThat(count).isEqualTo(2);
     }
 
+    @Test
+    void testReserveAndReleaseRoommateSlot() {
+        // 2 colocataires sur 3 max : une seule place disponible
+        assertThat(colocationRepository.reserveRoommateSlot(colocation.getId())).isEqualTo(1);
+        assertThat(colocationRepository.reserveRoommateSlot(colocation.getId())).isZero();
+        assertThat(colocationRepository.countRoommatesByColocationId(colocation.getId())).isEqualTo(3);
+        assertThat(colocationRepository.findAvailableColocations()).doesNotContain(colocation);
+
+        assertThat(colocationRepository.releaseRoommateSlot(colocation.getId())).isEqualTo(1);
+        assertThat(colocationRepository.countRoommatesByColocationId(colocation.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void testInsertAndDeleteRoommate() {
+        User newcomer = new User();
+        newcomer.setEmail("newcomer@test.com");
+        newcomer.setUsername("newcomer");
+        newcomer.setKeyCloakSub("newcomer-keycloak-id");
+        newcomer = userRepository.save(newcomer);
+
+        assertThat(colocationRepository.insertRoommate(colocation.getId(), newcomer.getId())).isEqualTo(1);
+        assertThat(colocationRepository.insertRoommate(colocation.getId(), newcomer.getId())).isZero();
+        assertThat(colocationRepository.findMembershipsByUserId(newcomer.getId()))
+                .extracting(ColocationMembership::getColocationId)
+                .containsExactly(colocation.getId());
+
+        assertThat(colocationRepository.deleteRoommate(colocation.getId(), newcomer.getId())).isEqualTo(1);
+        assertThat(colocationRepository.deleteRoommate(colocation.getId(), newcomer.getId())).isZero();
+        assertThat(colocationRepository.findMembershipsByUserId(newcomer.getId())).isEmpty();
+    }
+
     @Test
     void testColocationUtilityMethods() {
         assertThat(colocation.isManager(manager)).isTrue();
@@ -0,0 +1,48 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskBulkQueriesTest {
+
+    @Test
+    void get_ShouldReadEveryTaskOnTheShardOfTheColocation() {
+        NativeQuery query = TaskBulkQueries.get(1L, List.of("a", "b"));
+
+        assertThat(query.getIdsWithRouting()).containsExactly(new Query.IdWithRouting("a", "1"),
+                                                              new Query.IdWithRouting("b", "1"));
+    }
+
+    @Test
+    void index_ShouldRouteTheTaskByItsColocation() {
+        TaskDocument task = TaskDocument.builder().id("task-id").colocationId(7L).title("Sortir les poubelles").build();
+
+        IndexQuery query = TaskBulkQueries.index(task);
+
+        assertThat(query.getId()).isEqualTo("task-id");
+        assertThat(query.getRouting()).isEqualTo("7");
+        assertThat(query.getObject()).isSameAs(task);
+    }
+
+    @Test
+    void delete_ShouldOnlyDeleteTheTasksOfTheColocation() {
+        List<UpdateQuery> updates = TaskBulkQueries.delete(1L, List.of("a", "b"));
+
+        assertThat(updates).extracting(UpdateQuery::getId).containsExactly("a", "b");
+        UpdateQuery update = updates.get(0);
+        assertThat(update.getRouting()).isEqualTo("1");
+        assertThat(update.getLang()).isEqualTo(TaskBulkQueries.LANG);
+        assertThat(update.getRetryOnConflict()).isEqualTo(TaskBulkQueries.RETRY_ON_CONFLICT);
+        assertThat(update.getScript()).startsWith("if (ctx._source.colocationId != params.colocationId) { ctx.op = 'noop'; }")
+                                      .contains(TaskBulkQueries.DELETE);
+        assertThat(update.getParams()).containsEntry("colocationId", 1L);
+    }
+}
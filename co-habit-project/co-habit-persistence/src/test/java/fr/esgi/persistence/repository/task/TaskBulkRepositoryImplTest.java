@@ -0,0 +1,48 @@
+package fr.esgi.persistence.repository.task;
+
+import fr.esgi.persistence.document.TaskDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TaskBulkRepositoryImplTest {
+
+    @Test
+    void bulkDelete_ShouldReportTheFailedItemsById() {
+        ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+        when(operations.getIndexCoordinatesFor(TaskDocument.class)).thenReturn(IndexCoordinates.of("tasks"));
+        BulkFailureException failure = new BulkFailureException("Bulk failure", Map.of(
+                "b", new BulkFailureException.FailureDetails(404, "document_missing_exception")));
+        doThrow(failure).when(operations).bulkUpdate(anyList(), any(BulkOptions.class), any(IndexCoordinates.class));
+
+        Map<String, TaskBulkFailure> failures = new TaskBulkRepositoryImpl(operations)
+                .bulkDelete(1L, List.of("a", "b"), RefreshPolicy.WAIT_UNTIL);
+
+        assertThat(failures).containsOnly(Map.entry("b", new TaskBulkFailure(404, "document_missing_exception")));
+    }
+
+    @Test
+    void bulkDelete_WithoutTask_ShouldNotCallElasticsearch() {
+        ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+
+        Map<String, TaskBulkFailure> failures = new TaskBulkRepositoryImpl(operations)
+                .bulkDelete(1L, List.of(), RefreshPolicy.NONE);
+
+        assertThat(failures).isEmpty();
+        verifyNoInteractions(operations);
+    }
+}
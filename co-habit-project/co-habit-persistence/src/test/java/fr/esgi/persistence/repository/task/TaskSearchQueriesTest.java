@@ -0,0 +1,134 @@
+package fr.esgi.persistence.repository.task;
+
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import fr.esgi.persistence.document.TaskDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskSearchQueriesTest {
+
+    @Test
+    void search_ShouldPutEveryCriterionButTheTextInFilterContext() {
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder()
+                                                        .colocationId(1L)
+                                                        .text("courses")
+                                                        .statuses(Set.of(TaskDocument.TaskStatus.TODO))
+                                                        .priorities(Set.of(TaskDocument.TaskPriority.HIGH))
+                                                        .tags(Set.of("maison"))
+                                                        .assigneeId(42L)
+                                                        .dueFrom(LocalDateTime.of(2025, 7, 1, 0, 0))
+                                                        .dueBefore(LocalDateTime.of(2025, 8, 1, 0, 0))
+                                                        .size(21)
+                                                        .build();
+
+        BoolQuery bool = TaskSearchQueries.query(criteria).bool();
+
+        assertThat(bool.must()).hasSize(1);
+        assertThat(bool.must().get(0).isMultiMatch()).isTrue();
+        assertThat(bool.filter()).hasSize(6);
+        assertThat(bool.filter().toString()).contains("\"colocationId\":{\"value\":1}",
+                                                      "\"status\":[\"TODO\"]",
+                                                      "\"priority\":[\"HIGH\"]",
+                                                      "\"tags\":[\"maison\"]",
+                                                      "\"assignedUserIds\":{\"value\":42}",
+                                                      "\"gte\":\"2025-07-01T00:00:00.000\"",
+                                                      "\"lt\":\"2025-08-01T00:00:00.000\"");
+    }
+
+    @Test
+    void search_WithoutText_ShouldOnlyFilterAndSortByDueDate() {
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder().colocationId(1L).text(" ").priorities(Set.of()).size(20).build();
+
+        BoolQuery bool = TaskSearchQueries.query(criteria).bool();
+        List<SortOptions> sort = TaskSearchQueries.sort(criteria);
+
+        assertThat(bool.must()).isEmpty();
+        assertThat(bool.filter()).hasSize(1);
+        assertThat(sort).extracting(option -> option.field().field())
+                        .containsExactly(TaskSearchQueries.DUE_DATE, TaskSearchQueries.CREATED_AT, TaskSearchQueries.ID);
+    }
+
+    @Test
+    void search_ShouldResumeAfterTheGivenSortValues() {
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder()
+                                                        .colocationId(1L)
+                                                        .text("courses")
+                                                        .searchAfter(List.of(1.5, "task-id"))
+                                                        .size(20)
+                                                        .build();
+
+        NativeQuery query = TaskSearchQueries.search(criteria, null);
+
+        assertThat(query.getSearchAfter()).containsExactly(1.5, "task-id");
+        assertThat(query.getMaxResults()).isEqualTo(20);
+        assertThat(query.getHighlightQuery()).isPresent();
+        assertThat(query.getSortOptions()).hasSize(2);
+        assertThat(query.getSortOptions().get(0).isScore()).isTrue();
+        assertThat(query.getPointInTime()).isNull();
+        assertThat(query.getRoute()).isEqualTo("1");
+    }
+
+    @Test
+    void search_ShouldHideExcludedStatusesAndReadThePointInTime() {
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder()
+                                                        .colocationId(1L)
+                                                        .excludedStatuses(Set.of(TaskDocument.TaskStatus.COMPLETED))
+                                                        .pointInTime(true)
+                                                        .size(20)
+                                                        .build();
+
+        NativeQuery query = TaskSearchQueries.search(criteria, "pit-id");
+        BoolQuery   bool  = TaskSearchQueries.query(criteria).bool();
+
+        assertThat(bool.mustNot()).hasSize(1);
+        assertThat(bool.mustNot().toString()).contains("\"status\":[\"COMPLETED\"]");
+        assertThat(query.getPointInTime()).isNotNull();
+        assertThat(query.getPointInTime().id()).isEqualTo("pit-id");
+        assertThat(query.getPointInTime().keepAlive()).isEqualTo(TaskSearchQueries.POINT_IN_TIME_KEEP_ALIVE);
+        assertThat(query.getRoute()).isNull();
+    }
+
+    @Test
+    void dashboard_ShouldOnlyReturnAggregations() {
+        NativeQuery query = TaskSearchQueries.dashboard(1L, LocalDateTime.of(2025, 7, 14, 9, 30));
+
+        assertThat(query.getMaxResults()).isZero();
+        assertThat(query.getRoute()).isEqualTo("1");
+        assertThat(query.getAggregations()).containsOnlyKeys(TaskSearchQueries.BY_STATUS, TaskSearchQueries.BY_PRIORITY,
+                                                             TaskSearchQueries.OPEN, TaskSearchQueries.OVERDUE);
+        assertThat(query.getAggregations().get(TaskSearchQueries.OPEN).aggregations())
+                .containsOnlyKeys(TaskSearchQueries.BY_ASSIGNEE);
+        assertThat(query.getAggregations().get(TaskSearchQueries.OVERDUE).toString())
+                .contains("\"lt\":\"2025-07-14T09:30:00.000\"", "\"status\":[\"COMPLETED\",\"CANCELLED\"]");
+    }
+
+    @Test
+    void recent_ShouldOnlyHitTheShardOfTheColocation() {
+        NativeQuery query = TaskSearchQueries.recent(1L, 3);
+
+        assertThat(query.getRoute()).isEqualTo("1");
+        assertThat(query.getMaxResults()).isEqualTo(3);
+        assertThat(query.getSortOptions()).extracting(option -> option.field().field())
+                                          .containsExactly(TaskSearchQueries.CREATED_AT);
+    }
+
+    @Test
+    void openLoad_ShouldOnlyHitTheShardsOfTheColocations() {
+        NativeQuery query = TaskSearchQueries.openLoad(List.of(1L, 2L, 3L));
+
+        assertThat(query.getMaxResults()).isZero();
+        assertThat(query.getRoute()).isEqualTo("1,2,3");
+        assertThat(query.getAggregations()).containsOnlyKeys(TaskSearchQueries.BY_COLOCATION);
+        assertThat(query.getAggregations().get(TaskSearchQueries.BY_COLOCATION).terms().size()).isEqualTo(3);
+        assertThat(query.getAggregations().get(TaskSearchQueries.BY_COLOCATION).aggregations())
+                .containsOnlyKeys(TaskSearchQueries.BY_ASSIGNEE);
+        assertThat(query.getQuery().toString()).contains("\"status\":[\"COMPLETED\",\"CANCELLED\"]");
+    }
+}
@@ -0,0 +1,127 @@
+package fr.esgi.persistence.repository.task;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import fr.esgi.persistence.document.TaskDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.ResourceNotFoundException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskSearchRepositoryImplTest {
+
+    @Test
+    void toDashboard_ShouldReadTheAggregations() {
+        Map<String, Aggregate> aggregates = Map.of(
+                TaskSearchQueries.BY_STATUS, stringTerms(List.of(bucket("TODO", 4), bucket("COMPLETED", 3))),
+                TaskSearchQueries.BY_PRIORITY, stringTerms(List.of(bucket("HIGH", 7))),
+                TaskSearchQueries.OPEN, Aggregate.of(aggregate -> aggregate.filter(filter -> filter
+                        .docCount(4)
+                        .aggregations(TaskSearchQueries.BY_ASSIGNEE, Aggregate.of(assignees -> assignees.lterms(terms -> terms
+                                .sumOtherDocCount(0L)
+                                .buckets(buckets -> buckets.array(List.of(
+                                        LongTermsBucket.of(b -> b.key(1L).docCount(3)),
+                                        LongTermsBucket.of(b -> b.key(2L).docCount(1)))))))))),
+                TaskSearchQueries.OVERDUE, Aggregate.of(aggregate -> aggregate.filter(filter -> filter.docCount(2))));
+
+        TaskDashboard dashboard = TaskSearchRepositoryImpl.toDashboard(7, aggregates);
+
+        assertThat(dashboard.total()).isEqualTo(7);
+        assertThat(dashboard.open()).isEqualTo(4);
+        assertThat(dashboard.overdue()).isEqualTo(2);
+        // Les statuts sans tâche sont présents à zéro
+        assertThat(dashboard.byStatus()).hasSize(TaskDocument.TaskStatus.values().length)
+                                        .contains(entry(TaskDocument.TaskStatus.TODO, 4L),
+                                                  entry(TaskDocument.TaskStatus.COMPLETED, 3L),
+                                                  entry(TaskDocument.TaskStatus.PENDING, 0L));
+        assertThat(dashboard.byPriority()).contains(entry(TaskDocument.TaskPriority.HIGH, 7L),
+                                                    entry(TaskDocument.TaskPriority.LOW, 0L));
+        assertThat(dashboard.openByAssignee()).containsOnly(entry(1L, 3L), entry(2L, 1L));
+    }
+
+    @Test
+    void toOpenLoad_ShouldReadTheOpenTasksOfEachColocation() {
+        Map<String, Aggregate> aggregates = Map.of(
+                TaskSearchQueries.BY_COLOCATION, Aggregate.of(aggregate -> aggregate.lterms(terms -> terms
+                        .sumOtherDocCount(0L)
+                        .buckets(buckets -> buckets.array(List.of(
+                                LongTermsBucket.of(b -> b.key(10L).docCount(5).aggregations(TaskSearchQueries.BY_ASSIGNEE, longTerms(
+                                        List.of(LongTermsBucket.of(a -> a.key(1L).docCount(3)),
+                                                LongTermsBucket.of(a -> a.key(2L).docCount(2)))))),
+                                LongTermsBucket.of(b -> b.key(20L).docCount(1).aggregations(TaskSearchQueries.BY_ASSIGNEE, longTerms(
+                                        List.of())))))))));
+
+        Map<Long, Map<Long, Long>> load = TaskSearchRepositoryImpl.toOpenLoad(aggregates);
+
+        assertThat(load).containsOnlyKeys(10L, 20L);
+        assertThat(load.get(10L)).containsOnly(entry(1L, 3L), entry(2L, 2L));
+        // Des tâches ouvertes sans assigné ne chargent personne
+        assertThat(load.get(20L)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldRejectTheCursorOfAnExpiredPointInTime() {
+        ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+        when(operations.search(any(Query.class), eq(TaskDocument.class)))
+                .thenThrow(new ResourceNotFoundException("No search context found for id [pit-1]"));
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder().colocationId(1L).searchAfter(List.of(1L, "a"))
+                                                        .pointInTime(true).pointInTimeId("pit-1").size(10).build();
+
+        TaskCursorException exception = assertThrows(TaskCursorException.class,
+                                                      () -> new TaskSearchRepositoryImpl(operations).search(criteria));
+
+        assertThat(exception.isExpired()).isTrue();
+    }
+
+    @Test
+    void search_ShouldRejectSortValuesElasticsearchCannotRead() {
+        ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+        when(operations.search(any(Query.class), eq(TaskDocument.class)))
+                .thenThrow(new UncategorizedElasticsearchException("failed to parse date field", 400, null, null));
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder().colocationId(1L).searchAfter(List.of("not-a-date", "a"))
+                                                        .size(10).build();
+
+        TaskCursorException exception = assertThrows(TaskCursorException.class,
+                                                      () -> new TaskSearchRepositoryImpl(operations).search(criteria));
+
+        assertThat(exception.isExpired()).isFalse();
+    }
+
+    @Test
+    void search_ShouldLetAFailureOfTheFirstPageThrough() {
+        ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+        UncategorizedElasticsearchException failure = new UncategorizedElasticsearchException("unavailable", 503, null, null);
+        when(operations.search(any(Query.class), eq(TaskDocument.class))).thenThrow(failure);
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder().colocationId(1L).size(10).build();
+
+        assertThat(assertThrows(UncategorizedElasticsearchException.class,
+                                () -> new TaskSearchRepositoryImpl(operations).search(criteria))).isSameAs(failure);
+    }
+
+    private static Aggregate longTerms(List<LongTermsBucket> buckets) {
+        return Aggregate.of(aggregate -> aggregate.lterms(terms -> terms.sumOtherDocCount(0L)
+                                                                        .buckets(array -> array.array(buckets))));
+    }
+
+    private static Aggregate stringTerms(List<StringTermsBucket> buckets) {
+        return Aggregate.of(aggregate -> aggregate.sterms(terms -> terms.sumOtherDocCount(0L)
+                                                                        .buckets(array -> array.array(buckets))));
+    }
+
+    private static StringTermsBucket bucket(String key, long count) {
+        return StringTermsBucket.of(bucket -> bucket.key(key).docCount(count));
+    }
+}
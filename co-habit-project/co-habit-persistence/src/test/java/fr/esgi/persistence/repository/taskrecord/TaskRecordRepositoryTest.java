@@ -0,0 +1,223 @@
+package fr.esgi.persistence.repository.taskrecord;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.task.TaskRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+public class TaskRecordRepositoryTest {
+
+    private static final Long COLOCATION_ID = 10L;
+    private static final LocalDateTime NOW  = LocalDateTime.of(2025, 3, 15, 12, 0);
+
+    @Autowired
+    private TaskRecordRepository taskRecordRepository;
+
+    @Test
+    void search_ShouldFollowTheOrderOfTheIndexAndResumeAfterTheCursor() {
+        save(task("c", NOW.plusDays(1), NOW.minusDays(3)));
+        save(task("a", null, NOW.minusDays(1)));
+        save(task("b", NOW.plusDays(1), NOW.minusDays(1)));
+        save(task("d", NOW.plusDays(2), null));
+        save(task("e", null, null));
+
+        List<TaskRecord> all = search(Specification.where(TaskRecordSpecifications.inColocation(COLOCATION_ID)));
+        assertThat(all).extracting(TaskRecord::getId).containsExactly("b", "c", "d", "a", "e");
+
+        // Valeurs de tri de l'index : millisecondes UTC, une date absente triée en dernier
+        TaskRecord last = all.get(1);
+        assertThat(last.getDueSort()).isEqualTo(NOW.plusDays(1).toInstant(ZoneOffset.UTC).toEpochMilli());
+        assertThat(all.get(4).getDueSort()).isEqualTo(Long.MAX_VALUE);
+        assertThat(all.get(4).getCreatedSort()).isEqualTo(Long.MIN_VALUE);
+
+        List<TaskRecord> next = search(Specification.where(TaskRecordSpecifications.inColocation(COLOCATION_ID))
+                                                    .and(TaskRecordSpecifications.after(last.getDueSort(), last.getCreatedSort(),
+                                                                                        last.getId())));
+        assertThat(next).extracting(TaskRecord::getId).containsExactly("d", "a", "e");
+    }
+
+    @Test
+    void search_ShouldMatchEveryWordAndFilters() {
+        TaskDocument trash = task("a", NOW.plusDays(1), NOW);
+        trash.setTitle("Sortir les poubelles");
+        trash.setDescription("Jaunes et vertes");
+        trash.setTags(Set.of("menage"));
+        save(trash);
+        TaskDocument shopping = task("b", NOW.plusDays(1), NOW);
+        shopping.setTitle("Faire les courses");
+        shopping.setTags(Set.of("courses"));
+        save(shopping);
+        TaskDocument deleted = task("c", NOW.plusDays(1), NOW);
+        deleted.setTitle("Sortir les poubelles");
+        TaskRecord tombstone = save(deleted);
+        tombstone.setDeleted(true);
+        taskRecordRepository.save(tombstone);
+
+        assertThat(search(Specification.where(TaskRecordSpecifications.inColocation(COLOCATION_ID))
+                                       .and(TaskRecordSpecifications.matching("POUBELLES vertes"))))
+                .extracting(TaskRecord::getId).containsExactly("a");
+        assertThat(search(Specification.where(TaskRecordSpecifications.inColocation(COLOCATION_ID))
+                                       .and(TaskRecordSpecifications.taggedWithAny(Set.of("courses", "jardin")))))
+                .extracting(TaskRecord::getId).containsExactly("b");
+        assertThat(search(Specification.where(TaskRecordSpecifications.inColocation(COLOCATION_ID))
+                                       .and(TaskRecordSpecifications.assignedTo(1L))))
+                .extracting(TaskRecord::getId).containsExactly("a", "b");
+    }
+
+    @Test
+    void countByStatus_ShouldGroupTheTasksOfTheColocation() {
+        TaskDocument completed = task("a", NOW.minusDays(1), NOW);
+        completed.setStatus(TaskDocument.TaskStatus.COMPLETED);
+        save(completed);
+        save(task("b", NOW.minusDays(1), NOW));
+        save(task("c", NOW.plusDays(1), NOW));
+        TaskDocument elsewhere = task("d", NOW.minusDays(1), NOW);
+        elsewhere.setColocationId(20L);
+        save(elsewhere);
+
+        Map<TaskDocument.TaskStatus, Long> byStatus = taskRecordRepository.countByStatus(COLOCATION_ID)
+                .stream()
+                .collect(Collectors.toMap(TaskRecordRepository.StatusCount::getStatus, TaskRecordRepository.StatusCount::getCount));
+        List<TaskDocument.TaskStatus> closed = List.of(TaskDocument.TaskStatus.COMPLETED, TaskDocument.TaskStatus.CANCELLED);
+
+        assertThat(byStatus).containsExactlyInAnyOrderEntriesOf(Map.of(TaskDocument.TaskStatus.TODO, 2L,
+                                                                       TaskDocument.TaskStatus.COMPLETED, 1L));
+        assertThat(taskRecordRepository.countOverdue(COLOCATION_ID, closed, NOW)).isEqualTo(1);
+        assertThat(taskRecordRepository.countOpenByAssignee(COLOCATION_ID, closed))
+                .singleElement()
+                .satisfies(count -> {
+                    assertThat(count.getUserId()).isEqualTo(1L);
+                    assertThat(count.getCount()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    void countOpenByColocationAndAssignee_ShouldGroupByColocationThenAssignee() {
+        save(task("a", null, NOW));
+        save(task("b", null, NOW));
+        TaskDocument completed = task("c", null, NOW);
+        completed.setStatus(TaskDocument.TaskStatus.COMPLETED);
+        save(completed);
+        TaskDocument elsewhere = task("d", null, NOW);
+        elsewhere.setColocationId(20L);
+        elsewhere.setAssignedUserIds(Set.of(2L));
+        save(elsewhere);
+        TaskDocument ignored = task("e", null, NOW);
+        ignored.setColocationId(30L);
+        save(ignored);
+
+        assertThat(taskRecordRepository.countOpenByColocationAndAssignee(List.of(COLOCATION_ID, 20L),
+                                                                         List.of(TaskDocument.TaskStatus.COMPLETED,
+                                                                                 TaskDocument.TaskStatus.CANCELLED)))
+                .extracting(TaskRecordRepository.ColocationAssigneeCount::getColocationId,
+                            TaskRecordRepository.ColocationAssigneeCount::getUserId,
+                            TaskRecordRepository.ColocationAssigneeCount::getCount)
+                .containsExactlyInAnyOrder(tuple(COLOCATION_ID, 1L, 2L), tuple(20L, 2L, 1L));
+    }
+
+    @Test
+    void lockPending_ShouldReturnTheTasksTheIndexDidNotGet() {
+        save(task("a", null, NOW));
+        TaskRecord pending = save(task("b", null, NOW));
+        pending.setPendingSync(true);
+        taskRecordRepository.save(pending);
+
+        assertThat(taskRecordRepository.existsByPendingSyncTrue()).isTrue();
+        assertThat(taskRecordRepository.lockPending(Limit.of(10))).extracting(TaskRecord::getId).containsExactly("b");
+    }
+
+    @Test
+    void insertIfAbsent_ShouldLeaveAnExistingTaskUntouched() {
+        save(task("a", null, NOW));
+
+        assertThat(taskRecordRepository.insertIfAbsent("a", COLOCATION_ID, NOW)).isZero();
+        assertThat(taskRecordRepository.insertIfAbsent("b", COLOCATION_ID, NOW)).isEqualTo(1);
+
+        assertThat(taskRecordRepository.lockAllById(List.of("b", "a", "c")))
+                .extracting(TaskRecord::getId, TaskRecord::isDeleted)
+                .containsExactly(tuple("a", false), tuple("b", true));
+    }
+
+    @Test
+    void insertAllIfAbsent_ShouldOnlyCreateTheMissingTasks() {
+        save(task("a", null, NOW));
+
+        assertThat(taskRecordRepository.insertAllIfAbsent(Map.of("a", COLOCATION_ID, "b", COLOCATION_ID, "c", 20L), NOW))
+                .isEqualTo(2);
+
+        assertThat(taskRecordRepository.lockAllById(List.of("a", "b", "c")))
+                .extracting(TaskRecord::getId, TaskRecord::getColocationId, TaskRecord::isDeleted, TaskRecord::isPendingSync)
+                .containsExactly(tuple("a", COLOCATION_ID, false, false),
+                                 tuple("b", COLOCATION_ID, true, false),
+                                 tuple("c", 20L, true, false));
+    }
+
+    @Test
+    void insertAllIfAbsent_ShouldSplitTheRowsIntoManyInserts() {
+        Map<String, Long> colocationIds = new HashMap<>();
+        for (int i = 0; i < TaskRecordInsertRepositoryImpl.ROWS_PER_INSERT + 1; i++) {
+            colocationIds.put("task-" + i, COLOCATION_ID);
+        }
+
+        assertThat(taskRecordRepository.insertAllIfAbsent(colocationIds, NOW)).isEqualTo(colocationIds.size());
+        assertThat(taskRecordRepository.count()).isEqualTo(colocationIds.size());
+    }
+
+    @Test
+    void deleteTombstones_ShouldKeepTheTombstonesStillPending() {
+        save(task("a", null, NOW));
+        TaskRecord forgotten = save(task("b", null, NOW));
+        forgotten.setDeleted(true);
+        taskRecordRepository.save(forgotten);
+        TaskRecord pending = save(task("c", null, NOW));
+        pending.setDeleted(true);
+        pending.setPendingSync(true);
+        taskRecordRepository.save(pending);
+        taskRecordRepository.flush();
+
+        assertThat(taskRecordRepository.deleteTombstones()).isEqualTo(1);
+        assertThat(taskRecordRepository.findAll()).extracting(TaskRecord::getId).containsExactlyInAnyOrder("a", "c");
+    }
+
+    private List<TaskRecord> search(Specification<TaskRecord> specification) {
+        return taskRecordRepository.findBy(specification, query -> query.sortBy(TaskRecordSpecifications.SEARCH_ORDER)
+                                                                          .limit(10)
+                                                                          .all());
+    }
+
+    private TaskRecord save(TaskDocument task) {
+        TaskRecord record = new TaskRecord(task.getId());
+        record.apply(task);
+        return taskRecordRepository.save(record);
+    }
+
+    private static TaskDocument task(String id, LocalDateTime dueDate, LocalDateTime createdAt) {
+        return TaskDocument.builder()
+                           .id(id)
+                           .colocationId(COLOCATION_ID)
+                           .title("Tâche " + id)
+                           .status(TaskDocument.TaskStatus.TODO)
+                           .priority(TaskDocument.TaskPriority.MEDIUM)
+                           .dueDate(dueDate)
+                           .createdAt(createdAt)
+                           .assignedUserIds(Set.of(1L))
+                           .assignedToUserKeycloakSubs(Set.of("user-sub"))
+                           .tags(Set.of())
+                           .build();
+    }
+}
@@ -1,10 +1,26 @@
 package fr.esgi.rest.expense;
 
+import fr.esgi.domain.dto.expense.ExpenseFilterReqDto;
+import fr.esgi.domain.dto.expense.ExpenseImportResDto;
+import fr.esgi.domain.dto.expense.ExpenseImportRowReqDto;
 import fr.esgi.domain.dto.expense.ExpenseReqDto;
 import fr.esgi.domain.dto.expense.ExpenseResDto;
+import fr.esgi.domain.dto.expense.MemberBalanceResDto;
+import fr.esgi.domain.dto.expense.PaymentConfirmationReqDto;
+import fr.esgi.domain.dto.expense.PaymentConfirmationResDto;
 import fr.esgi.domain.dto.expense.PaymentValidationReqDto;
+import fr.esgi.domain.dto.expense.PendingSummaryResDto;
+import fr.esgi.domain.dto.expense.SettlementTransferResDto;
+import fr.esgi.domain.dto.expense.SpendingStatsResDto;
+import fr.esgi.domain.dto.page.CursorPageResDto;
 import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.service.ConflictRetry;
+import fr.esgi.service.expense.BalanceService;
+import fr.esgi.service.expense.ExpenseExportFormat;
+import fr.esgi.service.expense.ExpenseExportService;
+import fr.esgi.service.expense.ExpenseImportService;
 import fr.esgi.service.expense.ExpenseService;
+import fr.esgi.service.expense.SpendingStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,10 +28,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -25,6 +48,11 @@ import java.util.List;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final BalanceService balanceService;
+    private final ExpenseExportService expenseExportService;
+    private final ExpenseImportService expenseImportService;
+    private final SpendingStatsService spendingStatsService;
+    private final ConflictRetry conflictRetry;
 
     @Operation(summary = "Créer une nouvelle dépense")
     @ApiResponses(value = {
@@ -40,19 +68,129 @@ public class ExpenseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdExpense);
     }
 
-    @Operation(summary = "Récupérer toutes les dépenses d'une colocation")
+    @Operation(summary = "Récupérer l'historique paginé des dépenses d'une colocation",
+               description = "Dépenses les plus récentes en premier. Renvoyer le curseur nextCursor pour obtenir la page suivante.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Liste des dépenses récupérée avec succès"),
+            @ApiResponse(responseCode = "200", description = "Page de dépenses récupérée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur ou taille de page invalide"),
             @ApiResponse(responseCode = "403", description = "Accès refusé"),
             @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
     })
     @GetMapping("/space/{spaceId}")
-    public ResponseEntity<List<ExpenseResDto>> getExpensesBySpace(
-            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId) throws TechnicalException {
-        List<ExpenseResDto> expenses = expenseService.getExpensesBySpace(spaceId);
+    public ResponseEntity<CursorPageResDto<ExpenseResDto>> getExpensesBySpace(
+            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId,
+            @Parameter(description = "Uniquement les dépenses réglées (true) ou non réglées (false)") @RequestParam(required = false) Boolean settled,
+            @Parameter(description = "ID du payeur") @RequestParam(required = false) Long payerId,
+            @Parameter(description = "Date de création minimale, incluse (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Date de création maximale, incluse (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Curseur de la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page (20 par défaut, 100 au maximum)") @RequestParam(required = false) Integer limit) throws TechnicalException {
+        ExpenseFilterReqDto filter = new ExpenseFilterReqDto(settled, payerId, from, to);
+        CursorPageResDto<ExpenseResDto> expenses = expenseService.getExpensesBySpace(spaceId, filter, cursor, limit);
         return ResponseEntity.ok(expenses);
     }
 
+    @Operation(summary = "Exporter l'historique complet des dépenses d'une colocation",
+               description = "Une ligne par part, de la plus ancienne dépense à la plus récente, envoyées au fil de la lecture")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export en cours de téléchargement"),
+            @ApiResponse(responseCode = "400", description = "Format d'export invalide"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+    })
+    @GetMapping("/space/{spaceId}/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(
+            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId,
+            @Parameter(description = "Format de l'export : csv (par défaut) ou ndjson") @RequestParam(required = false) String format) throws TechnicalException {
+        ExpenseExportFormat exportFormat = ExpenseExportFormat.of(format);
+        expenseExportService.checkAccess(spaceId);
+
+        StreamingResponseBody body = output -> expenseExportService.write(spaceId, exportFormat, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("depenses-colocation-" + spaceId + "." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @Operation(summary = "Importer des dépenses dans une colocation depuis un fichier CSV",
+               description = "En-tête requis, colonnes title et amount obligatoires, date, description, payer et participants "
+                             + "(emails séparés par |) optionnelles. Les lignes invalides sont rejetées sans bloquer les autres.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import terminé, lignes rejetées détaillées"),
+            @ApiResponse(responseCode = "400", description = "Fichier invalide ou trop volumineux"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+    })
+    @PostMapping(value = "/space/{spaceId}/import", consumes = "text/csv")
+    public ResponseEntity<ExpenseImportResDto> importExpensesCsv(
+            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId,
+            @RequestBody String csv) throws TechnicalException {
+        ExpenseImportResDto result = expenseImportService.importCsv(spaceId, csv);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Importer des dépenses dans une colocation depuis un tableau JSON",
+               description = "Les lignes invalides sont rejetées sans bloquer les autres.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import terminé, lignes rejetées détaillées"),
+            @ApiResponse(responseCode = "400", description = "Requête invalide ou trop volumineuse"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+    })
+    @PostMapping(value = "/space/{spaceId}/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ExpenseImportResDto> importExpenses(
+            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId,
+            @RequestBody List<ExpenseImportRowReqDto> rows) throws TechnicalException {
+        ExpenseImportResDto result = expenseImportService.importRows(spaceId, rows);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Récupérer les soldes des membres d'une colocation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Soldes récupérés avec succès"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+    })
+    @GetMapping("/space/{spaceId}/balances")
+    public ResponseEntity<List<MemberBalanceResDto>> getBalances(
+            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId) throws TechnicalException {
+        List<MemberBalanceResDto> balances = balanceService.getBalances(spaceId);
+        return ResponseEntity.ok(balances);
+    }
+
+    @Operation(summary = "Calculer les virements minimaux pour solder les comptes d'une colocation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Plan de remboursement calculé avec succès"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+    })
+    @GetMapping("/space/{spaceId}/settle-plan")
+    public ResponseEntity<List<SettlementTransferResDto>> getSettlePlan(
+            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId) throws TechnicalException {
+        List<SettlementTransferResDto> transfers = balanceService.getSettlePlan(spaceId);
+        return ResponseEntity.ok(transfers);
+    }
+
+    @Operation(summary = "Récupérer les statistiques de dépenses d'une colocation",
+               description = "Dépenses par mois et par payeur, sur 12 mois jusqu'au mois courant par défaut et 24 mois au maximum")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistiques récupérées avec succès"),
+            @ApiResponse(responseCode = "400", description = "Période invalide"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+    })
+    @GetMapping("/space/{spaceId}/stats")
+    public ResponseEntity<SpendingStatsResDto> getStats(
+            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId,
+            @Parameter(description = "Premier mois, inclus (yyyy-MM)") @RequestParam(required = false) YearMonth from,
+            @Parameter(description = "Dernier mois, inclus (yyyy-MM)") @RequestParam(required = false) YearMonth to) throws TechnicalException {
+        SpendingStatsResDto stats = spendingStatsService.getStats(spaceId, from, to);
+        return ResponseEntity.ok(stats);
+    }
+
     @Operation(summary = "Récupérer une dépense par son ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Dépense récupérée avec succès"),
@@ -66,14 +204,18 @@ public class ExpenseController {
         return ResponseEntity.ok(expense);
     }
 
-    @Operation(summary = "Récupérer toutes les dépenses de l'utilisateur connecté")
+    @Operation(summary = "Récupérer les dépenses de l'utilisateur connecté, paginées",
+               description = "Dépenses payées ou partagées par l'utilisateur, les plus récentes en premier. Renvoyer le curseur nextCursor pour obtenir la page suivante.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Liste des dépenses de l'utilisateur récupérée avec succès"),
+            @ApiResponse(responseCode = "200", description = "Page des dépenses de l'utilisateur récupérée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur ou taille de page invalide"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
     @GetMapping("/user")
-    public ResponseEntity<List<ExpenseResDto>> getUserExpenses() throws TechnicalException {
-        List<ExpenseResDto> expenses = expenseService.getUserExpenses();
+    public ResponseEntity<CursorPageResDto<ExpenseResDto>> getUserExpenses(
+            @Parameter(description = "Curseur de la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page (20 par défaut, 100 au maximum)") @RequestParam(required = false) Integer limit) throws TechnicalException {
+        CursorPageResDto<ExpenseResDto> expenses = expenseService.getUserExpenses(cursor, limit);
         return ResponseEntity.ok(expenses);
     }
 
@@ -81,13 +223,14 @@ public class ExpenseController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Paiement validé avec succès"),
             @ApiResponse(responseCode = "400", description = "Paiement déjà validé"),
-            @ApiResponse(responseCode = "404", description = "Dépense ou participant non trouvé")
+            @ApiResponse(responseCode = "404", description = "Dépense ou participant non trouvé"),
+            @ApiResponse(responseCode = "409", description = "Modification concurrente, réessayer")
     })
     @PostMapping("/{expenseId}/validate-payment")
     public ResponseEntity<ExpenseResDto> validatePayment(
             @Parameter(description = "ID de la dépense") @PathVariable Long expenseId,
             @Valid @RequestBody PaymentValidationReqDto validationDto) throws TechnicalException {
-        ExpenseResDto expense = expenseService.validatePayment(expenseId, validationDto);
+        ExpenseResDto expense = conflictRetry.run(() -> expenseService.validatePayment(expenseId, validationDto));
         return ResponseEntity.ok(expense);
     }
 
@@ -95,13 +238,14 @@ public class ExpenseController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Paiement confirmé avec succès"),
             @ApiResponse(responseCode = "403", description = "Seul le créateur peut confirmer"),
-            @ApiResponse(responseCode = "404", description = "Dépense ou participant non trouvé")
+            @ApiResponse(responseCode = "404", description = "Dépense ou participant non trouvé"),
+            @ApiResponse(responseCode = "409", description = "Modification concurrente, réessayer")
     })
     @PostMapping("/{expenseId}/confirm-payment/{participantUserId}")
     public ResponseEntity<ExpenseResDto> confirmPayment(
             @Parameter(description = "ID de la dépense") @PathVariable Long expenseId,
             @Parameter(description = "ID de l'utilisateur participant") @PathVariable Long participantUserId) throws TechnicalException {
-        ExpenseResDto expense = expenseService.confirmPayment(expenseId, participantUserId);
+        ExpenseResDto expense = conflictRetry.run(() -> expenseService.confirmPayment(expenseId, participantUserId));
         return ResponseEntity.ok(expense);
     }
 
@@ -109,48 +253,89 @@ public class ExpenseController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Tous les paiements confirmés avec succès"),
             @ApiResponse(responseCode = "403", description = "Seul le créateur peut confirmer"),
-            @ApiResponse(responseCode = "404", description = "Dépense non trouvée")
+            @ApiResponse(responseCode = "404", description = "Dépense non trouvée"),
+            @ApiResponse(responseCode = "409", description = "Modification concurrente, réessayer")
     })
     @PostMapping("/{expenseId}/confirm-all-payments")
     public ResponseEntity<ExpenseResDto> confirmAllPayments(
             @Parameter(description = "ID de la dépense") @PathVariable Long expenseId) throws TechnicalException {
-        ExpenseResDto expense = expenseService.confirmAllPayments(expenseId);
+        ExpenseResDto expense = conflictRetry.run(() -> expenseService.confirmAllPayments(expenseId));
         return ResponseEntity.ok(expense);
     }
 
+    @Operation(summary = "Confirmer en une fois les paiements reçus pour plusieurs dépenses",
+               description = "Sans participants, tous les paiements sont confirmés et les dépenses réglées")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Paiements confirmés avec succès"),
+            @ApiResponse(responseCode = "400", description = "Données invalides"),
+            @ApiResponse(responseCode = "403", description = "Seul le créateur peut confirmer"),
+            @ApiResponse(responseCode = "404", description = "Dépense non trouvée"),
+            @ApiResponse(responseCode = "409", description = "Modification concurrente, réessayer")
+    })
+    @PostMapping("/confirm-payments")
+    public ResponseEntity<PaymentConfirmationResDto> confirmPayments(
+            @Valid @RequestBody PaymentConfirmationReqDto request) throws TechnicalException {
+        PaymentConfirmationResDto result = conflictRetry.run(() -> expenseService.confirmPayments(request));
+        return ResponseEntity.ok(result);
+    }
+
     @Operation(summary = "Supprimer une dépense")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Dépense supprimée avec succès"),
             @ApiResponse(responseCode = "400", description = "Impossible de supprimer une dépense réglée"),
             @ApiResponse(responseCode = "403", description = "Seul le créateur peut supprimer"),
-            @ApiResponse(responseCode = "404", description = "Dépense non trouvée")
+            @ApiResponse(responseCode = "404", description = "Dépense non trouvée"),
+            @ApiResponse(responseCode = "409", description = "Modification concurrente, réessayer")
     })
     @DeleteMapping("/{expenseId}")
     public ResponseEntity<Void> deleteExpense(
             @Parameter(description = "ID de la dépense") @PathVariable Long expenseId) throws TechnicalException {
-        expenseService.deleteExpense(expenseId);
+        conflictRetry.run(() -> {
+            expenseService.deleteExpense(expenseId);
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Récupérer les paiements en attente pour l'utilisateur connecté")
+    @Operation(summary = "Récupérer le résumé des paiements et confirmations en attente par colocation",
+               description = "Nombres et montants totaux uniquement, pour les badges de l'application")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Résumé récupéré avec succès"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
+    })
+    @GetMapping("/pending-summary")
+    public ResponseEntity<List<PendingSummaryResDto>> getPendingSummary() throws TechnicalException {
+        List<PendingSummaryResDto> summary = expenseService.getPendingSummary();
+        return ResponseEntity.ok(summary);
+    }
+
+    @Operation(summary = "Récupérer les paiements en attente pour l'utilisateur connecté, paginés",
+               description = "Pagination par curseur : passer le nextCursor de la page précédente pour obtenir la suivante")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Liste des paiements en attente récupérée avec succès"),
+            @ApiResponse(responseCode = "200", description = "Page des paiements en attente récupérée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur ou taille de page invalide"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
     @GetMapping("/pending-payments")
-    public ResponseEntity<List<ExpenseResDto>> getPendingPayments() throws TechnicalException {
-        List<ExpenseResDto> pendingExpenses = expenseService.getPendingPayments();
+    public ResponseEntity<CursorPageResDto<ExpenseResDto>> getPendingPayments(
+            @Parameter(description = "Curseur de la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page (20 par défaut, 100 au maximum)") @RequestParam(required = false) Integer limit) throws TechnicalException {
+        CursorPageResDto<ExpenseResDto> pendingExpenses = expenseService.getPendingPayments(cursor, limit);
         return ResponseEntity.ok(pendingExpenses);
     }
 
-    @Operation(summary = "Récupérer les confirmations en attente pour l'utilisateur connecté")
+    @Operation(summary = "Récupérer les confirmations en attente pour l'utilisateur connecté, paginées",
+               description = "Pagination par curseur : passer le nextCursor de la page précédente pour obtenir la suivante")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Liste des confirmations en attente récupérée avec succès"),
+            @ApiResponse(responseCode = "200", description = "Page des confirmations en attente récupérée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur ou taille de page invalide"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
     @GetMapping("/pending-confirmations")
-    public ResponseEntity<List<ExpenseResDto>> getPendingConfirmations() throws TechnicalException {
-        List<ExpenseResDto> pendingExpenses = expenseService.getPendingConfirmations();
+    public ResponseEntity<CursorPageResDto<ExpenseResDto>> getPendingConfirmations(
+            @Parameter(description = "Curseur de la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page (20 par défaut, 100 au maximum)") @RequestParam(required = false) Integer limit) throws TechnicalException {
+        CursorPageResDto<ExpenseResDto> pendingExpenses = expenseService.getPendingConfirmations(cursor, limit);
         return ResponseEntity.ok(pendingExpenses);
     }
 }
@@ -0,0 +1,68 @@
+package fr.esgi.rest.expense;
+
+import fr.esgi.domain.dto.expense.RecurringExpenseReqDto;
+import fr.esgi.domain.dto.expense.RecurringExpenseResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.service.expense.RecurringExpenseService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recurring-expenses")
+@RequiredArgsConstructor
+@Tag(name = "Recurring expenses", description = "Gestion des dépenses récurrentes de colocation (loyer, charges, abonnements)")
+public class RecurringExpenseController {
+
+    private final RecurringExpenseService recurringExpenseService;
+
+    @Operation(summary = "Créer une dépense récurrente",
+               description = "Chaque échéance est créée automatiquement comme une dépense payée par l'utilisateur connecté")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Dépense récurrente créée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Données invalides"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+    })
+    @PostMapping
+    public ResponseEntity<RecurringExpenseResDto> createRecurringExpense(
+            @Valid @RequestBody RecurringExpenseReqDto recurringExpenseReqDto) throws TechnicalException {
+        RecurringExpenseResDto created = recurringExpenseService.createRecurringExpense(recurringExpenseReqDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    @Operation(summary = "Récupérer les dépenses récurrentes actives d'une colocation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dépenses récurrentes récupérées avec succès"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+    })
+    @GetMapping("/space/{spaceId}")
+    public ResponseEntity<List<RecurringExpenseResDto>> getRecurringExpensesBySpace(
+            @Parameter(description = "ID de la colocation") @PathVariable Long spaceId) throws TechnicalException {
+        return ResponseEntity.ok(recurringExpenseService.getRecurringExpensesBySpace(spaceId));
+    }
+
+    @Operation(summary = "Arrêter une dépense récurrente",
+               description = "Les échéances déjà créées sont conservées")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Dépense récurrente arrêtée avec succès"),
+            @ApiResponse(responseCode = "403", description = "Seul le payeur ou le gestionnaire peut l'arrêter"),
+            @ApiResponse(responseCode = "404", description = "Dépense récurrente non trouvée")
+    })
+    @DeleteMapping("/{recurringExpenseId}")
+    public ResponseEntity<Void> stopRecurringExpense(
+            @Parameter(description = "ID de la dépense récurrente") @PathVariable Long recurringExpenseId) throws TechnicalException {
+        recurringExpenseService.stopRecurringExpense(recurringExpenseId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,91 @@
+package fr.esgi.rest.interne;
+
+import fr.esgi.domain.dto.chore.ChoreRotationReqDto;
+import fr.esgi.domain.dto.chore.ChoreRotationResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.service.chore.ChoreRotationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController()
+@RequestMapping("/api/interne/collocations/{idCollocation}/chore-rotations")
+@RequiredArgsConstructor
+@Tag(name = "Chore rotations", description = "Gestion des corvées récurrentes tournant entre les colocataires")
+public class ChoreRotationRest {
+
+    private final ChoreRotationService choreRotationService;
+
+    @Operation(
+            summary = "Créer une rotation de corvée",
+            description = "Les prochaines occurrences de la corvée sont créées automatiquement comme des tâches, "
+                          + "assignées à tour de rôle au membre ayant le moins de tâches ouvertes"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "201", description = "Rotation de corvée créée avec succès"),
+                    @ApiResponse(responseCode = "400", description = "Données de la rotation invalides"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation"),
+                    @ApiResponse(responseCode = "404", description = "Utilisateur, membre ou colocation non trouvé")
+            }
+    )
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ChoreRotationResDto createChoreRotation(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation,
+            @Parameter(description = "Données de la rotation à créer", required = true)
+            @Valid @RequestBody ChoreRotationReqDto dto) throws
+                                                         TechnicalException {
+        return choreRotationService.createChoreRotation(idCollocation, dto);
+    }
+
+    @Operation(summary = "Obtenir les rotations de corvée actives d'une colocation")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Rotations de corvée récupérées avec succès"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation"),
+                    @ApiResponse(responseCode = "404", description = "Utilisateur ou colocation non trouvé")
+            }
+    )
+    @GetMapping
+    public List<ChoreRotationResDto> getChoreRotations(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation) throws
+                                              TechnicalException {
+        return choreRotationService.getChoreRotations(idCollocation);
+    }
+
+    @Operation(
+            summary = "Arrêter une rotation de corvée",
+            description = "Les tâches déjà créées sont conservées"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "204", description = "Rotation de corvée arrêtée avec succès"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Seul le créateur ou le gestionnaire peut l'arrêter"),
+                    @ApiResponse(responseCode = "404", description = "Rotation de corvée non trouvée")
+            }
+    )
+    @DeleteMapping("/{rotationId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void stopChoreRotation(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation,
+            @Parameter(description = "ID de la rotation de corvée", required = true)
+            @PathVariable Long rotationId) throws
+                                           TechnicalException {
+        choreRotationService.stopChoreRotation(idCollocation, rotationId);
+    }
+}
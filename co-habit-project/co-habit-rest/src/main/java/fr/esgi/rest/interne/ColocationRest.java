@@ -124,13 +124,30 @@ public class ColocationRest {
                              .build();
     }
 
+    @PostMapping("/{id}/invitation-code")
+    @Operation(summary = "Renouveler le code d'invitation", description = "Remplace le code d'invitation d'une colocation (seul le gestionnaire peut renouveler)")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Code d'invitation renouvelé avec succès"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé - seul le gestionnaire peut renouveler"),
+                    @ApiResponse(responseCode = "404", description = "Colocation non trouvée")
+            }
+    )
+    public ResponseEntity<ColocationResDto> renewInvitationCode(
+            @Parameter(description = "ID de la colocation") @PathVariable Long id) throws
+                                                                                   TechnicalException {
+        ColocationResDto result = colocationService.renewInvitationCode(id);
+        return ResponseEntity.ok(result);
+    }
+
     @PostMapping("/join/{invitationCode}")
     @Operation(summary = "Rejoindre une colocation", description = "Rejoint une colocation en utilisant le code d'invitation")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "200", description = "Colocation rejointe avec succès"),
                     @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
-                    @ApiResponse(responseCode = "404", description = "Code d'invitation invalide ou utilisateur non trouvé"),
+                    @ApiResponse(responseCode = "404", description = "Code d'invitation invalide, expiré ou utilisateur non trouvé"),
                     @ApiResponse(responseCode = "409", description = "Utilisateur déjà membre ou colocation pleine")
             }
     )
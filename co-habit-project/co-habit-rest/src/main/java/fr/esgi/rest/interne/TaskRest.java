@@ -1,19 +1,34 @@
 package fr.esgi.rest.interne;
 
+import fr.esgi.domain.dto.page.CursorPageResDto;
+import fr.esgi.domain.dto.task.TaskBulkAssignReqDto;
+import fr.esgi.domain.dto.task.TaskBulkCreateReqDto;
+import fr.esgi.domain.dto.task.TaskBulkReqDto;
+import fr.esgi.domain.dto.task.TaskBulkResDto;
+import fr.esgi.domain.dto.task.TaskDashboardResDto;
+import fr.esgi.domain.dto.task.TaskPriority;
 import fr.esgi.domain.dto.task.TaskReqDto;
 import fr.esgi.domain.dto.task.TaskResDto;
+import fr.esgi.domain.dto.task.TaskSearchHitResDto;
+import fr.esgi.domain.dto.task.TaskSearchReqDto;
+import fr.esgi.domain.dto.task.TaskStatus;
 import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.service.task.TaskBulkService;
 import fr.esgi.service.task.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @RestController()
 @RequestMapping("/api/interne/collocations/{idCollocation}/tasks")
@@ -21,7 +36,8 @@ import java.util.List;
 @Tag(name = "Tasks", description = "Gestion des tâches de colocation")
 public class TaskRest {
 
-    private final TaskService taskService;
+    private final TaskService     taskService;
+    private final TaskBulkService taskBulkService;
 
     @Operation(
             summary = "Créer une nouvelle tâche",
@@ -48,23 +64,98 @@ public class TaskRest {
     }
 
     @Operation(
-            summary = "Obtenir toutes les tâches d'une colocation",
-            description = "Récupère la liste de toutes les tâches de la colocation spécifiée"
+            summary = "Obtenir les tâches d'une colocation, page par page",
+            description = "Tâches triées par échéance la plus proche, les tâches sans échéance en dernier. "
+                          + "Les tâches terminées sont masquées par défaut. Renvoyer le curseur nextCursor pour "
+                          + "obtenir la page suivante ; avec pointInTime, les pages sont lues sur un instantané "
+                          + "des tâches pris à la première page."
     )
     @ApiResponses(
             value = {
-                    @ApiResponse(responseCode = "200", description = "Liste des tâches récupérée avec succès"),
+                    @ApiResponse(responseCode = "200", description = "Page de tâches récupérée avec succès"),
+                    @ApiResponse(responseCode = "400", description = "Curseur ou taille de page invalide"),
                     @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
                     @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation"),
                     @ApiResponse(responseCode = "404", description = "Utilisateur ou colocation non trouvé")
             }
     )
     @GetMapping
-    public List<TaskResDto> getTasksByColocation(
+    public CursorPageResDto<TaskResDto> getTasksByColocation(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation,
+            @Parameter(description = "Inclure les tâches terminées")
+            @RequestParam(defaultValue = "false") boolean includeCompleted,
+            @Parameter(description = "Curseur de la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page (20 par défaut, 100 au maximum)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Lire les pages sur un instantané pris à la première page")
+            @RequestParam(defaultValue = "false") boolean pointInTime) throws
+                                                                       TechnicalException {
+        return taskService.getTasksByColocation(idCollocation, includeCompleted, cursor, limit, pointInTime);
+    }
+
+    @Operation(
+            summary = "Rechercher les tâches d'une colocation",
+            description = "Recherche plein texte dans le titre et la description, meilleurs résultats en premier, "
+                          + "termes trouvés surlignés. Sans texte, les tâches sont triées par échéance. "
+                          + "Renvoyer le curseur nextCursor pour obtenir la page suivante."
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Page de résultats récupérée avec succès"),
+                    @ApiResponse(responseCode = "400", description = "Critères, curseur ou taille de page invalides"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation"),
+                    @ApiResponse(responseCode = "404", description = "Utilisateur ou colocation non trouvé")
+            }
+    )
+    @GetMapping("/search")
+    public CursorPageResDto<TaskSearchHitResDto> searchTasks(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation,
+            @Parameter(description = "Texte cherché dans le titre et la description")
+            @RequestParam(name = "q", required = false) String text,
+            @Parameter(description = "Statuts acceptés")
+            @RequestParam(name = "status", required = false) Set<TaskStatus> statuses,
+            @Parameter(description = "Priorités acceptées")
+            @RequestParam(name = "priority", required = false) Set<TaskPriority> priorities,
+            @Parameter(description = "Tags acceptés, au moins un doit être présent")
+            @RequestParam(name = "tag", required = false) Set<String> tags,
+            @Parameter(description = "ID d'un utilisateur assigné")
+            @RequestParam(required = false) Long assigneeId,
+            @Parameter(description = "Échéance minimale, incluse (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @Parameter(description = "Échéance maximale, incluse (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @Parameter(description = "Curseur de la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page (20 par défaut, 100 au maximum)")
+            @RequestParam(required = false) Integer limit) throws
+                                                           TechnicalException {
+        TaskSearchReqDto filter = new TaskSearchReqDto(text, statuses, priorities, tags, assigneeId, dueFrom, dueTo);
+        return taskService.searchTasks(idCollocation, filter, cursor, limit);
+    }
+
+    @Operation(
+            summary = "Obtenir le tableau de bord des tâches d'une colocation",
+            description = "Nombre de tâches par statut et par priorité, tâches ouvertes par colocataire "
+                          + "et tâches en retard, calculés par Elasticsearch sans renvoyer les tâches"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Tableau de bord récupéré avec succès"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation"),
+                    @ApiResponse(responseCode = "404", description = "Utilisateur ou colocation non trouvé")
+            }
+    )
+    @GetMapping("/dashboard")
+    public TaskDashboardResDto getDashboard(
             @Parameter(description = "ID de la colocation", required = true)
             @PathVariable Long idCollocation) throws
                                               TechnicalException {
-        return taskService.getTasksByColocation(idCollocation);
+        return taskService.getDashboard(idCollocation);
     }
 
     @Operation(
@@ -86,7 +177,7 @@ public class TaskRest {
             @Parameter(description = "ID de la tâche", required = true)
             @PathVariable String taskId) throws
                                          TechnicalException {
-        return taskService.getTaskById(taskId);
+        return taskService.getTaskById(idCollocation, taskId);
     }
 
     @Operation(
@@ -111,7 +202,7 @@ public class TaskRest {
             @Parameter(description = "Nouvelles données de la tâche", required = true)
             @RequestBody TaskReqDto dto) throws
                                          TechnicalException {
-        return taskService.updateTask(taskId, dto);
+        return taskService.updateTask(idCollocation, taskId, dto);
     }
 
     @Operation(
@@ -135,7 +226,7 @@ public class TaskRest {
             @Parameter(description = "ID de l'utilisateur à assigner", required = true)
             @PathVariable Long userId) throws
                                        TechnicalException {
-        return taskService.assignTask(taskId, userId);
+        return taskService.assignTask(idCollocation, taskId, userId);
     }
 
     @Operation(
@@ -157,7 +248,7 @@ public class TaskRest {
             @Parameter(description = "ID de la tâche", required = true)
             @PathVariable String taskId) throws
                                          TechnicalException {
-        return taskService.completeTask(taskId);
+        return taskService.completeTask(idCollocation, taskId);
     }
 
     @Operation(
@@ -180,7 +271,7 @@ public class TaskRest {
             @Parameter(description = "ID de la tâche", required = true)
             @PathVariable String taskId) throws
                                          TechnicalException {
-        taskService.deleteTask(taskId);
+        taskService.deleteTask(idCollocation, taskId);
     }
 
     @Operation(
@@ -217,4 +308,97 @@ public class TaskRest {
         return taskService.getMostRecentTasks(idCollocation);
     }
 
+    @Operation(
+            summary = "Créer plusieurs tâches",
+            description = "Crée jusqu'à 100 tâches dans la colocation en une seule écriture groupée. "
+                          + "Chaque tâche a son propre résultat : l'écriture n'est pas atomique."
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Résultat de chaque tâche (201 si créée)"),
+                    @ApiResponse(responseCode = "400", description = "Données des tâches invalides"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation"),
+                    @ApiResponse(responseCode = "404", description = "Utilisateur ou colocation non trouvé")
+            }
+    )
+    @PostMapping("/bulk")
+    public TaskBulkResDto createTasks(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation,
+            @Parameter(description = "Tâches à créer", required = true)
+            @Valid @RequestBody TaskBulkCreateReqDto dto) throws
+                                                          TechnicalException {
+        return taskBulkService.createTasks(idCollocation, dto);
+    }
+
+    @Operation(
+            summary = "Assigner plusieurs tâches à un colocataire",
+            description = "Ajoute le colocataire aux assignés de jusqu'à 100 tâches en une seule écriture groupée"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Résultat de chaque tâche (200 si assignée, 404 si non trouvée)"),
+                    @ApiResponse(responseCode = "400", description = "Requête invalide"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation ou assigné hors colocation"),
+                    @ApiResponse(responseCode = "404", description = "Utilisateur, assigné ou colocation non trouvé")
+            }
+    )
+    @PatchMapping("/bulk/assign")
+    public TaskBulkResDto assignTasks(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation,
+            @Parameter(description = "Tâches et colocataire à assigner", required = true)
+            @Valid @RequestBody TaskBulkAssignReqDto dto) throws
+                                                          TechnicalException {
+        return taskBulkService.assignTasks(idCollocation, dto);
+    }
+
+    @Operation(
+            summary = "Marquer plusieurs tâches comme terminées",
+            description = "Termine jusqu'à 100 tâches en une seule écriture groupée"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Résultat de chaque tâche (200 si terminée, 404 si non trouvée)"),
+                    @ApiResponse(responseCode = "400", description = "Requête invalide"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation"),
+                    @ApiResponse(responseCode = "404", description = "Utilisateur ou colocation non trouvé")
+            }
+    )
+    @PatchMapping("/bulk/complete")
+    public TaskBulkResDto completeTasks(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation,
+            @Parameter(description = "Tâches à terminer", required = true)
+            @Valid @RequestBody TaskBulkReqDto dto) throws
+                                                    TechnicalException {
+        return taskBulkService.completeTasks(idCollocation, dto);
+    }
+
+    @Operation(
+            summary = "Supprimer plusieurs tâches",
+            description = "Supprime jusqu'à 100 tâches en une seule écriture groupée"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Résultat de chaque tâche (204 si supprimée, 404 si non trouvée)"),
+                    @ApiResponse(responseCode = "400", description = "Requête invalide"),
+                    @ApiResponse(responseCode = "401", description = "Utilisateur non authentifié"),
+                    @ApiResponse(responseCode = "403", description = "Accès refusé à cette colocation"),
+                    @ApiResponse(responseCode = "404", description = "Utilisateur ou colocation non trouvé")
+            }
+    )
+    @PostMapping("/bulk/delete")
+    public TaskBulkResDto deleteTasks(
+            @Parameter(description = "ID de la colocation", required = true)
+            @PathVariable Long idCollocation,
+            @Parameter(description = "Tâches à supprimer", required = true)
+            @Valid @RequestBody TaskBulkReqDto dto) throws
+                                                    TechnicalException {
+        return taskBulkService.deleteTasks(idCollocation, dto);
+    }
+
 }
@@ -137,6 +137,22 @@ class ColocationRestTest {
         verify(colocationService).deleteColocation(testColocationId);
     }
 
+    @Test
+    void renewInvitationCode_ShouldReturnColocationWithNewCode() throws
+                                                                 TechnicalException {
+        // Given
+        when(colocationService.renewInvitationCode(testColocationId))
+                .thenReturn(testResponseDto);
+
+        // When
+        ResponseEntity<ColocationResDto> result = colocationRest.renewInvitationCode(testColocationId);
+
+        // Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isEqualTo(testResponseDto);
+        verify(colocationService).renewInvitationCode(testColocationId);
+    }
+
     @Test
     void joinColocation_ShouldReturnJoinedColocation() throws
                                                        TechnicalException {
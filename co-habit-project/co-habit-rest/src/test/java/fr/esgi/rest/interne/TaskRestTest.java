@@ -1,18 +1,31 @@
 package fr.esgi.rest.interne;
 
+import fr.esgi.domain.dto.page.CursorPageResDto;
+import fr.esgi.domain.dto.task.TaskBulkItemResDto;
+import fr.esgi.domain.dto.task.TaskBulkReqDto;
+import fr.esgi.domain.dto.task.TaskBulkResDto;
+import fr.esgi.domain.dto.task.TaskDashboardResDto;
 import fr.esgi.domain.dto.task.TaskReqDto;
 import fr.esgi.domain.dto.task.TaskResDto;
+import fr.esgi.domain.dto.task.TaskSearchHitResDto;
+import fr.esgi.domain.dto.task.TaskSearchReqDto;
+import fr.esgi.domain.dto.task.TaskStatus;
 import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.service.task.TaskBulkService;
 import fr.esgi.service.task.TaskService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -27,6 +40,9 @@ class TaskRestTest {
     @Mock
     private TaskService taskService;
 
+    @Mock
+    private TaskBulkService taskBulkService;
+
     @InjectMocks
     private TaskRest taskRest;
 
@@ -73,37 +89,70 @@ class TaskRestTest {
     }
 
     @Test
-    void getTasksByColocation_ShouldReturnList() throws TechnicalException {
-        when(taskService.getTasksByColocation(eq(idCollocation)))
-                .thenReturn(testResList);
+    void getTasksByColocation_ShouldReturnPage() throws TechnicalException {
+        CursorPageResDto<TaskResDto> page = new CursorPageResDto<>(testResList, "next");
+        when(taskService.getTasksByColocation(idCollocation, false, null, 20, true))
+                .thenReturn(page);
 
-        List<TaskResDto> result = taskRest.getTasksByColocation(idCollocation);
+        CursorPageResDto<TaskResDto> result = taskRest.getTasksByColocation(idCollocation, false, null, 20, true);
 
-        assertThat(result).isEqualTo(testResList);
-        assertThat(result).hasSize(1);
-        verify(taskService).getTasksByColocation(idCollocation);
+        assertThat(result).isEqualTo(page);
+        assertThat(result.getItems()).hasSize(1);
+        verify(taskService).getTasksByColocation(idCollocation, false, null, 20, true);
+    }
+
+    @Test
+    void searchTasks_ShouldPassTheCriteria() throws TechnicalException {
+        CursorPageResDto<TaskSearchHitResDto> page = new CursorPageResDto<>(
+                List.of(new TaskSearchHitResDto(testResDto, Map.of("title", List.of("Faire les <em>courses</em>")))), "next");
+        when(taskService.searchTasks(eq(idCollocation), any(TaskSearchReqDto.class), eq("cursor"), eq(10)))
+                .thenReturn(page);
+
+        CursorPageResDto<TaskSearchHitResDto> result = taskRest.searchTasks(
+                idCollocation, "courses", Set.of(TaskStatus.TODO), null, Set.of("maison"), userId,
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31), "cursor", 10);
+
+        assertThat(result).isEqualTo(page);
+        ArgumentCaptor<TaskSearchReqDto> filter = ArgumentCaptor.forClass(TaskSearchReqDto.class);
+        verify(taskService).searchTasks(eq(idCollocation), filter.capture(), eq("cursor"), eq(10));
+        assertThat(filter.getValue().getText()).isEqualTo("courses");
+        assertThat(filter.getValue().getStatuses()).containsExactly(TaskStatus.TODO);
+        assertThat(filter.getValue().getTags()).containsExactly("maison");
+        assertThat(filter.getValue().getAssigneeId()).isEqualTo(userId);
+        assertThat(filter.getValue().getDueTo()).isEqualTo(LocalDate.of(2025, 7, 31));
+    }
+
+    @Test
+    void getDashboard_ShouldReturnDashboard() throws TechnicalException {
+        TaskDashboardResDto dashboard = new TaskDashboardResDto(3, 2, 1, Map.of(TaskStatus.TODO, 2L), Map.of(), List.of());
+        when(taskService.getDashboard(idCollocation)).thenReturn(dashboard);
+
+        TaskDashboardResDto result = taskRest.getDashboard(idCollocation);
+
+        assertThat(result).isEqualTo(dashboard);
+        verify(taskService).getDashboard(idCollocation);
     }
 
     @Test
     void getTaskById_ShouldReturnTask() throws TechnicalException {
-        when(taskService.getTaskById(eq(taskId)))
+        when(taskService.getTaskById(eq(idCollocation), eq(taskId)))
                 .thenReturn(testResDto);
 
         TaskResDto result = taskRest.getTaskById(idCollocation, taskId);
 
         assertThat(result).isEqualTo(testResDto);
-        verify(taskService).getTaskById(taskId);
+        verify(taskService).getTaskById(idCollocation, taskId);
     }
 
     @Test
     void updateTask_ShouldReturnUpdatedTask() throws TechnicalException {
-        when(taskService.updateTask(eq(taskId), any(TaskReqDto.class)))
+        when(taskService.updateTask(eq(idCollocation), eq(taskId), any(TaskReqDto.class)))
                 .thenReturn(testResDto);
 
         TaskResDto result = taskRest.updateTask(idCollocation, taskId, testReqDto);
 
         assertThat(result).isEqualTo(testResDto);
-        verify(taskService).updateTask(taskId, testReqDto);
+        verify(taskService).updateTask(idCollocation, taskId, testReqDto);
     }
 
     @Test
@@ -114,13 +163,13 @@ class TaskRestTest {
                 .assignedUserIds(Collections.singleton(userId))
                 .build();
 
-        when(taskService.assignTask(eq(taskId), eq(userId)))
+        when(taskService.assignTask(eq(idCollocation), eq(taskId), eq(userId)))
                 .thenReturn(assigned);
 
         TaskResDto result = taskRest.assignTask(idCollocation, taskId, userId);
 
         assertThat(result).isEqualTo(assigned);
-        verify(taskService).assignTask(taskId, userId);
+        verify(taskService).assignTask(idCollocation, taskId, userId);
     }
 
     @Test
@@ -130,13 +179,13 @@ class TaskRestTest {
                 .completedAt("2025-06-25T08:20:41.678Z")
                 .build();
 
-        when(taskService.completeTask(eq(taskId)))
+        when(taskService.completeTask(eq(idCollocation), eq(taskId)))
                 .thenReturn(done);
 
         TaskResDto result = taskRest.completeTask(idCollocation, taskId);
 
         assertThat(result).isEqualTo(done);
-        verify(taskService).completeTask(taskId);
+        verify(taskService).completeTask(idCollocation, taskId);
     }
 
     @Test
@@ -144,7 +193,7 @@ class TaskRestTest {
         // no return value
         taskRest.deleteTask(idCollocation, taskId);
 
-        verify(taskService).deleteTask(taskId);
+        verify(taskService).deleteTask(idCollocation, taskId);
     }
 
     @Test
@@ -195,4 +244,16 @@ class TaskRestTest {
         verify(taskService).getMostRecentTasks(idCollocation);
     }
 
+    @Test
+    void completeTasks_ShouldReturnTheResultOfEachTask() throws TechnicalException {
+        TaskBulkReqDto request = new TaskBulkReqDto(List.of(taskId, "missing"));
+        TaskBulkResDto bulk = new TaskBulkResDto(1, 1, List.of(new TaskBulkItemResDto(taskId, 200, null),
+                                                               new TaskBulkItemResDto("missing", 404, "Tâche non trouvée")));
+        when(taskBulkService.completeTasks(idCollocation, request)).thenReturn(bulk);
+
+        TaskBulkResDto result = taskRest.completeTasks(idCollocation, request);
+
+        assertThat(result).isEqualTo(bulk);
+        verify(taskBulkService).completeTasks(idCollocation, request);
+    }
 }
@@ -0,0 +1,94 @@
+package fr.esgi.service;
+
+import fr.esgi.domain.exception.TechnicalException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replays a transactional call that lost a race with a concurrent transaction.
+ * <br>
+ * An optimistic locking failure ({@code @Version} mismatch) or a pessimistic one (deadlock victim,
+ * lock timeout) rolls the whole transaction back : the call is run again, up to
+ * {@code cohabit.conflict-retry.max-attempts} times with a short randomised backoff, then the
+ * conflict is reported as a 409. The call must open its own transaction : within a caller's
+ * transaction, already marked for rollback, it is run once and the failure is left to the caller.
+ * <br>
+ * Metrics : {@code cohabit.conflict_retry.retries}.
+ */
+@Component
+@Log4j2
+public class ConflictRetry {
+
+    private final int     maxAttempts;
+    private final long    backoffMillis;
+    private final Counter retries;
+
+    /**
+     * A transactional call, typically a service method called through its proxy.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws
+                 TechnicalException;
+    }
+
+    public ConflictRetry(
+            MeterRegistry meterRegistry,
+            @Value("${cohabit.conflict-retry.max-attempts:3}") int maxAttempts,
+            @Value("${cohabit.conflict-retry.backoff-ms:20}") long backoffMillis
+    ) {
+        this.maxAttempts   = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.retries       = Counter.builder("cohabit.conflict_retry.retries")
+                                    .description("Transactional calls replayed after a concurrency failure")
+                                    .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call, replaying it after a concurrency failure.
+     *
+     * @return The result of the first successful attempt.
+     * @throws TechnicalException 409 once every attempt failed, or the exception of the call.
+     */
+    public <T> T run(Call<T> call) throws
+                                   TechnicalException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return call.call();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.call();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Conflit persistant après {} tentative(s) : {}", attempt, e.getMessage());
+                    throw new TechnicalException(409, "Modification concurrente, veuillez réessayer");
+                }
+                log.debug("Conflit à la tentative {}, nouvel essai : {}", attempt, e.getMessage());
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Attente aléatoire croissante, pour que deux requêtes en conflit ne se rejouent pas en même temps
+    private void backoff(int attempt) throws
+                                      TechnicalException {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TechnicalException(409, "Modification concurrente, veuillez réessayer");
+        }
+    }
+}
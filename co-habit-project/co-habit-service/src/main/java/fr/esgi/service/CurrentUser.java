@@ -0,0 +1,178 @@
+package fr.esgi.service;
+
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.user.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves the authenticated {@link User} from the JWT subject.
+ * <br>
+ * Most services only need the id of the authenticated user, for access checks or to stamp
+ * an author : they call {@link #findId()}, answered across requests from a bounded LRU cache
+ * mapping the Keycloak {@code sub} to the user id, without any query on a hit.
+ * <br>
+ * Services that read the entity itself call {@link #find()} : the entity is kept in the current
+ * HTTP request attributes so that every service called during the same request reuses it, and a
+ * cached id turns its loading into a primary key lookup.
+ * <br>
+ * Metrics : {@code cohabit.current_user.lookups} tagged with {@code source}
+ * ({@code request}, {@code cache}, {@code database}) and {@code cohabit.current_user.cache.size}.
+ */
+@Component
+@Log4j2
+public class CurrentUser extends AbstractService {
+
+    static final String REQUEST_ATTRIBUTE = CurrentUser.class.getName() + ".USER";
+
+    private final UserRepository    userRepository;
+    private final EntityManager     entityManager;
+    private final Map<String, Long> userIdsBySub;
+    private final Counter           requestHits;
+    private final Counter           cacheHits;
+    private final Counter           cacheMisses;
+
+    public CurrentUser(
+            UserRepository userRepository,
+            EntityManager entityManager,
+            MeterRegistry meterRegistry,
+            @Value("${cohabit.current-user.cache-size:1024}") int cacheSize
+    ) {
+        this.userRepository = userRepository;
+        this.entityManager  = entityManager;
+        this.userIdsBySub   = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.requestHits    = lookupCounter(meterRegistry, "request");
+        this.cacheHits      = lookupCounter(meterRegistry, "cache");
+        this.cacheMisses    = lookupCounter(meterRegistry, "database");
+        Gauge.builder("cohabit.current_user.cache.size", userIdsBySub, this::cacheSize)
+             .description("Number of JWT subjects kept in the user id cache")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Returns the authenticated user, resolved at most once per HTTP request. Prefer {@link #findId()}
+     * when only the id is needed.
+     *
+     * @return The managed {@link User} entity matching the JWT subject, empty if the user does not exist.
+     * @throws TechnicalException If the user is not authenticated.
+     */
+    public Optional<User> find() throws
+                                 TechnicalException {
+        String            sub        = getUserSub();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes != null
+                && attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && sub.equals(user.getKeyCloakSub())
+                && entityManager.contains(user)) {
+            requestHits.increment();
+            return Optional.of(user);
+        }
+
+        Optional<User> user = resolve(sub);
+        if (attributes != null && user.isPresent()) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, user.get(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    /**
+     * Returns the id of the authenticated user without hydrating the entity : taken from the user
+     * already resolved during the request, else from the id cache, else from a query on the id alone.
+     *
+     * @return The id of the authenticated user, empty if the user does not exist.
+     * @throws TechnicalException If the user is not authenticated.
+     */
+    public Optional<Long> findId() throws
+                                   TechnicalException {
+        String            sub        = getUserSub();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes != null
+                && attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && sub.equals(user.getKeyCloakSub())) {
+            requestHits.increment();
+            return Optional.of(user.getId());
+        }
+
+        Long cachedId = cachedId(sub);
+        if (cachedId != null) {
+            cacheHits.increment();
+            return Optional.of(cachedId);
+        }
+
+        cacheMisses.increment();
+        Optional<Long> id = userRepository.findIdByKeyCloakSub(sub);
+        id.ifPresent(value -> cache(sub, value));
+        return id;
+    }
+
+    /**
+     * Removes a subject from the id cache, once its cached id no longer matches a user.
+     */
+    void evict(String sub) {
+        synchronized (userIdsBySub) {
+            userIdsBySub.remove(sub);
+        }
+    }
+
+    private Optional<User> resolve(String sub) {
+        Long cachedId = cachedId(sub);
+        if (cachedId != null) {
+            Optional<User> user = userRepository.findById(cachedId);
+            if (user.isPresent()) {
+                cacheHits.increment();
+                return user;
+            }
+            log.debug("Identifiant en cache obsolète pour le sub {}", sub);
+            evict(sub);
+        }
+
+        cacheMisses.increment();
+        Optional<User> user = userRepository.findByKeyCloakSub(sub);
+        user.ifPresent(value -> cache(sub, value.getId()));
+        return user;
+    }
+
+    private Long cachedId(String sub) {
+        synchronized (userIdsBySub) {
+            return userIdsBySub.get(sub);
+        }
+    }
+
+    private void cache(String sub, Long id) {
+        synchronized (userIdsBySub) {
+            userIdsBySub.put(sub, id);
+        }
+    }
+
+    private double cacheSize(Map<String, Long> cache) {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("cohabit.current_user.lookups")
+                      .description("Resolutions of the authenticated user by source")
+                      .tag("source", source)
+                      .register(meterRegistry);
+    }
+}
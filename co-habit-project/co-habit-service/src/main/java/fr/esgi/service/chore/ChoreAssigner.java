@@ -0,0 +1,59 @@
+package fr.esgi.service.chore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Picks the assignee of each occurrence of a chore rotation : the member with the fewest open tasks,
+ * the members with as many taking their turn in the order of the rotation.
+ * <br>
+ * The members are kept in a min-heap ordered by open tasks, then by turn. The turns follow the
+ * rotation, starting after its last assignee, and a member picked goes back to the end of the
+ * queue : with equal loads, the assignment is a plain round-robin. Each pick adds one task to the
+ * shared load of the colocation, which the next rotations of the colocation start from.
+ */
+final class ChoreAssigner {
+
+    private record Turn(Long userId, long load, long order) {
+    }
+
+    private final PriorityQueue<Turn> heap = new PriorityQueue<>(Comparator.comparingLong(Turn::load)
+                                                                            .thenComparingLong(Turn::order));
+    private final Map<Long, Long>     load;
+    private final int                 size;
+
+    /**
+     * @param memberIds      Members of the rotation, sorted by id, at least one.
+     * @param lastAssigneeId Last member assigned by the rotation, null for its first occurrence.
+     * @param load           Open tasks by member of the colocation, updated by each pick.
+     */
+    ChoreAssigner(List<Long> memberIds, Long lastAssigneeId, Map<Long, Long> load) {
+        this.load = load;
+        this.size = memberIds.size();
+
+        // Le tour reprend au membre suivant le dernier assigné
+        int start = 0;
+        if (lastAssigneeId != null) {
+            while (start < size && memberIds.get(start) <= lastAssigneeId) {
+                start++;
+            }
+        }
+        List<Long> order = new ArrayList<>(memberIds.subList(start % size, size));
+        order.addAll(memberIds.subList(0, start % size));
+
+        for (int i = 0; i < size; i++) {
+            Long userId = order.get(i);
+            heap.add(new Turn(userId, load.getOrDefault(userId, 0L), i));
+        }
+    }
+
+    Long next() {
+        Turn turn = heap.remove();
+        heap.add(new Turn(turn.userId(), turn.load() + 1, turn.order() + size));
+        load.merge(turn.userId(), 1L, Long::sum);
+        return turn.userId();
+    }
+}
@@ -0,0 +1,101 @@
+package fr.esgi.service.chore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Periodically generates the next occurrences of the chore rotations as tasks.
+ * <br>
+ * Each chunk runs in its own transaction and locks the rotations it handles, so several nodes can
+ * run the job at once and share the work. With {@value #MAX_CHUNKS_PER_RUN} chunks of
+ * {@value ChoreRotationService#CHUNK_SIZE} rotations, a run covers the rotations of thousands of
+ * colocations with one aggregation and one bulk request per chunk. A run stops once nothing is due
+ * or after {@value #MAX_CHUNKS_PER_RUN} chunks; what remains is generated by the next run.
+ * <br>
+ * A failing chunk is generated again one rotation at a time : a rotation that still fails is
+ * skipped until the end of the run, so that it does not hold back the rotations due after it. The
+ * run stops when even the due rotations cannot be read. The tasks generated are published as the
+ * {@code cohabit.chores.generated} counter, the rotations skipped as {@code cohabit.chores.failed}.
+ */
+@Component
+@Log4j2
+public class ChoreRotationJob {
+
+    static final int MAX_CHUNKS_PER_RUN = 100;
+
+    private final ChoreRotationService choreRotationService;
+    private final Counter              generatedCounter;
+    private final Counter              failedCounter;
+
+    public ChoreRotationJob(ChoreRotationService choreRotationService, MeterRegistry meterRegistry) {
+        this.choreRotationService = choreRotationService;
+        this.generatedCounter     = Counter.builder("cohabit.chores.generated")
+                                           .description("Tasks generated from the chore rotations")
+                                           .register(meterRegistry);
+        this.failedCounter        = Counter.builder("cohabit.chores.failed")
+                                           .description("Chore rotations skipped by a run because their generation failed")
+                                           .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${cohabit.chores.generation-cron:0 10 * * * *}")
+    public void run() {
+        generateAll(LocalDate.now());
+    }
+
+    /**
+     * @return The number of tasks generated.
+     */
+    public int generateAll(LocalDate today) {
+        Set<Long> skipped = new HashSet<>();
+        int       tasks   = 0;
+        int       chunks  = 0;
+        while (chunks < MAX_CHUNKS_PER_RUN) {
+            ChoreRotationService.Generation generation;
+            try {
+                generation = choreRotationService.generateDue(today, skipped);
+            } catch (RuntimeException e) {
+                log.warn("Lot de rotations de corvée en échec, repris rotation par rotation", e);
+                try {
+                    generation = generateEach(today, skipped);
+                } catch (RuntimeException retryFailure) {
+                    log.error("Génération des corvées interrompue après {} lot(s)", chunks, retryFailure);
+                    break;
+                }
+            }
+            if (generation.rotations() == 0) {
+                break;
+            }
+            chunks++;
+            tasks += generation.tasks();
+        }
+
+        generatedCounter.increment(tasks);
+        log.info("Génération des corvées : {} lot(s), {} tâche(s) créée(s), {} rotation(s) sautée(s)",
+                 chunks, tasks, skipped.size());
+        return tasks;
+    }
+
+    // Les rotations du lot, chacune dans sa transaction ; celles en échec rejoignent skipped
+    private ChoreRotationService.Generation generateEach(LocalDate today, Set<Long> skipped) {
+        List<Long> ids   = choreRotationService.findDueIds(today, skipped);
+        int        tasks = 0;
+        for (Long id : ids) {
+            try {
+                tasks += choreRotationService.generateDue(today, id).tasks();
+            } catch (RuntimeException e) {
+                skipped.add(id);
+                failedCounter.increment();
+                log.error("Rotation de corvée {} sautée jusqu'à la prochaine génération : sa génération échoue", id, e);
+            }
+        }
+        return new ChoreRotationService.Generation(ids.size(), tasks);
+    }
+}
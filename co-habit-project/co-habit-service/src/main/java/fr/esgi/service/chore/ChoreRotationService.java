@@ -0,0 +1,314 @@
+package fr.esgi.service.chore;
+
+import fr.esgi.domain.dto.chore.ChoreRotationReqDto;
+import fr.esgi.domain.dto.chore.ChoreRotationResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.chore.ChoreRotation;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.chore.ChoreRotationRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.chore.mapper.ChoreRotationMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import fr.esgi.service.task.TaskWriter;
+import fr.esgi.service.task.store.TaskStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Manages the chore rotations of a colocation and generates their next occurrences as tasks,
+ * assigned in turn to the members of the rotation.
+ * <br>
+ * {@link #generateDue(LocalDate, Collection)} handles one chunk in one transaction : it locks up to
+ * {@value #CHUNK_SIZE} due rotations, skipping those locked by another node, reads the open tasks of
+ * each member of their colocations in a single aggregation, generates at most
+ * {@value #MAX_OCCURRENCES_PER_CHUNK} occurrences for each and writes them through the
+ * {@link TaskWriter} at once, in a single bulk request, after the changes of these tasks still
+ * waiting to be indexed. Each occurrence goes to the member with the
+ * fewest open tasks (see {@link ChoreAssigner}).
+ */
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class ChoreRotationService extends AbstractService {
+
+    static final int CHUNK_SIZE                = 200;
+    static final int MAX_OCCURRENCES_PER_CHUNK = 12;
+
+    static final int DEFAULT_OCCURRENCES_AHEAD = 4;
+
+    // An occurrence is due by the end of its day
+    private static final LocalTime DUE_TIME = LocalTime.of(23, 59, 59);
+
+    private final ChoreRotationRepository   choreRotationRepository;
+    private final TaskStore                 taskStore;
+    private final TaskWriter                taskWriter;
+    private final ColocationRepository      colocationRepository;
+    private final UserRepository            userRepository;
+    private final CurrentUser               currentUser;
+    private final ColocationMembershipIndex membershipIndex;
+    private final ChoreRotationMapper       choreRotationMapper;
+
+    /**
+     * Outcome of one generation chunk.
+     *
+     * @param rotations Number of due rotations processed, zero once nothing is due.
+     * @param tasks     Number of tasks generated.
+     */
+    record Generation(int rotations, int tasks) {
+    }
+
+    /**
+     * Creates a chore rotation in a colocation, the authenticated user being its creator. Its first
+     * occurrences are generated by the next generation.
+     */
+    @Transactional
+    public ChoreRotationResDto createChoreRotation(Long colocationId, ChoreRotationReqDto dto) throws
+                                                                                               TechnicalException {
+        User creator = currentUser.find()
+                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        Colocation colocation = colocationRepository.findById(colocationId)
+                .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
+
+        if (!membershipIndex.isRoommate(creator.getId(), colocation.getId())) {
+            throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
+        }
+
+        if (dto.getEndDate() != null && dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new TechnicalException(400, "La date de fin doit être postérieure à la date de début");
+        }
+
+        if (dto.getPausedUntil() != null
+                && (dto.getPausedFrom() == null || dto.getPausedUntil().isBefore(dto.getPausedFrom()))) {
+            throw new TechnicalException(400, "La fin de la pause doit suivre son début");
+        }
+
+        ChoreRotation choreRotation = choreRotationMapper.mapDtoToChoreRotation(dto);
+        choreRotation.setOccurrencesAhead(dto.getOccurrencesAhead() != null ? dto.getOccurrencesAhead() : DEFAULT_OCCURRENCES_AHEAD);
+        choreRotation.setCreator(creator);
+        choreRotation.setColocation(colocation);
+        choreRotation.setMembers(getMembers(dto.getMemberIds(), colocation));
+        if (dto.getSkippedDays() != null) {
+            choreRotation.setSkippedDays(new HashSet<>(dto.getSkippedDays()));
+        }
+
+        return choreRotationMapper.mapChoreRotationToResDto(choreRotationRepository.save(choreRotation));
+    }
+
+    /**
+     * Gets the active chore rotations of a colocation, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<ChoreRotationResDto> getChoreRotations(Long colocationId) throws
+                                                                          TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        if (!colocationRepository.existsById(colocationId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
+
+        if (!membershipIndex.isRoommate(userId, colocationId)) {
+            throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
+        }
+
+        return choreRotationMapper.mapChoreRotationsToResDtos(
+                choreRotationRepository.findByColocationIdAndActiveTrueOrderByIdAsc(colocationId));
+    }
+
+    /**
+     * Stops a chore rotation (only its creator or the colocation manager can). Tasks already
+     * generated are kept.
+     */
+    @Transactional
+    public void stopChoreRotation(Long colocationId, Long rotationId) throws
+                                                                      TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        ChoreRotation choreRotation = choreRotationRepository.findById(rotationId)
+                .filter(rotation -> rotation.getColocation().getId().equals(colocationId))
+                .orElseThrow(() -> new TechnicalException(404, "Rotation de corvée non trouvée"));
+
+        if (!choreRotation.getCreator().getId().equals(userId)
+                && !choreRotation.getColocation().getManager().getId().equals(userId)) {
+            throw new TechnicalException(403, "Seul le créateur ou le gestionnaire de la colocation peut arrêter cette rotation");
+        }
+
+        choreRotation.setActive(false);
+    }
+
+    /**
+     * Generates the occurrences due on {@code today} for one chunk of rotations.
+     * <br>
+     * The locked rotations move to their next generation date in the transaction that indexes their
+     * tasks, and the id of a task is derived from its rotation and occurrence : a chunk rolled back
+     * after its bulk request overwrites the same tasks when retried. Past occurrences and those
+     * skipped by the rotation get no task. Members who left the colocation are no longer assigned,
+     * and when none of the chosen members remains, every roommate is.
+     *
+     * @param skippedIds Rotations left out, whose generation failed earlier in the run.
+     * @throws IllegalStateException When some tasks could not be indexed, to roll back the chunk.
+     */
+    @Transactional
+    public Generation generateDue(LocalDate today, Collection<Long> skippedIds) {
+        return generate(choreRotationRepository.lockDue(today, skippedIds, Limit.of(CHUNK_SIZE)), today);
+    }
+
+    /**
+     * Generates the occurrences due on {@code today} for one rotation alone, as
+     * {@link #generateDue(LocalDate, Collection)} does for a chunk : nothing when the rotation is no
+     * longer due or is locked by another node.
+     *
+     * @throws IllegalStateException When some tasks could not be indexed, to roll back the generation.
+     */
+    @Transactional
+    public Generation generateDue(LocalDate today, Long rotationId) {
+        return generate(choreRotationRepository.lockDueById(rotationId, today), today);
+    }
+
+    /**
+     * Ids of the next chunk of due rotations, in the order {@link #generateDue(LocalDate, Collection)}
+     * locks them, without locking them.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findDueIds(LocalDate today, Collection<Long> skippedIds) {
+        return choreRotationRepository.findDueIds(today, skippedIds, Limit.of(CHUNK_SIZE));
+    }
+
+    private Generation generate(List<ChoreRotation> due, LocalDate today) {
+        if (due.isEmpty()) {
+            return new Generation(0, 0);
+        }
+
+        // Initialise members, skipped days and roommates of the locked rotations in one query
+        choreRotationRepository.findWithDetailsByIdIn(due.stream().map(ChoreRotation::getId).toList());
+
+        // One aggregation for the whole chunk, then kept up to date by each assignment
+        Set<Long> colocationIds = due.stream().map(rotation -> rotation.getColocation().getId()).collect(Collectors.toSet());
+        Map<Long, Map<Long, Long>> openTasks = new HashMap<>();
+        taskStore.openTasksByAssignee(colocationIds)
+                 .forEach((colocationId, byAssignee) -> openTasks.put(colocationId, new HashMap<>(byAssignee)));
+
+        List<TaskDocument> tasks = new ArrayList<>();
+        for (ChoreRotation rotation : due) {
+            List<User> members = getCurrentMembers(rotation);
+            if (members.isEmpty()) {
+                rotation.setActive(false);
+                log.warn("Rotation de corvée {} désactivée : la colocation {} n'a plus de colocataire",
+                         rotation.getId(), rotation.getColocation().getId());
+                continue;
+            }
+
+            Map<Long, User> byId = members.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+            ChoreAssigner assigner = new ChoreAssigner(members.stream().map(User::getId).toList(), rotation.getLastAssigneeId(),
+                                                       openTasks.computeIfAbsent(rotation.getColocation().getId(), id -> new HashMap<>()));
+
+            for (int i = 0; i < MAX_OCCURRENCES_PER_CHUNK && rotation.isActive()
+                    && !rotation.getNextGenerationDate().isAfter(today); i++) {
+                LocalDate date = rotation.nextOccurrence(today);
+                if (date == null || rotation.skips(date)) {
+                    continue;
+                }
+                User assignee = byId.get(assigner.next());
+                rotation.setLastAssigneeId(assignee.getId());
+                tasks.add(toTask(rotation, rotation.getOccurrences() - 1, date, assignee));
+            }
+        }
+
+        // Nobody waits for these tasks : they become visible with the next refresh
+        Map<String, TaskBulkFailure> failures;
+        try {
+            failures = taskWriter.saveAll(tasks, RefreshPolicy.NONE);
+        } catch (TechnicalException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException(failures.size() + " tâche(s) de corvée non écrite(s), dont "
+                                                    + failures.values().iterator().next().reason());
+        }
+        return new Generation(due.size(), tasks.size());
+    }
+
+    /**
+     * Id of the task of an occurrence, the same whenever the occurrence is generated again.
+     */
+    static String taskId(Long rotationId, int occurrence) {
+        return "chore-" + rotationId + "-" + occurrence;
+    }
+
+    // The chosen members still in the colocation, all its roommates otherwise, sorted by id
+    private static List<User> getCurrentMembers(ChoreRotation rotation) {
+        Set<User> roommates = rotation.getColocation().getRoommates();
+        Set<Long> roommateIds = roommates.stream().map(User::getId).collect(Collectors.toSet());
+
+        List<User> members = rotation.getMembers()
+                                     .stream()
+                                     .filter(member -> roommateIds.contains(member.getId()))
+                                     .toList();
+        if (members.isEmpty()) {
+            members = List.copyOf(roommates);
+        }
+        return members.stream().sorted(Comparator.comparing(User::getId)).toList();
+    }
+
+    private static TaskDocument toTask(ChoreRotation rotation, int occurrence, LocalDate date, User assignee) {
+        TaskDocument task = new TaskDocument();
+        task.setId(taskId(rotation.getId(), occurrence));
+        task.setTitle(rotation.getTitle());
+        task.setDescription(rotation.getDescription());
+        task.setStatus(TaskDocument.TaskStatus.TODO);
+        task.setPriority(rotation.getPriority());
+        task.setDueDate(date.atTime(DUE_TIME));
+        task.setCreatedAt(LocalDateTime.now());
+        task.setCreatorId(rotation.getCreator().getId());
+        task.setColocationId(rotation.getColocation().getId());
+        task.setChoreRotationId(rotation.getId());
+        task.addAssignedUser(assignee);
+        return task;
+    }
+
+    private Set<User> getMembers(Set<Long> memberIds, Colocation colocation) throws
+                                                                            TechnicalException {
+        Set<User> members = new HashSet<>();
+        if (memberIds == null) {
+            return members;
+        }
+
+        for (Long memberId : memberIds) {
+            User member = userRepository.findById(memberId)
+                    .orElseThrow(() -> new TechnicalException(404, "Membre non trouvé: " + memberId));
+
+            if (!membershipIndex.isRoommate(member.getId(), colocation.getId())) {
+                throw new TechnicalException(400, "L'utilisateur " + member.getEmail() + " n'est pas membre de cette colocation");
+            }
+
+            members.add(member);
+        }
+        return members;
+    }
+}
@@ -0,0 +1,61 @@
+package fr.esgi.service.chore.mapper;
+
+import fr.esgi.domain.DateUtils;
+import fr.esgi.domain.dto.chore.ChoreRotationReqDto;
+import fr.esgi.domain.dto.chore.ChoreRotationResDto;
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import fr.esgi.persistence.entity.chore.ChoreRotation;
+import fr.esgi.persistence.entity.user.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ChoreRotationMapper {
+
+    /**
+     * Maps ChoreRotationReqDto to ChoreRotation entity for creation
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "occurrencesAhead", ignore = true)
+    @Mapping(target = "occurrences", ignore = true)
+    @Mapping(target = "nextGenerationDate", ignore = true)
+    @Mapping(target = "lastAssigneeId", ignore = true)
+    @Mapping(target = "active", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "colocation", ignore = true)
+    @Mapping(target = "creator", ignore = true)
+    @Mapping(target = "members", ignore = true)
+    @Mapping(target = "skippedDays", ignore = true)
+    ChoreRotation mapDtoToChoreRotation(ChoreRotationReqDto dto);
+
+    /**
+     * Maps ChoreRotation entity to ChoreRotationResDto
+     */
+    @Mapping(target = "startDate", source = "startDate", qualifiedByName = "localDateToString")
+    @Mapping(target = "endDate", source = "endDate", qualifiedByName = "localDateToString")
+    @Mapping(target = "nextGenerationDate", source = "nextGenerationDate", qualifiedByName = "localDateToString")
+    @Mapping(target = "pausedFrom", source = "pausedFrom", qualifiedByName = "localDateToString")
+    @Mapping(target = "pausedUntil", source = "pausedUntil", qualifiedByName = "localDateToString")
+    @Mapping(target = "colocationId", source = "colocation.id")
+    ChoreRotationResDto mapChoreRotationToResDto(ChoreRotation choreRotation);
+
+    /**
+     * Maps list of ChoreRotation entities to list of ChoreRotationResDto
+     */
+    List<ChoreRotationResDto> mapChoreRotationsToResDtos(List<ChoreRotation> choreRotations);
+
+    /**
+     * Maps User entity to UserProfileResDto
+     */
+    @Mapping(target = "birthDate", source = "birthDate", qualifiedByName = "localDateToString")
+    UserProfileResDto mapUserToUserProfileResDto(User user);
+
+    @Named("localDateToString")
+    default String localDateToString(LocalDate date) {
+        return DateUtils.localDateToString(date);
+    }
+}
@@ -0,0 +1,176 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.persistence.entity.expense.ColocationBalance;
+import fr.esgi.persistence.entity.expense.ColocationBalanceId;
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.expense.ExpenseParticipant;
+import fr.esgi.persistence.repository.expense.BalanceLine;
+import fr.esgi.persistence.repository.expense.ColocationBalanceRepository;
+import fr.esgi.persistence.repository.expense.ExpenseParticipantRepository;
+import fr.esgi.persistence.repository.expense.SpaceBalanceLine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the {@code colocation_balances} ledger in step with the expenses.
+ * <br>
+ * A ledger row holds what a debtor still owes to a creditor in a colocation : the sum of the
+ * debtor's shares not yet confirmed by the creditor, who paid the expense. The record methods
+ * must run in the transaction of the expense write they account for, so that the ledger commits
+ * or rolls back with it; each one is a single upsert adding the delta to the row, created by the
+ * first delta of a pair, so that two transactions creating the same pair cannot collide.
+ * <br>
+ * {@link #reconcile(Long)} rebuilds the rows of a colocation from {@code expense_participants}
+ * and reports the pairs that drifted.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class BalanceLedger {
+
+    private static final Comparator<ColocationBalanceId> PAIR_ORDER =
+            Comparator.comparing(ColocationBalanceId::getSpaceId)
+                      .thenComparing(ColocationBalanceId::getDebtorId)
+                      .thenComparing(ColocationBalanceId::getCreditorId);
+
+    private final ColocationBalanceRepository  colocationBalanceRepository;
+    private final ExpenseParticipantRepository expenseParticipantRepository;
+
+    /**
+     * Adds the outstanding shares of a new expense.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpense(Expense expense) {
+        for (ExpenseParticipant participant : expense.getParticipants()) {
+            if (!participant.isConfirmedByCreator()) {
+                add(expense, participant, participant.getShareAmount());
+            }
+        }
+    }
+
+    /**
+     * Adds the outstanding shares of many new expenses, aggregated by colocation and pair :
+     * one update per pair whatever the number of expenses. The rows are updated in key order, so
+     * that concurrent batches touching the same pairs wait for each other instead of deadlocking.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpenses(Collection<Expense> expenses) {
+        Map<ColocationBalanceId, BigDecimal> deltas = new TreeMap<>(PAIR_ORDER);
+        for (Expense expense : expenses) {
+            for (ExpenseParticipant participant : expense.getParticipants()) {
+                if (!participant.isConfirmedByCreator()) {
+                    ColocationBalanceId pair = new ColocationBalanceId(expense.getSpace().getId(),
+                                                                       participant.getUser().getId(),
+                                                                       expense.getPayer().getId());
+                    deltas.merge(pair, participant.getShareAmount(), BigDecimal::add);
+                }
+            }
+        }
+        deltas.forEach((pair, delta) -> add(pair.getSpaceId(), pair.getDebtorId(), pair.getCreditorId(), delta));
+    }
+
+    /**
+     * Removes a share the payer is about to confirm. Must be called before the confirmation,
+     * and only for a participant that is not confirmed yet.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSettlement(Expense expense, ExpenseParticipant participant) {
+        add(expense, participant, participant.getShareAmount().negate());
+    }
+
+    /**
+     * Removes the shares a bulk confirmation is about to confirm, aggregated by colocation and pair.
+     * Must be called before the confirmation, with the rows of the confirmed expenses locked.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSettlements(List<SpaceBalanceLine> lines) {
+        for (SpaceBalanceLine line : lines) {
+            add(line.getSpaceId(), line.getDebtorId(), line.getCreditorId(), line.getAmount().negate());
+        }
+    }
+
+    /**
+     * Removes the outstanding shares of an expense about to be deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Expense expense) {
+        for (ExpenseParticipant participant : expense.getParticipants()) {
+            if (!participant.isConfirmedByCreator()) {
+                add(expense, participant, participant.getShareAmount().negate());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the ledger rows of a colocation from its expenses.
+     * <br>
+     * The rows are locked first : a concurrent expense write either committed before, and is
+     * seen by the aggregate, or waits for the rebuild to update its own row.
+     *
+     * @return The number of (debtor, creditor) pairs whose amount was wrong.
+     */
+    @Transactional
+    public int reconcile(Long spaceId) {
+        Map<ColocationBalanceId, ColocationBalance> current = new HashMap<>();
+        for (ColocationBalance balance : colocationBalanceRepository.lockBySpaceId(spaceId)) {
+            current.put(balance.getId(), balance);
+        }
+
+        Map<ColocationBalanceId, BigDecimal> expected = new HashMap<>();
+        for (BalanceLine line : expenseParticipantRepository.sumOutstandingBySpaceId(spaceId)) {
+            expected.put(new ColocationBalanceId(spaceId, line.getDebtorId(), line.getCreditorId()), line.getAmount());
+        }
+
+        Set<ColocationBalanceId> pairs = new HashSet<>(current.keySet());
+        pairs.addAll(expected.keySet());
+
+        int drift = 0;
+        for (ColocationBalanceId pair : pairs) {
+            ColocationBalance balance = current.get(pair);
+            BigDecimal        actual  = balance != null ? balance.getAmount() : BigDecimal.ZERO;
+            BigDecimal        amount  = expected.getOrDefault(pair, BigDecimal.ZERO);
+
+            if (actual.compareTo(amount) != 0) {
+                drift++;
+                log.warn("Écart dans le registre des soldes de la colocation {} : {} doit {} à {} au lieu de {}",
+                         spaceId, pair.getDebtorId(), amount, pair.getCreditorId(), actual);
+            }
+
+            if (amount.signum() == 0) {
+                if (balance != null) {
+                    colocationBalanceRepository.delete(balance);
+                }
+            } else if (balance == null) {
+                colocationBalanceRepository.save(new ColocationBalance(pair, amount));
+            } else {
+                balance.setAmount(amount);
+            }
+        }
+        return drift;
+    }
+
+    private void add(Expense expense, ExpenseParticipant participant, BigDecimal delta) {
+        add(expense.getSpace().getId(), participant.getUser().getId(), expense.getPayer().getId(), delta);
+    }
+
+    private void add(Long spaceId, Long debtorId, Long creditorId, BigDecimal delta) {
+        if (debtorId.equals(creditorId) || delta.signum() == 0) {
+            return;
+        }
+
+        colocationBalanceRepository.addToAmount(spaceId, debtorId, creditorId, delta);
+    }
+}
@@ -0,0 +1,77 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.persistence.repository.expense.ColocationBalanceRepository;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Periodically rebuilds the {@code colocation_balances} ledger from the expenses and reports drift.
+ * <br>
+ * Every colocation having expenses or ledger rows is reconciled in its own transaction, so a
+ * failure only skips one colocation. The number of drifted pairs is logged and published as the
+ * {@code cohabit.balances.drift} counter : anything but zero points to a write path that bypasses
+ * {@link BalanceLedger}.
+ */
+@Component
+@Log4j2
+public class BalanceReconciliationJob {
+
+    private final ExpenseRepository           expenseRepository;
+    private final ColocationBalanceRepository colocationBalanceRepository;
+    private final BalanceLedger               balanceLedger;
+    private final Counter                     driftCounter;
+
+    public BalanceReconciliationJob(
+            ExpenseRepository expenseRepository,
+            ColocationBalanceRepository colocationBalanceRepository,
+            BalanceLedger balanceLedger,
+            MeterRegistry meterRegistry
+    ) {
+        this.expenseRepository           = expenseRepository;
+        this.colocationBalanceRepository = colocationBalanceRepository;
+        this.balanceLedger               = balanceLedger;
+        this.driftCounter                = Counter.builder("cohabit.balances.drift")
+                                                  .description("Ledger pairs corrected by the balance reconciliation")
+                                                  .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${cohabit.balances.reconciliation-cron:0 30 3 * * *}")
+    public void run() {
+        reconcileAll();
+    }
+
+    /**
+     * @return The total number of drifted (debtor, creditor) pairs.
+     */
+    public int reconcileAll() {
+        Set<Long> spaceIds = new TreeSet<>(expenseRepository.findSpaceIds());
+        spaceIds.addAll(colocationBalanceRepository.findSpaceIds());
+
+        int drift  = 0;
+        int failed = 0;
+        for (Long spaceId : spaceIds) {
+            try {
+                drift += balanceLedger.reconcile(spaceId);
+            } catch (RuntimeException e) {
+                failed++;
+                log.error("Réconciliation des soldes impossible pour la colocation {}", spaceId, e);
+            }
+        }
+
+        driftCounter.increment(drift);
+        if (drift > 0 || failed > 0) {
+            log.warn("Réconciliation des soldes : {} colocation(s), {} écart(s) corrigé(s), {} échec(s)",
+                     spaceIds.size(), drift, failed);
+        } else {
+            log.info("Réconciliation des soldes : {} colocation(s), aucun écart", spaceIds.size());
+        }
+        return drift;
+    }
+}
@@ -0,0 +1,125 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.dto.expense.MemberBalanceResDto;
+import fr.esgi.domain.dto.expense.SettlementTransferResDto;
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.BalanceLine;
+import fr.esgi.persistence.repository.expense.ColocationBalanceRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.expense.mapper.ExpenseMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Balances of the members of a colocation and the transfers that settle them.
+ * <br>
+ * The outstanding shares (not yet confirmed by the payer) are read from the {@code colocation_balances}
+ * ledger maintained by {@link BalanceLedger}, one row per (debtor, creditor) couple, so the cost no
+ * longer depends on the number of expenses but on the number of members. The netting and the
+ * settlement plan are then computed in cents.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class BalanceService extends AbstractService {
+
+    private final ColocationBalanceRepository colocationBalanceRepository;
+    private final ColocationRepository        colocationRepository;
+    private final UserRepository              userRepository;
+    private final CurrentUser                 currentUser;
+    private final ColocationMembershipIndex   membershipIndex;
+    private final ExpenseMapper               expenseMapper;
+
+    /**
+     * Gets the net balance of every member involved in an outstanding expense, creditors first.
+     */
+    public List<MemberBalanceResDto> getBalances(Long spaceId) throws TechnicalException {
+        Map<Long, Long>              balances = netBalances(spaceId);
+        Map<Long, UserProfileResDto> users    = loadUsers(balances);
+
+        return balances.entrySet()
+                       .stream()
+                       .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                                        .thenComparing(Map.Entry.comparingByKey()))
+                       .map(entry -> new MemberBalanceResDto(users.get(entry.getKey()), toAmount(entry.getValue())))
+                       .toList();
+    }
+
+    /**
+     * Gets the minimal list of transfers that settles every outstanding balance of the colocation.
+     */
+    public List<SettlementTransferResDto> getSettlePlan(Long spaceId) throws TechnicalException {
+        Map<Long, Long>              balances = netBalances(spaceId);
+        Map<Long, UserProfileResDto> users    = loadUsers(balances);
+
+        return SettlementPlanner.plan(balances)
+                                .stream()
+                                .map(transfer -> new SettlementTransferResDto(
+                                        users.get(transfer.fromUserId()),
+                                        users.get(transfer.toUserId()),
+                                        toAmount(transfer.amountCents())))
+                                .toList();
+    }
+
+    private Map<Long, Long> netBalances(Long spaceId) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        if (!colocationRepository.existsById(spaceId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
+
+        if (!membershipIndex.isRoommate(userId, spaceId)) {
+            throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
+        }
+
+        return netBalances(colocationBalanceRepository.findLinesBySpaceId(spaceId));
+    }
+
+    /**
+     * @return Net balance in cents by user id : what the member is owed minus what they owe.
+     * Members whose balance nets to zero are left out.
+     */
+    static Map<Long, Long> netBalances(List<BalanceLine> lines) {
+        Map<Long, Long> balances = new HashMap<>();
+        for (BalanceLine line : lines) {
+            long cents = toCents(line.getAmount());
+            balances.merge(line.getCreditorId(), cents, Long::sum);
+            balances.merge(line.getDebtorId(), -cents, Long::sum);
+        }
+        balances.values().removeIf(cents -> cents == 0);
+        return balances;
+    }
+
+    private Map<Long, UserProfileResDto> loadUsers(Map<Long, Long> balances) {
+        if (balances.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(balances.keySet())
+                             .stream()
+                             .collect(Collectors.toMap(User::getId, expenseMapper::mapUserToUserProfileResDto,
+                                                       (first, second) -> first));
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
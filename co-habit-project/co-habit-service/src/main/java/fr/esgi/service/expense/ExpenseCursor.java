@@ -0,0 +1,45 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.expense.Expense;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token of the expense history : the (createdAt, id) position of the last expense
+ * of a page, the next page starting strictly after it. Clients get it Base64 URL encoded and must
+ * treat it as opaque.
+ */
+record ExpenseCursor(LocalDateTime createdAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    static ExpenseCursor of(Expense expense) {
+        return new ExpenseCursor(expense.getCreatedAt(), expense.getId());
+    }
+
+    String encode() {
+        String position = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws TechnicalException 400 if the token was not produced by {@link #encode()}.
+     */
+    static ExpenseCursor decode(String token) throws
+                                              TechnicalException {
+        try {
+            String position  = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int    separator = position.lastIndexOf(SEPARATOR);
+            return new ExpenseCursor(LocalDateTime.parse(position.substring(0, separator)),
+                                     Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new TechnicalException(400, "Curseur de pagination invalide");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.exception.TechnicalException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * Formats of the expense history export.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExpenseExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    public static ExpenseExportFormat of(String format) throws
+                                                       TechnicalException {
+        if (format == null || format.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new TechnicalException(400, "Format d'export invalide, formats acceptés : csv, ndjson");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package fr.esgi.service.expense;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.repository.expense.ExpenseExportRow;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports the full expense history of a colocation, one line per share.
+ * <br>
+ * The rows are streamed from a single query with a fixed fetch size, as projections that never
+ * enter the persistence context, and written as they arrive : memory stays constant whatever the
+ * number of expenses and the header is sent before the first row is read.
+ * <br>
+ * {@link #checkAccess(Long)} must be called on the request thread, {@link #write} then runs on the
+ * thread streaming the response, without security context.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseExportService extends AbstractService {
+
+    static final String[] COLUMNS = {
+            "expense_id", "created_at", "title", "description", "amount", "payer",
+            "participant", "share_amount", "validated", "confirmed", "settled", "settled_at"
+    };
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ExpenseRepository         expenseRepository;
+    private final ColocationRepository      colocationRepository;
+    private final CurrentUser               currentUser;
+    private final ColocationMembershipIndex membershipIndex;
+
+    /**
+     * Checks that the authenticated user may export the expenses of the colocation.
+     */
+    @Transactional(readOnly = true)
+    public void checkAccess(Long spaceId) throws
+                                          TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        if (!colocationRepository.existsById(spaceId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
+
+        if (!membershipIndex.isRoommate(userId, spaceId)) {
+            throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
+        }
+    }
+
+    /**
+     * Writes the history of the colocation to the output, oldest expense first. The output is not closed.
+     */
+    @Transactional(readOnly = true)
+    public void write(Long spaceId, ExpenseExportFormat format, OutputStream output) throws
+                                                                                     IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (Stream<ExpenseExportRow> rows = expenseRepository.streamExportRowsBySpaceId(spaceId)) {
+            if (format == ExpenseExportFormat.CSV) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeNdjson(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Iterator<ExpenseExportRow> rows, Writer writer) throws
+                                                                                 IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        writer.flush();
+
+        while (rows.hasNext()) {
+            ExpenseExportRow row = rows.next();
+            writer.write(String.valueOf(row.getExpenseId()));
+            writer.write(',');
+            writer.write(text(row.getCreatedAt()));
+            writer.write(',');
+            writer.write(csv(row.getTitle()));
+            writer.write(',');
+            writer.write(csv(row.getDescription()));
+            writer.write(',');
+            writer.write(text(row.getAmount()));
+            writer.write(',');
+            writer.write(csv(row.getPayerEmail()));
+            writer.write(',');
+            writer.write(csv(row.getParticipantEmail()));
+            writer.write(',');
+            writer.write(text(row.getShareAmount()));
+            writer.write(',');
+            writer.write(text(row.getValidated()));
+            writer.write(',');
+            writer.write(text(row.getConfirmed()));
+            writer.write(',');
+            writer.write(text(row.getSettled()));
+            writer.write(',');
+            writer.write(text(row.getSettledAt()));
+            writer.write("\r\n");
+        }
+    }
+
+    private static void writeNdjson(Iterator<ExpenseExportRow> rows, Writer writer) throws
+                                                                                    IOException {
+        JsonGenerator json = JSON_FACTORY.createGenerator(writer);
+        json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        while (rows.hasNext()) {
+            ExpenseExportRow row = rows.next();
+            json.writeStartObject();
+            json.writeNumberField(COLUMNS[0], row.getExpenseId());
+            json.writeStringField(COLUMNS[1], text(row.getCreatedAt()));
+            json.writeStringField(COLUMNS[2], row.getTitle());
+            json.writeStringField(COLUMNS[3], row.getDescription());
+            writeNumber(json, COLUMNS[4], row.getAmount());
+            json.writeStringField(COLUMNS[5], row.getPayerEmail());
+            json.writeStringField(COLUMNS[6], row.getParticipantEmail());
+            writeNumber(json, COLUMNS[7], row.getShareAmount());
+            writeBoolean(json, COLUMNS[8], row.getValidated());
+            writeBoolean(json, COLUMNS[9], row.getConfirmed());
+            writeBoolean(json, COLUMNS[10], row.getSettled());
+            json.writeStringField(COLUMNS[11], row.getSettledAt() != null ? row.getSettledAt().toString() : null);
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        json.flush();
+    }
+
+    private static void writeNumber(JsonGenerator json, String field, BigDecimal value) throws
+                                                                                         IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    private static void writeBoolean(JsonGenerator json, String field, Boolean value) throws
+                                                                                      IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeBooleanField(field, value);
+        }
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Quotes a free-text CSV field when needed (RFC 4180), and neutralises values a spreadsheet would
+     * evaluate as a formula.
+     */
+    static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+
+        String field = "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
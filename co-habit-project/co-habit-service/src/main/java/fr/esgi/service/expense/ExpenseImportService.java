@@ -0,0 +1,337 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.dto.expense.ExpenseImportErrorResDto;
+import fr.esgi.domain.dto.expense.ExpenseImportResDto;
+import fr.esgi.domain.dto.expense.ExpenseImportRowReqDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports expenses in bulk into a colocation, from a CSV file or a JSON array.
+ * <br>
+ * The colocation and its members are loaded once per file, then every row is validated in memory :
+ * a rejected row is reported with its number and does not prevent the others from being imported.
+ * Valid rows are inserted by chunks of {@value #BATCH_SIZE}, matching the JDBC batch size : the ids
+ * come from pooled sequences, so each chunk costs one batched insert per table, the ledger is updated
+ * once per pair, and the persistence context is cleared between chunks.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseImportService extends AbstractService {
+
+    static final int MAX_ROWS   = 5000;
+    static final int BATCH_SIZE = 50;
+
+    // Séparateur des emails dans la colonne participants d'un fichier CSV
+    static final String PARTICIPANT_SEPARATOR = "|";
+
+    private static final int        TITLE_MAX_LENGTH       = 100;
+    private static final int        DESCRIPTION_MAX_LENGTH = 500;
+    private static final BigDecimal AMOUNT_MAX             = new BigDecimal("99999999.99");
+
+    private final ExpenseRepository    expenseRepository;
+    private final ColocationRepository colocationRepository;
+    private final CurrentUser          currentUser;
+    private final BalanceLedger        balanceLedger;
+    private final SpendingRollup       spendingRollup;
+    private final EntityManager        entityManager;
+
+    @FunctionalInterface
+    private interface Row {
+        ExpenseImportRowReqDto read() throws TechnicalException;
+    }
+
+    /**
+     * Imports the rows of a JSON array.
+     */
+    @Transactional
+    public ExpenseImportResDto importRows(Long spaceId, List<ExpenseImportRowReqDto> rows) throws
+                                                                                         TechnicalException {
+        if (rows == null || rows.isEmpty()) {
+            throw new TechnicalException(400, "Aucune dépense à importer");
+        }
+        return importAll(spaceId, rows.stream().<Row>map(row -> () -> row).toList());
+    }
+
+    /**
+     * Imports a CSV file (RFC 4180, separated by commas or semicolons) whose header names the columns :
+     * {@code title} and {@code amount} are required, {@code date}, {@code description}, {@code payer}
+     * and {@code participants} (emails separated by {@value #PARTICIPANT_SEPARATOR}) are optional.
+     */
+    @Transactional
+    public ExpenseImportResDto importCsv(Long spaceId, String csv) throws
+                                                                  TechnicalException {
+        List<List<String>> records = parseCsv(csv);
+        if (records.size() < 2) {
+            throw new TechnicalException(400, "Aucune dépense à importer");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = records.get(0);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("amount")) {
+            throw new TechnicalException(400, "En-tête CSV invalide, colonnes requises : title, amount");
+        }
+
+        List<Row> rows = records.subList(1, records.size())
+                                .stream()
+                                .<Row>map(record -> () -> toRow(record, columns))
+                                .toList();
+        return importAll(spaceId, rows);
+    }
+
+    private ExpenseImportResDto importAll(Long spaceId, List<Row> rows) throws
+                                                                       TechnicalException {
+        if (rows.size() > MAX_ROWS) {
+            throw new TechnicalException(400, "Au plus " + MAX_ROWS + " dépenses peuvent être importées à la fois");
+        }
+
+        User user = currentUser.find()
+                               .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        Colocation space = colocationRepository.findWithMembersById(spaceId)
+                                               .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
+
+        if (space.getRoommates().stream().noneMatch(member -> member.getId().equals(user.getId()))) {
+            throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
+        }
+
+        // Membres chargés une fois pour tout le fichier, indexés par email
+        Map<String, User> members = new HashMap<>();
+        space.getRoommates().forEach(member -> members.put(member.getEmail().toLowerCase(Locale.ROOT), member));
+
+        List<ExpenseImportErrorResDto> errors = new ArrayList<>();
+        List<Expense> chunk = new ArrayList<>(BATCH_SIZE);
+        int imported = 0;
+
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                chunk.add(toExpense(rows.get(i).read(), space, user, members));
+            } catch (TechnicalException e) {
+                errors.add(new ExpenseImportErrorResDto(i + 1, e.getMessage()));
+            }
+
+            if (chunk.size() == BATCH_SIZE) {
+                imported += insert(chunk);
+            }
+        }
+        imported += insert(chunk);
+
+        return new ExpenseImportResDto(imported, errors);
+    }
+
+    /**
+     * Inserts a chunk of expenses with their participants, records them in the ledger and the monthly rollup, and detaches them.
+     */
+    private int insert(List<Expense> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        expenseRepository.saveAll(chunk);
+        expenseRepository.flush();
+        balanceLedger.recordExpenses(chunk);
+        spendingRollup.recordExpenses(chunk);
+        entityManager.clear();
+
+        int inserted = chunk.size();
+        chunk.clear();
+        return inserted;
+    }
+
+    private static Expense toExpense(ExpenseImportRowReqDto row, Colocation space, User user, Map<String, User> members) throws
+                                                                                                                     TechnicalException {
+        String title = row.getTitle() != null ? row.getTitle().trim() : "";
+        if (title.length() < 2 || title.length() > TITLE_MAX_LENGTH) {
+            throw new TechnicalException(400, "Le titre doit contenir entre 2 et " + TITLE_MAX_LENGTH + " caractères");
+        }
+
+        String description = row.getDescription() != null && !row.getDescription().isBlank() ? row.getDescription().trim() : title;
+        if (description.length() > DESCRIPTION_MAX_LENGTH) {
+            throw new TechnicalException(400, "La description doit contenir au plus " + DESCRIPTION_MAX_LENGTH + " caractères");
+        }
+
+        BigDecimal amount = row.getAmount();
+        if (amount == null) {
+            throw new TechnicalException(400, "Le montant est requis");
+        }
+        if (amount.signum() <= 0) {
+            throw new TechnicalException(400, "Le montant doit être supérieur à 0");
+        }
+        if (amount.stripTrailingZeros().scale() > 2 || amount.compareTo(AMOUNT_MAX) > 0) {
+            throw new TechnicalException(400, "Montant invalide : " + amount.toPlainString());
+        }
+
+        User payer = user;
+        if (row.getPayerEmail() != null && !row.getPayerEmail().isBlank()) {
+            payer = member(members, row.getPayerEmail());
+        }
+
+        Set<User> participants = new HashSet<>();
+        if (row.getParticipantEmails() == null || row.getParticipantEmails().isEmpty()) {
+            participants.addAll(members.values());
+        } else {
+            for (String email : row.getParticipantEmails()) {
+                participants.add(member(members, email));
+            }
+        }
+
+        Expense expense = new Expense();
+        expense.setTitle(title);
+        expense.setDescription(description);
+        expense.setAmount(amount.setScale(2));
+        expense.setPayer(payer);
+        expense.setSpace(space);
+        if (row.getDate() != null) {
+            expense.setCreatedAt(row.getDate().atStartOfDay());
+        }
+        expense.distributeEvenly(participants);
+        return expense;
+    }
+
+    private static User member(Map<String, User> members, String email) throws
+                                                                        TechnicalException {
+        User member = members.get(email.trim().toLowerCase(Locale.ROOT));
+        if (member == null) {
+            throw new TechnicalException(400, "L'utilisateur " + email.trim() + " n'est pas membre de cette colocation");
+        }
+        return member;
+    }
+
+    private static ExpenseImportRowReqDto toRow(List<String> record, Map<String, Integer> columns) throws
+                                                                                                   TechnicalException {
+        ExpenseImportRowReqDto row = new ExpenseImportRowReqDto();
+        row.setTitle(cell(record, columns, "title"));
+        row.setDescription(cell(record, columns, "description"));
+        row.setPayerEmail(cell(record, columns, "payer"));
+
+        String amount = cell(record, columns, "amount");
+        if (amount != null) {
+            try {
+                // Virgule décimale des tableurs français acceptée
+                row.setAmount(new BigDecimal(amount.replace(',', '.')));
+            } catch (NumberFormatException e) {
+                throw new TechnicalException(400, "Montant invalide : " + amount);
+            }
+        }
+
+        String date = cell(record, columns, "date");
+        if (date != null) {
+            try {
+                row.setDate(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                throw new TechnicalException(400, "Date invalide, format attendu yyyy-MM-dd : " + date);
+            }
+        }
+
+        String participants = cell(record, columns, "participants");
+        if (participants != null) {
+            Set<String> emails = new LinkedHashSet<>();
+            Arrays.stream(participants.split("\\" + PARTICIPANT_SEPARATOR))
+                  .map(String::trim)
+                  .filter(email -> !email.isEmpty())
+                  .forEach(emails::add);
+            row.setParticipantEmails(emails);
+        }
+        return row;
+    }
+
+    private static String cell(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits a CSV document into records (RFC 4180) : quoted fields may contain separators, doubled
+     * quotes and line breaks. The separator is a semicolon when the header has one but no comma.
+     */
+    static List<List<String>> parseCsv(String csv) throws
+                                                   TechnicalException {
+        List<List<String>> records = new ArrayList<>();
+        if (csv == null || csv.isBlank()) {
+            return records;
+        }
+
+        String text = csv.charAt(0) == '\uFEFF' ? csv.substring(1) : csv;
+        int headerEnd = text.indexOf('\n') >= 0 ? text.indexOf('\n') : text.length();
+        String headerLine = text.substring(0, headerEnd);
+        char separator = headerLine.indexOf(';') >= 0 && headerLine.indexOf(',') < 0 ? ';' : ',';
+
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == separator) {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i < text.length() && text.charAt(i) == '\n') {
+                    i++;
+                }
+                record.add(field.toString());
+                field.setLength(0);
+                addRecord(records, record);
+                record = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new TechnicalException(400, "Fichier CSV invalide : guillemet non fermé");
+        }
+        if (!field.isEmpty() || !record.isEmpty()) {
+            record.add(field.toString());
+            addRecord(records, record);
+        }
+        return records;
+    }
+
+    private static void addRecord(List<List<String>> records, List<String> record) {
+        // Lignes vides ignorées
+        if (record.size() > 1 || !record.get(0).isBlank()) {
+            records.add(record);
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package fr.esgi.service.expense;
 
+import fr.esgi.domain.SplitAllocator;
+import fr.esgi.domain.dto.expense.ExpenseFilterReqDto;
+import fr.esgi.domain.dto.expense.ExpenseParticipantResDto;
 import fr.esgi.domain.dto.expense.ExpenseReqDto;
 import fr.esgi.domain.dto.expense.ExpenseResDto;
+import fr.esgi.domain.dto.expense.ExpenseSplitReqDto;
+import fr.esgi.domain.dto.expense.PaymentConfirmationReqDto;
+import fr.esgi.domain.dto.expense.PaymentConfirmationResDto;
 import fr.esgi.domain.dto.expense.PaymentValidationReqDto;
+import fr.esgi.domain.dto.expense.PendingSummaryResDto;
+import fr.esgi.domain.dto.expense.SplitType;
+import fr.esgi.domain.dto.page.CursorPageResDto;
 import fr.esgi.domain.exception.TechnicalException;
 import fr.esgi.persistence.entity.expense.Expense;
 import fr.esgi.persistence.entity.expense.ExpenseParticipant;
@@ -10,42 +19,62 @@ import fr.esgi.persistence.entity.space.Colocation;
 import fr.esgi.persistence.entity.user.User;
 import fr.esgi.persistence.repository.expense.ExpenseParticipantRepository;
 import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.ExpenseSpecifications;
+import fr.esgi.persistence.repository.expense.ExpenseSummary;
+import fr.esgi.persistence.repository.expense.PendingShareTotal;
 import fr.esgi.persistence.repository.space.ColocationRepository;
 import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
 import fr.esgi.service.expense.mapper.ExpenseMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ExpenseService extends AbstractService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final ExpenseRepository expenseRepository;
     private final ExpenseParticipantRepository expenseParticipantRepository;
     private final ColocationRepository colocationRepository;
     private final UserRepository userRepository;
+    private final CurrentUser currentUser;
+    private final ColocationMembershipIndex membershipIndex;
+    private final BalanceLedger balanceLedger;
+    private final SpendingRollup spendingRollup;
     private final ExpenseMapper expenseMapper;
 
     /**
      * Creates a new expense
      */
     public ExpenseResDto createExpense(ExpenseReqDto dto) throws TechnicalException {
-        String userSub = getUserSub();
-
-        User payer = userRepository.findByKeyCloakSub(userSub)
+        User payer = currentUser.find()
                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
         Colocation space = colocationRepository.findById(dto.getSpaceId())
                 .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!space.isRoommate(payer)) {
+        if (!membershipIndex.isRoommate(payer.getId(), space.getId())) {
             throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
         }
 
@@ -53,33 +82,52 @@ public class ExpenseService extends AbstractService {
         expense.setPayer(payer);
         expense.setSpace(space);
 
-        // Determine participants
-        Set<User> participants = getParticipants(dto.getParticipantIds(), space);
-        expense.distributeEvenly(participants);
+        // Determine participants and their shares
+        ExpenseSplitReqDto split = dto.getSplit();
+        if (split == null || split.getType() == SplitType.EQUAL) {
+            expense.distributeEvenly(getParticipants(dto.getParticipantIds(), space));
+        } else {
+            distribute(expense, split, dto.getParticipantIds(), space);
+        }
 
         Expense savedExpense = expenseRepository.save(expense);
+        balanceLedger.recordExpense(savedExpense);
+        spendingRollup.recordExpense(savedExpense);
         return expenseMapper.mapExpenseToResDto(savedExpense);
     }
 
     /**
-     * Gets all expenses for a specific colocation
+     * Gets one page of the expense history of a colocation, most recent first.
+     * <br>
+     * Pagination is done by keyset on (createdAt, id) : a page costs the same whatever its depth
+     * in the history, and the index (space_id, created_at, id) serves both the filter and the order.
+     *
+     * @param filter Optional filters, null for none.
+     * @param cursor Token returned with the previous page, null for the first page.
+     * @param limit  Page size, {@value #DEFAULT_PAGE_SIZE} by default and at most {@value #MAX_PAGE_SIZE}.
      */
     @Transactional(readOnly = true)
-    public List<ExpenseResDto> getExpensesBySpace(Long spaceId) throws TechnicalException {
-        String userSub = getUserSub();
+    public CursorPageResDto<ExpenseResDto> getExpensesBySpace(Long spaceId, ExpenseFilterReqDto filter, String cursor, Integer limit) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
-
-        Colocation space = colocationRepository.findById(spaceId)
-                .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
+        if (!colocationRepository.existsById(spaceId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
 
-        if (!space.isRoommate(user)) {
+        if (!membershipIndex.isRoommate(userId, spaceId)) {
             throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
         }
 
-        List<Expense> expenses = expenseRepository.findBySpaceOrderByCreatedAtDesc(space);
-        return expenseMapper.mapExpensesToResDtos(expenses);
+        ExpenseFilterReqDto criteria = filter != null ? filter : new ExpenseFilterReqDto();
+
+        Specification<Expense> specification = Specification.where(ExpenseSpecifications.inSpace(spaceId))
+                .and(ExpenseSpecifications.settled(criteria.getSettled()))
+                .and(ExpenseSpecifications.paidBy(criteria.getPayerId()))
+                .and(ExpenseSpecifications.createdFrom(criteria.getFrom() != null ? criteria.getFrom().atStartOfDay() : null))
+                .and(ExpenseSpecifications.createdBefore(criteria.getTo() != null ? criteria.getTo().plusDays(1).atStartOfDay() : null));
+
+        return findPage(specification, cursor, limit);
     }
 
     /**
@@ -87,15 +135,13 @@ public class ExpenseService extends AbstractService {
      */
     @Transactional(readOnly = true)
     public ExpenseResDto getExpenseById(Long expenseId) throws TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
-        Expense expense = expenseRepository.findById(expenseId)
+        Expense expense = expenseRepository.findWithDetailsById(expenseId)
                 .orElseThrow(() -> new TechnicalException(404, "Dépense non trouvée"));
 
-        if (!expense.getSpace().isRoommate(user)) {
+        if (!membershipIndex.isRoommate(userId, expense.getSpace().getId())) {
             throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
         }
 
@@ -103,109 +149,144 @@ public class ExpenseService extends AbstractService {
     }
 
     /**
-     * Gets all expenses where the user is involved (as payer or participant)
+     * Gets one page of the expenses where the user is involved (as payer or participant), most recent first.
+     * <br>
+     * Whatever the number of expenses, a page costs two statements : the expenses are read as a
+     * projection from a single UNION query paginated by keyset on (createdAt, id), then the
+     * participants of the page are fetched with their user in one batch.
+     *
+     * @param cursor Token returned with the previous page, null for the first page.
+     * @param limit  Page size, {@value #DEFAULT_PAGE_SIZE} by default and at most {@value #MAX_PAGE_SIZE}.
      */
     @Transactional(readOnly = true)
-    public List<ExpenseResDto> getUserExpenses() throws TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
-
-        List<Expense> payerExpenses = expenseRepository.findByPayer(user);
-        List<Expense> participantExpenses = expenseRepository.findByParticipant(user);
+    public CursorPageResDto<ExpenseResDto> getUserExpenses(String cursor, Integer limit) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        int size = pageSize(limit);
+        ExpenseCursor position = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+
+        // One extra row tells whether a next page exists, without a count query
+        List<ExpenseSummary> summaries = position == null
+                ? expenseRepository.findSummariesByUserInvolved(userId, Limit.of(size + 1))
+                : expenseRepository.findSummariesByUserInvolvedAfter(userId, position.createdAt(), position.id(), Limit.of(size + 1));
+        boolean hasNext = summaries.size() > size;
+        List<ExpenseSummary> page = hasNext ? summaries.subList(0, size) : summaries;
+        if (page.isEmpty()) {
+            return new CursorPageResDto<>(List.of(), null);
+        }
 
-        Set<Expense> allExpenses = new HashSet<>(payerExpenses);
-        allExpenses.addAll(participantExpenses);
+        Map<Long, List<ExpenseParticipantResDto>> participantsByExpense = expenseParticipantRepository
+                .findWithUserByExpenseIds(page.stream().map(ExpenseSummary::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(participant -> participant.getExpense().getId(),
+                        Collectors.mapping(expenseMapper::mapExpenseParticipantToResDto, Collectors.toList())));
+
+        List<ExpenseResDto> expenses = page.stream()
+                .map(summary -> {
+                    ExpenseResDto expense = expenseMapper.mapSummaryToResDto(summary);
+                    expense.setParticipants(participantsByExpense.getOrDefault(summary.getId(), List.of()));
+                    return expense;
+                })
+                .toList();
 
-        return expenseMapper.mapExpensesToResDtos(allExpenses.stream().toList());
+        ExpenseSummary last = page.get(page.size() - 1);
+        String nextCursor = hasNext ? new ExpenseCursor(last.getCreatedAt(), last.getId()).encode() : null;
+        return new CursorPageResDto<>(expenses, nextCursor);
     }
 
     /**
-     * Validates payment by a participant
+     * Validates payment by a participant.
+     * <br>
+     * The transition is one conditional UPDATE : of two concurrent validations of the same share,
+     * only one changes the row and the other is told the payment is already validated.
      */
     public ExpenseResDto validatePayment(Long expenseId, PaymentValidationReqDto dto) throws TechnicalException {
-        String userSub = getUserSub();
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
-
-        Expense expense = expenseRepository.findById(expenseId)
-                .orElseThrow(() -> new TechnicalException(404, "Dépense non trouvée"));
-
-        ExpenseParticipant participant = expenseParticipantRepository.findByExpenseAndUser(expense, user)
-                .orElseThrow(() -> new TechnicalException(404, "Vous n'êtes pas participant à cette dépense"));
+        if (!expenseRepository.existsById(expenseId)) {
+            throw new TechnicalException(404, "Dépense non trouvée");
+        }
 
-        if (participant.isValidated()) {
+        if (expenseParticipantRepository.validate(expenseId, userId, dto.getPaymentMethod(), LocalDateTime.now()) == 0) {
+            if (!expenseParticipantRepository.existsByExpenseIdAndUserId(expenseId, userId)) {
+                throw new TechnicalException(404, "Vous n'êtes pas participant à cette dépense");
+            }
             throw new TechnicalException(400, "Paiement déjà validé");
         }
 
-        participant.validate(dto.getPaymentMethod());
-        expenseParticipantRepository.save(participant);
-
-        return expenseMapper.mapExpenseToResDto(expense);
+        return getUpdatedExpense(expenseId);
     }
 
     /**
      * Confirms payment received by the expense creator
      */
     public ExpenseResDto confirmPayment(Long expenseId, Long participantUserId) throws TechnicalException {
-        String userSub = getUserSub();
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
-
-        Expense expense = expenseRepository.findById(expenseId)
-                .orElseThrow(() -> new TechnicalException(404, "Dépense non trouvée"));
+        List<Long> expenseIds = List.of(expenseId);
+        claimPayerExpenses(userId, expenseIds);
 
-        if (!expense.getPayer().equals(user)) {
-            throw new TechnicalException(403, "Seul le créateur de la dépense peut confirmer les paiements");
+        if (!userRepository.existsById(participantUserId)) {
+            throw new TechnicalException(404, "Utilisateur participant non trouvé");
         }
 
-        User participantUser = userRepository.findById(participantUserId)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur participant non trouvé"));
-
-        expense.confirmPaymentByUser(participantUser);
-        expenseRepository.save(expense);
-
-        return expenseMapper.mapExpenseToResDto(expense);
+        confirm(expenseIds, List.of(participantUserId));
+        return getUpdatedExpense(expenseId);
     }
 
     /**
      * Confirms all payments for an expense
      */
     public ExpenseResDto confirmAllPayments(Long expenseId) throws TechnicalException {
-        String userSub = getUserSub();
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+        List<Long> expenseIds = List.of(expenseId);
+        claimPayerExpenses(userId, expenseIds);
 
-        Expense expense = expenseRepository.findById(expenseId)
-                .orElseThrow(() -> new TechnicalException(404, "Dépense non trouvée"));
+        confirm(expenseIds, null);
+        return getUpdatedExpense(expenseId);
+    }
 
-        if (!expense.getPayer().equals(user)) {
-            throw new TechnicalException(403, "Seul le créateur de la dépense peut confirmer les paiements");
-        }
+    /**
+     * Confirms, as their payer, the payments received for many expenses at once.
+     * <br>
+     * Whatever the number of expenses and participants, the confirmation is a fixed number of
+     * statements : the expenses are claimed, the confirmed shares are removed from the balance ledger
+     * by pair, then one UPDATE confirms the participants and another settles the expenses.
+     * Without participants, every payment is confirmed and the expenses are settled outright, as
+     * {@link #confirmAllPayments(Long)} does; otherwise an expense is settled once every participant
+     * validated a payment the payer confirmed.
+     */
+    public PaymentConfirmationResDto confirmPayments(PaymentConfirmationReqDto dto) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
-        expense.confirmAllPayments();
-        expenseRepository.save(expense);
+        Set<Long> expenseIds = dto.getExpenseIds();
+        claimPayerExpenses(userId, expenseIds);
 
-        return expenseMapper.mapExpenseToResDto(expense);
+        Set<Long> participantUserIds = dto.getParticipantUserIds();
+        return confirm(expenseIds, participantUserIds == null || participantUserIds.isEmpty() ? null : participantUserIds);
     }
 
     /**
-     * Deletes an expense (only creator can delete)
+     * Deletes an expense (only creator can delete).
+     * <br>
+     * The delete checks the version of the expense and of its participants : when a payment was
+     * validated or confirmed in the meantime, it fails with an optimistic locking conflict, the
+     * ledger update rolls back with it and the deletion can be replayed on fresh data.
      */
     public void deleteExpense(Long expenseId) throws TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
         Expense expense = expenseRepository.findById(expenseId)
                 .orElseThrow(() -> new TechnicalException(404, "Dépense non trouvée"));
 
-        if (!expense.getPayer().equals(user)) {
+        if (!expense.getPayer().getId().equals(userId)) {
             throw new TechnicalException(403, "Seul le créateur de la dépense peut la supprimer");
         }
 
@@ -213,44 +294,214 @@ public class ExpenseService extends AbstractService {
             throw new TechnicalException(400, "Impossible de supprimer une dépense déjà réglée");
         }
 
+        balanceLedger.recordDeletion(expense);
+        spendingRollup.recordDeletion(expense);
         expenseRepository.delete(expense);
     }
 
     /**
-     * Gets pending payments for the authenticated user
+     * Gets, per colocation, the count and total of the shares the authenticated user still has to pay
+     * and of those they still have to confirm as payer.
+     * <br>
+     * Meant to be polled for badges : two aggregate queries served by the partial indexes on the
+     * pending shares, nothing is loaded nor mapped.
      */
     @Transactional(readOnly = true)
-    public List<ExpenseResDto> getPendingPayments() throws TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+    public List<PendingSummaryResDto> getPendingSummary() throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        Map<Long, PendingSummaryResDto> summaries = new HashMap<>();
+        for (PendingShareTotal total : expenseParticipantRepository.sumPendingPaymentsByUserId(userId)) {
+            PendingSummaryResDto summary = summaries.computeIfAbsent(total.getSpaceId(), id -> emptySummary(total));
+            summary.setPendingPayments(total.getCount());
+            summary.setPendingPaymentsTotal(total.getTotal());
+        }
+        for (PendingShareTotal total : expenseParticipantRepository.sumPendingConfirmationsByPayerId(userId)) {
+            PendingSummaryResDto summary = summaries.computeIfAbsent(total.getSpaceId(), id -> emptySummary(total));
+            summary.setPendingConfirmations(total.getCount());
+            summary.setPendingConfirmationsTotal(total.getTotal());
+        }
 
-        List<ExpenseParticipant> pendingParticipants = expenseParticipantRepository.findPendingPaymentsByUser(user);
-        List<Expense> pendingExpenses = pendingParticipants.stream()
-                .map(ExpenseParticipant::getExpense)
+        return summaries.values().stream()
+                .sorted(Comparator.comparing(PendingSummaryResDto::getSpaceName).thenComparing(PendingSummaryResDto::getSpaceId))
                 .toList();
+    }
+
+    /**
+     * Gets one page of the expenses where the authenticated user has not paid their share yet, most recent first.
+     *
+     * @param cursor Token returned with the previous page, null for the first page.
+     * @param limit  Page size, {@value #DEFAULT_PAGE_SIZE} by default and at most {@value #MAX_PAGE_SIZE}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResDto<ExpenseResDto> getPendingPayments(String cursor, Integer limit) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
-        return expenseMapper.mapExpensesToResDtos(pendingExpenses);
+        return findPage(ExpenseSpecifications.pendingPaymentOf(userId), cursor, limit);
     }
 
     /**
-     * Gets pending confirmations for expenses created by the authenticated user
+     * Gets one page of the expenses paid by the authenticated user with shares left to confirm, most recent first.
+     *
+     * @param cursor Token returned with the previous page, null for the first page.
+     * @param limit  Page size, {@value #DEFAULT_PAGE_SIZE} by default and at most {@value #MAX_PAGE_SIZE}.
      */
     @Transactional(readOnly = true)
-    public List<ExpenseResDto> getPendingConfirmations() throws TechnicalException {
-        String userSub = getUserSub();
+    public CursorPageResDto<ExpenseResDto> getPendingConfirmations(String cursor, Integer limit) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+        return findPage(ExpenseSpecifications.pendingConfirmationOf(userId), cursor, limit);
+    }
+
+    /**
+     * Reads one page of the expenses matching the specification, paginated by keyset on (createdAt, id).
+     */
+    private CursorPageResDto<ExpenseResDto> findPage(Specification<Expense> specification, String cursor, Integer limit) throws TechnicalException {
+        int size = pageSize(limit);
+        ExpenseCursor position = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+        Specification<Expense> paged = position != null
+                ? specification.and(ExpenseSpecifications.after(position.createdAt(), position.id()))
+                : specification;
+
+        // One extra row tells whether a next page exists, without a count query
+        List<Expense> expenses = expenseRepository.findBy(paged, query -> query
+                .sortBy(ExpenseSpecifications.HISTORY_ORDER)
+                .limit(size + 1)
+                .all());
+        boolean hasNext = expenses.size() > size;
+        List<Expense> page = hasNext ? expenses.subList(0, size) : expenses;
+        String nextCursor = hasNext ? ExpenseCursor.of(page.get(size - 1)).encode() : null;
+
+        return new CursorPageResDto<>(expenseMapper.mapExpensesToResDtos(withDetails(page)), nextCursor);
+    }
+
+    private static PendingSummaryResDto emptySummary(PendingShareTotal total) {
+        return new PendingSummaryResDto(total.getSpaceId(), total.getSpaceName(), 0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+    }
+
+    /**
+     * Claims the expenses to confirm, checking they all exist and were paid by the user.
+     * <br>
+     * The claim increments their version in one UPDATE, the first write of the transaction : a concurrent
+     * confirmation of the same expenses waits for this one to end, then reads the shares it left unconfirmed.
+     * Both end up correct, without any lock taken on read.
+     */
+    private void claimPayerExpenses(Long payerId, Collection<Long> expenseIds) throws TechnicalException {
+        if (expenseRepository.claimByIdsAndPayerId(expenseIds, payerId) == expenseIds.size()) {
+            return;
+        }
+
+        if (expenseRepository.countByIdIn(expenseIds) != expenseIds.size()) {
+            throw new TechnicalException(404, "Dépense non trouvée");
+        }
+        throw new TechnicalException(403, "Seul le créateur de la dépense peut confirmer les paiements");
+    }
+
+    /**
+     * Confirms the payments of claimed expenses with conditional set-based updates, all participants when
+     * {@code participantUserIds} is null. The ledger is updated first, from the shares still unconfirmed.
+     */
+    private PaymentConfirmationResDto confirm(Collection<Long> expenseIds, Collection<Long> participantUserIds) {
+        LocalDateTime now = LocalDateTime.now();
+        if (participantUserIds == null) {
+            balanceLedger.recordSettlements(expenseParticipantRepository.sumUnconfirmedByExpenseIds(expenseIds));
+            int confirmed = expenseParticipantRepository.confirmByExpenseIds(expenseIds, now);
+            return new PaymentConfirmationResDto(confirmed, expenseRepository.settleByIds(expenseIds, now));
+        }
+
+        balanceLedger.recordSettlements(
+                expenseParticipantRepository.sumUnconfirmedByExpenseIdsAndUserIds(expenseIds, participantUserIds));
+        int confirmed = expenseParticipantRepository.confirmByExpenseIdsAndUserIds(expenseIds, participantUserIds, now);
+        return new PaymentConfirmationResDto(confirmed, expenseRepository.settleFullySettledByIds(expenseIds, now));
+    }
+
+    private ExpenseResDto getUpdatedExpense(Long expenseId) throws TechnicalException {
+        Expense expense = expenseRepository.findWithDetailsById(expenseId)
+                .orElseThrow(() -> new TechnicalException(404, "Dépense non trouvée"));
+        return expenseMapper.mapExpenseToResDto(expense);
+    }
 
-        List<ExpenseParticipant> pendingParticipants = expenseParticipantRepository.findPendingConfirmationsByPayer(user);
-        List<Expense> pendingExpenses = pendingParticipants.stream()
-                .map(ExpenseParticipant::getExpense)
-                .distinct()
+    /**
+     * Reloads expenses with their payer, colocation and participants in one statement, keeping their order,
+     * so that mapping a list does not lazily load each association of each expense.
+     */
+    private List<Expense> withDetails(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return expenses;
+        }
+
+        Map<Long, Expense> loaded = expenseRepository.findWithDetailsByIdIn(expenses.stream().map(Expense::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Expense::getId, Function.identity()));
+        return expenses.stream()
+                .map(expense -> loaded.get(expense.getId()))
                 .toList();
+    }
+
+    private static int pageSize(Integer limit) throws TechnicalException {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new TechnicalException(400, "La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    /**
+     * Splits an expense by weights, exact amounts or percentages. The participants are the keys of
+     * the shares, ordered by id so that the cents left over always go to the same roommates.
+     * <br>
+     * Every share is converted to hundredths (weight, cents or basis points) and allocated in long
+     * arithmetic by {@link SplitAllocator}, the shares always adding up to the amount.
+     */
+    private void distribute(Expense expense, ExpenseSplitReqDto split, Set<Long> participantIds, Colocation space) throws TechnicalException {
+        Map<Long, BigDecimal> shares = split.getShares();
+        if (shares == null || shares.isEmpty()) {
+            throw new TechnicalException(400, "Les parts des participants sont requises pour cette répartition");
+        }
 
-        return expenseMapper.mapExpensesToResDtos(pendingExpenses);
+        if (participantIds != null && !participantIds.isEmpty() && !participantIds.equals(shares.keySet())) {
+            throw new TechnicalException(400, "Les participants de la répartition ne correspondent pas aux participants de la dépense");
+        }
+
+        List<User> users = getParticipants(shares.keySet(), space).stream()
+                .sorted(Comparator.comparing(User::getId))
+                .toList();
+
+        long[] hundredths = new long[users.size()];
+        for (int i = 0; i < hundredths.length; i++) {
+            hundredths[i] = toHundredths(shares.get(users.get(i).getId()));
+        }
+
+        long   cents = expense.amountInCents();
+        long[] shareCents;
+        try {
+            shareCents = switch (split.getType()) {
+                case WEIGHTED   -> SplitAllocator.weighted(cents, hundredths);
+                case EXACT      -> SplitAllocator.exact(cents, hundredths);
+                case PERCENTAGE -> SplitAllocator.percentages(cents, hundredths);
+                case EQUAL      -> SplitAllocator.even(cents, hundredths.length);
+            };
+        } catch (IllegalArgumentException e) {
+            throw new TechnicalException(400, e.getMessage());
+        }
+        expense.distribute(users, shareCents);
+    }
+
+    private long toHundredths(BigDecimal share) throws TechnicalException {
+        if (share == null) {
+            throw new TechnicalException(400, "La part de chaque participant est requise");
+        }
+
+        try {
+            return share.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new TechnicalException(400, "Les parts sont limitées à deux décimales");
+        }
     }
 
     private Set<User> getParticipants(Set<Long> participantIds, Colocation space) throws TechnicalException {
@@ -264,7 +515,7 @@ public class ExpenseService extends AbstractService {
             User participant = userRepository.findById(participantId)
                     .orElseThrow(() -> new TechnicalException(404, "Participant non trouvé: " + participantId));
             
-            if (!space.isRoommate(participant)) {
+            if (!membershipIndex.isRoommate(participant.getId(), space.getId())) {
                 throw new TechnicalException(400, "L'utilisateur " + participant.getEmail() + " n'est pas membre de cette colocation");
             }
             
@@ -0,0 +1,100 @@
+package fr.esgi.service.expense;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Periodically generates the due occurrences of the recurring expenses.
+ * <br>
+ * Each chunk runs in its own transaction and locks the definitions it handles, so several nodes
+ * can run the job at once and share the work. A run stops once nothing is due or after
+ * {@value #MAX_CHUNKS_PER_RUN} chunks; what remains is generated by the next run.
+ * <br>
+ * A failing chunk is generated again one definition at a time : a definition that still fails is
+ * skipped until the end of the run, so that it does not hold back the definitions due after it.
+ * The run stops when even the due definitions cannot be read. The occurrences generated are
+ * published as the {@code cohabit.recurring_expenses.generated} counter, the definitions skipped as
+ * {@code cohabit.recurring_expenses.failed}.
+ */
+@Component
+@Log4j2
+public class RecurringExpenseJob {
+
+    static final int MAX_CHUNKS_PER_RUN = 100;
+
+    private final RecurringExpenseService recurringExpenseService;
+    private final Counter                 generatedCounter;
+    private final Counter                 failedCounter;
+
+    public RecurringExpenseJob(RecurringExpenseService recurringExpenseService, MeterRegistry meterRegistry) {
+        this.recurringExpenseService = recurringExpenseService;
+        this.generatedCounter        = Counter.builder("cohabit.recurring_expenses.generated")
+                                              .description("Occurrences generated from the recurring expenses")
+                                              .register(meterRegistry);
+        this.failedCounter           = Counter.builder("cohabit.recurring_expenses.failed")
+                                              .description("Recurring expenses skipped by a run because their generation failed")
+                                              .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${cohabit.recurring-expenses.generation-cron:0 5 * * * *}")
+    public void run() {
+        generateAll(LocalDate.now());
+    }
+
+    /**
+     * @return The number of occurrences generated.
+     */
+    public int generateAll(LocalDate today) {
+        Set<Long> skipped  = new HashSet<>();
+        int       expenses = 0;
+        int       chunks   = 0;
+        while (chunks < MAX_CHUNKS_PER_RUN) {
+            RecurringExpenseService.Generation generation;
+            try {
+                generation = recurringExpenseService.generateDue(today, skipped);
+            } catch (RuntimeException e) {
+                log.warn("Lot de dépenses récurrentes en échec, repris définition par définition", e);
+                try {
+                    generation = generateEach(today, skipped);
+                } catch (RuntimeException retryFailure) {
+                    log.error("Génération des dépenses récurrentes interrompue après {} lot(s)", chunks, retryFailure);
+                    break;
+                }
+            }
+            if (generation.definitions() == 0) {
+                break;
+            }
+            chunks++;
+            expenses += generation.expenses();
+        }
+
+        generatedCounter.increment(expenses);
+        log.info("Génération des dépenses récurrentes : {} lot(s), {} dépense(s) créée(s), {} définition(s) sautée(s)",
+                 chunks, expenses, skipped.size());
+        return expenses;
+    }
+
+    // Les définitions du lot, chacune dans sa transaction ; celles en échec rejoignent skipped
+    private RecurringExpenseService.Generation generateEach(LocalDate today, Set<Long> skipped) {
+        List<Long> ids      = recurringExpenseService.findDueIds(today, skipped);
+        int        expenses = 0;
+        for (Long id : ids) {
+            try {
+                expenses += recurringExpenseService.generateDue(today, id).expenses();
+            } catch (RuntimeException e) {
+                skipped.add(id);
+                failedCounter.increment();
+                log.error("Dépense récurrente {} sautée jusqu'à la prochaine génération : sa génération échoue", id, e);
+            }
+        }
+        return new RecurringExpenseService.Generation(ids.size(), expenses);
+    }
+}
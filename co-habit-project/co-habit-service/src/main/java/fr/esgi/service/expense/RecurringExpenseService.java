@@ -0,0 +1,230 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.dto.expense.RecurringExpenseReqDto;
+import fr.esgi.domain.dto.expense.RecurringExpenseResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.expense.RecurringExpense;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.RecurringExpenseRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.expense.mapper.RecurringExpenseMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Manages the recurring expenses of a colocation (rent, utilities, subscriptions) and generates
+ * their due occurrences as regular expenses.
+ * <br>
+ * {@link #generateDue(LocalDate, Collection)} handles one chunk in one transaction : it locks up to
+ * {@value #CHUNK_SIZE} due definitions, skipping those locked by another node, generates at most
+ * {@value #MAX_OCCURRENCES_PER_CHUNK} occurrences for each, advances their next due date and inserts
+ * the occurrences in JDBC batches. A definition still due after a long downtime is picked up again by
+ * the following chunks.
+ */
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class RecurringExpenseService extends AbstractService {
+
+    static final int CHUNK_SIZE                = 50;
+    static final int MAX_OCCURRENCES_PER_CHUNK = 12;
+
+    private final RecurringExpenseRepository recurringExpenseRepository;
+    private final ExpenseRepository          expenseRepository;
+    private final ColocationRepository       colocationRepository;
+    private final UserRepository             userRepository;
+    private final CurrentUser                currentUser;
+    private final ColocationMembershipIndex  membershipIndex;
+    private final BalanceLedger              balanceLedger;
+    private final SpendingRollup             spendingRollup;
+    private final RecurringExpenseMapper     recurringExpenseMapper;
+
+    /**
+     * Outcome of one generation chunk.
+     *
+     * @param definitions Number of due definitions processed, zero once nothing is due.
+     * @param expenses    Number of occurrences generated.
+     */
+    record Generation(int definitions, int expenses) {
+    }
+
+    /**
+     * Creates a recurring expense paid by the authenticated user. Its first occurrence is generated
+     * on its start date, or by the next generation when the start date is past.
+     */
+    @Transactional
+    public RecurringExpenseResDto createRecurringExpense(RecurringExpenseReqDto dto) throws TechnicalException {
+        User payer = currentUser.find()
+                .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        Colocation space = colocationRepository.findById(dto.getSpaceId())
+                .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
+
+        if (!membershipIndex.isRoommate(payer.getId(), space.getId())) {
+            throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
+        }
+
+        if (dto.getEndDate() != null && dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new TechnicalException(400, "La date de fin doit être postérieure à la date de début");
+        }
+
+        RecurringExpense recurringExpense = recurringExpenseMapper.mapDtoToRecurringExpense(dto);
+        recurringExpense.setPayer(payer);
+        recurringExpense.setSpace(space);
+        recurringExpense.setParticipants(getParticipants(dto.getParticipantIds(), space));
+
+        return recurringExpenseMapper.mapRecurringExpenseToResDto(recurringExpenseRepository.save(recurringExpense));
+    }
+
+    /**
+     * Gets the active recurring expenses of a colocation, next due first.
+     */
+    @Transactional(readOnly = true)
+    public List<RecurringExpenseResDto> getRecurringExpensesBySpace(Long spaceId) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        if (!colocationRepository.existsById(spaceId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
+
+        if (!membershipIndex.isRoommate(userId, spaceId)) {
+            throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
+        }
+
+        return recurringExpenseMapper.mapRecurringExpensesToResDtos(
+                recurringExpenseRepository.findBySpaceIdAndActiveTrueOrderByNextDueDateAscIdAsc(spaceId));
+    }
+
+    /**
+     * Stops a recurring expense (only its payer or the colocation manager can). Occurrences already
+     * generated are kept.
+     */
+    @Transactional
+    public void stopRecurringExpense(Long recurringExpenseId) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        RecurringExpense recurringExpense = recurringExpenseRepository.findById(recurringExpenseId)
+                .orElseThrow(() -> new TechnicalException(404, "Dépense récurrente non trouvée"));
+
+        if (!recurringExpense.getPayer().getId().equals(userId)
+                && !recurringExpense.getSpace().getManager().getId().equals(userId)) {
+            throw new TechnicalException(403, "Seul le payeur ou le gestionnaire de la colocation peut arrêter cette dépense récurrente");
+        }
+
+        recurringExpense.setActive(false);
+    }
+
+    /**
+     * Generates the occurrences due on {@code today} for one chunk of definitions.
+     * <br>
+     * Idempotent per period : the locked definitions move to their next due date in the transaction
+     * that inserts their occurrences, and an occurrence is unique per (definition, period). A definition
+     * whose payer left the colocation is deactivated; participants who left are no longer charged, and
+     * when none of the chosen participants remains, every roommate is.
+     *
+     * @param skippedIds Definitions left out, whose generation failed earlier in the run.
+     */
+    @Transactional
+    public Generation generateDue(LocalDate today, Collection<Long> skippedIds) {
+        return generate(recurringExpenseRepository.lockDue(today, skippedIds, Limit.of(CHUNK_SIZE)), today);
+    }
+
+    /**
+     * Generates the occurrences due on {@code today} for one definition alone, as
+     * {@link #generateDue(LocalDate, Collection)} does for a chunk : nothing when the definition is no
+     * longer due or is locked by another node.
+     */
+    @Transactional
+    public Generation generateDue(LocalDate today, Long definitionId) {
+        return generate(recurringExpenseRepository.lockDueById(definitionId, today), today);
+    }
+
+    /**
+     * Ids of the next chunk of due definitions, in the order {@link #generateDue(LocalDate, Collection)}
+     * locks them, without locking them.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findDueIds(LocalDate today, Collection<Long> skippedIds) {
+        return recurringExpenseRepository.findDueIds(today, skippedIds, Limit.of(CHUNK_SIZE));
+    }
+
+    private Generation generate(List<RecurringExpense> due, LocalDate today) {
+        if (due.isEmpty()) {
+            return new Generation(0, 0);
+        }
+
+        // Initialise payeurs, participants et colocataires des définitions verrouillées en une requête
+        recurringExpenseRepository.findWithDetailsByIdIn(due.stream().map(RecurringExpense::getId).toList());
+
+        List<Expense> expenses = new ArrayList<>();
+        for (RecurringExpense recurringExpense : due) {
+            Set<User> roommates = recurringExpense.getSpace().getRoommates();
+            Set<Long> roommateIds = roommates.stream().map(User::getId).collect(Collectors.toSet());
+
+            if (!roommateIds.contains(recurringExpense.getPayer().getId())) {
+                recurringExpense.setActive(false);
+                log.warn("Dépense récurrente {} désactivée : son payeur a quitté la colocation {}",
+                         recurringExpense.getId(), recurringExpense.getSpace().getId());
+                continue;
+            }
+
+            Set<User> participants = recurringExpense.getParticipants()
+                                                     .stream()
+                                                     .filter(participant -> roommateIds.contains(participant.getId()))
+                                                     .collect(Collectors.toSet());
+            if (participants.isEmpty()) {
+                participants = roommates;
+            }
+
+            for (int i = 0; i < MAX_OCCURRENCES_PER_CHUNK && recurringExpense.isActive()
+                    && !recurringExpense.getNextDueDate().isAfter(today); i++) {
+                expenses.add(recurringExpense.nextOccurrence(participants));
+            }
+        }
+
+        expenseRepository.saveAll(expenses);
+        expenseRepository.flush();
+        balanceLedger.recordExpenses(expenses);
+        spendingRollup.recordExpenses(expenses);
+        return new Generation(due.size(), expenses.size());
+    }
+
+    private Set<User> getParticipants(Set<Long> participantIds, Colocation space) throws TechnicalException {
+        Set<User> participants = new HashSet<>();
+        if (participantIds == null) {
+            return participants;
+        }
+
+        for (Long participantId : participantIds) {
+            User participant = userRepository.findById(participantId)
+                    .orElseThrow(() -> new TechnicalException(404, "Participant non trouvé: " + participantId));
+
+            if (!membershipIndex.isRoommate(participant.getId(), space.getId())) {
+                throw new TechnicalException(400, "L'utilisateur " + participant.getEmail() + " n'est pas membre de cette colocation");
+            }
+
+            participants.add(participant);
+        }
+        return participants;
+    }
+}
@@ -0,0 +1,150 @@
+package fr.esgi.service.expense;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Computes the transfers that settle the net balances of a colocation.
+ * <br>
+ * Amounts are in cents, so the plan is exact. A group of {@code k} members whose balances sum to
+ * zero can always be settled with {@code k - 1} transfers, and a plan with {@code n} members and
+ * {@code g} such disjoint groups needs {@code n - g} transfers : minimising the transfers means
+ * splitting the members into as many zero-sum groups as possible.
+ * <ul>
+ *     <li>Up to {@link #EXACT_LIMIT} members with a non zero balance, the split is exact, with a
+ *     dynamic programming over the subsets ({@code O(2^n * n)}, 16 members take ~2 ms).</li>
+ *     <li>Beyond, all members form a single group, which is still settled with at most {@code n - 1}
+ *     transfers.</li>
+ * </ul>
+ * Each group is then settled greedily, the largest debtor paying the largest creditor.
+ */
+public final class SettlementPlanner {
+
+    static final int EXACT_LIMIT = 16;
+
+    private static final int ALL = -1;
+
+    private SettlementPlanner() {
+    }
+
+    /**
+     * @param balances Net balance in cents by user id, positive for creditors. Must sum to zero.
+     * @return The transfers, ordered by group then by decreasing amount.
+     */
+    public static List<Transfer> plan(Map<Long, Long> balances) {
+        long[] userIds = balances.entrySet()
+                                 .stream()
+                                 .filter(entry -> entry.getValue() != 0)
+                                 .mapToLong(Map.Entry::getKey)
+                                 .sorted()
+                                 .toArray();
+        long[] amounts = new long[userIds.length];
+        long   total   = 0;
+        for (int i = 0; i < userIds.length; i++) {
+            amounts[i] = balances.get(userIds[i]);
+            total += amounts[i];
+        }
+        if (total != 0) {
+            throw new IllegalArgumentException("Les soldes ne sont pas équilibrés : " + total);
+        }
+
+        List<Transfer> transfers = new ArrayList<>();
+        if (userIds.length == 0) {
+            return transfers;
+        }
+
+        if (userIds.length <= EXACT_LIMIT) {
+            for (int group : zeroSumGroups(amounts)) {
+                settle(userIds, amounts, group, transfers);
+            }
+        } else {
+            settle(userIds, amounts, ALL, transfers);
+        }
+        return transfers;
+    }
+
+    /**
+     * @return The members as bit masks, split into the largest number of zero-sum groups.
+     */
+    static List<Integer> zeroSumGroups(long[] amounts) {
+        int    full = (1 << amounts.length) - 1;
+        long[] sum  = new long[full + 1];
+        // groups[mask] : largest number of zero-sum groups the members of mask can be split into,
+        // last[mask] : member removed from mask on the best path.
+        int[]  groups = new int[full + 1];
+        byte[] last   = new byte[full + 1];
+
+        for (int mask = 1; mask <= full; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            sum[mask] = sum[mask & (mask - 1)] + amounts[lowest];
+
+            int best = -1;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int member = Integer.numberOfTrailingZeros(rest);
+                int value  = groups[mask ^ (1 << member)];
+                if (value > best) {
+                    best       = value;
+                    last[mask] = (byte) member;
+                }
+            }
+            groups[mask] = best + (sum[mask] == 0 ? 1 : 0);
+        }
+
+        // Walks back the best path : every zero-sum prefix closes a group.
+        List<Integer> result = new ArrayList<>(groups[full]);
+        int           group  = 0;
+        for (int mask = full; mask != 0; ) {
+            int bit = 1 << last[mask];
+            group |= bit;
+            mask ^= bit;
+            if (sum[mask] == 0) {
+                result.add(group);
+                group = 0;
+            }
+        }
+        return result;
+    }
+
+    private static void settle(long[] userIds, long[] amounts, int group, List<Transfer> transfers) {
+        Comparator<long[]> largestFirst = Comparator.<long[]>comparingLong(member -> member[1])
+                                                    .reversed()
+                                                    .thenComparingLong(member -> member[0]);
+        PriorityQueue<long[]> creditors = new PriorityQueue<>(largestFirst);
+        PriorityQueue<long[]> debtors   = new PriorityQueue<>(largestFirst);
+        for (int i = 0; i < userIds.length; i++) {
+            if (group != ALL && (group & (1 << i)) == 0) {
+                continue;
+            }
+            if (amounts[i] > 0) {
+                creditors.add(new long[]{userIds[i], amounts[i]});
+            } else {
+                debtors.add(new long[]{userIds[i], -amounts[i]});
+            }
+        }
+
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long[] creditor = creditors.poll();
+            long[] debtor   = debtors.poll();
+            long   amount   = Math.min(creditor[1], debtor[1]);
+            transfers.add(new Transfer(debtor[0], creditor[0], amount));
+
+            creditor[1] -= amount;
+            debtor[1] -= amount;
+            if (creditor[1] > 0) {
+                creditors.add(creditor);
+            }
+            if (debtor[1] > 0) {
+                debtors.add(debtor);
+            }
+        }
+    }
+
+    /**
+     * @param amountCents Always strictly positive.
+     */
+    public record Transfer(long fromUserId, long toUserId, long amountCents) {
+    }
+}
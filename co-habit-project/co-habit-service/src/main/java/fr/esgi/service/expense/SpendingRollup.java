@@ -0,0 +1,148 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.expense.MonthlySpending;
+import fr.esgi.persistence.entity.expense.MonthlySpendingId;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.MonthlyPayerTotal;
+import fr.esgi.persistence.repository.expense.MonthlySpendingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the {@code monthly_spending} rollup in step with the expenses.
+ * <br>
+ * A rollup row holds the total and the number of the expenses a member paid for a colocation in
+ * a calendar month, the month of their creation date. Like {@link BalanceLedger}, the record methods
+ * must run in the transaction of the expense write they account for, and each one is a single
+ * upsert incrementing the row, created by the first expense of the month.
+ * <br>
+ * {@link #rebuild(Long)} recomputes the rows of a colocation from {@code expenses} and reports the
+ * rows that drifted.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class SpendingRollup {
+
+    private static final Comparator<MonthlySpendingId> ROW_ORDER =
+            Comparator.comparing(MonthlySpendingId::getSpaceId)
+                      .thenComparing(MonthlySpendingId::getMonth)
+                      .thenComparing(MonthlySpendingId::getPayerId);
+
+    private final MonthlySpendingRepository monthlySpendingRepository;
+    private final ExpenseRepository         expenseRepository;
+
+    /**
+     * Month of the rollup an expense belongs to.
+     */
+    static LocalDate monthOf(Expense expense) {
+        return expense.getCreatedAt().toLocalDate().withDayOfMonth(1);
+    }
+
+    /**
+     * Adds a new expense, once persisted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpense(Expense expense) {
+        add(key(expense), expense.getAmount(), 1);
+    }
+
+    /**
+     * Adds many new expenses, once persisted, aggregated by row : one update per (month, payer)
+     * whatever the number of expenses. The rows are updated in key order, so that concurrent batches
+     * touching the same rows wait for each other instead of deadlocking.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpenses(Collection<Expense> expenses) {
+        Map<MonthlySpendingId, BigDecimal> amounts = new TreeMap<>(ROW_ORDER);
+        Map<MonthlySpendingId, Long>       counts  = new HashMap<>();
+        for (Expense expense : expenses) {
+            MonthlySpendingId key = key(expense);
+            amounts.merge(key, expense.getAmount(), BigDecimal::add);
+            counts.merge(key, 1L, Long::sum);
+        }
+        amounts.forEach((key, amount) -> add(key, amount, counts.get(key)));
+    }
+
+    /**
+     * Removes an expense about to be deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Expense expense) {
+        add(key(expense), expense.getAmount().negate(), -1);
+    }
+
+    /**
+     * Rebuilds the rollup rows of a colocation from its expenses.
+     * <br>
+     * The rows are locked first : a concurrent expense write either committed before, and is
+     * seen by the aggregate, or waits for the rebuild to update its own row.
+     *
+     * @return The number of (month, payer) rows whose totals were wrong.
+     */
+    @Transactional
+    public int rebuild(Long spaceId) {
+        Map<MonthlySpendingId, MonthlySpending> current = new HashMap<>();
+        for (MonthlySpending row : monthlySpendingRepository.lockBySpaceId(spaceId)) {
+            current.put(row.getId(), row);
+        }
+
+        Map<MonthlySpendingId, MonthlyPayerTotal> expected = new HashMap<>();
+        for (MonthlyPayerTotal total : expenseRepository.sumMonthlyBySpaceId(spaceId)) {
+            LocalDate month = LocalDate.of(total.getCreatedYear(), total.getCreatedMonth(), 1);
+            expected.put(new MonthlySpendingId(spaceId, month, total.getPayerId()), total);
+        }
+
+        Set<MonthlySpendingId> keys = new HashSet<>(current.keySet());
+        keys.addAll(expected.keySet());
+
+        int drift = 0;
+        for (MonthlySpendingId key : keys) {
+            MonthlySpending   row    = current.get(key);
+            MonthlyPayerTotal total  = expected.get(key);
+            BigDecimal        amount = total != null ? total.getAmount() : BigDecimal.ZERO;
+            long              count  = total != null ? total.getExpenseCount() : 0;
+
+            BigDecimal actual = row != null ? row.getAmount() : BigDecimal.ZERO;
+            if (actual.compareTo(amount) != 0 || (row != null ? row.getExpenseCount() : 0) != count) {
+                drift++;
+                log.warn("Écart dans les dépenses mensuelles de la colocation {} : {} a payé {} en {} dépense(s) le mois du {} au lieu de {}",
+                         spaceId, key.getPayerId(), amount, count, key.getMonth(), actual);
+            }
+
+            if (count == 0) {
+                if (row != null) {
+                    monthlySpendingRepository.delete(row);
+                }
+            } else if (row == null) {
+                monthlySpendingRepository.save(new MonthlySpending(key, amount, count));
+            } else {
+                row.setAmount(amount);
+                row.setExpenseCount(count);
+            }
+        }
+        return drift;
+    }
+
+    private static MonthlySpendingId key(Expense expense) {
+        return new MonthlySpendingId(expense.getSpace().getId(), monthOf(expense), expense.getPayer().getId());
+    }
+
+    private void add(MonthlySpendingId key, BigDecimal amount, long count) {
+        monthlySpendingRepository.addToTotals(key.getSpaceId(), key.getMonth(), key.getPayerId(), amount, count);
+    }
+}
@@ -0,0 +1,77 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.MonthlySpendingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Periodically rebuilds the {@code monthly_spending} rollup from the expenses and reports drift.
+ * <br>
+ * Every colocation having expenses or rollup rows is rebuilt in its own transaction, so a failure
+ * only skips one colocation. The number of drifted rows is logged and published as the
+ * {@code cohabit.spending.drift} counter : anything but zero points to a write path that bypasses
+ * {@link SpendingRollup}.
+ */
+@Component
+@Log4j2
+public class SpendingRollupJob {
+
+    private final ExpenseRepository         expenseRepository;
+    private final MonthlySpendingRepository monthlySpendingRepository;
+    private final SpendingRollup            spendingRollup;
+    private final Counter                   driftCounter;
+
+    public SpendingRollupJob(
+            ExpenseRepository expenseRepository,
+            MonthlySpendingRepository monthlySpendingRepository,
+            SpendingRollup spendingRollup,
+            MeterRegistry meterRegistry
+    ) {
+        this.expenseRepository         = expenseRepository;
+        this.monthlySpendingRepository = monthlySpendingRepository;
+        this.spendingRollup            = spendingRollup;
+        this.driftCounter              = Counter.builder("cohabit.spending.drift")
+                                                .description("Monthly spending rows corrected by the rollup rebuild")
+                                                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${cohabit.spending.rebuild-cron:0 0 4 * * *}")
+    public void run() {
+        rebuildAll();
+    }
+
+    /**
+     * @return The total number of drifted (month, payer) rows.
+     */
+    public int rebuildAll() {
+        Set<Long> spaceIds = new TreeSet<>(expenseRepository.findSpaceIds());
+        spaceIds.addAll(monthlySpendingRepository.findSpaceIds());
+
+        int drift  = 0;
+        int failed = 0;
+        for (Long spaceId : spaceIds) {
+            try {
+                drift += spendingRollup.rebuild(spaceId);
+            } catch (RuntimeException e) {
+                failed++;
+                log.error("Reconstruction des dépenses mensuelles impossible pour la colocation {}", spaceId, e);
+            }
+        }
+
+        driftCounter.increment(drift);
+        if (drift > 0 || failed > 0) {
+            log.warn("Reconstruction des dépenses mensuelles : {} colocation(s), {} écart(s) corrigé(s), {} échec(s)",
+                     spaceIds.size(), drift, failed);
+        } else {
+            log.info("Reconstruction des dépenses mensuelles : {} colocation(s), aucun écart", spaceIds.size());
+        }
+        return drift;
+    }
+}
@@ -0,0 +1,151 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.dto.expense.MemberSpendingResDto;
+import fr.esgi.domain.dto.expense.MonthlySpendingResDto;
+import fr.esgi.domain.dto.expense.SpendingStatsResDto;
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.MonthlySpendingRepository;
+import fr.esgi.persistence.repository.expense.SpendingLine;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.expense.mapper.ExpenseMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Spending statistics of a colocation, per month and per member.
+ * <br>
+ * The figures are read from the {@code monthly_spending} rollup maintained by {@link SpendingRollup},
+ * one row per (month, payer) : a period costs a range scan of at most {@value #MAX_MONTHS} rows per
+ * member, whatever the length of the expense history. The sums are computed in cents.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SpendingStatsService extends AbstractService {
+
+    static final int DEFAULT_MONTHS = 12;
+    static final int MAX_MONTHS     = 24;
+
+    private final MonthlySpendingRepository monthlySpendingRepository;
+    private final ColocationRepository      colocationRepository;
+    private final UserRepository            userRepository;
+    private final CurrentUser               currentUser;
+    private final ColocationMembershipIndex membershipIndex;
+    private final ExpenseMapper             expenseMapper;
+
+    /**
+     * Gets the spending of a colocation between two months, both included.
+     *
+     * @param from First month, {@value #DEFAULT_MONTHS} months before {@code to} by default.
+     * @param to   Last month, the current month by default.
+     */
+    public SpendingStatsResDto getStats(Long spaceId, YearMonth from, YearMonth to) throws TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur non trouvé"));
+
+        if (!colocationRepository.existsById(spaceId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
+
+        if (!membershipIndex.isRoommate(userId, spaceId)) {
+            throw new TechnicalException(403, "Accès refusé - Vous n'êtes pas membre de cette colocation");
+        }
+
+        YearMonth last  = to != null ? to : YearMonth.now();
+        YearMonth first = from != null ? from : last.minusMonths(DEFAULT_MONTHS - 1L);
+        if (first.isAfter(last)) {
+            throw new TechnicalException(400, "Le mois de début doit précéder le mois de fin");
+        }
+        if (ChronoUnit.MONTHS.between(first, last) >= MAX_MONTHS) {
+            throw new TechnicalException(400, "La période est limitée à " + MAX_MONTHS + " mois");
+        }
+
+        List<SpendingLine> lines = monthlySpendingRepository.findLinesBySpaceIdAndMonthBetween(
+                spaceId, first.atDay(1), last.atDay(1));
+
+        Map<YearMonth, List<SpendingLine>> linesByMonth = new TreeMap<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            linesByMonth.put(month, new ArrayList<>());
+        }
+        for (SpendingLine line : lines) {
+            linesByMonth.get(YearMonth.from(line.getMonth())).add(line);
+        }
+
+        Map<Long, UserProfileResDto> users = loadUsers(lines.stream().map(SpendingLine::getPayerId).collect(Collectors.toSet()));
+
+        List<MonthlySpendingResDto> months = new ArrayList<>();
+        linesByMonth.forEach((month, monthLines) -> {
+            List<MemberSpendingResDto> members = members(monthLines, users);
+            months.add(new MonthlySpendingResDto(month.toString(), total(members), count(members), members));
+        });
+
+        List<MemberSpendingResDto> members = members(lines, users);
+        return new SpendingStatsResDto(first.toString(), last.toString(), total(members), count(members), members, months);
+    }
+
+    /**
+     * Sums the lines by payer, largest total first.
+     */
+    private static List<MemberSpendingResDto> members(List<SpendingLine> lines, Map<Long, UserProfileResDto> users) {
+        Map<Long, long[]> totals = new HashMap<>();
+        for (SpendingLine line : lines) {
+            long[] total = totals.computeIfAbsent(line.getPayerId(), payerId -> new long[2]);
+            total[0] += toCents(line.getAmount());
+            total[1] += line.getExpenseCount();
+        }
+
+        return totals.entrySet()
+                     .stream()
+                     .sorted(Comparator.<Map.Entry<Long, long[]>>comparingLong(entry -> -entry.getValue()[0])
+                                       .thenComparing(Map.Entry::getKey))
+                     .map(entry -> new MemberSpendingResDto(users.get(entry.getKey()),
+                                                            toAmount(entry.getValue()[0]),
+                                                            entry.getValue()[1]))
+                     .toList();
+    }
+
+    private static BigDecimal total(List<MemberSpendingResDto> members) {
+        return toAmount(members.stream().mapToLong(member -> toCents(member.getTotal())).sum());
+    }
+
+    private static long count(List<MemberSpendingResDto> members) {
+        return members.stream().mapToLong(MemberSpendingResDto::getExpenseCount).sum();
+    }
+
+    private Map<Long, UserProfileResDto> loadUsers(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(userIds)
+                             .stream()
+                             .collect(Collectors.toMap(User::getId, expenseMapper::mapUserToUserProfileResDto,
+                                                       (first, second) -> first));
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
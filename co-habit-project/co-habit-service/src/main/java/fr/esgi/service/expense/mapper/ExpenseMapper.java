@@ -8,6 +8,7 @@ import fr.esgi.domain.DateUtils;
 import fr.esgi.persistence.entity.expense.Expense;
 import fr.esgi.persistence.entity.expense.ExpenseParticipant;
 import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.ExpenseSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
@@ -28,6 +29,9 @@ public interface ExpenseMapper {
     @Mapping(target = "space", ignore = true)
     @Mapping(target = "participants", ignore = true)
     @Mapping(target = "settled", ignore = true)
+    @Mapping(target = "recurringExpense", ignore = true)
+    @Mapping(target = "period", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Expense mapDtoToExpense(ExpenseReqDto dto);
 
     /**
@@ -41,6 +45,15 @@ public interface ExpenseMapper {
     @Mapping(target = "participants", source = "participants")
     ExpenseResDto mapExpenseToResDto(Expense expense);
 
+    /**
+     * Maps an ExpenseSummary projection to ExpenseResDto, participants excluded
+     */
+    @Mapping(target = "createdAt", source = "createdAt", qualifiedByName = "localDateTimeToString")
+    @Mapping(target = "settledAt", source = "settledAt", qualifiedByName = "localDateTimeToString")
+    @Mapping(target = "payer", source = ".", qualifiedByName = "summaryPayer")
+    @Mapping(target = "participants", ignore = true)
+    ExpenseResDto mapSummaryToResDto(ExpenseSummary summary);
+
     /**
      * Maps list of Expense entities to list of ExpenseResDto
      */
@@ -82,6 +95,17 @@ public interface ExpenseMapper {
         return DateUtils.localDateToString(date);
     }
 
+    @Named("summaryPayer")
+    default UserProfileResDto summaryPayer(ExpenseSummary summary) {
+        return UserProfileResDto.builder()
+                                .id(summary.getPayerId())
+                                .email(summary.getPayerEmail())
+                                .username(summary.getPayerUsername())
+                                .firstName(summary.getPayerFirstName())
+                                .lastName(summary.getPayerLastName())
+                                .build();
+    }
+
     @Named("isFullySettled")
     default boolean isFullySettled(ExpenseParticipant participant) {
         return participant.isFullySettled();
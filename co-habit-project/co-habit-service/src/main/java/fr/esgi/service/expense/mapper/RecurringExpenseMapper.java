@@ -0,0 +1,56 @@
+package fr.esgi.service.expense.mapper;
+
+import fr.esgi.domain.DateUtils;
+import fr.esgi.domain.dto.expense.RecurringExpenseReqDto;
+import fr.esgi.domain.dto.expense.RecurringExpenseResDto;
+import fr.esgi.domain.dto.user.UserProfileResDto;
+import fr.esgi.persistence.entity.expense.RecurringExpense;
+import fr.esgi.persistence.entity.user.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface RecurringExpenseMapper {
+
+    /**
+     * Maps RecurringExpenseReqDto to RecurringExpense entity for creation
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "nextDueDate", ignore = true)
+    @Mapping(target = "occurrences", ignore = true)
+    @Mapping(target = "active", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "payer", ignore = true)
+    @Mapping(target = "space", ignore = true)
+    @Mapping(target = "participants", ignore = true)
+    RecurringExpense mapDtoToRecurringExpense(RecurringExpenseReqDto dto);
+
+    /**
+     * Maps RecurringExpense entity to RecurringExpenseResDto
+     */
+    @Mapping(target = "startDate", source = "startDate", qualifiedByName = "localDateToString")
+    @Mapping(target = "endDate", source = "endDate", qualifiedByName = "localDateToString")
+    @Mapping(target = "nextDueDate", source = "nextDueDate", qualifiedByName = "localDateToString")
+    @Mapping(target = "spaceId", source = "space.id")
+    RecurringExpenseResDto mapRecurringExpenseToResDto(RecurringExpense recurringExpense);
+
+    /**
+     * Maps list of RecurringExpense entities to list of RecurringExpenseResDto
+     */
+    List<RecurringExpenseResDto> mapRecurringExpensesToResDtos(List<RecurringExpense> recurringExpenses);
+
+    /**
+     * Maps User entity to UserProfileResDto
+     */
+    @Mapping(target = "birthDate", source = "birthDate", qualifiedByName = "localDateToString")
+    UserProfileResDto mapUserToUserProfileResDto(User user);
+
+    @Named("localDateToString")
+    default String localDateToString(LocalDate date) {
+        return DateUtils.localDateToString(date);
+    }
+}
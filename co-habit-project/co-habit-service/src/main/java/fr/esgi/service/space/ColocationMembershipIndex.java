@@ -0,0 +1,221 @@
+package fr.esgi.service.space;
+
+import fr.esgi.persistence.repository.space.ColocationMembership;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index of colocation memberships : user id -> colocation ids.
+ * <br>
+ * Each user entry is loaded with a single projection query and kept as two sorted primitive
+ * {@code long[]} (colocations where the user is roommate, colocations managed by the user),
+ * so that "is member / is manager" checks neither hydrate {@code Colocation.roommates} nor
+ * {@code User.colocations}. Entries are immutable and replaced as a whole on invalidation.
+ * <br>
+ * Every write on memberships (create, join, leave, delete) must call one of the evict methods.
+ * When a transaction is active, the eviction is replayed once it completes so that a concurrent
+ * reader cannot cache the pre-commit state.
+ * <br>
+ * The index is local to each node : an eviction does not reach the other nodes. A denial is
+ * therefore confirmed against the database before it is answered, the entry being reloaded unless
+ * it was loaded for this very check : a user who just joined a colocation on another node is let
+ * in at once. An access granted from the index may outlive a leave or a removal recorded on
+ * another node until the entry expires, after {@code cohabit.membership-index.ttl-ms}. The index
+ * keeps at most {@code cohabit.membership-index.max-entries} users, the oldest loaded being
+ * dropped first.
+ * <br>
+ * An entry is loaded outside the map, so that the query holds no lock of the map. An eviction
+ * during the load keeps the entry loaded out of the index : it may predate the write evicted.
+ */
+@Component
+@Log4j2
+public class ColocationMembershipIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final ColocationRepository   colocationRepository;
+    private final Map<Long, Memberships> membershipsByUser = new ConcurrentHashMap<>();
+    // Incrémenté à chaque éviction : une entrée chargée pendant l'une d'elles n'est pas gardée
+    private final AtomicLong             evictions         = new AtomicLong();
+    private final int                    maxEntries;
+    private final long                   ttlNanos;
+
+    public ColocationMembershipIndex(
+            ColocationRepository colocationRepository,
+            @Value("${cohabit.membership-index.max-entries:10000}") int maxEntries,
+            @Value("${cohabit.membership-index.ttl-ms:30000}") long ttlMs
+    ) {
+        this.colocationRepository = colocationRepository;
+        this.maxEntries           = maxEntries;
+        this.ttlNanos             = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /**
+     * @return true if the user is a roommate of the colocation.
+     */
+    public boolean isRoommate(Long userId, Long colocationId) {
+        return userId != null && colocationId != null
+                && confirmed(userId, memberships -> contains(memberships.roommateOf(), colocationId));
+    }
+
+    /**
+     * @return true if the user manages the colocation.
+     */
+    public boolean isManager(Long userId, Long colocationId) {
+        return userId != null && colocationId != null
+                && confirmed(userId, memberships -> contains(memberships.managerOf(), colocationId));
+    }
+
+    /**
+     * @return true if the user is a roommate or the manager of the colocation.
+     */
+    public boolean isMember(Long userId, Long colocationId) {
+        return userId != null && colocationId != null
+                && confirmed(userId, memberships -> contains(memberships.roommateOf(), colocationId)
+                        || contains(memberships.managerOf(), colocationId));
+    }
+
+    /**
+     * Invalidates the memberships of a user, e.g. after a join or a leave.
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evictions.incrementAndGet();
+        membershipsByUser.remove(userId);
+        afterCompletion(() -> {
+            evictions.incrementAndGet();
+            membershipsByUser.remove(userId);
+        });
+    }
+
+    /**
+     * Invalidates every user linked to a colocation, e.g. after its deletion.
+     */
+    public void evictColocation(Long colocationId) {
+        if (colocationId == null) {
+            return;
+        }
+        removeColocation(colocationId);
+        afterCompletion(() -> removeColocation(colocationId));
+    }
+
+    /**
+     * @return the number of users currently indexed.
+     */
+    int size() {
+        return membershipsByUser.size();
+    }
+
+    // Un refus lu dans une entrée déjà en cache est vérifié sur une entrée rechargée
+    private boolean confirmed(Long userId, Predicate<Memberships> granted) {
+        long        start       = System.nanoTime();
+        Memberships memberships = memberships(userId);
+        if (granted.test(memberships)) {
+            return true;
+        }
+        return memberships.loadedAt() < start && granted.test(loadAndCache(userId));
+    }
+
+    private Memberships memberships(Long userId) {
+        Memberships memberships = membershipsByUser.get(userId);
+        if (memberships != null && !memberships.expired(System.nanoTime(), ttlNanos)) {
+            return memberships;
+        }
+        if (memberships != null) {
+            membershipsByUser.remove(userId, memberships);
+        }
+        if (membershipsByUser.size() >= maxEntries) {
+            shrink();
+        }
+        return loadAndCache(userId);
+    }
+
+    // Chargée hors de la map : la requête ne bloque pas les autres utilisateurs de la même case
+    private Memberships loadAndCache(Long userId) {
+        long        generation = evictions.get();
+        Memberships loaded     = load(userId);
+        membershipsByUser.put(userId, loaded);
+        if (evictions.get() != generation) {
+            membershipsByUser.remove(userId, loaded);
+        }
+        return loaded;
+    }
+
+    // Expired entries first, then the oldest loaded until there is room for a new user
+    private void shrink() {
+        long now = System.nanoTime();
+        membershipsByUser.values().removeIf(memberships -> memberships.expired(now, ttlNanos));
+        int excess = membershipsByUser.size() - maxEntries + 1;
+        if (excess > 0) {
+            membershipsByUser.entrySet()
+                             .stream()
+                             .sorted(Comparator.comparingLong(entry -> entry.getValue().loadedAt()))
+                             .limit(excess)
+                             .toList()
+                             .forEach(entry -> membershipsByUser.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private Memberships load(Long userId) {
+        List<ColocationMembership> rows = colocationRepository.findMembershipsByUserId(userId);
+        long[] roommateOf = rows.stream()
+                                .filter(ColocationMembership::isRoommate)
+                                .mapToLong(ColocationMembership::getColocationId)
+                                .sorted()
+                                .distinct()
+                                .toArray();
+        long[] managerOf = rows.stream()
+                               .filter(ColocationMembership::isManager)
+                               .mapToLong(ColocationMembership::getColocationId)
+                               .sorted()
+                               .distinct()
+                               .toArray();
+        log.debug("Index d'appartenance chargé pour l'utilisateur {} : {} colocation(s)", userId, rows.size());
+        return new Memberships(roommateOf.length == 0 ? NONE : roommateOf, managerOf.length == 0 ? NONE : managerOf,
+                               System.nanoTime());
+    }
+
+    private void removeColocation(long colocationId) {
+        evictions.incrementAndGet();
+        membershipsByUser.values()
+                         .removeIf(memberships -> contains(memberships.roommateOf(), colocationId)
+                                 || contains(memberships.managerOf(), colocationId));
+    }
+
+    private static boolean contains(long[] sortedIds, long id) {
+        return sortedIds.length != 0 && Arrays.binarySearch(sortedIds, id) >= 0;
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private record Memberships(long[] roommateOf, long[] managerOf, long loadedAt) {
+
+        boolean expired(long now, long ttlNanos) {
+            return now - loadedAt >= ttlNanos;
+        }
+    }
+}
@@ -4,10 +4,11 @@ import fr.esgi.domain.dto.space.ColocationReqDto;
 import fr.esgi.domain.dto.space.ColocationResDto;
 import fr.esgi.domain.exception.TechnicalException;
 import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.space.InvitationCode;
 import fr.esgi.persistence.entity.user.User;
 import fr.esgi.persistence.repository.space.ColocationRepository;
-import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
 import fr.esgi.service.space.mapper.ColocationMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,28 +22,29 @@ import java.util.UUID;
 @Transactional
 public class ColocationService extends AbstractService {
 
-    private final ColocationRepository colocationRepository;
-    private final UserRepository       userRepository;
-    private final ColocationMapper     colocationMapper;
+    private final ColocationRepository      colocationRepository;
+    private final CurrentUser               currentUser;
+    private final ColocationMembershipIndex membershipIndex;
+    private final InvitationCodeAllocator   invitationCodeAllocator;
+    private final ColocationMapper          colocationMapper;
 
     /**
      * Creates a new colocation with the authenticated user as manager
      */
     public ColocationResDto createColocation(ColocationReqDto dto) throws
                                                                    TechnicalException {
-        String userSub = getUserSub();
-
-        User manager = userRepository.findByKeyCloakSub(userSub)
-                                     .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        User manager = currentUser.find()
+                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationMapper.mapDtoToColocation(dto);
         colocation.setManager(manager);
-        colocation.generateInvitationCode(colocationRepository);
+        colocation.setInvitationCode(invitationCodeAllocator.allocate());
 
         // Add manager as first roommate
         colocation.addRoommate(manager);
 
         Colocation savedColocation = colocationRepository.save(colocation);
+        membershipIndex.evictUser(manager.getId());
         return colocationMapper.mapColocationToResDto(savedColocation);
     }
 
@@ -51,15 +53,13 @@ public class ColocationService extends AbstractService {
      */
     public ColocationResDto updateColocation(Long colocationId, ColocationReqDto dto) throws
                                                                                       TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isManager(user)) {
+        if (!membershipIndex.isManager(userId, colocationId)) {
             throw new TechnicalException(403, "Seul le gestionnaire peut modifier cette colocation");
         }
 
@@ -74,15 +74,13 @@ public class ColocationService extends AbstractService {
     @Transactional(readOnly = true)
     public ColocationResDto getColocationById(Long colocationId) throws
                                                                  TechnicalException {
-        String userSub = getUserSub();
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
-
-        Colocation colocation = colocationRepository.findById(colocationId)
+        Colocation colocation = colocationRepository.findWithMembersById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user)) {
+        if (!membershipIndex.isRoommate(userId, colocationId)) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette colocation");
         }
 
@@ -95,12 +93,10 @@ public class ColocationService extends AbstractService {
     @Transactional(readOnly = true)
     public List<ColocationResDto> getManagedColocations() throws
                                                           TechnicalException {
-        String userSub = getUserSub();
-
-        User manager = userRepository.findByKeyCloakSub(userSub)
-                                     .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        User manager = currentUser.find()
+                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        List<Colocation> colocations = colocationRepository.findByManager(manager);
+        List<Colocation> colocations = colocationRepository.findWithMembersByManager(manager);
         return colocationMapper.mapColocationsToResDtos(colocations);
     }
 
@@ -110,12 +106,10 @@ public class ColocationService extends AbstractService {
     @Transactional(readOnly = true)
     public List<ColocationResDto> getUserColocations() throws
                                                        TechnicalException {
-        String userSub = getUserSub();
+        User user = currentUser.find()
+                               .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
-
-        List<Colocation> colocations = colocationRepository.findByRoommatesContaining(user);
+        List<Colocation> colocations = colocationRepository.findWithMembersByRoommatesContaining(user);
         return colocationMapper.mapColocationsToResDtos(colocations);
     }
 
@@ -124,69 +118,97 @@ public class ColocationService extends AbstractService {
      */
     public void deleteColocation(Long colocationId) throws
                                                     TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isManager(user)) {
+        if (!membershipIndex.isManager(userId, colocationId)) {
             throw new TechnicalException(403, "Seul le gestionnaire peut supprimer cette colocation");
         }
 
         colocationRepository.delete(colocation);
+        membershipIndex.evictColocation(colocationId);
     }
 
     /**
-     * Joins a colocation using invitation code
+     * Replaces the invitation code of a colocation (only manager can renew)
      */
-    public ColocationResDto joinColocation(String invitationCode) throws
-                                                                  TechnicalException {
-        String userSub = getUserSub();
+    public ColocationResDto renewInvitationCode(Long colocationId) throws
+                                                                   TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Colocation colocation = colocationRepository.findById(colocationId)
+                                                    .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
+
+        if (!membershipIndex.isManager(userId, colocationId)) {
+            throw new TechnicalException(403, "Seul le gestionnaire peut renouveler le code d'invitation");
+        }
 
-        Colocation colocation = colocationRepository.findByInvitationCode(invitationCode)
+        colocation.setInvitationCode(invitationCodeAllocator.allocate());
+        Colocation updatedColocation = colocationRepository.save(colocation);
+        return colocationMapper.mapColocationToResDto(updatedColocation);
+    }
+
+    /**
+     * Joins a colocation using invitation code.
+     * <br>
+     * The membership is checked and written in the database, without loading the roommates : the
+     * join row is inserted first, and a slot is reserved only when it was.
+     */
+    public ColocationResDto joinColocation(String invitationCode) throws
+                                                                  TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+
+        Colocation colocation = colocationRepository.findByValidInvitationCode(
+                                                            invitationCode,
+                                                            invitationCodeAllocator.decode(invitationCode)
+                                                                                   .orElse(null),
+                                                            InvitationCode.expirationThreshold()
+                                                    )
                                                     .orElseThrow(() -> new TechnicalException(404, "Code d'invitation invalide"));
+        Long colocationId = colocation.getId();
 
-        if (colocation.isRoommate(user)) {
+        if (colocationRepository.insertRoommate(colocationId, userId) == 0) {
             throw new TechnicalException(409, "Vous êtes déjà membre de cette colocation");
         }
 
-        if (colocation.isFull()) {
+        // Conditional UPDATE on current_roommates : concurrent joins cannot exceed the capacity
+        if (colocationRepository.reserveRoommateSlot(colocationId) == 0) {
+            // A checked exception does not roll back the transaction : the row is removed here
+            colocationRepository.deleteRoommate(colocationId, userId);
             throw new TechnicalException(409, "Cette colocation est pleine");
         }
 
-        colocation.addRoommate(user);
-        Colocation updatedColocation = colocationRepository.save(colocation);
+        membershipIndex.evictUser(userId);
+        Colocation updatedColocation = colocationRepository.findById(colocationId)
+                                                           .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
         return colocationMapper.mapColocationToResDto(updatedColocation);
     }
 
     /**
-     * Leaves a colocation
+     * Leaves a colocation, the slot being released only when the join row was deleted.
      */
     public void leaveColocation(Long colocationId) throws
                                                    TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user)) {
-            throw new TechnicalException(409, "Vous n'êtes pas membre de cette colocation");
+        if (colocation.getManager() != null && userId.equals(colocation.getManager().getId())) {
+            throw new TechnicalException(409, "Le gestionnaire ne peut pas quitter la colocation. Supprimez-la ou transférez la gestion.");
         }
 
-        if (colocation.isManager(user)) {
-            throw new TechnicalException(409, "Le gestionnaire ne peut pas quitter la colocation. Supprimez-la ou transférez la gestion.");
+        if (colocationRepository.deleteRoommate(colocationId, userId) == 0) {
+            throw new TechnicalException(409, "Vous n'êtes pas membre de cette colocation");
         }
 
-        colocation.removeRoommate(user);
-        colocationRepository.save(colocation);
+        colocationRepository.releaseRoommateSlot(colocationId);
+        membershipIndex.evictUser(userId);
     }
 }
@@ -0,0 +1,160 @@
+package fr.esgi.service.space;
+
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.space.InvitationCode;
+import fr.esgi.persistence.repository.space.InvitationCodeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+/**
+ * Allocates colocation invitation codes without any lookup.
+ * <br>
+ * Each code is derived from the id of a new {@link InvitationCode}, taken from a pooled sequence
+ * (one database round trip every 50 codes). The id goes through a keyed Feistel permutation over
+ * the 25 bits code space, then is written as 5 Crockford Base32 characters. The permutation is a
+ * bijection, so distinct ids always give distinct codes and consecutive ids give unrelated codes.
+ * It is also reversible : {@link #decode(String)} gives back the id, used to check the expiry
+ * of a code with a primary key lookup.
+ * <br>
+ * The permutation key, {@code cohabit.invitation-code.secret}, has no default : anyone knowing it
+ * could enumerate the valid codes, so the application does not start without it.
+ */
+@Component
+public class InvitationCodeAllocator {
+
+    static final String ALPHABET    = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    static final int    CODE_LENGTH = 5;
+
+    private static final int  CODE_BITS  = 5 * CODE_LENGTH;
+    private static final long CODE_SPACE = 1L << CODE_BITS;
+    private static final int  HALF_BITS  = (CODE_BITS + 1) / 2;
+    private static final long HALF_MASK  = (1L << HALF_BITS) - 1;
+    private static final int  ROUNDS     = 4;
+
+    private final InvitationCodeRepository invitationCodeRepository;
+    private final int[]                    roundKeys;
+
+    public InvitationCodeAllocator(
+            InvitationCodeRepository invitationCodeRepository,
+            @Value("${cohabit.invitation-code.secret}") String secret
+    ) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("Le secret des codes d'invitation (cohabit.invitation-code.secret) n'est pas configuré");
+        }
+        this.invitationCodeRepository = invitationCodeRepository;
+        this.roundKeys                = roundKeys(secret);
+    }
+
+    /**
+     * Reserves a new invitation code. The row is inserted with the surrounding transaction.
+     *
+     * @throws TechnicalException If the code space is exhausted.
+     */
+    public String allocate() throws
+                             TechnicalException {
+        InvitationCode invitation = invitationCodeRepository.save(new InvitationCode());
+        return encode(invitation.getId());
+    }
+
+    /**
+     * @return The id of the {@link InvitationCode} a code was derived from, empty if the code was
+     * not produced by this allocator (e.g. codes generated before it).
+     */
+    public Optional<Long> decode(String code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            return Optional.empty();
+        }
+
+        long value = 0;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            int digit = ALPHABET.indexOf(code.charAt(i));
+            if (digit < 0) {
+                return Optional.empty();
+            }
+            value = (value << 5) | digit;
+        }
+        return Optional.of(unpermute(value));
+    }
+
+    String encode(long sequence) throws
+                                 TechnicalException {
+        if (sequence < 0 || sequence >= CODE_SPACE) {
+            throw new TechnicalException(503, "Plus aucun code d'invitation disponible");
+        }
+
+        long   value = permute(sequence);
+        char[] code  = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET.charAt((int) (value & 31));
+            value >>>= 5;
+        }
+        return new String(code);
+    }
+
+    /**
+     * Feistel network over 2 * 13 bits, cycle-walked back into the 25 bits code space.
+     */
+    long permute(long value) {
+        do {
+            value = feistel(value);
+        } while (value >= CODE_SPACE);
+        return value;
+    }
+
+    long unpermute(long value) {
+        do {
+            value = inverseFeistel(value);
+        } while (value >= CODE_SPACE);
+        return value;
+    }
+
+    private long feistel(long value) {
+        long left  = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int key : roundKeys) {
+            long next = left ^ round(right, key);
+            left  = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private long inverseFeistel(long value) {
+        long left  = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int i = roundKeys.length - 1; i >= 0; i--) {
+            long previous = right ^ round(left, roundKeys[i]);
+            right = left;
+            left  = previous;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static long round(long half, int key) {
+        int hash = (int) half * 0x9E3779B1 ^ key;
+        hash ^= hash >>> 15;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash & HALF_MASK;
+    }
+
+    private static int[] roundKeys(String secret) {
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                                                             .digest(secret.getBytes(StandardCharsets.UTF_8)));
+            int[] keys = new int[ROUNDS];
+            for (int i = 0; i < ROUNDS; i++) {
+                keys[i] = digest.getInt();
+            }
+            return keys;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
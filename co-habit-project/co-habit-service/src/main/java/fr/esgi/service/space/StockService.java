@@ -12,8 +12,8 @@ import fr.esgi.persistence.entity.user.User;
 import fr.esgi.persistence.repository.space.ColocationRepository;
 import fr.esgi.persistence.repository.space.StockItemRepository;
 import fr.esgi.persistence.repository.space.StockRepository;
-import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
 import fr.esgi.service.space.mapper.StockMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -26,26 +26,25 @@ import java.util.List;
 @Transactional
 public class StockService extends AbstractService {
 
-    private final StockRepository      stockRepository;
-    private final StockItemRepository  stockItemRepository;
-    private final ColocationRepository colocationRepository;
-    private final UserRepository       userRepository;
-    private final StockMapper          stockMapper;
+    private final StockRepository           stockRepository;
+    private final StockItemRepository       stockItemRepository;
+    private final ColocationRepository      colocationRepository;
+    private final CurrentUser               currentUser;
+    private final ColocationMembershipIndex membershipIndex;
+    private final StockMapper               stockMapper;
 
     /**
      * Creates a new stock for a colocation
      */
     public StockResDto createStock(Long colocationId, StockReqDto dto) throws
                                                                        TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user) && !colocation.isManager(user)) {
+        if (!membershipIndex.isMember(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous devez être membre de cette colocation");
         }
 
@@ -65,15 +64,13 @@ public class StockService extends AbstractService {
      */
     public StockResDto updateStock(Long colocationId, Long stockId, StockReqDto dto) throws
                                                                                      TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user) && !colocation.isManager(user)) {
+        if (!membershipIndex.isMember(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous devez être membre de cette colocation");
         }
 
@@ -91,19 +88,17 @@ public class StockService extends AbstractService {
     @Transactional(readOnly = true)
     public List<StockResDto> getStocksByColocation(Long colocationId) throws
                                                                       TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user) && !colocation.isManager(user)) {
+        if (!membershipIndex.isMember(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous devez être membre de cette colocation");
         }
 
-        List<StockEntity> stocks = stockRepository.findByColocationId(colocationId);
+        List<StockEntity> stocks = stockRepository.findWithItemsByColocationId(colocationId);
         return stockMapper.mapStocksToResDtos(stocks);
     }
 
@@ -113,15 +108,13 @@ public class StockService extends AbstractService {
     @Transactional(readOnly = true)
     public StockResDto getStockById(Long colocationId, Long stockId) throws
                                                                      TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user) && !colocation.isManager(user)) {
+        if (!membershipIndex.isMember(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous devez être membre de cette colocation");
         }
 
@@ -136,15 +129,13 @@ public class StockService extends AbstractService {
      */
     public void deleteStock(Long colocationId, Long stockId) throws
                                                              TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isManager(user)) {
+        if (!membershipIndex.isManager(userId, colocation.getId())) {
             throw new TechnicalException(403, "Seul le gestionnaire peut supprimer un stock");
         }
 
@@ -159,17 +150,15 @@ public class StockService extends AbstractService {
      */
     public void deleteStockById(Long stockId) throws
                                               TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         StockEntity stock = stockRepository.findById(stockId)
                                            .orElseThrow(() -> new TechnicalException(404, "Stock non trouvé"));
 
         Colocation colocation = stock.getColocation();
 
-        if (!colocation.isManager(user)) {
+        if (!membershipIndex.isManager(userId, colocation.getId())) {
             throw new TechnicalException(403, "Seul le gestionnaire peut supprimer un stock");
         }
 
@@ -223,15 +212,13 @@ public class StockService extends AbstractService {
      */
     public StockItemResDto addItemToStock(Long colocationId, Long stockId, StockItemReqDto dto) throws
                                                                                                 TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        User user = currentUser.find()
+                               .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user) && !colocation.isManager(user)) {
+        if (!membershipIndex.isMember(user.getId(), colocation.getId())) {
             throw new TechnicalException(403, "Vous devez être membre de cette colocation");
         }
 
@@ -255,15 +242,13 @@ public class StockService extends AbstractService {
      */
     public StockItemResDto updateStockItem(Long colocationId, Long stockId, Long itemId, StockItemReqDto dto) throws
                                                                                                               TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user) && !colocation.isManager(user)) {
+        if (!membershipIndex.isMember(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous devez être membre de cette colocation");
         }
 
@@ -287,15 +272,13 @@ public class StockService extends AbstractService {
     @Transactional(readOnly = true)
     public List<StockItemResDto> getStockItems(Long colocationId, Long stockId) throws
                                                                                 TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user) && !colocation.isManager(user)) {
+        if (!membershipIndex.isMember(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous devez être membre de cette colocation");
         }
 
@@ -311,15 +294,13 @@ public class StockService extends AbstractService {
      */
     public void deleteStockItem(Long colocationId, Long stockId, Long itemId) throws
                                                                               TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user) && !colocation.isManager(user)) {
+        if (!membershipIndex.isMember(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous devez être membre de cette colocation");
         }
 
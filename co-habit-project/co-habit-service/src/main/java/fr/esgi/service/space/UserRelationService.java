@@ -10,6 +10,7 @@ import fr.esgi.persistence.entity.user.UserRelationship;
 import fr.esgi.persistence.repository.user.UserRelationshipRepository;
 import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
 import fr.esgi.service.space.mapper.UserRelationshipMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,7 @@ import java.util.List;
 public class UserRelationService extends AbstractService {
 
     private final UserRepository             userRepository;
+    private final CurrentUser                currentUser;
     private final UserRelationshipRepository userRelationshipRepository;
     private final UserRelationshipMapper     userRelationshipMapper;
 
@@ -29,8 +31,8 @@ public class UserRelationService extends AbstractService {
     public UserRelationshipResDto requestRelation(UserRelationshipReqDto dto) throws
                                                                               TechnicalException {
 
-        User userRequester = userRepository.findByKeyCloakSub(this.getUserSub())
-                                           .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        User userRequester = currentUser.find()
+                                        .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         LocalDate birthDate = DateUtils.stringToLocalDate(dto.getBirthDate());
 
@@ -71,8 +73,8 @@ public class UserRelationService extends AbstractService {
     }
 
     public List<UserRelationshipResDto> getAllRelationsForUser() throws TechnicalException {
-        User authenticatedUser = userRepository.findByKeyCloakSub(this.getUserSub())
-                                              .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        User authenticatedUser = currentUser.find()
+                                            .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         List<UserRelationship> relationships = userRelationshipRepository.findAllRelationshipsForUser(authenticatedUser.getId());
         
@@ -29,12 +29,13 @@ public interface ColocationMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "manager", ignore = true)
     @Mapping(target = "roommates", ignore = true)
+    @Mapping(target = "currentRoommates", ignore = true)
     Colocation mapDtoToColocation(ColocationReqDto dto);
 
     /**
      * Maps Colocation entity to ColocationResDto
      */
-    @Mapping(target = "numberOfPeople", expression = "java(colocation.getRoommates().size())")
+    @Mapping(target = "numberOfPeople", source = "currentRoommates")
     @Mapping(target = "dateEntree", source = "createdAt", qualifiedByName = "localDateTimeToString")
     @Mapping(target = "createdAt", source = "createdAt", qualifiedByName = "localDateTimeToISOString")
     @Mapping(target = "updatedAt", source = "updatedAt", qualifiedByName = "localDateTimeToISOString")
@@ -59,6 +60,7 @@ public interface ColocationMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "manager", ignore = true)
     @Mapping(target = "roommates", ignore = true)
+    @Mapping(target = "currentRoommates", ignore = true)
     void updateColocationFromDto(ColocationReqDto dto, @MappingTarget Colocation colocation);
 
     @Named("localDateTimeToString")
@@ -0,0 +1,214 @@
+package fr.esgi.service.task;
+
+import fr.esgi.domain.dto.task.TaskBulkAssignReqDto;
+import fr.esgi.domain.dto.task.TaskBulkCreateReqDto;
+import fr.esgi.domain.dto.task.TaskBulkItemResDto;
+import fr.esgi.domain.dto.task.TaskBulkReqDto;
+import fr.esgi.domain.dto.task.TaskBulkResDto;
+import fr.esgi.domain.dto.task.TaskReqDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import fr.esgi.service.task.mapper.TaskMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates, assigns, completes and deletes many tasks of a colocation at once.
+ * <br>
+ * The access to the colocation is checked once per batch, then the tasks are written through the
+ * {@link TaskWriter} at once, after the changes of these tasks still waiting to be indexed : a single
+ * Elasticsearch bulk request routed to the shard of the colocation, instead of one request and one
+ * refresh per task, after their relational copy. The
+ * refresh policy of the bulk request is {@code cohabit.tasks.bulk.refresh-policy} :
+ * {@code WAIT_UNTIL} (default) answers once the tasks are visible to searches, without forcing a
+ * refresh, {@code IMMEDIATE} forces one, {@code NONE} answers before they are visible.
+ * <br>
+ * A batch is not atomic : each task gets its own result, with the HTTP status its single operation
+ * would have returned.
+ */
+@Service
+public class TaskBulkService extends AbstractService {
+
+    private final TaskWriter                taskWriter;
+    private final UserRepository            userRepository;
+    private final CurrentUser               currentUser;
+    private final ColocationRepository      colocationRepository;
+    private final ColocationMembershipIndex membershipIndex;
+    private final TaskMapper                taskMapper;
+    private final RefreshPolicy             refreshPolicy;
+
+    public TaskBulkService(
+            TaskWriter taskWriter,
+            UserRepository userRepository,
+            CurrentUser currentUser,
+            ColocationRepository colocationRepository,
+            ColocationMembershipIndex membershipIndex,
+            TaskMapper taskMapper,
+            @Value("${cohabit.tasks.bulk.refresh-policy:WAIT_UNTIL}") RefreshPolicy refreshPolicy
+    ) {
+        this.taskWriter           = taskWriter;
+        this.userRepository       = userRepository;
+        this.currentUser          = currentUser;
+        this.colocationRepository = colocationRepository;
+        this.membershipIndex      = membershipIndex;
+        this.taskMapper           = taskMapper;
+        this.refreshPolicy        = refreshPolicy;
+    }
+
+    /**
+     * Creates tasks in a colocation, the authenticated user being their creator.
+     * <br>
+     * The ids are generated by the store, so that each result gives the id of its task.
+     */
+    public TaskBulkResDto createTasks(Long colocationId, TaskBulkCreateReqDto dto) throws
+                                                                                   TechnicalException {
+        Long userId = checkAccess(colocationId);
+
+        LocalDateTime      now   = LocalDateTime.now();
+        List<TaskDocument> tasks = new ArrayList<>();
+        for (TaskReqDto taskDto : dto.getTasks()) {
+            TaskDocument task = taskMapper.toTaskDocument(taskDto);
+            task.setCreatorId(userId);
+            task.setColocationId(colocationId);
+            task.setCreatedAt(now);
+            tasks.add(task);
+        }
+
+        Map<String, TaskBulkFailure> failures = taskWriter.saveAll(tasks, refreshPolicy);
+        return result(tasks.stream().map(TaskDocument::getId).toList(), Set.of(), failures, 201);
+    }
+
+    /**
+     * Assigns tasks of a colocation to one of its roommates.
+     */
+    public TaskBulkResDto assignTasks(Long colocationId, TaskBulkAssignReqDto dto) throws
+                                                                                   TechnicalException {
+        checkAccess(colocationId);
+
+        User assignee = userRepository.findById(dto.getUserId())
+                                      .orElseThrow(() -> new TechnicalException(404, "Utilisateur assigné non trouvé"));
+        if (!membershipIndex.isRoommate(assignee.getId(), colocationId)) {
+            throw new TechnicalException(403, "L'utilisateur assigné n'est pas membre de cette colocation");
+        }
+
+        Set<String> taskIds = distinct(dto.getTaskIds());
+        Map<String, TaskBulkFailure> failures = taskWriter.updateAll(colocationId, taskIds,
+                                                                     task -> assign(task, assignee), refreshPolicy);
+        return result(taskIds, Set.of(), failures, 200);
+    }
+
+    /**
+     * Marks tasks of a colocation as completed.
+     */
+    public TaskBulkResDto completeTasks(Long colocationId, TaskBulkReqDto dto) throws
+                                                                               TechnicalException {
+        checkAccess(colocationId);
+
+        Set<String>   taskIds     = distinct(dto.getTaskIds());
+        LocalDateTime completedAt = LocalDateTime.now();
+        Map<String, TaskBulkFailure> failures = taskWriter.updateAll(colocationId, taskIds, task -> {
+            task.setStatus(TaskDocument.TaskStatus.COMPLETED);
+            task.setCompletedAt(completedAt);
+        }, refreshPolicy);
+        return result(taskIds, Set.of(), failures, 200);
+    }
+
+    /**
+     * Deletes tasks of a colocation.
+     */
+    public TaskBulkResDto deleteTasks(Long colocationId, TaskBulkReqDto dto) throws
+                                                                             TechnicalException {
+        checkAccess(colocationId);
+
+        Set<String> taskIds = distinct(dto.getTaskIds());
+        Set<String> found   = findInColocation(colocationId, taskIds);
+        Map<String, TaskBulkFailure> failures = taskWriter.deleteAll(colocationId, found, refreshPolicy);
+        return result(taskIds, missing(taskIds, found), failures, 204);
+    }
+
+    /**
+     * Checks, once for the whole batch, that the authenticated user is a roommate of the colocation.
+     */
+    private Long checkAccess(Long colocationId) throws
+                                                TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+
+        if (!colocationRepository.existsById(colocationId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
+
+        if (!membershipIndex.isRoommate(userId, colocationId)) {
+            throw new TechnicalException(403, "Vous n'avez pas accès à cette colocation");
+        }
+        return userId;
+    }
+
+    // A single read for the whole batch : the tasks missing or of another colocation are not written
+    private Set<String> findInColocation(Long colocationId, Set<String> taskIds) {
+        return taskWriter.findAllInColocation(colocationId, taskIds)
+                         .stream()
+                         .map(TaskDocument::getId)
+                         .collect(Collectors.toSet());
+    }
+
+    /**
+     * One result per task, in the order of the request : 404 when it was not found, the status of
+     * its failure when the bulk request rejected it, {@code success} otherwise.
+     */
+    private static TaskBulkResDto result(Iterable<String> taskIds,
+                                         Set<String> missing,
+                                         Map<String, TaskBulkFailure> failures,
+                                         int success) {
+        List<TaskBulkItemResDto> items     = new ArrayList<>();
+        int                      succeeded = 0;
+        for (String taskId : taskIds) {
+            TaskBulkFailure failure = failures.get(taskId);
+            if (missing.contains(taskId)) {
+                items.add(new TaskBulkItemResDto(taskId, 404, "Tâche non trouvée"));
+            } else if (failure != null) {
+                items.add(new TaskBulkItemResDto(taskId, failure.status(), failure.reason()));
+            } else {
+                items.add(new TaskBulkItemResDto(taskId, success, null));
+                succeeded++;
+            }
+        }
+        return new TaskBulkResDto(succeeded, items.size() - succeeded, items);
+    }
+
+    // Adds the user to the assignees, a task already assigned to them being unchanged
+    private static void assign(TaskDocument task, User assignee) {
+        Set<Long> userIds = task.getAssignedUserIds() == null ? new HashSet<>() : new HashSet<>(task.getAssignedUserIds());
+        userIds.add(assignee.getId());
+        task.setAssignedUserIds(userIds);
+        Set<String> subs = task.getAssignedToUserKeycloakSubs() == null
+                           ? new HashSet<>() : new HashSet<>(task.getAssignedToUserKeycloakSubs());
+        subs.add(assignee.getKeyCloakSub());
+        task.setAssignedToUserKeycloakSubs(subs);
+    }
+
+    private static Set<String> missing(Set<String> taskIds, Set<String> found) {
+        return taskIds.stream().filter(taskId -> !found.contains(taskId)).collect(Collectors.toSet());
+    }
+
+    private static Set<String> distinct(List<String> taskIds) {
+        return new LinkedHashSet<>(taskIds);
+    }
+}
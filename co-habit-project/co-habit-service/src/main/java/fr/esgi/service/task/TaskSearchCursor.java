@@ -0,0 +1,85 @@
+package fr.esgi.service.task;
+
+import fr.esgi.domain.exception.TechnicalException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Continuation token of a task search : the sort values of the last hit of a page, given back to
+ * Elasticsearch as {@code search_after}, and the point in time the pages are read from, if any.
+ * Each value keeps its type (score, date, id) so that it is compared with the sort field as it was
+ * returned. Clients get it Base64 URL encoded and must treat it as opaque.
+ *
+ * @param pointInTimeId Point in time of the search, null when the pages are read from the live index.
+ */
+record TaskSearchCursor(String pointInTimeId, List<Object> sortValues) {
+
+    private static final String SEPARATOR = "|";
+
+    private static final char POINT_IN_TIME = 'p';
+
+    private static final char LONG   = 'l';
+    private static final char DOUBLE = 'd';
+    private static final char STRING = 's';
+
+    String encode() {
+        List<String> values = new ArrayList<>();
+        if (pointInTimeId != null) {
+            values.add(POINT_IN_TIME + pointInTimeId);
+        }
+        for (Object value : sortValues) {
+            values.add(encode(value));
+        }
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(String.join(SEPARATOR, values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws TechnicalException 400 if the token was not produced by {@link #encode()}.
+     */
+    static TaskSearchCursor decode(String token) throws
+                                                 TechnicalException {
+        try {
+            String       position      = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String       pointInTimeId = null;
+            List<Object> values        = new ArrayList<>();
+            for (String value : position.split("\\" + SEPARATOR, -1)) {
+                if (value.charAt(0) == POINT_IN_TIME && values.isEmpty() && pointInTimeId == null) {
+                    pointInTimeId = value.substring(1);
+                } else {
+                    values.add(decodeValue(value));
+                }
+            }
+            if (values.isEmpty()) {
+                throw new IllegalArgumentException("Curseur sans valeur de tri");
+            }
+            return new TaskSearchCursor(pointInTimeId, values);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new TechnicalException(400, "Curseur de pagination invalide");
+        }
+    }
+
+    private static String encode(Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            return LONG + value.toString();
+        }
+        if (value instanceof Number number) {
+            return DOUBLE + Double.toString(number.doubleValue());
+        }
+        return STRING + String.valueOf(value);
+    }
+
+    private static Object decodeValue(String value) {
+        String content = value.substring(1);
+        return switch (value.charAt(0)) {
+            case LONG -> Long.parseLong(content);
+            case DOUBLE -> Double.parseDouble(content);
+            case STRING -> content;
+            default -> throw new IllegalArgumentException("Type de valeur inconnu : " + value.charAt(0));
+        };
+    }
+}
@@ -1,23 +1,44 @@
 package fr.esgi.service.task;
 
+import fr.esgi.domain.dto.page.CursorPageResDto;
+import fr.esgi.domain.dto.task.TaskDashboardResDto;
+import fr.esgi.domain.dto.task.TaskPriority;
 import fr.esgi.domain.dto.task.TaskReqDto;
 import fr.esgi.domain.dto.task.TaskResDto;
+import fr.esgi.domain.dto.task.TaskSearchHitResDto;
+import fr.esgi.domain.dto.task.TaskSearchReqDto;
+import fr.esgi.domain.dto.task.TaskStatus;
+import fr.esgi.domain.dto.task.TaskWorkloadResDto;
 import fr.esgi.domain.dto.user.UserProfileResDto;
 import fr.esgi.domain.exception.TechnicalException;
 import fr.esgi.persistence.document.TaskDocument;
 import fr.esgi.persistence.entity.space.Colocation;
 import fr.esgi.persistence.entity.user.User;
 import fr.esgi.persistence.repository.space.ColocationRepository;
-import fr.esgi.persistence.repository.task.TaskRepository;
+import fr.esgi.persistence.repository.task.TaskCursorException;
+import fr.esgi.persistence.repository.task.TaskDashboard;
+import fr.esgi.persistence.repository.task.TaskSearchCriteria;
+import fr.esgi.persistence.repository.task.TaskSearchHit;
+import fr.esgi.persistence.repository.task.TaskSearchPage;
 import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractService;
+import fr.esgi.service.CurrentUser;
 import fr.esgi.service.registration.mapper.UserMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
 import fr.esgi.service.task.mapper.TaskMapper;
+import fr.esgi.service.task.store.TaskStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,11 +46,18 @@ import java.util.stream.Collectors;
 @Transactional
 public class TaskService extends AbstractService {
 
-    private final TaskRepository       taskRepository;
-    private final UserRepository       userRepository;
-    private final ColocationRepository colocationRepository;
-    private final TaskMapper           taskMapper;
-    private final UserMapper           userMapper;
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE     = 100;
+    static final int RECENT_TASKS      = 3;
+
+    private final TaskStore                 taskStore;
+    private final UserRepository            userRepository;
+    private final CurrentUser               currentUser;
+    private final ColocationRepository      colocationRepository;
+    private final ColocationMembershipIndex membershipIndex;
+    private final TaskMapper                taskMapper;
+    private final UserMapper                userMapper;
+    private final TaskWriter                taskWriter;
 
     /**
      * Creates a new task in a colocation
@@ -37,76 +65,60 @@ public class TaskService extends AbstractService {
     public TaskResDto createTask(Long colocationId,
                                  TaskReqDto dto) throws
                                                  TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
         Colocation colocation = colocationRepository.findById(colocationId)
                                                     .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
 
-        if (!colocation.isRoommate(user)) {
+        if (!membershipIndex.isRoommate(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette colocation");
         }
 
         TaskDocument task = taskMapper.toTaskDocument(dto);
-        task.setCreatorId(user.getId());
+        task.setCreatorId(userId);
         task.setColocationId(colocation.getId());
 
 
-        TaskDocument savedTask = taskRepository.save(task);
-        return taskMapper.toTaskResDto(savedTask);
+        return toTaskResDto(taskWriter.save(task, userId));
     }
 
     /**
      * Updates an existing task
+     * <br>
+     * The task is read on the shard of its colocation : a task of another colocation is not found.
      */
-    public TaskResDto updateTask(String taskId, TaskReqDto dto) throws
-                                                                TechnicalException {
-        String userSub = getUserSub();
+    public TaskResDto updateTask(Long colocationId, String taskId, TaskReqDto dto) throws
+                                                                                   TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
-
-        TaskDocument task = taskRepository.findById(taskId)
+        TaskDocument task = taskWriter.findInColocation(colocationId, taskId)
                                           .orElseThrow(() -> new TechnicalException(404, "Tâche non trouvée"));
 
         // Only collocation member can update task
-        if (!task.isRoommate(
-                user.getColocations()
-                    .stream()
-                    .map(Colocation::getId)
-                    .collect(Collectors.toSet())
-        )) {
+        if (!membershipIndex.isRoommate(userId, task.getColocationId())) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette tâche");
         }
 
-
-        TaskDocument document    = taskMapper.toTaskDocument(dto);
-        TaskDocument updatedTask = taskRepository.save(document);
-        return taskMapper.toTaskResDto(updatedTask);
+        // The identity, colocation and creator of the task are kept, only the requested fields change
+        taskMapper.updateTaskDocument(dto, task);
+        return toTaskResDto(taskWriter.save(task, userId));
     }
 
     /**
      * Gets a task by ID
      */
     @Transactional(readOnly = true)
-    public TaskResDto getTaskById(String taskId) throws
-                                                 TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+    public TaskResDto getTaskById(Long colocationId, String taskId) throws
+                                                                    TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        TaskDocument task = taskRepository.findById(taskId)
+        TaskDocument task = taskWriter.findInColocation(colocationId, taskId)
                                           .orElseThrow(() -> new TechnicalException(404, "Tâche non trouvée"));
 
-        if (!task.isRoommate(
-                user.getColocations()
-                    .stream()
-                    .map(Colocation::getId)
-                    .collect(Collectors.toSet())
-        )) {
+        if (!membershipIndex.isRoommate(userId, task.getColocationId())) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette tâche");
         }
 
@@ -118,27 +130,135 @@ public class TaskService extends AbstractService {
     }
 
     /**
-     * Gets all tasks for a colocation
+     * Gets one page of the tasks of a colocation, closest due date first, the tasks without due
+     * date last.
+     * <br>
+     * The order (dueDate, createdAt, id) is total and pagination is done by {@code search_after} :
+     * a page costs the same whatever its depth. With {@code pointInTime}, the pages are read from a
+     * point in time of the index opened with the first page, so that tasks created or updated in
+     * the meantime do not shift them ; it is kept alive while the next pages are requested.
+     *
+     * @param includeCompleted Includes the completed tasks, hidden by default.
+     * @param cursor           Token returned with the previous page, null for the first page.
+     * @param limit            Page size, {@value #DEFAULT_PAGE_SIZE} by default and at most {@value #MAX_PAGE_SIZE}.
+     * @param pointInTime      Reads the pages from a point in time, ignored after the first page.
      */
     @Transactional(readOnly = true)
-    public List<TaskResDto> getTasksByColocation(Long colocationId) throws
-                                                                    TechnicalException {
-        String userSub = getUserSub();
+    public CursorPageResDto<TaskResDto> getTasksByColocation(Long colocationId,
+                                                             boolean includeCompleted,
+                                                             String cursor,
+                                                             Integer limit,
+                                                             boolean pointInTime) throws
+                                                                                  TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+
+        if (!colocationRepository.existsById(colocationId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
 
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        if (!membershipIndex.isRoommate(userId, colocationId)) {
+            throw new TechnicalException(403, "Vous n'avez pas accès à cette colocation");
+        }
 
-        Colocation colocation = colocationRepository.findById(colocationId)
-                                                    .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
+        TaskSearchCriteria.TaskSearchCriteriaBuilder criteria = TaskSearchCriteria.builder()
+                                                                                  .colocationId(colocationId)
+                                                                                  .pointInTime(pointInTime);
+        if (!includeCompleted) {
+            criteria.excludedStatuses(Set.of(TaskDocument.TaskStatus.COMPLETED));
+        }
+
+        return findPage(criteria, cursor, limit, hit -> taskMapper.toTaskResDto(hit.task()));
+    }
 
-        if (!colocation.isRoommate(user)) {
+    /**
+     * Searches the tasks of a colocation by text and filters, one page at a time.
+     * <br>
+     * The text is matched against the title and the description, best matches first, with the
+     * matching fragments highlighted. Without text the tasks come by due date. The other criteria
+     * are Elasticsearch filters, cached between searches and not scored. Pagination is done by
+     * {@code search_after} : a page costs the same whatever its depth.
+     *
+     * @param filter Optional criteria, null for none.
+     * @param cursor Token returned with the previous page, null for the first page.
+     * @param limit  Page size, {@value #DEFAULT_PAGE_SIZE} by default and at most {@value #MAX_PAGE_SIZE}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResDto<TaskSearchHitResDto> searchTasks(Long colocationId,
+                                                             TaskSearchReqDto filter,
+                                                             String cursor,
+                                                             Integer limit) throws
+                                                                            TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+
+        if (!colocationRepository.existsById(colocationId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
+
+        if (!membershipIndex.isRoommate(userId, colocationId)) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette colocation");
         }
 
-        List<TaskDocument> tasks = taskRepository.findByColocationId(colocationId);
-        return tasks.stream()
-                    .map(taskMapper::toTaskResDto)
-                    .toList();
+        TaskSearchReqDto criteria = filter != null ? filter : new TaskSearchReqDto();
+        if (criteria.getDueFrom() != null && criteria.getDueTo() != null && criteria.getDueFrom().isAfter(criteria.getDueTo())) {
+            throw new TechnicalException(400, "La date d'échéance minimale doit précéder la date maximale");
+        }
+
+        TaskSearchCriteria.TaskSearchCriteriaBuilder search = TaskSearchCriteria.builder()
+                .colocationId(colocationId)
+                .text(criteria.getText())
+                .statuses(mapAll(criteria.getStatuses(), taskMapper::mapStatus))
+                .priorities(mapAll(criteria.getPriorities(), taskMapper::mapPriority))
+                .tags(criteria.getTags())
+                .assigneeId(criteria.getAssigneeId())
+                .dueFrom(startOf(criteria.getDueFrom()))
+                .dueBefore(startOf(criteria.getDueTo() != null ? criteria.getDueTo().plusDays(1) : null));
+
+        return findPage(search, cursor, limit,
+                        hit -> new TaskSearchHitResDto(taskMapper.toTaskResDto(hit.task()),
+                                                       hit.highlights() != null ? hit.highlights() : Map.of()));
+    }
+
+    /**
+     * Gets the task dashboard of a colocation : tasks by status and priority, open tasks per
+     * assignee and overdue tasks.
+     * <br>
+     * The counts are Elasticsearch aggregations of a single search returning no task, the
+     * response size does not depend on the number of tasks. During an Elasticsearch outage they are
+     * grouped counts of the relational copy.
+     */
+    @Transactional(readOnly = true)
+    public TaskDashboardResDto getDashboard(Long colocationId) throws
+                                                               TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+
+        if (!colocationRepository.existsById(colocationId)) {
+            throw new TechnicalException(404, "Colocation non trouvée");
+        }
+
+        if (!membershipIndex.isRoommate(userId, colocationId)) {
+            throw new TechnicalException(403, "Vous n'avez pas accès à cette colocation");
+        }
+
+        TaskDashboard dashboard = taskStore.dashboard(colocationId, LocalDateTime.now());
+
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        dashboard.byStatus().forEach((status, count) -> byStatus.put(taskMapper.mapStatus(status), count));
+
+        Map<TaskPriority, Long> byPriority = new EnumMap<>(TaskPriority.class);
+        dashboard.byPriority().forEach((priority, count) -> byPriority.put(taskMapper.mapPriority(priority), count));
+
+        List<TaskWorkloadResDto> workload = dashboard.openByAssignee()
+                                                     .entrySet()
+                                                     .stream()
+                                                     .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                                                                      .thenComparing(Map.Entry.comparingByKey()))
+                                                     .map(entry -> new TaskWorkloadResDto(entry.getKey(), entry.getValue()))
+                                                     .toList();
+
+        return new TaskDashboardResDto(dashboard.total(), dashboard.open(), dashboard.overdue(), byStatus, byPriority, workload);
     }
 
     /**
@@ -147,12 +267,14 @@ public class TaskService extends AbstractService {
     @Transactional(readOnly = true)
     public List<TaskResDto> getUserTasks() throws
                                            TechnicalException {
-        String userSub = getUserSub();
-
-        User user = userRepository.findByKeyCloakSub(userSub)
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
-
-        List<TaskDocument> tasks = taskRepository.findByAssignedToUserKeycloakSubs(this.getUserSub());
+        String sub    = getUserSub();
+        Long   userId = currentUser.findId()
+                                   .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+
+        // The last changes of the user may not be searchable yet
+        List<TaskDocument> tasks = taskWriter.withOwnChanges(
+                taskStore.findByAssignee(sub), userId,
+                task -> task.getAssignedToUserKeycloakSubs() != null && task.getAssignedToUserKeycloakSubs().contains(sub));
         return tasks.stream()
                     .map(taskMapper::toTaskResDto)
                     .toList();
@@ -161,102 +283,148 @@ public class TaskService extends AbstractService {
     /**
      * Assigns a task to a user
      */
-    public TaskResDto assignTask(String taskId, Long userId) throws
-                                                             TechnicalException {
-        User currentUser = userRepository.findByKeyCloakSub(this.getUserSub())
-                                         .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+    public TaskResDto assignTask(Long colocationId, String taskId, Long userId) throws
+                                                                                TechnicalException {
+        Long requesterId = currentUser.findId()
+                                      .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        TaskDocument task = taskRepository.findById(taskId)
+        TaskDocument task = taskWriter.findInColocation(colocationId, taskId)
                                           .orElseThrow(() -> new TechnicalException(404, "Tâche non trouvée"));
 
         User assignee = userRepository.findById(userId)
                                       .orElseThrow(() -> new TechnicalException(404, "Utilisateur assigné non trouvé"));
 
-        if (!task.isRoommate(
-                currentUser.getColocations()
-                           .stream()
-                           .map(Colocation::getId)
-                           .collect(Collectors.toSet())
-        )) {
+        if (!membershipIndex.isRoommate(requesterId, task.getColocationId())) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette tâche");
         }
 
-        if (!task.isRoommate(
-                currentUser.getColocations()
-                           .stream()
-                           .map(Colocation::getId)
-                           .collect(Collectors.toSet())
-        )) {
+        if (!membershipIndex.isRoommate(assignee.getId(), task.getColocationId())) {
             throw new TechnicalException(403, "L'utilisateur assigné n'est pas membre de cette colocation");
         }
 
         task.addAssignedUser(assignee);
-        TaskDocument updatedTask = taskRepository.save(task);
-        return taskMapper.toTaskResDto(updatedTask);
+        return toTaskResDto(taskWriter.save(task, requesterId));
     }
 
     /**
      * Marks a task as completed
      */
-    public TaskResDto completeTask(String taskId) throws
-                                                  TechnicalException {
-        User user = userRepository.findByKeyCloakSub(this.getUserSub())
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+    public TaskResDto completeTask(Long colocationId, String taskId) throws
+                                                                     TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        TaskDocument task = taskRepository.findById(taskId)
+        TaskDocument task = taskWriter.findInColocation(colocationId, taskId)
                                           .orElseThrow(() -> new TechnicalException(404, "Tâche non trouvée"));
 
-        if (!task.isRoommate(user.getColocations()
-                                 .stream()
-                                 .map(Colocation::getId)
-                                 .collect(Collectors.toSet())
-        )) {
+        if (!membershipIndex.isRoommate(userId, task.getColocationId())) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette tâche");
         }
 
         task.setStatus(TaskDocument.TaskStatus.COMPLETED);
-        TaskDocument updatedTask = taskRepository.save(task);
-        return taskMapper.toTaskResDto(updatedTask);
+        return toTaskResDto(taskWriter.save(task, userId));
     }
 
     /**
      * Deletes a task
      */
-    public void deleteTask(String taskId) throws
-                                          TechnicalException {
-        User user = userRepository.findByKeyCloakSub(this.getUserSub())
-                                  .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+    public void deleteTask(Long colocationId, String taskId) throws
+                                                             TechnicalException {
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
 
-        TaskDocument task = taskRepository.findById(taskId)
+        TaskDocument task = taskWriter.findInColocation(colocationId, taskId)
                                           .orElseThrow(() -> new TechnicalException(404, "Tâche non trouvée"));
 
-        if (!task.isRoommate(user.getColocations()
-                                 .stream()
-                                 .map(Colocation::getId)
-                                 .collect(Collectors.toSet())
-        )) {
+        if (!membershipIndex.isRoommate(userId, task.getColocationId())) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette tâche");
         }
 
-        taskRepository.delete(task);
+        taskWriter.delete(task, userId);
     }
 
     /**
-     * Get the most three recent tasks for a colocation
+     * Get the three most recent tasks for a colocation, most recent first
      */
     @Transactional(readOnly = true)
     public List<TaskResDto> getMostRecentTasks(Long colocationId) throws TechnicalException {
-        String userSub = getUserSub();
-        User user = userRepository.findByKeyCloakSub(userSub)
-                .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
+        Long userId = currentUser.findId()
+                                 .orElseThrow(() -> new TechnicalException(404, "Utilisateur n'est pas trouvé"));
         Colocation colocation = colocationRepository.findById(colocationId)
                 .orElseThrow(() -> new TechnicalException(404, "Colocation non trouvée"));
-        if (!colocation.isRoommate(user)) {
+        if (!membershipIndex.isRoommate(userId, colocation.getId())) {
             throw new TechnicalException(403, "Vous n'avez pas accès à cette colocation");
         }
 
-        List<TaskDocument> latest = taskRepository.findTop3ByColocationIdOrderByCreatedAtAsc(colocationId);
+        List<TaskDocument> latest = taskStore.findRecent(colocationId, RECENT_TASKS);
         return latest.stream().map(taskMapper::toTaskResDto).toList();
 
     }
+
+    /**
+     * Reads one page of the tasks matching the criteria, resuming after the cursor. The point in
+     * time of the search, if any, is released with the last page. A cursor whose point in time
+     * expired is answered with a 410, the client restarting from the first page.
+     */
+    private <T> CursorPageResDto<T> findPage(TaskSearchCriteria.TaskSearchCriteriaBuilder criteria,
+                                             String cursor,
+                                             Integer limit,
+                                             Function<TaskSearchHit, T> mapper) throws
+                                                                                TechnicalException {
+        int              size     = pageSize(limit);
+        TaskSearchCursor position = cursor == null || cursor.isBlank() ? null : TaskSearchCursor.decode(cursor);
+        if (position != null) {
+            criteria.searchAfter(position.sortValues())
+                    .pointInTime(position.pointInTimeId() != null)
+                    .pointInTimeId(position.pointInTimeId());
+        }
+
+        // One extra hit tells whether a next page exists, without counting the matches
+        TaskSearchPage result;
+        try {
+            result = taskStore.search(criteria.size(size + 1).build());
+        } catch (TaskCursorException e) {
+            if (e.isExpired()) {
+                throw new TechnicalException(410, "Curseur de pagination expiré, reprenez depuis la première page");
+            }
+            throw new TechnicalException(400, "Curseur de pagination invalide, reprenez depuis la première page");
+        }
+        boolean             hasNext = result.hits().size() > size;
+        List<TaskSearchHit> page    = hasNext ? result.hits().subList(0, size) : result.hits();
+
+        String nextCursor = null;
+        if (hasNext) {
+            nextCursor = new TaskSearchCursor(result.pointInTimeId(), page.get(size - 1).sortValues()).encode();
+        } else if (result.pointInTimeId() != null) {
+            taskStore.closePointInTime(result.pointInTimeId());
+        }
+
+        return new CursorPageResDto<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+
+    // The version is only known when the change was written behind
+    private TaskResDto toTaskResDto(TaskWriter.Written written) {
+        TaskResDto dto = taskMapper.toTaskResDto(written.task());
+        dto.setVersion(written.version());
+        return dto;
+    }
+
+    private static int pageSize(Integer limit) throws
+                                               TechnicalException {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new TechnicalException(400, "La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private static <S, T> Set<T> mapAll(Set<S> values, Function<S, T> mapper) {
+        return values == null ? Set.of() : values.stream().map(mapper).collect(Collectors.toSet());
+    }
+
+    private static LocalDateTime startOf(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
+    }
 }
@@ -0,0 +1,563 @@
+package fr.esgi.service.task;
+
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.service.task.store.FailoverTaskStore;
+import fr.esgi.service.task.store.TaskStore;
+import fr.esgi.service.task.store.TaskStoreReplayJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Writes the tasks changed one by one by {@link TaskService}, synchronously or write-behind, and
+ * the bulk writes of {@link TaskBulkService} and of the chore rotations.
+ * <br>
+ * Synchronous (default), each change is written to the {@link TaskStore} before the request answers,
+ * the relational copy taking over during an Elasticsearch outage. Write-behind
+ * ({@code cohabit.tasks.write-behind.enabled}), a change is put in a bounded in-memory queue and the
+ * request answers with its acknowledged version. A dedicated indexer thread drains the queue into
+ * bulk writes to the {@link TaskStore}, once {@code batch-size} changes are waiting or
+ * {@code flush-interval-ms} after the first one. A full queue rejects the change with a 503.
+ * <br>
+ * A change the index did not get is not retried here : the {@link FailoverTaskStore} keeps it
+ * pending in the relational copy, replayed into the index by {@link TaskStoreReplayJob}. Only a batch
+ * the store failed to write at all, the relational copy included, is retried after a backoff,
+ * {@code retry-backoff-ms} doubled at each attempt, then dropped after {@value #MAX_ATTEMPTS}
+ * attempts. The retries still waiting when the node stops get a last attempt without delay.
+ * <br>
+ * Until it is indexed, the last acknowledged state of a task is kept in an overlay : reads and
+ * changes by id start from it, so that no change is lost nor reordered, and several changes of a
+ * task waiting in the queue are indexed once. The overlay is kept {@code overlay-ttl-ms} after the
+ * indexing, until the next refresh makes the change visible to searches : the lists of a user
+ * include their own changes meanwhile. The overlay is local to the node, and a change still in the
+ * queue is lost if the node stops abruptly.
+ * <br>
+ * A bulk write is synchronous. The changes of its tasks still waiting are written first, and their
+ * overlay dropped once it is written : a change acknowledged before the bulk write is never indexed
+ * after it, nor read instead of it. The indexer waits meanwhile.
+ * <br>
+ * Metrics : {@code cohabit.tasks.write_behind.queue.depth}, {@code cohabit.tasks.write_behind.lag}
+ * (age of the oldest change waiting), {@code cohabit.tasks.write_behind.indexing} (time from
+ * acknowledgment to indexing) and the {@code cohabit.tasks.write_behind.writes} counter tagged with
+ * {@code outcome} ({@code indexed}, {@code retried}, {@code failed}, {@code rejected}).
+ */
+@Component
+@Log4j2
+public class TaskWriter {
+
+    // Tentatives d'un lot que le magasin n'a pas pu écrire du tout (base relationnelle indisponible)
+    static final int MAX_ATTEMPTS = 3;
+
+    // Attente de l'indexation des modifications restantes à l'arrêt
+    private static final long STOP_TIMEOUT_MS = 10_000;
+
+    private final TaskStore taskStore;
+    private final boolean   writeBehind;
+    private final int       batchSize;
+    private final long      flushIntervalNanos;
+    private final long      overlayTtlNanos;
+    private final long      retryBackoffNanos;
+
+    private final    BlockingQueue<Write> queue;
+    // Écritures rejetées, reprises par l'indexeur une fois leur délai écoulé
+    private final    DelayQueue<Write>    retries = new DelayQueue<>();
+    private final    Map<String, Write>   overlay = new ConcurrentHashMap<>();
+    // Tenu par l'indexeur le temps d'un lot, et par une écriture groupée le temps d'écrire
+    private final    Object               flushing = new Object();
+    private          long                 sequence;
+    private          Thread               indexer;
+    private volatile boolean              running;
+
+    private final Timer   indexing;
+    private final Counter indexed;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter rejected;
+
+    /**
+     * A task as written by a change.
+     *
+     * @param version Acknowledged version of the change, increasing on this node, null when the
+     *                change was indexed synchronously.
+     */
+    public record Written(TaskDocument task, Long version) {
+    }
+
+    /**
+     * A change waiting to be indexed, or indexed less than {@code overlay-ttl-ms} ago.
+     */
+    static final class Write implements Delayed {
+
+        final long         version;
+        final String       taskId;
+        final Long         colocationId;
+        // Tâche à indexer, null pour la supprimer
+        final TaskDocument task;
+        final Long         authorId;
+        final long         acknowledgedAt;
+
+        // Date d'indexation (System.nanoTime), 0 tant que la modification attend
+        volatile long indexedAt;
+        int           attempts;
+        // Date (System.nanoTime) de la prochaine tentative
+        long          retryAt;
+
+        Write(long version, String taskId, Long colocationId, TaskDocument task, Long authorId, long acknowledgedAt) {
+            this.version        = version;
+            this.taskId         = taskId;
+            this.colocationId   = colocationId;
+            this.task           = task;
+            this.authorId       = authorId;
+            this.acknowledgedAt = acknowledgedAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(retryAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(retryAt, ((Write) other).retryAt);
+        }
+    }
+
+    public TaskWriter(
+            TaskStore taskStore,
+            MeterRegistry meterRegistry,
+            @Value("${cohabit.tasks.write-behind.enabled:false}") boolean writeBehind,
+            @Value("${cohabit.tasks.write-behind.capacity:10000}") int capacity,
+            @Value("${cohabit.tasks.write-behind.batch-size:500}") int batchSize,
+            @Value("${cohabit.tasks.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${cohabit.tasks.write-behind.overlay-ttl-ms:5000}") long overlayTtlMs,
+            @Value("${cohabit.tasks.write-behind.retry-backoff-ms:500}") long retryBackoffMs
+    ) {
+        this.taskStore          = taskStore;
+        this.writeBehind        = writeBehind;
+        this.batchSize          = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.overlayTtlNanos    = TimeUnit.MILLISECONDS.toNanos(overlayTtlMs);
+        this.retryBackoffNanos  = TimeUnit.MILLISECONDS.toNanos(retryBackoffMs);
+        this.queue              = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("cohabit.tasks.write_behind.queue.depth", queue, BlockingQueue::size)
+             .description("Number of task changes waiting to be indexed")
+             .register(meterRegistry);
+        TimeGauge.builder("cohabit.tasks.write_behind.lag", this, TimeUnit.NANOSECONDS, TaskWriter::lag)
+                 .description("Age of the oldest task change waiting to be indexed")
+                 .register(meterRegistry);
+        this.indexing = Timer.builder("cohabit.tasks.write_behind.indexing")
+                             .description("Time from the acknowledgment of a task change to its indexing")
+                             .register(meterRegistry);
+        this.indexed  = writes(meterRegistry, "indexed");
+        this.retried  = writes(meterRegistry, "retried");
+        this.failed   = writes(meterRegistry, "failed");
+        this.rejected = writes(meterRegistry, "rejected");
+    }
+
+    @PostConstruct
+    void start() {
+        if (!writeBehind) {
+            return;
+        }
+        running = true;
+        indexer = new Thread(this::drain, "task-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * Stops the indexer once the changes waiting are indexed.
+     */
+    @PreDestroy
+    void stop() throws
+                InterruptedException {
+        if (indexer == null) {
+            return;
+        }
+        running = false;
+        indexer.interrupt();
+        indexer.join(STOP_TIMEOUT_MS);
+        if (!queue.isEmpty()) {
+            log.error("{} modification(s) de tâche non indexée(s) à l'arrêt", queue.size());
+        }
+    }
+
+    /**
+     * Gets a task of a colocation by id : its last acknowledged state when a change is waiting,
+     * the indexed task otherwise.
+     */
+    public Optional<TaskDocument> findInColocation(Long colocationId, String taskId) {
+        Write write = overlay.get(taskId);
+        if (write == null || !colocationId.equals(write.colocationId) || expired(write, System.nanoTime())) {
+            return taskStore.findInColocation(colocationId, taskId);
+        }
+        return Optional.ofNullable(write.task).map(TaskWriter::copy);
+    }
+
+    /**
+     * Indexes a task, its id being generated when it has none.
+     */
+    public Written save(TaskDocument task, Long authorId) throws
+                                                          TechnicalException {
+        if (!writeBehind) {
+            return new Written(taskStore.save(task), null);
+        }
+        if (task.getId() == null) {
+            task.setId(UUID.randomUUID().toString());
+        }
+        long version = enqueue(task.getId(), task.getColocationId(), copy(task), authorId);
+        return new Written(task, version);
+    }
+
+    public void delete(TaskDocument task, Long authorId) throws
+                                                         TechnicalException {
+        if (!writeBehind) {
+            taskStore.delete(task);
+            return;
+        }
+        enqueue(task.getId(), task.getColocationId(), null, authorId);
+    }
+
+    /**
+     * Gets the tasks of a colocation among the given ids, each from its last acknowledged state when
+     * a change is waiting, as {@link #findInColocation} does.
+     *
+     * @return The tasks found, those missing or of another colocation are left out.
+     */
+    public List<TaskDocument> findAllInColocation(Long colocationId, Collection<String> taskIds) {
+        long                      now     = System.nanoTime();
+        Map<String, TaskDocument> found   = new HashMap<>();
+        List<String>              indexed = new ArrayList<>();
+        for (String taskId : taskIds) {
+            Write write = overlay.get(taskId);
+            if (write == null || !colocationId.equals(write.colocationId) || expired(write, now)) {
+                indexed.add(taskId);
+            } else if (write.task != null) {
+                found.put(taskId, copy(write.task));
+            }
+        }
+        if (!indexed.isEmpty()) {
+            taskStore.findAllInColocation(colocationId, indexed).forEach(task -> found.put(task.getId(), task));
+        }
+        return taskIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Writes tasks in bulk, their ids being generated when they have none.
+     *
+     * @return The tasks that failed, by id.
+     * @throws TechnicalException 503 when a change of these tasks still waiting could not be written
+     *                            first.
+     */
+    public Map<String, TaskBulkFailure> saveAll(List<TaskDocument> tasks, RefreshPolicy refreshPolicy) throws
+                                                                                                        TechnicalException {
+        List<String> taskIds = tasks.stream().map(TaskDocument::getId).filter(Objects::nonNull).toList();
+        return bulk(taskIds, () -> taskStore.saveAll(tasks, refreshPolicy));
+    }
+
+    /**
+     * Changes tasks of a colocation in bulk, from their state once the changes still waiting are
+     * written.
+     *
+     * @return The tasks that failed, by id.
+     * @throws TechnicalException 503 when a change of these tasks still waiting could not be written
+     *                            first.
+     */
+    public Map<String, TaskBulkFailure> updateAll(Long colocationId,
+                                                  Collection<String> taskIds,
+                                                  Consumer<TaskDocument> change,
+                                                  RefreshPolicy refreshPolicy) throws
+                                                                               TechnicalException {
+        return bulk(taskIds, () -> taskStore.updateAll(colocationId, taskIds, change, refreshPolicy));
+    }
+
+    /**
+     * Deletes tasks of a colocation in bulk.
+     *
+     * @return The tasks that failed, by id.
+     * @throws TechnicalException 503 when a change of these tasks still waiting could not be written
+     *                            first.
+     */
+    public Map<String, TaskBulkFailure> deleteAll(Long colocationId, Collection<String> taskIds, RefreshPolicy refreshPolicy) throws
+                                                                                                                            TechnicalException {
+        return bulk(taskIds, () -> taskStore.deleteAll(colocationId, taskIds, refreshPolicy));
+    }
+
+    private Map<String, TaskBulkFailure> bulk(Collection<String> taskIds, Supplier<Map<String, TaskBulkFailure>> write) throws
+                                                                                                                    TechnicalException {
+        if (!writeBehind) {
+            return write.get();
+        }
+        synchronized (flushing) {
+            List<Write> waiting = taskIds.stream().map(overlay::get).filter(w -> w != null && w.indexedAt == 0).toList();
+            if (!waiting.isEmpty()) {
+                retries.removeAll(waiting);
+                flush(waiting);
+                if (waiting.stream().anyMatch(w -> overlay.get(w.taskId) == w && w.indexedAt == 0)) {
+                    throw new TechnicalException(503, "Des modifications de ces tâches sont encore en attente, veuillez réessayer");
+                }
+            }
+            Map<String, TaskBulkFailure> failures = write.get();
+            // L'état gardé pour la relecture précède l'écriture groupée : seul celui d'une modification en attente reste
+            taskIds.forEach(taskId -> overlay.computeIfPresent(taskId, (id, w) -> w.indexedAt == 0 ? w : null));
+            return failures;
+        }
+    }
+
+    /**
+     * Applies to a list read from the index the changes of the user it may not show yet : the tasks
+     * they changed are replaced by their last state, or removed when they no longer match.
+     */
+    public List<TaskDocument> withOwnChanges(List<TaskDocument> tasks, Long userId, Predicate<TaskDocument> matches) {
+        if (overlay.isEmpty()) {
+            return tasks;
+        }
+        long                      now  = System.nanoTime();
+        Map<String, TaskDocument> byId = new LinkedHashMap<>();
+        tasks.forEach(task -> byId.put(task.getId(), task));
+        for (Write write : overlay.values()) {
+            if (!userId.equals(write.authorId) || expired(write, now)) {
+                continue;
+            }
+            if (write.task != null && matches.test(write.task)) {
+                byId.put(write.taskId, copy(write.task));
+            } else {
+                byId.remove(write.taskId);
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    private synchronized long enqueue(String taskId, Long colocationId, TaskDocument task, Long authorId) throws
+                                                                                                      TechnicalException {
+        Write write    = new Write(++sequence, taskId, colocationId, task, authorId, System.nanoTime());
+        Write previous = overlay.put(taskId, write);
+        if (!queue.offer(write)) {
+            if (previous == null) {
+                overlay.remove(taskId, write);
+            } else {
+                overlay.replace(taskId, write, previous);
+            }
+            rejected.increment();
+            throw new TechnicalException(503, "Trop de modifications de tâches en attente, veuillez réessayer");
+        }
+        return write.version;
+    }
+
+    /**
+     * Takes all the changes waiting in the queue.
+     */
+    List<Write> drainQueue() {
+        List<Write> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        return batch;
+    }
+
+    /**
+     * Takes the rejected changes whose backoff is over.
+     */
+    List<Write> drainRetries() {
+        List<Write> batch = new ArrayList<>();
+        retries.drainTo(batch);
+        return batch;
+    }
+
+    // Boucle de l'indexeur : un lot part à batchSize écritures ou flushInterval après la première, les
+    // nouvelles tentatives dues en tête
+    private void drain() {
+        List<Write> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                retries.drainTo(batch, batchSize);
+                if (batch.isEmpty()) {
+                    Write first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        sweep(System.nanoTime());
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (running && batch.size() < batchSize) {
+                    Write next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Arrêt demandé : le reste de la file est vidé sans attendre
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                synchronized (flushing) {
+                    flush(batch);
+                }
+                batch.clear();
+            }
+        }
+
+        // Arrêt : les nouvelles tentatives encore en attente sont faites une dernière fois, sans délai
+        List<Write> waiting = new ArrayList<>(retries);
+        retries.clear();
+        if (!waiting.isEmpty()) {
+            synchronized (flushing) {
+                flush(waiting);
+            }
+        }
+        if (!retries.isEmpty()) {
+            log.error("{} modification(s) de tâche non indexée(s) à l'arrêt", retries.size());
+            retries.forEach(this::discard);
+            retries.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of changes to the {@link TaskStore} in bulk. A change followed by another change
+     * of the same task is skipped, the last one is written.
+     */
+    void flush(List<Write> batch) {
+        Map<String, Write> latest = new LinkedHashMap<>();
+        for (Write write : batch) {
+            // Une modification déjà écrite avant une écriture groupée n'est pas réécrite
+            if (overlay.get(write.taskId) == write && write.indexedAt == 0) {
+                latest.put(write.taskId, write);
+            }
+        }
+
+        List<TaskDocument>      indexes = new ArrayList<>();
+        Map<Long, List<String>> deletes = new HashMap<>();
+        for (Write write : latest.values()) {
+            if (write.task != null) {
+                indexes.add(write.task);
+            } else {
+                deletes.computeIfAbsent(write.colocationId, id -> new ArrayList<>()).add(write.taskId);
+            }
+        }
+
+        Map<String, TaskBulkFailure> failures = new HashMap<>();
+        try {
+            failures.putAll(taskStore.saveAll(indexes, RefreshPolicy.NONE));
+            // Une tâche créée puis supprimée avant d'être indexée compte comme supprimée
+            deletes.forEach((colocationId, taskIds) -> failures.putAll(taskStore.deleteAll(colocationId, taskIds, RefreshPolicy.NONE)));
+        } catch (RuntimeException e) {
+            // Le magasin n'a rien gardé du lot, pas même dans la copie relationnelle : il est repris plus tard
+            log.warn("Écriture de {} modification(s) de tâche en échec", latest.size(), e);
+            long now = System.nanoTime();
+            latest.values().forEach(write -> retry(write, now));
+            sweep(now);
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (Write write : latest.values()) {
+            TaskBulkFailure failure = failures.get(write.taskId);
+            if (failure == null) {
+                write.indexedAt = now;
+                indexing.record(now - write.acknowledgedAt, TimeUnit.NANOSECONDS);
+                indexed.increment();
+            } else {
+                // Échec que le magasin n'a pas gardé en attente : une nouvelle tentative aurait la même réponse
+                discard(write);
+                log.error("Modification {} de la tâche {} abandonnée : {} {}", write.version, write.taskId,
+                          failure.status(), failure.reason());
+            }
+        }
+        sweep(now);
+    }
+
+    private void retry(Write write, long now) {
+        if (++write.attempts < MAX_ATTEMPTS) {
+            write.retryAt = now + (retryBackoffNanos << (write.attempts - 1));
+            retries.add(write);
+            retried.increment();
+        } else {
+            discard(write);
+            log.error("Modification {} de la tâche {} abandonnée après {} tentatives", write.version, write.taskId, MAX_ATTEMPTS);
+        }
+    }
+
+    private void discard(Write write) {
+        overlay.remove(write.taskId, write);
+        failed.increment();
+    }
+
+    private void sweep(long now) {
+        overlay.values().removeIf(write -> expired(write, now));
+    }
+
+    private boolean expired(Write write, long now) {
+        long indexedAt = write.indexedAt;
+        return indexedAt != 0 && now - indexedAt > overlayTtlNanos;
+    }
+
+    private double lag() {
+        Write oldest = queue.peek();
+        return oldest == null ? 0 : System.nanoTime() - oldest.acknowledgedAt;
+    }
+
+    private static Counter writes(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cohabit.tasks.write_behind.writes")
+                      .description("Task changes written behind, by outcome")
+                      .tag("outcome", outcome)
+                      .register(meterRegistry);
+    }
+
+    // L'écriture en attente ne doit pas être modifiée par l'appelant pendant que l'indexeur la sérialise
+    private static TaskDocument copy(TaskDocument task) {
+        return TaskDocument.builder()
+                           .id(task.getId())
+                           .userId(task.getUserId())
+                           .userKeycloakSub(task.getUserKeycloakSub())
+                           .userName(task.getUserName())
+                           .colocationId(task.getColocationId())
+                           .colocationName(task.getColocationName())
+                           .title(task.getTitle())
+                           .description(task.getDescription())
+                           .status(task.getStatus())
+                           .priority(task.getPriority())
+                           .createdAt(task.getCreatedAt())
+                           .dueDate(task.getDueDate())
+                           .completedAt(task.getCompletedAt())
+                           .creatorId(task.getCreatorId())
+                           .assignedUserIds(task.getAssignedUserIds() == null ? null : new HashSet<>(task.getAssignedUserIds()))
+                           .assignedToUserKeycloakSubs(task.getAssignedToUserKeycloakSubs() == null
+                                                       ? null : new HashSet<>(task.getAssignedToUserKeycloakSubs()))
+                           .tags(task.getTags() == null ? null : new HashSet<>(task.getTags()))
+                           .choreRotationId(task.getChoreRotationId())
+                           .build();
+    }
+}
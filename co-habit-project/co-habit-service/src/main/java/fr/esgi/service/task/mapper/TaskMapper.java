@@ -6,6 +6,7 @@ import fr.esgi.domain.dto.user.UserProfileResDto;
 import fr.esgi.persistence.document.TaskDocument;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
 
@@ -24,6 +25,7 @@ public interface TaskMapper {
     @Mapping(target = "completedAt", source = "completedAt", qualifiedByName = "localDateTimeToString")
     @Mapping(target = "dueDate", source = "dueDate", qualifiedByName = "localDateTimeToISOString")
     @Mapping(target = "assignedUsers", ignore = true)
+    @Mapping(target = "version", ignore = true)
     TaskResDto toTaskResDto(TaskDocument taskDocument);
     
     @Mapping(target = "id", ignore = true)
@@ -36,10 +38,26 @@ public interface TaskMapper {
     @Mapping(target = "completedAt", ignore = true)
     @Mapping(target = "creatorId", ignore = true)
     @Mapping(target = "assignedToUserKeycloakSubs", ignore = true)
+    @Mapping(target = "choreRotationId", ignore = true)
     @Mapping(target = "dueDate", source = "dueDate", qualifiedByName = "stringToLocalDateTime")
     TaskDocument toTaskDocument(TaskReqDto taskReqDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "userKeycloakSub", ignore = true)
+    @Mapping(target = "userName", ignore = true)
+    @Mapping(target = "colocationId", ignore = true)
+    @Mapping(target = "colocationName", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "completedAt", ignore = true)
+    @Mapping(target = "creatorId", ignore = true)
+    @Mapping(target = "assignedToUserKeycloakSubs", ignore = true)
+    @Mapping(target = "choreRotationId", ignore = true)
+    @Mapping(target = "dueDate", source = "dueDate", qualifiedByName = "stringToLocalDateTime")
+    void updateTaskDocument(TaskReqDto taskReqDto, @MappingTarget TaskDocument taskDocument);
+
     @Mapping(target = "assignedUsers", source = "assignedUsers")
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "dueDate", source = "taskDocument.dueDate", qualifiedByName = "localDateToLocalDateTime")
     TaskResDto toTaskResDtoWithUsers(TaskDocument taskDocument, List<UserProfileResDto> assignedUsers);
 
@@ -0,0 +1,156 @@
+package fr.esgi.service.task.store;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.task.TaskDashboard;
+import fr.esgi.persistence.repository.task.TaskRepository;
+import fr.esgi.persistence.repository.task.TaskSearchCriteria;
+import fr.esgi.persistence.repository.task.TaskSearchPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * The tasks in the Elasticsearch index, routed by colocation.
+ */
+@Component
+@RequiredArgsConstructor
+public class ElasticsearchTaskStore implements TaskStore {
+
+    static final TaskBulkFailure NOT_FOUND = new TaskBulkFailure(404, "Tâche non trouvée");
+
+    // Taille des pages de la lecture de toutes les tâches d'une colocation
+    static final int PAGE_SIZE = 500;
+
+    private final TaskRepository taskRepository;
+
+    @Override
+    public Optional<TaskDocument> findInColocation(Long colocationId, String taskId) {
+        return taskRepository.findInColocation(colocationId, taskId);
+    }
+
+    @Override
+    public List<TaskDocument> findAllInColocation(Long colocationId, Collection<String> taskIds) {
+        return taskRepository.findAllInColocation(colocationId, taskIds);
+    }
+
+    /**
+     * Gets all the tasks of a colocation, page by page.
+     */
+    public List<TaskDocument> findAll(Long colocationId) {
+        List<TaskDocument> tasks = new ArrayList<>();
+        List<Object>       after = null;
+        while (true) {
+            TaskSearchPage page = taskRepository.search(TaskSearchCriteria.builder()
+                                                                          .colocationId(colocationId)
+                                                                          .searchAfter(after)
+                                                                          .size(PAGE_SIZE)
+                                                                          .build());
+            page.hits().forEach(hit -> tasks.add(hit.task()));
+            if (page.hits().size() < PAGE_SIZE) {
+                return tasks;
+            }
+            after = page.hits().get(page.hits().size() - 1).sortValues();
+        }
+    }
+
+    @Override
+    public List<TaskDocument> findByAssignee(String keycloakSub) {
+        return taskRepository.findByAssignedToUserKeycloakSubs(keycloakSub);
+    }
+
+    @Override
+    public List<TaskDocument> findRecent(Long colocationId, int count) {
+        return taskRepository.findRecent(colocationId, count);
+    }
+
+    @Override
+    public TaskSearchPage search(TaskSearchCriteria criteria) {
+        return taskRepository.search(criteria);
+    }
+
+    @Override
+    public void closePointInTime(String pointInTimeId) {
+        taskRepository.closePointInTime(pointInTimeId);
+    }
+
+    @Override
+    public TaskDashboard dashboard(Long colocationId, LocalDateTime now) {
+        return taskRepository.dashboard(colocationId, now);
+    }
+
+    @Override
+    public Map<Long, Map<Long, Long>> openTasksByAssignee(Collection<Long> colocationIds) {
+        return taskRepository.openTasksByAssignee(colocationIds);
+    }
+
+    @Override
+    public TaskDocument save(TaskDocument task) {
+        return taskRepository.save(task);
+    }
+
+    @Override
+    public void delete(TaskDocument task) {
+        taskRepository.delete(task);
+    }
+
+    @Override
+    public Map<String, TaskBulkFailure> saveAll(List<TaskDocument> tasks, RefreshPolicy refreshPolicy) {
+        tasks.stream().filter(task -> task.getId() == null).forEach(task -> task.setId(UUID.randomUUID().toString()));
+        return taskRepository.bulkIndex(tasks, refreshPolicy);
+    }
+
+    // Sans verrou : une écriture concurrente de la tâche entre sa lecture et son indexation est perdue
+    @Override
+    public Map<String, TaskBulkFailure> updateAll(Long colocationId,
+                                                  Collection<String> taskIds,
+                                                  Consumer<TaskDocument> change,
+                                                  RefreshPolicy refreshPolicy) {
+        List<TaskDocument> tasks = taskRepository.findAllInColocation(colocationId, taskIds);
+        tasks.forEach(change);
+        Map<String, TaskBulkFailure> failures = new HashMap<>(taskRepository.bulkIndex(tasks, refreshPolicy));
+        missing(taskIds, tasks).forEach(taskId -> failures.put(taskId, NOT_FOUND));
+        return failures;
+    }
+
+    @Override
+    public Map<String, TaskBulkFailure> deleteAll(Long colocationId, Collection<String> taskIds, RefreshPolicy refreshPolicy) {
+        Map<String, TaskBulkFailure> failures = new HashMap<>();
+        taskRepository.bulkDelete(colocationId, taskIds, refreshPolicy).forEach((taskId, failure) -> {
+            if (failure.status() != 404) {
+                failures.put(taskId, failure);
+            }
+        });
+        return failures;
+    }
+
+    /**
+     * Indexes and deletes tasks in bulk requests, without waiting for a refresh.
+     *
+     * @param deletes Ids of the tasks to delete, by colocation.
+     * @return The failures by task id. A task already missing from the index counts as deleted.
+     */
+    public Map<String, TaskBulkFailure> bulkWrite(List<TaskDocument> indexes, Map<Long, List<String>> deletes) {
+        Map<String, TaskBulkFailure> failures = new HashMap<>(saveAll(indexes, RefreshPolicy.NONE));
+        deletes.forEach((colocationId, taskIds) -> failures.putAll(deleteAll(colocationId, taskIds, RefreshPolicy.NONE)));
+        return failures;
+    }
+
+    // Ids demandés absents des tâches trouvées
+    static List<String> missing(Collection<String> taskIds, Collection<TaskDocument> found) {
+        Set<String> foundIds = found.stream().map(TaskDocument::getId).collect(Collectors.toSet());
+        return taskIds.stream().filter(taskId -> !foundIds.contains(taskId)).toList();
+    }
+}
@@ -0,0 +1,454 @@
+package fr.esgi.service.task.store;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.task.TaskRecord;
+import fr.esgi.persistence.entity.task.TaskRecordBackfill;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.task.TaskCursorException;
+import fr.esgi.persistence.repository.task.TaskDashboard;
+import fr.esgi.persistence.repository.task.TaskSearchCriteria;
+import fr.esgi.persistence.repository.task.TaskSearchPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.ResourceNotFoundException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads and writes the tasks in Elasticsearch, falling back to their relational copy when it fails.
+ * <br>
+ * A write, single or bulk, goes to the relational copy first, the tasks staying locked until the
+ * end of the transaction, then to the index while the circuit ({@link TaskStoreCircuitBreaker}) lets
+ * it. A write the index did not get does not fail the request : the task is left pending and
+ * replayed by {@link TaskStoreReplayJob} once Elasticsearch answers again.
+ * <br>
+ * The relational copy only gets the writes made since it exists : the tasks indexed before are
+ * copied once by {@link TaskStoreBackfillJob}. Until that copy is complete, every read goes to the
+ * index, which fails the request when it fails, and the tombstones are kept so that the copy does
+ * not bring back a task deleted meanwhile. Once it is complete, a read goes to the index while the
+ * circuit is closed and no write is pending, to the relational copy otherwise or when the index
+ * fails to answer. The writes left pending by another node are known here at the next replay run.
+ * An answer of the index refusing the request, such as a 4xx to an expired cursor, is neither an
+ * outage nor a reason to read the relational copy : it reaches the caller as it is.
+ * <br>
+ * Metrics : {@code cohabit.tasks.store.fallbacks} counter, tagged with {@code operation} ({@code read},
+ * {@code write}).
+ */
+@Primary
+@Component
+@Log4j2
+public class FailoverTaskStore implements TaskStore {
+
+    private final ElasticsearchTaskStore  elasticsearch;
+    private final JpaTaskStore            relational;
+    private final ColocationRepository    colocationRepository;
+    private final TaskStoreCircuitBreaker circuitBreaker;
+
+    // Des écritures attendent d'être rejouées : l'index n'est pas à jour
+    private volatile boolean behind;
+    // Les tâches de l'index sont toutes recopiées : la copie relationnelle peut le remplacer
+    private volatile boolean backfilled;
+
+    private final Counter readFallbacks;
+    private final Counter writeFallbacks;
+
+    /**
+     * Result of a replay chunk.
+     *
+     * @param tasks    Pending tasks locked.
+     * @param replayed Tasks no longer pending : indexed, deleted, or rejected for good by the index.
+     */
+    public record Replay(int tasks, int replayed) {
+    }
+
+    /**
+     * Result of a backfill chunk.
+     *
+     * @param colocations Colocations whose tasks were copied.
+     * @param copied      Tasks copied, those already in the relational copy being skipped.
+     * @param complete    Whether all the tasks of the index are copied.
+     */
+    public record Backfill(int colocations, int copied, boolean complete) {
+    }
+
+    public FailoverTaskStore(ElasticsearchTaskStore elasticsearch,
+                             JpaTaskStore relational,
+                             ColocationRepository colocationRepository,
+                             TaskStoreCircuitBreaker circuitBreaker,
+                             MeterRegistry meterRegistry) {
+        this.elasticsearch        = elasticsearch;
+        this.relational           = relational;
+        this.colocationRepository = colocationRepository;
+        this.circuitBreaker       = circuitBreaker;
+        this.readFallbacks  = fallbacks(meterRegistry, "read");
+        this.writeFallbacks = fallbacks(meterRegistry, "write");
+    }
+
+    public boolean isBehind() {
+        return behind;
+    }
+
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    /**
+     * Lets the relational copy serve the reads, once the copy of the index is committed.
+     */
+    void markBackfilled() {
+        backfilled = true;
+    }
+
+    @Override
+    public Optional<TaskDocument> findInColocation(Long colocationId, String taskId) {
+        return read(() -> elasticsearch.findInColocation(colocationId, taskId), () -> relational.findInColocation(colocationId, taskId));
+    }
+
+    @Override
+    public List<TaskDocument> findAllInColocation(Long colocationId, Collection<String> taskIds) {
+        return read(() -> elasticsearch.findAllInColocation(colocationId, taskIds),
+                    () -> relational.findAllInColocation(colocationId, taskIds));
+    }
+
+    @Override
+    public List<TaskDocument> findByAssignee(String keycloakSub) {
+        return read(() -> elasticsearch.findByAssignee(keycloakSub), () -> relational.findByAssignee(keycloakSub));
+    }
+
+    @Override
+    public List<TaskDocument> findRecent(Long colocationId, int count) {
+        return read(() -> elasticsearch.findRecent(colocationId, count), () -> relational.findRecent(colocationId, count));
+    }
+
+    @Override
+    public TaskSearchPage search(TaskSearchCriteria criteria) {
+        return read(() -> elasticsearch.search(forIndex(criteria)), () -> relational.search(criteria));
+    }
+
+    // Un point in time non fermé expire de lui-même : l'échec n'est pas remonté
+    @Override
+    public void closePointInTime(String pointInTimeId) {
+        try {
+            read(() -> {
+                elasticsearch.closePointInTime(pointInTimeId);
+                return null;
+            }, () -> null);
+        } catch (RuntimeException e) {
+            log.warn("Fermeture du point in time {} en échec : {}", pointInTimeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public TaskDashboard dashboard(Long colocationId, LocalDateTime now) {
+        return read(() -> elasticsearch.dashboard(colocationId, now), () -> relational.dashboard(colocationId, now));
+    }
+
+    @Override
+    public Map<Long, Map<Long, Long>> openTasksByAssignee(Collection<Long> colocationIds) {
+        return read(() -> elasticsearch.openTasksByAssignee(colocationIds), () -> relational.openTasksByAssignee(colocationIds));
+    }
+
+    @Override
+    @Transactional
+    public TaskDocument save(TaskDocument task) {
+        TaskRecord record = relational.write(task);
+        if (index(() -> elasticsearch.save(task))) {
+            record.setPendingSync(false);
+        }
+        return task;
+    }
+
+    @Override
+    @Transactional
+    public void delete(TaskDocument task) {
+        TaskRecord tombstone = relational.remove(task);
+        if (index(() -> elasticsearch.delete(task))) {
+            forget(tombstone);
+        }
+    }
+
+    /**
+     * Writes the tasks to the relational copy, then to the index in a bulk request. A task the index
+     * did not get stays pending, as a single write does, and is not reported as failed.
+     */
+    @Override
+    @Transactional
+    public Map<String, TaskBulkFailure> saveAll(List<TaskDocument> tasks, RefreshPolicy refreshPolicy) {
+        Map<String, TaskRecord>      records  = relational.writeAll(tasks);
+        Map<String, TaskBulkFailure> failures = indexAll(() -> elasticsearch.saveAll(tasks, refreshPolicy));
+        records.forEach((taskId, record) -> {
+            if (failures != null && !failures.containsKey(taskId)) {
+                record.setPendingSync(false);
+            }
+        });
+        return Map.of();
+    }
+
+    /**
+     * Changes the tasks from their locked relational copy, then writes them as {@link #saveAll}. Until
+     * the copy of the index is complete, a task not copied yet is read from the index, its record
+     * being created and locked first so that no other write of the task gets in between.
+     */
+    @Override
+    @Transactional
+    public Map<String, TaskBulkFailure> updateAll(Long colocationId,
+                                                  Collection<String> taskIds,
+                                                  Consumer<TaskDocument> change,
+                                                  RefreshPolicy refreshPolicy) {
+        Map<String, TaskRecord> records = relational.lockAll(taskIds);
+        List<TaskDocument> tasks = new ArrayList<>(JpaTaskStore.live(colocationId, records)
+                                                               .stream()
+                                                               .map(TaskRecord::toDocument)
+                                                               .toList());
+        if (!backfilled) {
+            Set<String> created = relational.createAbsent(colocationId, taskIds.stream()
+                                                                              .filter(taskId -> !records.containsKey(taskId))
+                                                                              .toList());
+            if (!created.isEmpty()) {
+                List<TaskDocument> indexed = elasticsearch.findAllInColocation(colocationId, created);
+                tasks.addAll(indexed);
+                // Pas dans l'index : la ligne créée ne doit pas faire croire la tâche recopiée
+                relational.lockAll(ElasticsearchTaskStore.missing(created, indexed)).values().forEach(relational::forget);
+            }
+        }
+
+        tasks.forEach(change);
+        saveAll(tasks, refreshPolicy);
+        Map<String, TaskBulkFailure> failures = new HashMap<>();
+        ElasticsearchTaskStore.missing(taskIds, tasks).forEach(taskId -> failures.put(taskId, ElasticsearchTaskStore.NOT_FOUND));
+        return failures;
+    }
+
+    /**
+     * Marks the tasks as deleted in the relational copy, then deletes them from the index in a bulk
+     * request. A task the index did not delete stays pending and is not reported as failed.
+     */
+    @Override
+    @Transactional
+    public Map<String, TaskBulkFailure> deleteAll(Long colocationId, Collection<String> taskIds, RefreshPolicy refreshPolicy) {
+        Map<String, TaskRecord>      tombstones = relational.removeAll(colocationId, taskIds);
+        Map<String, TaskBulkFailure> failures   = indexAll(() -> elasticsearch.deleteAll(colocationId, taskIds, refreshPolicy));
+        tombstones.forEach((taskId, tombstone) -> {
+            if (failures != null && !failures.containsKey(taskId)) {
+                forget(tombstone);
+            }
+        });
+        return Map.of();
+    }
+
+    /**
+     * Copies into the relational copy the tasks of the next colocations, unless another node is
+     * copying them. The progress is locked until the end of the transaction ; the tasks already
+     * copied, written or deleted meanwhile are skipped. Once no colocation remains, the copy is
+     * complete and the tombstones kept meanwhile are deleted.
+     */
+    @Transactional
+    public Backfill backfill(int colocations) {
+        if (backfilled) {
+            return new Backfill(0, 0, true);
+        }
+        Optional<TaskRecordBackfill> locked = relational.lockBackfill();
+        if (locked.isEmpty()) {
+            return new Backfill(0, 0, relational.isBackfilled());
+        }
+        TaskRecordBackfill progress = locked.get();
+        if (progress.getCompletedAt() != null) {
+            return new Backfill(0, 0, true);
+        }
+
+        List<Long> colocationIds = colocationRepository.findIdsAfter(progress.getLastColocationId(), Limit.of(colocations));
+        if (colocationIds.isEmpty()) {
+            progress.setCompletedAt(LocalDateTime.now());
+            int purged = relational.purgeTombstones();
+            log.info("Recopie des tâches de l'index terminée, {} pierre(s) tombale(s) supprimée(s)", purged);
+            return new Backfill(0, 0, true);
+        }
+
+        int copied = 0;
+        for (Long colocationId : colocationIds) {
+            copied += relational.copyAbsent(colocationId, elasticsearch.findAll(colocationId));
+        }
+        progress.setLastColocationId(colocationIds.get(colocationIds.size() - 1));
+        return new Backfill(colocationIds.size(), copied, false);
+    }
+
+    /**
+     * Replays into the index a chunk of the pending tasks, unless the circuit is open. The tasks
+     * are locked until the end of the transaction ; those locked elsewhere are skipped.
+     */
+    @Transactional
+    public Replay replayPending(int limit) {
+        List<TaskRecord> pending = relational.lockPending(limit);
+        if (pending.isEmpty()) {
+            behind = relational.hasPending();
+            return new Replay(0, 0);
+        }
+        behind = true;
+        if (!circuitBreaker.tryAcquire()) {
+            return new Replay(pending.size(), 0);
+        }
+
+        List<TaskDocument>      indexes = new ArrayList<>();
+        Map<Long, List<String>> deletes = new HashMap<>();
+        for (TaskRecord record : pending) {
+            if (record.isDeleted()) {
+                deletes.computeIfAbsent(record.getColocationId(), id -> new ArrayList<>()).add(record.getId());
+            } else {
+                indexes.add(record.toDocument());
+            }
+        }
+
+        Map<String, TaskBulkFailure> failures;
+        long                         start = System.nanoTime();
+        try {
+            failures = elasticsearch.bulkWrite(indexes, deletes);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            log.warn("Rejeu de {} tâche(s) dans l'index en échec : {}", pending.size(), e.getMessage());
+            return new Replay(pending.size(), 0);
+        }
+        circuitBreaker.onSuccess(System.nanoTime() - start);
+
+        int replayed = 0;
+        for (TaskRecord record : pending) {
+            TaskBulkFailure failure = failures.get(record.getId());
+            if (failure != null && retryable(failure)) {
+                continue;
+            }
+            if (failure != null) {
+                log.error("Tâche {} abandonnée au rejeu dans l'index : {} {}", record.getId(), failure.status(), failure.reason());
+            }
+            if (record.isDeleted()) {
+                forget(record);
+            } else {
+                record.setPendingSync(false);
+            }
+            replayed++;
+        }
+        return new Replay(pending.size(), replayed);
+    }
+
+    // Avant la fin de la recopie, la copie relationnelle n'a pas toutes les tâches : seul l'index répond
+    private <T> T read(Supplier<T> index, Supplier<T> copy) {
+        boolean complete = backfilled;
+        if (complete && (behind || !circuitBreaker.tryAcquire())) {
+            readFallbacks.increment();
+            return copy.get();
+        }
+        long start = System.nanoTime();
+        T    result;
+        try {
+            result = index.get();
+        } catch (RuntimeException e) {
+            if (rejected(e)) {
+                // L'index a répondu : la requête est en cause, ni le circuit ni la copie n'y changent rien
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                throw e;
+            }
+            circuitBreaker.onFailure();
+            if (!complete) {
+                throw e;
+            }
+            readFallbacks.increment();
+            log.warn("Lecture des tâches dans l'index en échec, repli sur la copie relationnelle : {}", e.getMessage());
+            return copy.get();
+        }
+        circuitBreaker.onSuccess(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * @return Whether the index got the write ; a slow write is done, but counts as a failure for the circuit.
+     */
+    private boolean index(Runnable write) {
+        if (circuitBreaker.tryAcquire()) {
+            long start = System.nanoTime();
+            try {
+                write.run();
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                return true;
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure();
+                log.warn("Écriture de tâche dans l'index en échec, rejouée au rétablissement : {}", e.getMessage());
+            }
+        }
+        behind = true;
+        writeFallbacks.increment();
+        return false;
+    }
+
+    /**
+     * @return The failures by task id of a bulk write, null when the index did not answer.
+     */
+    private Map<String, TaskBulkFailure> indexAll(Supplier<Map<String, TaskBulkFailure>> write) {
+        Map<String, TaskBulkFailure> failures = new HashMap<>();
+        if (!index(() -> failures.putAll(write.get()))) {
+            return null;
+        }
+        if (!failures.isEmpty()) {
+            behind = true;
+            writeFallbacks.increment();
+        }
+        return failures;
+    }
+
+    // Pendant la recopie de l'index, la pierre tombale l'empêche de recopier la tâche supprimée
+    private void forget(TaskRecord tombstone) {
+        if (backfilled) {
+            relational.forget(tombstone);
+        } else {
+            tombstone.setPendingSync(false);
+        }
+    }
+
+    // Le curseur d'une page lue dans la copie relationnelle ne reprend pas une recherche textuelle de l'index
+    static TaskSearchCriteria forIndex(TaskSearchCriteria criteria) {
+        if (!criteria.hasText() || !JpaTaskStore.resumable(criteria.searchAfter())) {
+            return criteria;
+        }
+        return new TaskSearchCriteria(criteria.colocationId(), criteria.text(), criteria.statuses(), criteria.excludedStatuses(),
+                                      criteria.priorities(), criteria.tags(), criteria.assigneeId(), criteria.dueFrom(),
+                                      criteria.dueBefore(), null, criteria.pointInTime(), criteria.pointInTimeId(),
+                                      criteria.size());
+    }
+
+    /**
+     * Tells whether the index answered with a client error, e.g. to a cursor whose point in time
+     * expired : Elasticsearch is up, retrying elsewhere would give the same answer.
+     */
+    static boolean rejected(RuntimeException e) {
+        if (e instanceof TaskCursorException || e instanceof ResourceNotFoundException) {
+            return true;
+        }
+        Integer status = e instanceof UncategorizedElasticsearchException uncategorized ? uncategorized.getStatusCode() : null;
+        return status != null && status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+
+    private static boolean retryable(TaskBulkFailure failure) {
+        return failure.status() == 429 || failure.status() >= 500;
+    }
+
+    private static Counter fallbacks(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("cohabit.tasks.store.fallbacks")
+                      .description("Task reads and writes served by the relational copy instead of Elasticsearch")
+                      .tag("operation", operation)
+                      .register(meterRegistry);
+    }
+}
@@ -0,0 +1,409 @@
+package fr.esgi.service.task.store;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.task.TaskRecord;
+import fr.esgi.persistence.entity.task.TaskRecordBackfill;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.task.TaskDashboard;
+import fr.esgi.persistence.repository.task.TaskSearchCriteria;
+import fr.esgi.persistence.repository.task.TaskSearchHit;
+import fr.esgi.persistence.repository.task.TaskSearchPage;
+import fr.esgi.persistence.repository.taskrecord.TaskRecordBackfillRepository;
+import fr.esgi.persistence.repository.taskrecord.TaskRecordRepository;
+import fr.esgi.persistence.repository.taskrecord.TaskRecordSpecifications;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * The tasks in their relational copy, the {@link TaskRecord} table.
+ * <br>
+ * A task written here stays pending until the index got it, see {@link FailoverTaskStore}. A
+ * search gives the sort values of the index search without text (due date, creation date, id), so
+ * that a page cursor is valid in both stores ; a cursor of a text search, whose first sort value is
+ * the score, starts over at the first page. The text is matched word by word, without score nor
+ * highlight.
+ * <br>
+ * The record of a task whose id is not generated here is first created empty, as a tombstone, then
+ * locked and written : two transactions creating it at once, a write and the copy of the index for
+ * instance, wait for each other instead of failing on a duplicate key.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional
+public class JpaTaskStore implements TaskStore {
+
+    // Statuts des tâches fermées, comme dans les agrégations de l'index
+    private static final List<TaskDocument.TaskStatus> CLOSED = List.of(TaskDocument.TaskStatus.COMPLETED,
+                                                                        TaskDocument.TaskStatus.CANCELLED);
+
+    private final TaskRecordRepository         taskRecordRepository;
+    private final TaskRecordBackfillRepository taskRecordBackfillRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TaskDocument> findInColocation(Long colocationId, String taskId) {
+        return taskRecordRepository.findByIdAndColocationIdAndDeletedFalse(taskId, colocationId).map(TaskRecord::toDocument);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDocument> findByAssignee(String keycloakSub) {
+        return taskRecordRepository.findByAssignee(keycloakSub).stream().map(TaskRecord::toDocument).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDocument> findRecent(Long colocationId, int count) {
+        return taskRecordRepository.findByColocationIdAndDeletedFalseOrderByCreatedSortDescIdAsc(colocationId, Limit.of(count))
+                                   .stream()
+                                   .map(TaskRecord::toDocument)
+                                   .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskSearchPage search(TaskSearchCriteria criteria) {
+        Specification<TaskRecord> specification = Specification.where(TaskRecordSpecifications.inColocation(criteria.colocationId()))
+                .and(TaskRecordSpecifications.matching(criteria.text()))
+                .and(TaskRecordSpecifications.withStatus(criteria.statuses()))
+                .and(TaskRecordSpecifications.withoutStatus(criteria.excludedStatuses()))
+                .and(TaskRecordSpecifications.withPriority(criteria.priorities()))
+                .and(TaskRecordSpecifications.taggedWithAny(criteria.tags()))
+                .and(TaskRecordSpecifications.assignedTo(criteria.assigneeId()))
+                .and(TaskRecordSpecifications.dueFrom(criteria.dueFrom()))
+                .and(TaskRecordSpecifications.dueBefore(criteria.dueBefore()));
+        List<Object> after = criteria.searchAfter();
+        if (resumable(after)) {
+            specification = specification.and(TaskRecordSpecifications.after(((Number) after.get(0)).longValue(),
+                                                                              ((Number) after.get(1)).longValue(),
+                                                                              (String) after.get(2)));
+        }
+
+        List<TaskRecord> records = taskRecordRepository.findBy(specification, query -> query
+                .sortBy(TaskRecordSpecifications.SEARCH_ORDER)
+                .limit(criteria.size())
+                .all());
+        List<TaskSearchHit> hits = records.stream()
+                                          .map(record -> new TaskSearchHit(record.toDocument(), Map.of(),
+                                                                           List.of(record.getDueSort(), record.getCreatedSort(),
+                                                                                   record.getId())))
+                                          .toList();
+        return new TaskSearchPage(hits, null);
+    }
+
+    // Pas de point in time : la copie relationnelle est lue telle quelle
+    @Override
+    public void closePointInTime(String pointInTimeId) {
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskDashboard dashboard(Long colocationId, LocalDateTime now) {
+        Map<TaskDocument.TaskStatus, Long> byStatus = zeros(TaskDocument.TaskStatus.class);
+        long                               total    = 0;
+        long                               closed   = 0;
+        for (TaskRecordRepository.StatusCount count : taskRecordRepository.countByStatus(colocationId)) {
+            total += count.getCount();
+            if (count.getStatus() != null) {
+                byStatus.put(count.getStatus(), count.getCount());
+                closed += CLOSED.contains(count.getStatus()) ? count.getCount() : 0;
+            }
+        }
+
+        Map<TaskDocument.TaskPriority, Long> byPriority = zeros(TaskDocument.TaskPriority.class);
+        for (TaskRecordRepository.PriorityCount count : taskRecordRepository.countByPriority(colocationId)) {
+            if (count.getPriority() != null) {
+                byPriority.put(count.getPriority(), count.getCount());
+            }
+        }
+
+        Map<Long, Long> openByAssignee = new HashMap<>();
+        for (TaskRecordRepository.AssigneeCount count : taskRecordRepository.countOpenByAssignee(colocationId, CLOSED)) {
+            openByAssignee.put(count.getUserId(), count.getCount());
+        }
+
+        return new TaskDashboard(total, total - closed, taskRecordRepository.countOverdue(colocationId, CLOSED, now),
+                                 byStatus, byPriority, openByAssignee);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Map<Long, Long>> openTasksByAssignee(Collection<Long> colocationIds) {
+        Map<Long, Map<Long, Long>> load = new HashMap<>();
+        if (colocationIds.isEmpty()) {
+            return load;
+        }
+        for (TaskRecordRepository.ColocationAssigneeCount count
+                : taskRecordRepository.countOpenByColocationAndAssignee(colocationIds, CLOSED)) {
+            load.computeIfAbsent(count.getColocationId(), id -> new HashMap<>()).put(count.getUserId(), count.getCount());
+        }
+        return load;
+    }
+
+    @Override
+    public TaskDocument save(TaskDocument task) {
+        write(task);
+        return task;
+    }
+
+    @Override
+    public void delete(TaskDocument task) {
+        remove(task);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDocument> findAllInColocation(Long colocationId, Collection<String> taskIds) {
+        return taskRecordRepository.findByIdInAndColocationIdAndDeletedFalse(taskIds, colocationId)
+                                   .stream()
+                                   .map(TaskRecord::toDocument)
+                                   .toList();
+    }
+
+    @Override
+    public Map<String, TaskBulkFailure> saveAll(List<TaskDocument> tasks, RefreshPolicy refreshPolicy) {
+        writeAll(tasks);
+        return Map.of();
+    }
+
+    @Override
+    public Map<String, TaskBulkFailure> updateAll(Long colocationId,
+                                                  Collection<String> taskIds,
+                                                  Consumer<TaskDocument> change,
+                                                  RefreshPolicy refreshPolicy) {
+        List<TaskDocument> tasks = live(colocationId, lockAll(taskIds)).stream().map(TaskRecord::toDocument).toList();
+        tasks.forEach(change);
+        writeAll(tasks);
+        Map<String, TaskBulkFailure> failures = new HashMap<>();
+        ElasticsearchTaskStore.missing(taskIds, tasks).forEach(taskId -> failures.put(taskId, ElasticsearchTaskStore.NOT_FOUND));
+        return failures;
+    }
+
+    @Override
+    public Map<String, TaskBulkFailure> deleteAll(Long colocationId, Collection<String> taskIds, RefreshPolicy refreshPolicy) {
+        removeAll(colocationId, taskIds);
+        return Map.of();
+    }
+
+    /**
+     * Writes a task, pending until the index got it, its id being generated when it has none. The
+     * task stays locked until the end of the transaction.
+     *
+     * @return The record written, to mark as indexed within the same transaction.
+     */
+    TaskRecord write(TaskDocument task) {
+        return writeAll(List.of(task)).get(task.getId());
+    }
+
+    /**
+     * Writes tasks, pending until the index got them. A task without id is new : its id is generated
+     * and it is inserted without being looked up. The tasks stay locked until the end of the
+     * transaction.
+     *
+     * @return The records written, by task id.
+     */
+    Map<String, TaskRecord> writeAll(Collection<TaskDocument> tasks) {
+        List<TaskRecord>   created = new ArrayList<>();
+        List<TaskDocument> known   = new ArrayList<>();
+        for (TaskDocument task : tasks) {
+            if (task.getId() == null) {
+                task.setId(UUID.randomUUID().toString());
+                created.add(new TaskRecord(task.getId()));
+            } else {
+                known.add(task);
+            }
+        }
+
+        Map<String, TaskRecord> records = lockAll(known.stream().map(TaskDocument::getId).toList());
+        Map<String, Long>       absent  = new HashMap<>();
+        for (TaskDocument task : known) {
+            if (!records.containsKey(task.getId())) {
+                absent.put(task.getId(), task.getColocationId());
+            }
+        }
+        insertAbsent(absent);
+        records.putAll(lockAll(absent.keySet()));
+        created.forEach(record -> records.put(record.getId(), record));
+
+        for (TaskDocument task : tasks) {
+            TaskRecord record = records.get(task.getId());
+            record.apply(task);
+            record.setPendingSync(true);
+        }
+        taskRecordRepository.saveAll(created);
+        return records;
+    }
+
+    /**
+     * Marks a task as deleted, pending until the index deleted it.
+     *
+     * @return The tombstone, to {@link #forget(TaskRecord)} once the task is deleted from the index.
+     */
+    TaskRecord remove(TaskDocument task) {
+        return removeAll(task.getColocationId(), List.of(task.getId())).get(task.getId());
+    }
+
+    /**
+     * Marks tasks of a colocation as deleted, pending until the index deleted them. A task missing
+     * here gets a tombstone all the same : the index may have it.
+     *
+     * @return The tombstones by task id.
+     */
+    Map<String, TaskRecord> removeAll(Long colocationId, Collection<String> taskIds) {
+        Map<String, TaskRecord> records = lockAll(taskIds);
+        Map<String, Long> absent = new HashMap<>();
+        taskIds.stream().filter(taskId -> !records.containsKey(taskId)).forEach(taskId -> absent.put(taskId, colocationId));
+        insertAbsent(absent);
+        records.putAll(lockAll(absent.keySet()));
+        records.values().forEach(record -> {
+            record.setDeleted(true);
+            record.setPendingSync(true);
+        });
+        return records;
+    }
+
+    void forget(TaskRecord record) {
+        taskRecordRepository.delete(record);
+    }
+
+    /**
+     * Locks the records of tasks, deleted ones included, until the end of the transaction.
+     *
+     * @return The records found, by task id.
+     */
+    Map<String, TaskRecord> lockAll(Collection<String> taskIds) {
+        Map<String, TaskRecord> records = new HashMap<>();
+        if (!taskIds.isEmpty()) {
+            taskRecordRepository.lockAllById(taskIds).forEach(record -> records.put(record.getId(), record));
+        }
+        return records;
+    }
+
+    /**
+     * Creates, as tombstones not pending, the records of tasks that have none, in multi-row inserts
+     * rather than one insert per task. A record created at the same time by another transaction is
+     * left to it ; those created here stay locked until the end of the transaction.
+     *
+     * @param colocationIds The colocation of each task, by task id.
+     */
+    void insertAbsent(Map<String, Long> colocationIds) {
+        if (!colocationIds.isEmpty()) {
+            taskRecordRepository.insertAllIfAbsent(colocationIds, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Creates, as tombstones not pending, the records of tasks that have none, one insert per task to
+     * know which ones it created. A record created at the same time by another transaction is left to
+     * it ; those created here stay locked until the end of the transaction.
+     *
+     * @return The ids of the records created here.
+     */
+    Set<String> createAbsent(Long colocationId, Collection<String> taskIds) {
+        LocalDateTime now     = LocalDateTime.now();
+        Set<String>   created = new HashSet<>();
+        for (String taskId : taskIds) {
+            if (taskRecordRepository.insertIfAbsent(taskId, colocationId, now) == 1) {
+                created.add(taskId);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Copies tasks read from the index that have no record yet, as already indexed : a task written
+     * or deleted here meanwhile is left as is.
+     *
+     * @return The number of tasks copied.
+     */
+    int copyAbsent(Long colocationId, List<TaskDocument> tasks) {
+        Set<String>             created = createAbsent(colocationId, tasks.stream().map(TaskDocument::getId).toList());
+        Map<String, TaskRecord> records = lockAll(created);
+        for (TaskDocument task : tasks) {
+            TaskRecord record = records.get(task.getId());
+            if (record != null) {
+                record.apply(task);
+            }
+        }
+        return records.size();
+    }
+
+    /**
+     * Deletes the tombstones no longer pending, kept while the index is copied.
+     */
+    int purgeTombstones() {
+        return taskRecordRepository.deleteTombstones();
+    }
+
+    /**
+     * Locks the progress of the copy of the index, created at the first call.
+     *
+     * @return The progress, empty while another transaction holds it.
+     */
+    Optional<TaskRecordBackfill> lockBackfill() {
+        if (!taskRecordBackfillRepository.existsById(TaskRecordBackfill.ID)) {
+            taskRecordBackfillRepository.insertIfAbsent();
+        }
+        return taskRecordBackfillRepository.lock();
+    }
+
+    @Transactional(readOnly = true)
+    boolean isBackfilled() {
+        return taskRecordBackfillRepository.findById(TaskRecordBackfill.ID)
+                                           .map(backfill -> backfill.getCompletedAt() != null)
+                                           .orElse(false);
+    }
+
+    /**
+     * Locks the next tasks to replay into the index, oldest writes first. The tasks locked by another
+     * transaction are skipped.
+     */
+    List<TaskRecord> lockPending(int limit) {
+        return taskRecordRepository.lockPending(Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    boolean hasPending() {
+        return taskRecordRepository.existsByPendingSyncTrue();
+    }
+
+    // Tâches non supprimées de la colocation
+    static List<TaskRecord> live(Long colocationId, Map<String, TaskRecord> records) {
+        return records.values()
+                      .stream()
+                      .filter(record -> !record.isDeleted() && colocationId.equals(record.getColocationId()))
+                      .toList();
+    }
+
+    // Curseur de l'index sans texte (échéance, création, id) ; celui d'une recherche textuelle (score, id) n'en est pas un
+    static boolean resumable(List<Object> after) {
+        return after != null && after.size() == 3 && after.get(0) instanceof Number && after.get(1) instanceof Number
+               && after.get(2) instanceof String;
+    }
+
+    // Toutes les valeurs de l'énumération sont présentes, à zéro si aucune tâche ne l'a
+    private static <E extends Enum<E>> Map<E, Long> zeros(Class<E> type) {
+        Map<E, Long> counts = new EnumMap<>(type);
+        for (E value : type.getEnumConstants()) {
+            counts.put(value, 0L);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,106 @@
+package fr.esgi.service.task.store;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.task.TaskDashboard;
+import fr.esgi.persistence.repository.task.TaskSearchCriteria;
+import fr.esgi.persistence.repository.task.TaskSearchPage;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Where the tasks are read and written : the Elasticsearch index
+ * ({@link ElasticsearchTaskStore}), its relational copy ({@link JpaTaskStore}), or both behind a
+ * circuit breaker ({@link FailoverTaskStore}, the one injected).
+ */
+public interface TaskStore {
+
+    /**
+     * Gets a task of a colocation by id.
+     *
+     * @return The task, empty if it does not exist or belongs to another colocation.
+     */
+    Optional<TaskDocument> findInColocation(Long colocationId, String taskId);
+
+    /**
+     * Gets tasks of a colocation by id, in a single read.
+     *
+     * @return The tasks found, those missing or of another colocation are left out.
+     */
+    List<TaskDocument> findAllInColocation(Long colocationId, Collection<String> taskIds);
+
+    /**
+     * Gets the tasks assigned to a user, in all their colocations.
+     */
+    List<TaskDocument> findByAssignee(String keycloakSub);
+
+    /**
+     * Gets the last tasks created in a colocation, most recent first.
+     */
+    List<TaskDocument> findRecent(Long colocationId, int count);
+
+    /**
+     * Searches the tasks of a colocation, best matches first when a text is given, closest due date
+     * first otherwise.
+     */
+    TaskSearchPage search(TaskSearchCriteria criteria);
+
+    /**
+     * Releases a point in time opened by {@link #search(TaskSearchCriteria)} before it expires.
+     */
+    void closePointInTime(String pointInTimeId);
+
+    /**
+     * Counts the tasks of a colocation by status, priority and assignee, the tasks due before
+     * {@code now} being overdue.
+     */
+    TaskDashboard dashboard(Long colocationId, LocalDateTime now);
+
+    /**
+     * Counts the open tasks of each assignee, for many colocations in a single read.
+     *
+     * @return The open tasks by assignee id, by colocation id. A colocation or an assignee without
+     * open task is left out.
+     */
+    Map<Long, Map<Long, Long>> openTasksByAssignee(Collection<Long> colocationIds);
+
+    /**
+     * Writes a task, its id being generated when it has none.
+     *
+     * @return The task written, with its id.
+     */
+    TaskDocument save(TaskDocument task);
+
+    void delete(TaskDocument task);
+
+    /**
+     * Writes many tasks at once, the ids being generated for those without one.
+     *
+     * @param refreshPolicy When the write answers, relative to the tasks being visible to searches.
+     * @return The failures by task id, the other tasks were written.
+     */
+    Map<String, TaskBulkFailure> saveAll(List<TaskDocument> tasks, RefreshPolicy refreshPolicy);
+
+    /**
+     * Changes many tasks of a colocation at once, each one from its current state.
+     *
+     * @return The failures by task id, a 404 for a task missing or of another colocation.
+     */
+    Map<String, TaskBulkFailure> updateAll(Long colocationId,
+                                           Collection<String> taskIds,
+                                           Consumer<TaskDocument> change,
+                                           RefreshPolicy refreshPolicy);
+
+    /**
+     * Deletes many tasks of a colocation at once, a task already missing counting as deleted.
+     *
+     * @return The failures by task id.
+     */
+    Map<String, TaskBulkFailure> deleteAll(Long colocationId, Collection<String> taskIds, RefreshPolicy refreshPolicy);
+}
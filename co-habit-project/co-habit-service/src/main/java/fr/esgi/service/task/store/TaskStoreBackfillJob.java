@@ -0,0 +1,78 @@
+package fr.esgi.service.task.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies once into the relational copy the tasks indexed in Elasticsearch before it existed.
+ * <br>
+ * Each chunk copies the tasks of {@value #CHUNK_SIZE} colocations in its own transaction, which
+ * locks the progress of the copy : one node copies at a time, the others skip their run. A run
+ * stops once the copy is complete, after {@value #MAX_CHUNKS_PER_RUN} chunks or at the first chunk
+ * that fails ; the next run, every {@code cohabit.tasks.store.backfill-interval-ms}, resumes after
+ * the last colocation copied. Until the copy is complete, the reads are not served by the
+ * relational copy (see {@link FailoverTaskStore}). The tasks copied are published as the
+ * {@code cohabit.tasks.store.backfilled} counter.
+ */
+@Component
+@Log4j2
+public class TaskStoreBackfillJob {
+
+    static final int CHUNK_SIZE         = 50;
+    static final int MAX_CHUNKS_PER_RUN = 20;
+
+    private final FailoverTaskStore failoverTaskStore;
+    private final Counter           copiedCounter;
+
+    public TaskStoreBackfillJob(FailoverTaskStore failoverTaskStore, MeterRegistry meterRegistry) {
+        this.failoverTaskStore = failoverTaskStore;
+        this.copiedCounter     = Counter.builder("cohabit.tasks.store.backfilled")
+                                        .description("Tasks copied from Elasticsearch into their relational copy")
+                                        .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cohabit.tasks.store.backfill-interval-ms:60000}")
+    public void run() {
+        backfillAll();
+    }
+
+    /**
+     * @return The number of tasks copied.
+     */
+    public int backfillAll() {
+        if (failoverTaskStore.isBackfilled()) {
+            return 0;
+        }
+
+        int copied = 0;
+        int chunks = 0;
+        while (chunks < MAX_CHUNKS_PER_RUN) {
+            FailoverTaskStore.Backfill backfill;
+            try {
+                backfill = failoverTaskStore.backfill(CHUNK_SIZE);
+            } catch (RuntimeException e) {
+                log.error("Recopie des tâches de l'index interrompue après {} lot(s)", chunks, e);
+                break;
+            }
+            if (backfill.complete()) {
+                // Transaction validée : les lectures peuvent passer par la copie relationnelle
+                failoverTaskStore.markBackfilled();
+                break;
+            }
+            if (backfill.colocations() == 0) {
+                break;
+            }
+            chunks++;
+            copied += backfill.copied();
+        }
+
+        if (copied > 0) {
+            copiedCounter.increment(copied);
+            log.info("Recopie des tâches de l'index : {} lot(s), {} tâche(s)", chunks, copied);
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,115 @@
+package fr.esgi.service.task.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker of the calls to Elasticsearch made by {@link FailoverTaskStore}.
+ * <br>
+ * Closed, every call goes to Elasticsearch. After {@code cohabit.tasks.store.failure-threshold}
+ * consecutive failures, a call slower than {@code slow-call-ms} counting as one, the circuit opens :
+ * no call is made for {@code open-ms}, the tasks being read from and written to their relational
+ * copy. Then a single probe call is let through (half open) : its success closes the circuit, its
+ * failure opens it again. An outage of Elasticsearch thus costs at most a few timeouts, not one per
+ * request.
+ * <br>
+ * Metrics : {@code cohabit.tasks.store.circuit.state} (0 closed, 1 half open, 2 open) and the
+ * {@code cohabit.tasks.store.circuit.opened} counter.
+ */
+@Component
+@Log4j2
+public class TaskStoreCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final int  failureThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    private final    AtomicReference<State> state    = new AtomicReference<>(State.CLOSED);
+    private final    AtomicInteger          failures = new AtomicInteger();
+    private volatile long                   openedAt;
+
+    private final Counter opened;
+
+    public TaskStoreCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${cohabit.tasks.store.failure-threshold:5}") int failureThreshold,
+            @Value("${cohabit.tasks.store.slow-call-ms:1000}") long slowCallMs,
+            @Value("${cohabit.tasks.store.open-ms:30000}") long openMs
+    ) {
+        this.failureThreshold = failureThreshold;
+        this.slowCallNanos    = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openNanos        = TimeUnit.MILLISECONDS.toNanos(openMs);
+
+        Gauge.builder("cohabit.tasks.store.circuit.state", state, current -> current.get().ordinal())
+             .description("State of the Elasticsearch circuit breaker : 0 closed, 1 half open, 2 open")
+             .register(meterRegistry);
+        this.opened = Counter.builder("cohabit.tasks.store.circuit.opened")
+                             .description("Times the Elasticsearch circuit breaker opened")
+                             .register(meterRegistry);
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    /**
+     * Tells whether a call may go to Elasticsearch. Once the circuit has been open long enough, the
+     * first caller gets the probe call ; the result of an allowed call must be reported.
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        return current == State.OPEN && System.nanoTime() - openedAt >= openNanos
+               && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+    }
+
+    /**
+     * Reports a call that answered, a slow answer counting as a failure.
+     *
+     * @param elapsedNanos Duration of the call.
+     */
+    public void onSuccess(long elapsedNanos) {
+        if (elapsedNanos > slowCallNanos) {
+            onFailure();
+            return;
+        }
+        failures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("Elasticsearch rétabli, lectures et écritures des tâches de retour sur l'index");
+        }
+    }
+
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        } else if (failures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+
+    private void open(State from) {
+        openedAt = System.nanoTime();
+        if (state.compareAndSet(from, State.OPEN)) {
+            failures.set(0);
+            opened.increment();
+            log.warn("Elasticsearch indisponible, tâches servies par la copie relationnelle pendant {} ms",
+                     TimeUnit.NANOSECONDS.toMillis(openNanos));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package fr.esgi.service.task.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically replays into Elasticsearch the task writes it missed during an outage.
+ * <br>
+ * Each chunk of {@value #CHUNK_SIZE} pending tasks runs in its own transaction and locks the tasks it
+ * handles, so several nodes can run the job at once and share the work. A run stops once nothing is
+ * pending, after {@value #MAX_CHUNKS_PER_RUN} chunks, while the circuit is open, or at the first chunk
+ * not fully replayed ; what remains is replayed by the next run, every
+ * {@code cohabit.tasks.store.replay-interval-ms}. The tasks replayed are published as the
+ * {@code cohabit.tasks.store.replayed} counter.
+ */
+@Component
+@Log4j2
+public class TaskStoreReplayJob {
+
+    static final int CHUNK_SIZE         = 500;
+    static final int MAX_CHUNKS_PER_RUN = 20;
+
+    private final FailoverTaskStore failoverTaskStore;
+    private final Counter           replayedCounter;
+
+    public TaskStoreReplayJob(FailoverTaskStore failoverTaskStore, MeterRegistry meterRegistry) {
+        this.failoverTaskStore = failoverTaskStore;
+        this.replayedCounter   = Counter.builder("cohabit.tasks.store.replayed")
+                                        .description("Task writes replayed into Elasticsearch after an outage")
+                                        .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cohabit.tasks.store.replay-interval-ms:10000}")
+    public void run() {
+        replayAll();
+    }
+
+    /**
+     * @return The number of tasks replayed.
+     */
+    public int replayAll() {
+        int replayed = 0;
+        int chunks   = 0;
+        while (chunks < MAX_CHUNKS_PER_RUN) {
+            FailoverTaskStore.Replay replay;
+            try {
+                replay = failoverTaskStore.replayPending(CHUNK_SIZE);
+            } catch (RuntimeException e) {
+                log.error("Rejeu des tâches interrompu après {} lot(s)", chunks, e);
+                break;
+            }
+            if (replay.tasks() == 0) {
+                break;
+            }
+            chunks++;
+            replayed += replay.replayed();
+            if (replay.replayed() < replay.tasks()) {
+                break;
+            }
+        }
+
+        if (replayed > 0) {
+            replayedCounter.increment(replayed);
+            log.info("Rejeu des tâches dans l'index : {} lot(s), {} tâche(s)", chunks, replayed);
+        }
+        return replayed;
+    }
+}
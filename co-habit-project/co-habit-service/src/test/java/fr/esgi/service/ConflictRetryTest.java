@@ -0,0 +1,83 @@
+package fr.esgi.service;
+
+import fr.esgi.domain.exception.TechnicalException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConflictRetryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConflictRetry       conflictRetry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        conflictRetry = new ConflictRetry(meterRegistry, 3, 0);
+    }
+
+    @Test
+    void run_ShouldReplayTheCallAfterAConflict() throws TechnicalException {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = conflictRetry.run(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("version");
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.get("cohabit.conflict_retry.retries").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void run_ShouldReportAPersistentConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> conflictRetry.run(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("version");
+        }));
+
+        assertThat(exception.getCode()).isEqualTo(409);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void run_ShouldNotReplayOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> conflictRetry.run(() -> {
+            attempts.incrementAndGet();
+            throw new TechnicalException(403, "Accès refusé");
+        }));
+
+        assertThat(exception.getCode()).isEqualTo(403);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void run_ShouldNotReplayWithinACallerTransaction() {
+        AtomicInteger attempts = new AtomicInteger();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(OptimisticLockingFailureException.class, () -> conflictRetry.run(() -> {
+                attempts.incrementAndGet();
+                throw new OptimisticLockingFailureException("version");
+            }));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(attempts).hasValue(1);
+    }
+}
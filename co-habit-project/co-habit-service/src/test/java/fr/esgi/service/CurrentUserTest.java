@@ -0,0 +1,188 @@
+package fr.esgi.service;
+
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import(CurrentUserTest.TestConfig.class)
+@TestPropertySource(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+        }
+)
+@EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CurrentUserTest extends AbstractTest {
+
+    @TestConfiguration
+    @EnableAutoConfiguration(
+            exclude = {
+                    ServletWebServerFactoryAutoConfiguration.class,
+                    ReactiveWebServerFactoryAutoConfiguration.class
+            }
+    )
+    static class TestConfig {
+        @Bean
+        public SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository,
+                                       EntityManager entityManager,
+                                       SimpleMeterRegistry meterRegistry) {
+            return new CurrentUser(userRepository, entityManager, meterRegistry, 16);
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    private final Map<String, Double> baseline = new HashMap<>();
+
+    private User user;
+
+    @BeforeEach
+    public void initData() {
+        user = new User();
+        user.setEmail("john@example.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setKeyCloakSub(TEST_USER_ID);
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+
+        currentUser.evict(TEST_USER_ID);
+        for (String source : List.of("request", "cache", "database")) {
+            baseline.put(source, counter(source));
+        }
+        initSecurityContextPlaceHolder();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        RequestContextHolder.resetRequestAttributes();
+        cleanupSecurityContext();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testFind_MissThenCacheHit() throws
+                                           TechnicalException {
+        User first  = currentUser.find().orElseThrow();
+        User second = currentUser.find().orElseThrow();
+
+        assertThat(first.getId()).isEqualTo(user.getId());
+        assertThat(second.getId()).isEqualTo(user.getId());
+        assertThat(lookups("database")).isEqualTo(1.0);
+        assertThat(lookups("cache")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void testFindId_UsesCache() throws
+                                      TechnicalException {
+        assertThat(currentUser.findId().orElseThrow()).isEqualTo(user.getId());
+        assertThat(currentUser.findId().orElseThrow()).isEqualTo(user.getId());
+
+        assertThat(lookups("database")).isEqualTo(1.0);
+        assertThat(lookups("cache")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void testFind_ReusesUserWithinRequest() throws
+                                                  TechnicalException {
+        RequestAttributes attributes = mock(RequestAttributes.class);
+        RequestContextHolder.setRequestAttributes(attributes);
+
+        User resolved = currentUser.find().orElseThrow();
+        when(attributes.getAttribute(CurrentUser.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)).thenReturn(resolved);
+
+        User reused = currentUser.find().orElseThrow();
+
+        assertThat(reused).isSameAs(resolved);
+        assertThat(lookups("request")).isEqualTo(1.0);
+        verify(attributes).setAttribute(eq(CurrentUser.REQUEST_ATTRIBUTE), eq(resolved), eq(RequestAttributes.SCOPE_REQUEST));
+    }
+
+    @Test
+    public void testFind_StaleCachedIdFallsBackToSub() throws
+                                                      TechnicalException {
+        currentUser.findId().orElseThrow();
+
+        userRepository.delete(user);
+        userRepository.flush();
+        User recreated = new User();
+        recreated.setEmail("john2@example.com");
+        recreated.setKeyCloakSub(TEST_USER_ID);
+        recreated = userRepository.save(recreated);
+
+        assertThat(currentUser.find().orElseThrow().getId()).isEqualTo(recreated.getId());
+    }
+
+    @Test
+    public void testFind_UserNotFound() throws
+                                        TechnicalException {
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolderWithSub("unknown-sub");
+
+        assertThat(currentUser.find()).isEmpty();
+        assertThat(currentUser.findId()).isEmpty();
+    }
+
+    @Test
+    public void testFind_NotAuthenticated() {
+        cleanupSecurityContext();
+
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> currentUser.find());
+        assertThat(exception.getCode()).isEqualTo(401);
+    }
+
+    private double lookups(String source) {
+        return counter(source) - baseline.get(source);
+    }
+
+    private double counter(String source) {
+        return meterRegistry.get("cohabit.current_user.lookups")
+                            .tag("source", source)
+                            .counter()
+                            .count();
+    }
+}
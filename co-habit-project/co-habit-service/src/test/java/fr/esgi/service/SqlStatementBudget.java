@@ -0,0 +1,69 @@
+package fr.esgi.service;
+
+import fr.esgi.domain.exception.TechnicalException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails a test when a service call issues more SQL statements than its budget.
+ * <br>
+ * Hibernate hands every statement to this inspector, which records it only while
+ * {@link #assertAtMost(int, Call)} runs on the current thread. Register it on a {@code @DataJpaTest} with :
+ * <br>
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector=fr.esgi.service.SqlStatementBudget}
+ * <br>
+ * Clear the persistence context before measuring, otherwise entities already loaded by the test
+ * data setup hide the lazy loads (N+1) the budget is meant to catch. The service tests build the
+ * {@link CurrentUser} without id cache, every test recreating its users : budgets count one lookup
+ * of the authenticated user id by Keycloak sub.
+ */
+public class SqlStatementBudget implements StatementInspector {
+
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=fr.esgi.service.SqlStatementBudget";
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws TechnicalException;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = RECORDED.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Runs the call and fails, listing the statements, if it issued more than {@code budget} of them.
+     *
+     * @return The result of the call.
+     */
+    public static <T> T assertAtMost(int budget, Call<T> call) throws
+                                                               TechnicalException {
+        List<String> statements = new ArrayList<>();
+        RECORDED.set(statements);
+        T result;
+        try {
+            result = call.call();
+        } finally {
+            RECORDED.remove();
+        }
+
+        if (statements.size() > budget) {
+            StringBuilder message = new StringBuilder().append(statements.size())
+                                                       .append(" SQL statements issued, budget is ")
+                                                       .append(budget)
+                                                       .append(" :");
+            statements.forEach(sql -> message.append(System.lineSeparator()).append("  ").append(sql));
+            throw new AssertionError(message.toString());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package fr.esgi.service.chore;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class ChoreAssignerTest {
+
+    @Test
+    void next_ShouldTakeTurnsWhenTheLoadsAreEqual() {
+        ChoreAssigner assigner = new ChoreAssigner(List.of(1L, 2L, 3L), null, new HashMap<>());
+
+        assertThat(picks(assigner, 6)).containsExactly(1L, 2L, 3L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void next_ShouldResumeAfterTheLastAssignee() {
+        ChoreAssigner assigner = new ChoreAssigner(List.of(1L, 2L, 3L), 2L, new HashMap<>());
+
+        assertThat(picks(assigner, 3)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void next_ShouldResumeWithTheFirstMemberWhenTheLastAssigneeLeft() {
+        ChoreAssigner assigner = new ChoreAssigner(List.of(1L, 2L, 3L), 7L, new HashMap<>());
+
+        assertThat(picks(assigner, 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void next_ShouldBalanceTheOpenTasksAndShareTheLoadOfTheColocation() {
+        Map<Long, Long> load = new HashMap<>(Map.of(1L, 3L, 2L, 1L));
+
+        // Le membre 3 n'a aucune tâche ouverte, le membre 1 en a trois
+        assertThat(picks(new ChoreAssigner(List.of(1L, 2L, 3L), null, load), 4)).containsExactly(3L, 2L, 3L, 2L);
+        assertThat(load).containsOnly(entry(1L, 3L), entry(2L, 3L), entry(3L, 2L));
+
+        // Une autre rotation de la colocation repart de la charge mise à jour
+        assertThat(picks(new ChoreAssigner(List.of(2L, 3L), null, load), 1)).containsExactly(3L);
+    }
+
+    private static List<Long> picks(ChoreAssigner assigner, int count) {
+        return IntStream.range(0, count).mapToObj(i -> assigner.next()).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package fr.esgi.service.chore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChoreRotationJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+
+    @Mock
+    private ChoreRotationService choreRotationService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChoreRotationJob    job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job           = new ChoreRotationJob(choreRotationService, meterRegistry);
+    }
+
+    @Test
+    void generateAll_ShouldRunChunksUntilNothingIsDue() {
+        when(choreRotationService.generateDue(eq(TODAY), anyCollection())).thenReturn(new ChoreRotationService.Generation(200, 800),
+                                                                 new ChoreRotationService.Generation(3, 5),
+                                                                 new ChoreRotationService.Generation(0, 0));
+
+        assertThat(job.generateAll(TODAY)).isEqualTo(805);
+
+        verify(choreRotationService, times(3)).generateDue(eq(TODAY), anyCollection());
+        assertThat(meterRegistry.get("cohabit.chores.generated").counter().count()).isEqualTo(805.0);
+    }
+
+    @Test
+    void generateAll_ShouldSkipTheRotationThatFailsAndGoOn() {
+        Set<Long> skippedIds = new HashSet<>();
+        when(choreRotationService.generateDue(eq(TODAY), anyCollection())).thenAnswer(invocation -> {
+            skippedIds.addAll(invocation.getArgument(1));
+            if (skippedIds.isEmpty()) {
+                throw new IllegalStateException("boom");
+            }
+            return new ChoreRotationService.Generation(0, 0);
+        });
+        when(choreRotationService.findDueIds(eq(TODAY), anyCollection())).thenReturn(List.of(1L, 2L));
+        when(choreRotationService.generateDue(TODAY, 1L)).thenThrow(new IllegalStateException("poison"));
+        when(choreRotationService.generateDue(TODAY, 2L)).thenReturn(new ChoreRotationService.Generation(1, 4));
+
+        assertThat(job.generateAll(TODAY)).isEqualTo(4);
+
+        // The chunks after the failing one leave it out
+        assertThat(skippedIds).containsExactly(1L);
+        verify(choreRotationService, times(2)).generateDue(eq(TODAY), anyCollection());
+        assertThat(meterRegistry.get("cohabit.chores.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void generateAll_ShouldStopWhenTheDueRotationsCannotBeRead() {
+        when(choreRotationService.generateDue(eq(TODAY), anyCollection())).thenReturn(new ChoreRotationService.Generation(1, 2))
+                                                                          .thenThrow(new IllegalStateException("boom"));
+        when(choreRotationService.findDueIds(eq(TODAY), anyCollection())).thenThrow(new IllegalStateException("boom"));
+
+        assertThat(job.generateAll(TODAY)).isEqualTo(2);
+
+        verify(choreRotationService, times(2)).generateDue(eq(TODAY), anyCollection());
+        verify(choreRotationService, never()).generateDue(eq(TODAY), anyLong());
+    }
+}
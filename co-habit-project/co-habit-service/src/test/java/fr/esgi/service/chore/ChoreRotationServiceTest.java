@@ -0,0 +1,333 @@
+package fr.esgi.service.chore;
+
+import fr.esgi.domain.dto.chore.ChoreCadence;
+import fr.esgi.domain.dto.chore.ChoreRotationReqDto;
+import fr.esgi.domain.dto.chore.ChoreRotationResDto;
+import fr.esgi.domain.dto.task.TaskPriority;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.task.TaskRecord;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.chore.ChoreRotationRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.task.TaskRepository;
+import fr.esgi.persistence.repository.taskrecord.TaskRecordBackfillRepository;
+import fr.esgi.persistence.repository.taskrecord.TaskRecordRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.chore.mapper.ChoreRotationMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import fr.esgi.service.task.TaskWriter;
+import fr.esgi.service.task.store.ElasticsearchTaskStore;
+import fr.esgi.service.task.store.FailoverTaskStore;
+import fr.esgi.service.task.store.JpaTaskStore;
+import fr.esgi.service.task.store.TaskStoreCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import(ChoreRotationServiceTest.TestConfig.class)
+@TestPropertySource(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+        }
+)
+@EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChoreRotationServiceTest extends AbstractTest {
+
+    // Un samedi
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+
+    @TestConfiguration
+    @EnableAutoConfiguration(
+            exclude = {
+                    ServletWebServerFactoryAutoConfiguration.class,
+                    ReactiveWebServerFactoryAutoConfiguration.class
+            }
+    )
+    static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
+        @Bean
+        public TaskRepository taskRepository() {
+            return Mockito.mock(TaskRepository.class);
+        }
+
+        @Bean
+        public ChoreRotationService choreRotationService(
+                ChoreRotationRepository choreRotationRepository,
+                TaskRepository taskRepository,
+                TaskRecordRepository taskRecordRepository,
+                TaskRecordBackfillRepository taskRecordBackfillRepository,
+                ColocationRepository colocationRepository,
+                UserRepository userRepository,
+                CurrentUser currentUser,
+                ColocationMembershipIndex membershipIndex) {
+            FailoverTaskStore taskStore = new FailoverTaskStore(new ElasticsearchTaskStore(taskRepository),
+                                                                new JpaTaskStore(taskRecordRepository, taskRecordBackfillRepository),
+                                                                colocationRepository,
+                                                                new TaskStoreCircuitBreaker(new SimpleMeterRegistry(), 5, 1000, 30_000),
+                                                                new SimpleMeterRegistry());
+            return new ChoreRotationService(
+                    choreRotationRepository,
+                    taskStore,
+                    new TaskWriter(taskStore, new SimpleMeterRegistry(), false, 1, 1, 0, 0, 0),
+                    colocationRepository,
+                    userRepository,
+                    currentUser,
+                    membershipIndex,
+                    Mappers.getMapper(ChoreRotationMapper.class)
+            );
+        }
+    }
+
+    @Autowired
+    private ChoreRotationRepository choreRotationRepository;
+
+    @Autowired
+    private ColocationRepository colocationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskRecordRepository taskRecordRepository;
+
+    @Autowired
+    private ChoreRotationService choreRotationService;
+
+    private User       alice;
+    private User       bob;
+    private Colocation colocation;
+
+    @BeforeEach
+    public void initData() {
+        initSecurityContextPlaceHolder();
+
+        alice = createUser("alice@example.com", TEST_USER_ID);
+        bob   = createUser("bob@example.com", "bob-sub");
+
+        colocation = new Colocation();
+        colocation.setName("Test Colocation");
+        colocation.setAddress("123 Test Street");
+        colocation.setManager(alice);
+        colocation.setInvitationCode("TEST123");
+        colocation.setRoommates(new HashSet<>());
+        colocation.addRoommate(alice);
+        colocation.addRoommate(bob);
+        colocation = colocationRepository.save(colocation);
+
+        when(taskRepository.bulkIndex(anyList(), eq(RefreshPolicy.NONE))).thenReturn(Map.of());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        cleanupSecurityContext();
+        Mockito.reset(taskRepository);
+
+        taskRecordRepository.deleteAll();
+        choreRotationRepository.deleteAll();
+        colocationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testCreateChoreRotation_Success() throws TechnicalException {
+        // Given
+        ChoreRotationReqDto dto = request(ChoreCadence.WEEKLY, LocalDate.of(2025, 3, 17));
+        dto.setMemberIds(Set.of(bob.getId()));
+
+        // When
+        ChoreRotationResDto created = choreRotationService.createChoreRotation(colocation.getId(), dto);
+
+        // Then : the 4 weekly occurrences ahead are generated from 4 weeks before the first one
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getOccurrencesAhead()).isEqualTo(ChoreRotationService.DEFAULT_OCCURRENCES_AHEAD);
+        assertThat(created.getNextGenerationDate()).isEqualTo("2025-02-17");
+        assertThat(created.getMembers()).extracting("email").containsExactly("bob@example.com");
+        assertThat(choreRotationService.getChoreRotations(colocation.getId()))
+                .extracting(ChoreRotationResDto::getId)
+                .containsExactly(created.getId());
+    }
+
+    @Test
+    public void testCreateChoreRotation_MemberOutsideTheColocation() {
+        User outsider = createUser("outsider@example.com", "outsider-sub");
+        ChoreRotationReqDto dto = request(ChoreCadence.WEEKLY, TODAY);
+        dto.setMemberIds(Set.of(outsider.getId()));
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> choreRotationService.createChoreRotation(colocation.getId(), dto));
+        assertThat(exception.getCode()).isEqualTo(400);
+    }
+
+    @Test
+    public void testGenerateDue_AssignsTheLeastLoadedInTurn() throws TechnicalException {
+        // Given : Alice already has an open task
+        Long id = choreRotationService.createChoreRotation(colocation.getId(), request(ChoreCadence.WEEKLY, LocalDate.of(2025, 3, 17)))
+                                      .getId();
+        when(taskRepository.openTasksByAssignee(anyCollection())).thenReturn(Map.of(colocation.getId(), Map.of(alice.getId(), 1L)));
+
+        // When
+        ChoreRotationService.Generation first  = choreRotationService.generateDue(TODAY, Set.of());
+        ChoreRotationService.Generation second = choreRotationService.generateDue(TODAY, Set.of());
+
+        // Then : the 4 next Mondays, in a single bulk request
+        assertThat(first.tasks()).isEqualTo(4);
+        assertThat(second.rotations()).isZero();
+
+        List<TaskDocument> tasks = indexed();
+        assertThat(tasks).extracting(TaskDocument::getId)
+                         .containsExactly("chore-" + id + "-0", "chore-" + id + "-1", "chore-" + id + "-2", "chore-" + id + "-3");
+        assertThat(tasks).extracting(task -> task.getDueDate().toLocalDate())
+                         .containsExactly(LocalDate.of(2025, 3, 17), LocalDate.of(2025, 3, 24),
+                                          LocalDate.of(2025, 3, 31), LocalDate.of(2025, 4, 7));
+        assertThat(tasks).extracting(task -> task.getAssignedUserIds().iterator().next())
+                         .containsExactly(bob.getId(), alice.getId(), bob.getId(), alice.getId());
+        assertThat(tasks).allSatisfy(task -> {
+            assertThat(task.getColocationId()).isEqualTo(colocation.getId());
+            assertThat(task.getChoreRotationId()).isEqualTo(id);
+            assertThat(task.getStatus()).isEqualTo(TaskDocument.TaskStatus.TODO);
+        });
+        assertThat(choreRotationRepository.findById(id).orElseThrow().getNextGenerationDate()).isEqualTo(LocalDate.of(2025, 3, 17));
+        // Copied for the reads during an Elasticsearch outage, already indexed
+        assertThat(taskRecordRepository.findAllById(tasks.stream().map(TaskDocument::getId).toList()))
+                .hasSize(4)
+                .noneMatch(TaskRecord::isPendingSync);
+    }
+
+    @Test
+    public void testGenerateDue_SkipsPastAndSkippedOccurrences() throws TechnicalException {
+        // Given : a daily chore since Monday, 2 days ahead, never on Sunday
+        ChoreRotationReqDto dto = request(ChoreCadence.DAILY, LocalDate.of(2025, 3, 10));
+        dto.setOccurrencesAhead(2);
+        dto.setSkippedDays(Set.of(DayOfWeek.SUNDAY));
+        Long id = choreRotationService.createChoreRotation(colocation.getId(), dto).getId();
+
+        // When
+        assertThat(choreRotationService.generateDue(TODAY, Set.of()).tasks()).isEqualTo(2);
+
+        // Then : today and Monday, the ids keep the rank of each occurrence
+        assertThat(indexed()).extracting(TaskDocument::getId).containsExactly("chore-" + id + "-5", "chore-" + id + "-7");
+        assertThat(choreRotationRepository.findById(id).orElseThrow().getOccurrences()).isEqualTo(8);
+    }
+
+    @Test
+    public void testGenerateDue_LeavesTheTasksRejectedByTheIndexPending() throws TechnicalException {
+        Long id = choreRotationService.createChoreRotation(colocation.getId(), request(ChoreCadence.WEEKLY, TODAY)).getId();
+        String rejected = ChoreRotationService.taskId(id, 0);
+        when(taskRepository.bulkIndex(anyList(), eq(RefreshPolicy.NONE)))
+                .thenReturn(Map.of(rejected, new TaskBulkFailure(429, "es_rejected_execution_exception")));
+
+        choreRotationService.generateDue(TODAY, Set.of());
+
+        // Replayed into the index once it answers again
+        assertThat(taskRecordRepository.findById(rejected)).get().extracting(TaskRecord::isPendingSync).isEqualTo(true);
+        assertThat(taskRecordRepository.findById(ChoreRotationService.taskId(id, 1))).get()
+                                                                                    .extracting(TaskRecord::isPendingSync)
+                                                                                    .isEqualTo(false);
+    }
+
+    @Test
+    public void testGenerateDue_LeavesOutSkippedRotations() throws TechnicalException {
+        Long skipped = choreRotationService.createChoreRotation(colocation.getId(), request(ChoreCadence.WEEKLY, TODAY)).getId();
+        Long other   = choreRotationService.createChoreRotation(colocation.getId(), request(ChoreCadence.WEEKLY, TODAY)).getId();
+
+        assertThat(choreRotationService.findDueIds(TODAY, Set.of())).containsExactly(skipped, other);
+        assertThat(choreRotationService.generateDue(TODAY, Set.of(skipped)).rotations()).isEqualTo(1);
+        assertThat(choreRotationService.findDueIds(TODAY, Set.of())).containsExactly(skipped);
+
+        // Generated alone, the skipped rotation catches up
+        assertThat(choreRotationService.generateDue(TODAY, skipped).rotations()).isEqualTo(1);
+        assertThat(choreRotationService.generateDue(TODAY, skipped).rotations()).isZero();
+    }
+
+    @Test
+    public void testStopChoreRotation_OnlyCreatorOrManager() throws TechnicalException {
+        Long id = choreRotationService.createChoreRotation(colocation.getId(), request(ChoreCadence.WEEKLY, TODAY)).getId();
+
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolderWithSub("bob-sub");
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> choreRotationService.stopChoreRotation(colocation.getId(), id));
+        assertThat(exception.getCode()).isEqualTo(403);
+
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolder();
+        choreRotationService.stopChoreRotation(colocation.getId(), id);
+        assertThat(choreRotationService.getChoreRotations(colocation.getId())).isEmpty();
+    }
+
+    private List<TaskDocument> indexed() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaskDocument>> tasks = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository, Mockito.atLeastOnce()).bulkIndex(tasks.capture(), eq(RefreshPolicy.NONE));
+        return tasks.getAllValues().get(0);
+    }
+
+    private ChoreRotationReqDto request(ChoreCadence cadence, LocalDate startDate) {
+        return new ChoreRotationReqDto("Sortir les poubelles", null, TaskPriority.MEDIUM, cadence, startDate, null,
+                                       null, null, null, null, null);
+    }
+
+    private User createUser(String email, String sub) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("Test");
+        user.setLastName("Test");
+        user.setKeyCloakSub(sub);
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,129 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.expense.ExpenseParticipant;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.BalanceLine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways of computing the balances of a colocation with 10k+ outstanding expenses.
+ * <ul>
+ *     <li>{@code expenseNetting} : netting the hydrated expenses and their participants, which is what a
+ *     client had to do with {@code GET /api/expenses/space/{spaceId}} before the balance endpoints.</li>
+ *     <li>{@code aggregatedNetting} : netting the (debtor, creditor) lines of the {@code colocation_balances}
+ *     ledger, at most {@code members²} of them.</li>
+ *     <li>{@code settlePlan} : aggregated netting followed by the exact settlement plan.</li>
+ * </ul>
+ * Entities are built in memory : loading and mapping the expenses (and the N+1 queries on the
+ * participants) comes on top of {@code expenseNetting}, while the ledger is maintained at write time.
+ * <br>
+ * Run with : {@code mvn -pl co-habit-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=fr.esgi.service.expense.BalanceBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceBenchmark {
+
+    @Param({"10000", "50000"})
+    private int expenses;
+
+    @Param({"4", "16"})
+    private int members;
+
+    private List<Expense>     expenseList;
+    private List<BalanceLine> lines;
+
+    @Setup
+    public void setUp() {
+        Random     random = new Random(42);
+        List<User> users  = new ArrayList<>();
+        for (long id = 1; id <= members; id++) {
+            User user = new User();
+            user.setId(id);
+            users.add(user);
+        }
+
+        expenseList = new ArrayList<>(expenses);
+        Map<List<Long>, BigDecimal> outstanding = new HashMap<>();
+        for (int i = 0; i < expenses; i++) {
+            Expense expense = new Expense();
+            expense.setPayer(users.get(random.nextInt(members)));
+            expense.setAmount(BigDecimal.valueOf(random.nextInt(20_000) + 100, 2));
+            expense.distributeEvenly(new HashSet<>(users));
+            expenseList.add(expense);
+
+            for (ExpenseParticipant participant : expense.getParticipants()) {
+                if (participant.getUser() != expense.getPayer()) {
+                    outstanding.merge(List.of(participant.getUser().getId(), expense.getPayer().getId()),
+                                      participant.getShareAmount(), BigDecimal::add);
+                }
+            }
+        }
+
+        lines = outstanding.entrySet()
+                           .stream()
+                           .map(entry -> line(entry.getKey().get(0), entry.getKey().get(1), entry.getValue()))
+                           .toList();
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> expenseNetting() {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Expense expense : expenseList) {
+            for (ExpenseParticipant participant : expense.getParticipants()) {
+                if (!participant.isConfirmedByCreator() && participant.getUser() != expense.getPayer()) {
+                    balances.merge(expense.getPayer().getId(), participant.getShareAmount(), BigDecimal::add);
+                    balances.merge(participant.getUser().getId(), participant.getShareAmount().negate(), BigDecimal::add);
+                }
+            }
+        }
+        return balances;
+    }
+
+    @Benchmark
+    public Map<Long, Long> aggregatedNetting() {
+        return BalanceService.netBalances(lines);
+    }
+
+    @Benchmark
+    public List<SettlementPlanner.Transfer> settlePlan() {
+        return SettlementPlanner.plan(BalanceService.netBalances(lines));
+    }
+
+    private static BalanceLine line(Long debtorId, Long creditorId, BigDecimal amount) {
+        return new BalanceLine() {
+            @Override
+            public Long getDebtorId() {
+                return debtorId;
+            }
+
+            @Override
+            public Long getCreditorId() {
+                return creditorId;
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return amount;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws
+                                           RunnerException {
+        new Runner(new OptionsBuilder().include(BalanceBenchmark.class.getSimpleName())
+                                       .build()).run();
+    }
+}
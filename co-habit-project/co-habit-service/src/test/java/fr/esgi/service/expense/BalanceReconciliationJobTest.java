@@ -0,0 +1,63 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.persistence.repository.expense.ColocationBalanceRepository;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceReconciliationJobTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ColocationBalanceRepository colocationBalanceRepository;
+
+    @Mock
+    private BalanceLedger balanceLedger;
+
+    private SimpleMeterRegistry      meterRegistry;
+    private BalanceReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job           = new BalanceReconciliationJob(expenseRepository, colocationBalanceRepository, balanceLedger, meterRegistry);
+    }
+
+    @Test
+    void reconcileAll_ShouldVisitEachColocationOnceAndCountDrift() {
+        when(expenseRepository.findSpaceIds()).thenReturn(List.of(1L, 2L));
+        when(colocationBalanceRepository.findSpaceIds()).thenReturn(List.of(2L, 3L));
+        when(balanceLedger.reconcile(1L)).thenReturn(0);
+        when(balanceLedger.reconcile(2L)).thenReturn(2);
+        when(balanceLedger.reconcile(3L)).thenReturn(1);
+
+        assertThat(job.reconcileAll()).isEqualTo(3);
+
+        verify(balanceLedger, times(1)).reconcile(2L);
+        assertThat(meterRegistry.get("cohabit.balances.drift").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void reconcileAll_ShouldContinueAfterFailure() {
+        when(expenseRepository.findSpaceIds()).thenReturn(List.of(1L, 2L));
+        when(colocationBalanceRepository.findSpaceIds()).thenReturn(List.of());
+        when(balanceLedger.reconcile(1L)).thenThrow(new IllegalStateException("boom"));
+        when(balanceLedger.reconcile(2L)).thenReturn(1);
+
+        assertThat(job.reconcileAll()).isEqualTo(1);
+
+        verify(balanceLedger).reconcile(2L);
+    }
+}
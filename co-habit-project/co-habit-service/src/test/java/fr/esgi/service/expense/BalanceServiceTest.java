@@ -0,0 +1,265 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.dto.expense.MemberBalanceResDto;
+import fr.esgi.domain.dto.expense.SettlementTransferResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.ColocationBalanceRepository;
+import fr.esgi.persistence.repository.expense.ExpenseParticipantRepository;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.expense.mapper.ExpenseMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(BalanceServiceTest.TestConfig.class)
+@TestPropertySource(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+        }
+)
+@EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BalanceServiceTest extends AbstractTest {
+
+    @TestConfiguration
+    @EnableAutoConfiguration(
+            exclude = {
+                    ServletWebServerFactoryAutoConfiguration.class,
+                    ReactiveWebServerFactoryAutoConfiguration.class
+            }
+    )
+    static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
+        @Bean
+        public BalanceLedger balanceLedger(
+                ColocationBalanceRepository colocationBalanceRepository,
+                ExpenseParticipantRepository expenseParticipantRepository) {
+            return new BalanceLedger(colocationBalanceRepository, expenseParticipantRepository);
+        }
+
+        @Bean
+        public BalanceService balanceService(
+                ColocationBalanceRepository colocationBalanceRepository,
+                ColocationRepository colocationRepository,
+                UserRepository userRepository,
+                CurrentUser currentUser,
+                ColocationMembershipIndex membershipIndex) {
+            return new BalanceService(
+                    colocationBalanceRepository,
+                    colocationRepository,
+                    userRepository,
+                    currentUser,
+                    membershipIndex,
+                    Mappers.getMapper(ExpenseMapper.class)
+            );
+        }
+    }
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseParticipantRepository expenseParticipantRepository;
+
+    @Autowired
+    private ColocationRepository colocationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ColocationBalanceRepository colocationBalanceRepository;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    private User       alice;
+    private User       bob;
+    private User       carol;
+    private Colocation colocation;
+
+    @BeforeEach
+    public void initData() {
+        initSecurityContextPlaceHolder();
+
+        alice = createUser("alice@example.com", "Alice", TEST_USER_ID);
+        bob   = createUser("bob@example.com", "Bob", "bob-sub");
+        carol = createUser("carol@example.com", "Carol", "carol-sub");
+
+        colocation = new Colocation();
+        colocation.setName("Test Colocation");
+        colocation.setAddress("123 Test Street");
+        colocation.setCity("Test City");
+        colocation.setPostalCode("12345");
+        colocation.setManager(alice);
+        colocation.setInvitationCode("TEST123");
+        colocation.setRoommates(new HashSet<>());
+        colocation.addRoommate(alice);
+        colocation.addRoommate(bob);
+        colocation.addRoommate(carol);
+        colocation = colocationRepository.save(colocation);
+
+        // Bob and Carol owe 30.00 each to Alice, Carol owes 15.00 to Bob
+        createExpense(alice, "90.00", Set.of(alice, bob, carol));
+        createExpense(bob, "30.00", Set.of(bob, carol));
+
+        // Already settled with the payer : ignored
+        Expense settled = createExpense(carol, "60.00", Set.of(alice, carol));
+        confirmAll(settled);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        cleanupSecurityContext();
+
+        colocationBalanceRepository.deleteAll();
+        expenseParticipantRepository.deleteAll();
+        expenseRepository.deleteAll();
+        colocationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testGetBalances_Success() throws TechnicalException {
+        List<MemberBalanceResDto> balances = balanceService.getBalances(colocation.getId());
+
+        assertThat(balances).extracting(balance -> balance.getUser().getEmail())
+                            .containsExactly("alice@example.com", "bob@example.com", "carol@example.com");
+        assertThat(balances).extracting(MemberBalanceResDto::getBalance)
+                            .containsExactly(new BigDecimal("60.00"), new BigDecimal("-15.00"), new BigDecimal("-45.00"));
+    }
+
+    @Test
+    public void testGetSettlePlan_Success() throws TechnicalException {
+        List<SettlementTransferResDto> transfers = balanceService.getSettlePlan(colocation.getId());
+
+        assertThat(transfers).hasSize(2);
+        assertThat(transfers).extracting(transfer -> transfer.getFrom().getEmail(),
+                                         transfer -> transfer.getTo().getEmail(),
+                                         SettlementTransferResDto::getAmount)
+                             .containsExactlyInAnyOrder(
+                                     tuple("carol@example.com", "alice@example.com", new BigDecimal("45.00")),
+                                     tuple("bob@example.com", "alice@example.com", new BigDecimal("15.00")));
+    }
+
+    @Test
+    public void testGetBalances_NoOutstandingExpense() throws TechnicalException {
+        expenseRepository.findAll().forEach(this::confirmAll);
+
+        assertThat(balanceService.getBalances(colocation.getId())).isEmpty();
+        assertThat(balanceService.getSettlePlan(colocation.getId())).isEmpty();
+    }
+
+    @Test
+    public void testReconcile_RepairsDrift() throws TechnicalException {
+        // A share written without going through the ledger, and a stale row
+        colocationBalanceRepository.addToAmount(colocation.getId(), bob.getId(), alice.getId(), new BigDecimal("5.00"));
+        colocationBalanceRepository.addToAmount(colocation.getId(), bob.getId(), carol.getId(), new BigDecimal("7.00"));
+
+        assertThat(balanceLedger.reconcile(colocation.getId())).isEqualTo(2);
+        assertThat(balanceLedger.reconcile(colocation.getId())).isZero();
+
+        assertThat(balanceService.getBalances(colocation.getId()))
+                .extracting(MemberBalanceResDto::getBalance)
+                .containsExactly(new BigDecimal("60.00"), new BigDecimal("-15.00"), new BigDecimal("-45.00"));
+    }
+
+    @Test
+    public void testGetBalances_ColocationNotFound() {
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> balanceService.getBalances(999L));
+        assertThat(exception.getCode()).isEqualTo(404);
+        assertThat(exception.getMessage()).contains("Colocation non trouvée");
+    }
+
+    @Test
+    public void testGetSettlePlan_AccessDenied_NotMember() {
+        User outsider = createUser("outsider@example.com", "Outsider", "outsider-sub");
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolderWithSub(outsider.getKeyCloakSub());
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> balanceService.getSettlePlan(colocation.getId()));
+        assertThat(exception.getCode()).isEqualTo(403);
+    }
+
+    private User createUser(String email, String firstName, String sub) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName("Test");
+        user.setKeyCloakSub(sub);
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+
+    private Expense createExpense(User payer, String amount, Set<User> participants) {
+        Expense expense = new Expense();
+        expense.setTitle("Dépense");
+        expense.setDescription("Dépense de " + payer.getFirstName());
+        expense.setAmount(new BigDecimal(amount));
+        expense.setPayer(payer);
+        expense.setSpace(colocation);
+        expense.distributeEvenly(participants);
+        expense = expenseRepository.save(expense);
+        balanceLedger.recordExpense(expense);
+        return expense;
+    }
+
+    private void confirmAll(Expense expense) {
+        expense.getParticipants()
+               .stream()
+               .filter(participant -> !participant.isConfirmedByCreator())
+               .forEach(participant -> balanceLedger.recordSettlement(expense, participant));
+        expense.confirmAllPayments();
+        expenseRepository.save(expense);
+    }
+}
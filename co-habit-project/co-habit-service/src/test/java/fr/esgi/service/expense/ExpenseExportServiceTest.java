@@ -0,0 +1,239 @@
+package fr.esgi.service.expense;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.ExpenseParticipantRepository;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(ExpenseExportServiceTest.TestConfig.class)
+@TestPropertySource(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+        }
+)
+@EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ExpenseExportServiceTest extends AbstractTest {
+
+    @TestConfiguration
+    @EnableAutoConfiguration(
+            exclude = {
+                    ServletWebServerFactoryAutoConfiguration.class,
+                    ReactiveWebServerFactoryAutoConfiguration.class
+            }
+    )
+    static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
+        @Bean
+        public ExpenseExportService expenseExportService(
+                ExpenseRepository expenseRepository,
+                ColocationRepository colocationRepository,
+                CurrentUser currentUser,
+                ColocationMembershipIndex membershipIndex) {
+            return new ExpenseExportService(expenseRepository, colocationRepository, currentUser, membershipIndex);
+        }
+    }
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseParticipantRepository expenseParticipantRepository;
+
+    @Autowired
+    private ColocationRepository colocationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseExportService expenseExportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User       alice;
+    private User       bob;
+    private Colocation colocation;
+    private List<Long> expenseIds;
+
+    @BeforeEach
+    public void initData() {
+        initSecurityContextPlaceHolder();
+
+        alice = createUser("alice@example.com", TEST_USER_ID);
+        bob   = createUser("bob@example.com", "bob-sub");
+
+        colocation = new Colocation();
+        colocation.setName("Test Colocation");
+        colocation.setAddress("123 Test Street");
+        colocation.setManager(alice);
+        colocation.setInvitationCode("TEST123");
+        colocation.setRoommates(new HashSet<>());
+        colocation.addRoommate(alice);
+        colocation.addRoommate(bob);
+        colocation = colocationRepository.save(colocation);
+
+        expenseIds = new ArrayList<>();
+        expenseIds.add(createExpense("Courses", "Courses, \"bio\"", "40.00").getId());
+        expenseIds.add(createExpense("=SUM(A1:A2)", "Formule", "10.00").getId());
+        expenseIds.add(createExpense("Internet", "Abonnement\nmensuel", "30.00").getId());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        cleanupSecurityContext();
+
+        expenseParticipantRepository.deleteAll();
+        expenseRepository.deleteAll();
+        colocationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testExport_Csv() throws IOException {
+        // When
+        String csv = export(ExpenseExportFormat.CSV);
+
+        // Then : header then one line per share, oldest expense first, free text escaped
+        String[] lines = csv.split("\r\n", -1);
+        assertThat(lines[0]).isEqualTo(String.join(",", ExpenseExportService.COLUMNS));
+        assertThat(csv).contains(expenseIds.get(0) + ",").contains(",Courses,\"Courses, \"\"bio\"\"\",40.00,");
+        assertThat(csv).contains(",'=SUM(A1:A2),Formule,10.00,");
+        assertThat(csv).contains(",Internet,\"Abonnement\nmensuel\",30.00,");
+        assertThat(csv.indexOf(",Courses,")).isLessThan(csv.indexOf(",'=SUM")).isLessThan(csv.indexOf(",Internet,"));
+        assertThat(csv).endsWith("\r\n");
+        assertThat(csv.split("\r\n")).hasSize(1 + 6);
+    }
+
+    @Test
+    public void testExport_Ndjson() throws IOException {
+        // When
+        String ndjson = export(ExpenseExportFormat.NDJSON);
+
+        // Then
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(6);
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : lines) {
+            rows.add(mapper.readTree(line));
+        }
+        assertThat(rows).extracting(row -> row.get("expense_id").asLong())
+                        .containsExactly(expenseIds.get(0), expenseIds.get(0), expenseIds.get(1), expenseIds.get(1),
+                                         expenseIds.get(2), expenseIds.get(2));
+        assertThat(rows.get(0).get("description").asText()).isEqualTo("Courses, \"bio\"");
+        assertThat(rows.get(0).get("share_amount").decimalValue()).isEqualByComparingTo("20.00");
+        assertThat(rows.get(0).get("payer").asText()).isEqualTo("alice@example.com");
+        assertThat(rows.get(0).get("settled").asBoolean()).isFalse();
+        assertThat(rows.get(0).get("settled_at").isNull()).isTrue();
+    }
+
+    @Test
+    public void testCheckAccess_NotMember() {
+        createUser("outsider@example.com", "outsider-sub");
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolderWithSub("outsider-sub");
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> expenseExportService.checkAccess(colocation.getId()));
+        assertThat(exception.getCode()).isEqualTo(403);
+    }
+
+    @Test
+    public void testCheckAccess_ColocationNotFound() {
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> expenseExportService.checkAccess(999L));
+        assertThat(exception.getCode()).isEqualTo(404);
+    }
+
+    @Test
+    public void testExportFormat_Invalid() throws TechnicalException {
+        assertThat(ExpenseExportFormat.of(null)).isEqualTo(ExpenseExportFormat.CSV);
+        assertThat(ExpenseExportFormat.of("NDJSON")).isEqualTo(ExpenseExportFormat.NDJSON);
+
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> ExpenseExportFormat.of("xlsx"));
+        assertThat(exception.getCode()).isEqualTo(400);
+    }
+
+    private String export(ExpenseExportFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        expenseExportService.write(colocation.getId(), format, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private User createUser(String email, String sub) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("Test");
+        user.setLastName("Test");
+        user.setKeyCloakSub(sub);
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+
+    private Expense createExpense(String title, String description, String amount) {
+        Expense expense = new Expense();
+        expense.setTitle(title);
+        expense.setDescription(description);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setPayer(alice);
+        expense.setSpace(colocation);
+        expense.distributeEvenly(Set.of(alice, bob));
+        return expenseRepository.saveAndFlush(expense);
+    }
+}
@@ -0,0 +1,293 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.dto.expense.ExpenseImportErrorResDto;
+import fr.esgi.domain.dto.expense.ExpenseImportResDto;
+import fr.esgi.domain.dto.expense.ExpenseImportRowReqDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.BalanceLine;
+import fr.esgi.persistence.repository.expense.ColocationBalanceRepository;
+import fr.esgi.persistence.repository.expense.ExpenseParticipantRepository;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.MonthlySpendingRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.SqlStatementBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(ExpenseImportServiceTest.TestConfig.class)
+@TestPropertySource(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                "spring.jpa.properties.hibernate.order_inserts=true",
+                SqlStatementBudget.PROPERTY
+        }
+)
+@EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ExpenseImportServiceTest extends AbstractTest {
+
+    @TestConfiguration
+    @EnableAutoConfiguration(
+            exclude = {
+                    ServletWebServerFactoryAutoConfiguration.class,
+                    ReactiveWebServerFactoryAutoConfiguration.class
+            }
+    )
+    static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public BalanceLedger balanceLedger(
+                ColocationBalanceRepository colocationBalanceRepository,
+                ExpenseParticipantRepository expenseParticipantRepository) {
+            return new BalanceLedger(colocationBalanceRepository, expenseParticipantRepository);
+        }
+
+        @Bean
+        public SpendingRollup spendingRollup(
+                MonthlySpendingRepository monthlySpendingRepository,
+                ExpenseRepository expenseRepository) {
+            return new SpendingRollup(monthlySpendingRepository, expenseRepository);
+        }
+
+        @Bean
+        public ExpenseImportService expenseImportService(
+                ExpenseRepository expenseRepository,
+                ColocationRepository colocationRepository,
+                CurrentUser currentUser,
+                BalanceLedger balanceLedger,
+                SpendingRollup spendingRollup,
+                EntityManager entityManager) {
+            return new ExpenseImportService(expenseRepository, colocationRepository, currentUser, balanceLedger,
+                                            spendingRollup, entityManager);
+        }
+    }
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseParticipantRepository expenseParticipantRepository;
+
+    @Autowired
+    private ColocationRepository colocationRepository;
+
+    @Autowired
+    private ColocationBalanceRepository colocationBalanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User       alice;
+    private User       bob;
+    private User       carol;
+    private Colocation colocation;
+
+    @BeforeEach
+    public void initData() {
+        initSecurityContextPlaceHolder();
+
+        alice = createUser("alice@example.com", TEST_USER_ID);
+        bob   = createUser("bob@example.com", "bob-sub");
+        carol = createUser("carol@example.com", "carol-sub");
+
+        colocation = new Colocation();
+        colocation.setName("Test Colocation");
+        colocation.setAddress("123 Test Street");
+        colocation.setManager(alice);
+        colocation.setInvitationCode("TEST123");
+        colocation.setRoommates(new HashSet<>());
+        colocation.addRoommate(alice);
+        colocation.addRoommate(bob);
+        colocation.addRoommate(carol);
+        colocation = colocationRepository.save(colocation);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        cleanupSecurityContext();
+
+        colocationBalanceRepository.deleteAll();
+        expenseParticipantRepository.deleteAll();
+        expenseRepository.deleteAll();
+        colocationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testImportCsv_ReportsRejectedRows() throws TechnicalException {
+        // Given : semicolons and decimal commas, as exported by a French spreadsheet
+        String csv = """
+                date;title;description;amount;payer;participants
+                2025-01-15;Courses;"Marché; fruits \"\"bio\"\"";30,00;;alice@example.com|bob@example.com
+                2025-01-20;Internet;;45.00;bob@example.com;
+                2025-01-21;Électricité;;-10;;
+                2025-01-22;Gaz;;20.00;dave@example.com;
+                15/01/2025;Loyer;;800;;
+                """;
+
+        // When
+        ExpenseImportResDto result = expenseImportService.importCsv(colocation.getId(), csv);
+
+        // Then
+        assertThat(result.getImportedExpenses()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ExpenseImportErrorResDto::getRow).containsExactly(3, 4, 5);
+        assertThat(result.getErrors().get(0).getMessage()).contains("supérieur à 0");
+        assertThat(result.getErrors().get(1).getMessage()).contains("dave@example.com");
+        assertThat(result.getErrors().get(2).getMessage()).contains("Date invalide");
+
+        List<Expense> expenses = expenseRepository.findAll()
+                                                  .stream()
+                                                  .sorted(Comparator.comparing(Expense::getCreatedAt))
+                                                  .toList();
+        assertThat(expenses).extracting(Expense::getTitle, Expense::getDescription, Expense::getAmount)
+                            .containsExactly(tuple("Courses", "Marché; fruits \"bio\"", new BigDecimal("30.00")),
+                                             tuple("Internet", "Internet", new BigDecimal("45.00")));
+        assertThat(expenses.get(0).getCreatedAt()).isEqualTo(LocalDate.of(2025, 1, 15).atStartOfDay());
+        assertThat(expenses.get(0).getPayer().getId()).isEqualTo(alice.getId());
+        assertThat(expenses.get(0).getParticipants()).hasSize(2);
+        assertThat(expenses.get(1).getPayer().getId()).isEqualTo(bob.getId());
+        assertThat(expenses.get(1).getParticipants()).hasSize(3);
+
+        // Bob owes 15.00 to Alice, Alice and Carol owe 15.00 each to Bob
+        assertThat(colocationBalanceRepository.findLinesBySpaceId(colocation.getId()))
+                .extracting(BalanceLine::getDebtorId, BalanceLine::getCreditorId, BalanceLine::getAmount)
+                .containsExactlyInAnyOrder(tuple(bob.getId(), alice.getId(), new BigDecimal("15.00")),
+                                           tuple(alice.getId(), bob.getId(), new BigDecimal("15.00")),
+                                           tuple(carol.getId(), bob.getId(), new BigDecimal("15.00")));
+    }
+
+    @Test
+    public void testImportRows_InsertsByBatches() throws TechnicalException {
+        // Given
+        List<ExpenseImportRowReqDto> rows = new ArrayList<>();
+        for (int i = 0; i < 3 * ExpenseImportService.BATCH_SIZE; i++) {
+            rows.add(new ExpenseImportRowReqDto(LocalDate.of(2025, 1, 1).plusDays(i % 28), "Dépense " + i, null,
+                                                new BigDecimal("10.00"), null, Set.of("alice@example.com", "bob@example.com")));
+        }
+        currentUser.find();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When : per chunk, one batched insert per table, one ledger update and one monthly rollup update,
+        // ids allocated by pools of 50
+        ExpenseImportResDto result = SqlStatementBudget.assertAtMost(
+                28, () -> expenseImportService.importRows(colocation.getId(), rows));
+
+        // Then
+        assertThat(result.getImportedExpenses()).isEqualTo(150);
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(expenseRepository.count()).isEqualTo(150);
+        assertThat(expenseParticipantRepository.count()).isEqualTo(300);
+        assertThat(colocationBalanceRepository.findLinesBySpaceId(colocation.getId()))
+                .extracting(BalanceLine::getDebtorId, BalanceLine::getCreditorId, BalanceLine::getAmount)
+                .containsExactly(tuple(bob.getId(), alice.getId(), new BigDecimal("750.00")));
+    }
+
+    @Test
+    public void testImportRows_TooManyRows() {
+        List<ExpenseImportRowReqDto> rows = new ArrayList<>();
+        for (int i = 0; i <= ExpenseImportService.MAX_ROWS; i++) {
+            rows.add(new ExpenseImportRowReqDto(null, "Dépense", null, BigDecimal.ONE, null, null));
+        }
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> expenseImportService.importRows(colocation.getId(), rows));
+        assertThat(exception.getCode()).isEqualTo(400);
+        assertThat(expenseRepository.count()).isZero();
+    }
+
+    @Test
+    public void testImportCsv_InvalidHeader() {
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> expenseImportService.importCsv(colocation.getId(), "titre,montant\nCourses,10\n"));
+        assertThat(exception.getCode()).isEqualTo(400);
+    }
+
+    @Test
+    public void testImportRows_NotMember() {
+        createUser("outsider@example.com", "outsider-sub");
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolderWithSub("outsider-sub");
+
+        List<ExpenseImportRowReqDto> rows = List.of(new ExpenseImportRowReqDto(null, "Courses", null, BigDecimal.TEN, null, null));
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> expenseImportService.importRows(colocation.getId(), rows));
+        assertThat(exception.getCode()).isEqualTo(403);
+    }
+
+    @Test
+    public void testImportRows_ColocationNotFound() {
+        List<ExpenseImportRowReqDto> rows = List.of(new ExpenseImportRowReqDto(null, "Courses", null, BigDecimal.TEN, null, null));
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> expenseImportService.importRows(999L, rows));
+        assertThat(exception.getCode()).isEqualTo(404);
+    }
+
+    @Test
+    public void testParseCsv_QuotedFields() throws TechnicalException {
+        List<List<String>> records = ExpenseImportService.parseCsv("title,amount\r\n\"Courses, \"\"bio\"\"\nsamedi\",12.5\r\n\r\n");
+
+        assertThat(records).containsExactly(List.of("title", "amount"), List.of("Courses, \"bio\"\nsamedi", "12.5"));
+        assertThrows(TechnicalException.class, () -> ExpenseImportService.parseCsv("title,amount\n\"Courses,12"));
+    }
+
+    private User createUser(String email, String sub) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("Test");
+        user.setLastName("Test");
+        user.setKeyCloakSub(sub);
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+}
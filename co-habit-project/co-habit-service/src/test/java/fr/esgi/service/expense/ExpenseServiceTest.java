@@ -1,18 +1,33 @@
 package fr.esgi.service.expense;
 
+import fr.esgi.domain.dto.expense.ExpenseFilterReqDto;
 import fr.esgi.domain.dto.expense.ExpenseReqDto;
 import fr.esgi.domain.dto.expense.ExpenseResDto;
+import fr.esgi.domain.dto.expense.ExpenseSplitReqDto;
+import fr.esgi.domain.dto.expense.PaymentConfirmationReqDto;
+import fr.esgi.domain.dto.expense.PaymentConfirmationResDto;
 import fr.esgi.domain.dto.expense.PaymentValidationReqDto;
+import fr.esgi.domain.dto.expense.PendingSummaryResDto;
+import fr.esgi.domain.dto.expense.SplitType;
+import fr.esgi.domain.dto.page.CursorPageResDto;
 import fr.esgi.domain.exception.TechnicalException;
 import fr.esgi.persistence.entity.expense.Expense;
 import fr.esgi.persistence.entity.expense.ExpenseParticipant;
 import fr.esgi.persistence.entity.space.Colocation;
 import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.BalanceLine;
+import fr.esgi.persistence.repository.expense.ColocationBalanceRepository;
 import fr.esgi.persistence.repository.expense.ExpenseParticipantRepository;
 import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.MonthlySpendingRepository;
 import fr.esgi.persistence.repository.space.ColocationRepository;
 import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.SqlStatementBudget;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import fr.esgi.service.expense.mapper.ExpenseMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,13 +42,17 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.test.context.TestPropertySource;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -47,7 +66,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
                 "spring.datasource.url=jdbc:h2:mem:testdb",
                 "spring.jpa.hibernate.ddl-auto=create-drop",
                 "spring.datasource.driver-class-name=org.h2.Driver",
-                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                SqlStatementBudget.PROPERTY
         }
 )
 @EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
@@ -62,17 +82,49 @@ public class ExpenseServiceTest extends AbstractTest {
             }
     )
     static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
+        @Bean
+        public BalanceLedger balanceLedger(
+                ColocationBalanceRepository colocationBalanceRepository,
+                ExpenseParticipantRepository expenseParticipantRepository) {
+            return new BalanceLedger(colocationBalanceRepository, expenseParticipantRepository);
+        }
+
+        @Bean
+        public SpendingRollup spendingRollup(
+                MonthlySpendingRepository monthlySpendingRepository,
+                ExpenseRepository expenseRepository) {
+            return new SpendingRollup(monthlySpendingRepository, expenseRepository);
+        }
+
         @Bean
         public ExpenseService expenseService(
                 ExpenseRepository expenseRepository,
                 ExpenseParticipantRepository expenseParticipantRepository,
                 ColocationRepository colocationRepository,
-                UserRepository userRepository) {
+                UserRepository userRepository,
+                CurrentUser currentUser,
+                ColocationMembershipIndex membershipIndex,
+                BalanceLedger balanceLedger,
+                SpendingRollup spendingRollup) {
             return new ExpenseService(
                     expenseRepository,
                     expenseParticipantRepository,
                     colocationRepository,
                     userRepository,
+                    currentUser,
+                    membershipIndex,
+                    balanceLedger,
+                    spendingRollup,
                     Mappers.getMapper(ExpenseMapper.class)
             );
         }
@@ -81,6 +133,9 @@ public class ExpenseServiceTest extends AbstractTest {
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private MonthlySpendingRepository monthlySpendingRepository;
+
     @Autowired
     private ExpenseParticipantRepository expenseParticipantRepository;
 
@@ -90,9 +145,21 @@ public class ExpenseServiceTest extends AbstractTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ColocationBalanceRepository colocationBalanceRepository;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
     @Autowired
     private ExpenseService expenseService;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CurrentUser currentUser;
+
     private User payerUser;
     private User participantUser;
     private User otherUser;
@@ -150,6 +217,8 @@ public class ExpenseServiceTest extends AbstractTest {
         cleanupSecurityContext();
         
         // Clean up database
+        colocationBalanceRepository.deleteAll();
+        monthlySpendingRepository.deleteAll();
         expenseParticipantRepository.deleteAll();
         expenseRepository.deleteAll();
         colocationRepository.deleteAll();
@@ -180,6 +249,101 @@ public class ExpenseServiceTest extends AbstractTest {
         assertThat(result.isSettled()).isFalse();
     }
 
+    @Test
+    public void testCreateExpense_EvenSplit_SharesAddUpToAmount() throws TechnicalException {
+        // Given
+        ExpenseReqDto dto = new ExpenseReqDto();
+        dto.setTitle("Test Expense");
+        dto.setDescription("Test Description");
+        dto.setAmount(new BigDecimal("10.01"));
+        dto.setSpaceId(colocation.getId());
+
+        // When
+        ExpenseResDto result = expenseService.createExpense(dto);
+
+        // Then : le centime restant revient au premier participant par identifiant
+        assertThat(shareOf(result, payerUser)).isEqualByComparingTo("5.01");
+        assertThat(shareOf(result, participantUser)).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    public void testCreateExpense_WeightedSplit() throws TechnicalException {
+        // Given
+        ExpenseReqDto dto = new ExpenseReqDto();
+        dto.setTitle("Test Expense");
+        dto.setDescription("Test Description");
+        dto.setAmount(new BigDecimal("100.00"));
+        dto.setSpaceId(colocation.getId());
+        dto.setSplit(new ExpenseSplitReqDto(SplitType.WEIGHTED, Map.of(payerUser.getId(), new BigDecimal("2"),
+                                                                        participantUser.getId(), BigDecimal.ONE)));
+
+        // When
+        ExpenseResDto result = expenseService.createExpense(dto);
+
+        // Then
+        assertThat(result.getParticipants()).hasSize(2);
+        assertThat(shareOf(result, payerUser)).isEqualByComparingTo("66.67");
+        assertThat(shareOf(result, participantUser)).isEqualByComparingTo("33.33");
+    }
+
+    @Test
+    public void testCreateExpense_PercentageSplit() throws TechnicalException {
+        // Given
+        ExpenseReqDto dto = new ExpenseReqDto();
+        dto.setTitle("Test Expense");
+        dto.setDescription("Test Description");
+        dto.setAmount(new BigDecimal("45.99"));
+        dto.setSpaceId(colocation.getId());
+        dto.setSplit(new ExpenseSplitReqDto(SplitType.PERCENTAGE, Map.of(payerUser.getId(), new BigDecimal("70"),
+                                                                          participantUser.getId(), new BigDecimal("30"))));
+
+        // When
+        ExpenseResDto result = expenseService.createExpense(dto);
+
+        // Then
+        assertThat(shareOf(result, payerUser)).isEqualByComparingTo("32.19");
+        assertThat(shareOf(result, participantUser)).isEqualByComparingTo("13.80");
+    }
+
+    @Test
+    public void testCreateExpense_ExactSplit_NotMatchingAmount() {
+        // Given
+        ExpenseReqDto dto = new ExpenseReqDto();
+        dto.setTitle("Test Expense");
+        dto.setDescription("Test Description");
+        dto.setAmount(new BigDecimal("100.00"));
+        dto.setSpaceId(colocation.getId());
+        dto.setSplit(new ExpenseSplitReqDto(SplitType.EXACT, Map.of(payerUser.getId(), new BigDecimal("60.00"),
+                                                                     participantUser.getId(), new BigDecimal("30.00"))));
+
+        // When & Then
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> {
+            expenseService.createExpense(dto);
+        });
+        assertThat(exception.getCode()).isEqualTo(400);
+        assertThat(exception.getMessage()).contains("La somme des montants");
+        assertThat(expenseRepository.count()).isZero();
+    }
+
+    @Test
+    public void testCreateExpense_Split_ParticipantNotMember() {
+        // Given
+        ExpenseReqDto dto = new ExpenseReqDto();
+        dto.setTitle("Test Expense");
+        dto.setDescription("Test Description");
+        dto.setAmount(new BigDecimal("100.00"));
+        dto.setSpaceId(colocation.getId());
+        dto.setSplit(new ExpenseSplitReqDto(SplitType.WEIGHTED, Map.of(payerUser.getId(), BigDecimal.ONE,
+                                                                        otherUser.getId(), BigDecimal.ONE)));
+
+        // When & Then
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> {
+            expenseService.createExpense(dto);
+        });
+        assertThat(exception.getCode()).isEqualTo(400);
+        assertThat(exception.getMessage()).contains("n'est pas membre");
+    }
+
     @Test
     public void testCreateExpense_UserNotFound() {
         // Given
@@ -264,11 +428,73 @@ public class ExpenseServiceTest extends AbstractTest {
         expenseRepository.save(expense);
 
         // When
-        List<ExpenseResDto> result = expenseService.getExpensesBySpace(colocation.getId());
+        CursorPageResDto<ExpenseResDto> result = expenseService.getExpensesBySpace(colocation.getId(), null, null, null);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getTitle()).isEqualTo("Test Expense");
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getTitle()).isEqualTo("Test Expense");
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testGetExpensesBySpace_KeysetPagination() throws TechnicalException {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(expenseRepository.save(createTestExpense()).getId());
+        }
+
+        // When
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResDto<ExpenseResDto> page = expenseService.getExpensesBySpace(colocation.getId(), null, cursor, 2);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(2);
+            page.getItems().forEach(item -> visited.add(item.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then : every expense once, most recent (then highest id) first
+        assertThat(pages).isEqualTo(3);
+        assertThat(visited).containsExactlyInAnyOrderElementsOf(ids);
+        List<Expense> expected = expenseRepository.findAllById(ids);
+        expected.sort(Comparator.comparing(Expense::getCreatedAt).thenComparing(Expense::getId).reversed());
+        assertThat(visited).containsExactlyElementsOf(expected.stream().map(Expense::getId).toList());
+    }
+
+    @Test
+    public void testGetExpensesBySpace_Filters() throws TechnicalException {
+        // Given
+        Expense settled = createTestExpense();
+        settled.confirmAllPayments();
+        expenseRepository.save(settled);
+
+        Expense other = createTestExpense();
+        other.setPayer(participantUser);
+        expenseRepository.save(other);
+
+        LocalDate today = LocalDate.now();
+
+        // When & Then
+        assertThat(expenseService.getExpensesBySpace(colocation.getId(), new ExpenseFilterReqDto(true, null, null, null), null, null).getItems())
+                .extracting(ExpenseResDto::getId).containsExactly(settled.getId());
+        assertThat(expenseService.getExpensesBySpace(colocation.getId(), new ExpenseFilterReqDto(null, participantUser.getId(), null, null), null, null).getItems())
+                .extracting(ExpenseResDto::getId).containsExactly(other.getId());
+        assertThat(expenseService.getExpensesBySpace(colocation.getId(), new ExpenseFilterReqDto(null, null, today, today), null, null).getItems())
+                .hasSize(2);
+        assertThat(expenseService.getExpensesBySpace(colocation.getId(), new ExpenseFilterReqDto(null, null, null, today.minusDays(1)), null, null).getItems())
+                .isEmpty();
+    }
+
+    @Test
+    public void testGetExpensesBySpace_InvalidCursor() {
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> {
+            expenseService.getExpensesBySpace(colocation.getId(), null, "not-a-cursor", null);
+        });
+        assertThat(exception.getCode()).isEqualTo(400);
+        assertThat(exception.getMessage()).contains("Curseur de pagination invalide");
     }
 
     @Test
@@ -343,6 +569,47 @@ public class ExpenseServiceTest extends AbstractTest {
         initSecurityContextPlaceHolder();
     }
 
+    @Test
+    public void testValidatePayment_AlreadyValidated() throws TechnicalException {
+        // Given
+        Expense expense = expenseRepository.save(createTestExpense());
+
+        PaymentValidationReqDto dto = new PaymentValidationReqDto();
+        dto.setPaymentMethod("Virement bancaire");
+        expenseService.validatePayment(expense.getId(), dto);
+
+        // When & Then : la seconde validation ne modifie rien
+        dto.setPaymentMethod("Espèces");
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> expenseService.validatePayment(expense.getId(), dto));
+        assertThat(exception.getCode()).isEqualTo(400);
+
+        Optional<ExpenseParticipant> participant = expenseParticipantRepository.findByExpenseAndUser(expense, payerUser);
+        assertThat(participant).isPresent();
+        assertThat(participant.get().getPaymentMethod()).isEqualTo("Virement bancaire");
+    }
+
+    @Test
+    public void testConfirmAllPayments_RejectsStaleWrite() throws TechnicalException {
+        // Given : a copy of the expense read before the confirmation
+        Long expenseId = expenseRepository.save(createTestExpense()).getId();
+        entityManager.flush();
+        entityManager.clear();
+        Expense stale = expenseRepository.findById(expenseId).orElseThrow();
+        entityManager.detach(stale);
+
+        expenseService.confirmAllPayments(expenseId);
+
+        // When & Then : writing the stale copy back would overwrite the confirmation
+        stale.setTitle("Titre modifié");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> expenseRepository.saveAndFlush(stale));
+        entityManager.clear();
+
+        Expense current = expenseRepository.findById(expenseId).orElseThrow();
+        assertThat(current.isSettled()).isTrue();
+        assertThat(current.getVersion()).isGreaterThan(stale.getVersion());
+    }
+
     @Test
     public void testConfirmPayment_Success() throws TechnicalException {
         // Given
@@ -396,6 +663,89 @@ public class ExpenseServiceTest extends AbstractTest {
         assertThat(participants).allMatch(ExpenseParticipant::isConfirmedByCreator);
     }
 
+    @Test
+    public void testConfirmPayments_AllParticipants() throws TechnicalException {
+        // Given : a month of expenses shared with the participant
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Expense expense = createTestExpense();
+            expense = expenseRepository.save(expense);
+            balanceLedger.recordExpense(expense);
+            ids.add(expense.getId());
+        }
+        currentUser.find();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When : user, lock, ledger lines, one ledger row, participants and expenses
+        PaymentConfirmationResDto result = SqlStatementBudget.assertAtMost(
+                6, () -> expenseService.confirmPayments(new PaymentConfirmationReqDto(new HashSet<>(ids), null)));
+
+        // Then
+        assertThat(result.getConfirmedPayments()).isEqualTo(40);
+        assertThat(result.getSettledExpenses()).isEqualTo(20);
+        assertThat(expenseRepository.findAllById(ids)).allSatisfy(expense -> {
+            assertThat(expense.isSettled()).isTrue();
+            assertThat(expense.getSettledAt()).isNotNull();
+        });
+        assertThat(expenseParticipantRepository.findAll()).allMatch(ExpenseParticipant::isConfirmedByCreator);
+        assertThat(colocationBalanceRepository.findLinesBySpaceId(colocation.getId())).isEmpty();
+        assertThat(balanceLedger.reconcile(colocation.getId())).isZero();
+    }
+
+    @Test
+    public void testConfirmPayments_SomeParticipants() throws TechnicalException {
+        // Given : the participant validated the first expense only
+        Expense validated = expenseRepository.save(createTestExpense());
+        balanceLedger.recordExpense(validated);
+        Expense pending = expenseRepository.save(createTestExpense());
+        balanceLedger.recordExpense(pending);
+        validated.getParticipants().forEach(participant -> participant.validate("Virement bancaire"));
+        expenseRepository.save(validated);
+
+        // When
+        PaymentConfirmationResDto result = expenseService.confirmPayments(new PaymentConfirmationReqDto(
+                Set.of(validated.getId(), pending.getId()), Set.of(participantUser.getId(), payerUser.getId())));
+
+        // Then : both confirmed, only the validated expense is settled
+        assertThat(result.getConfirmedPayments()).isEqualTo(4);
+        assertThat(result.getSettledExpenses()).isEqualTo(1);
+        assertThat(expenseRepository.findById(validated.getId()).orElseThrow().isSettled()).isTrue();
+        assertThat(expenseRepository.findById(pending.getId()).orElseThrow().isSettled()).isFalse();
+        assertThat(colocationBalanceRepository.findLinesBySpaceId(colocation.getId())).isEmpty();
+
+        // Already confirmed : nothing left to do
+        result = expenseService.confirmPayments(new PaymentConfirmationReqDto(
+                Set.of(validated.getId(), pending.getId()), Set.of(participantUser.getId())));
+        assertThat(result.getConfirmedPayments()).isZero();
+        assertThat(result.getSettledExpenses()).isZero();
+    }
+
+    @Test
+    public void testConfirmPayments_NotCreatorOfEveryExpense() {
+        // Given
+        Expense own = expenseRepository.save(createTestExpense());
+        Expense other = createTestExpense();
+        other.setPayer(participantUser);
+        other = expenseRepository.save(other);
+
+        // When & Then
+        PaymentConfirmationReqDto dto = new PaymentConfirmationReqDto(Set.of(own.getId(), other.getId()), null);
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> expenseService.confirmPayments(dto));
+        assertThat(exception.getCode()).isEqualTo(403);
+    }
+
+    @Test
+    public void testConfirmPayments_ExpenseNotFound() {
+        // Given
+        Expense own = expenseRepository.save(createTestExpense());
+
+        // When & Then
+        PaymentConfirmationReqDto dto = new PaymentConfirmationReqDto(Set.of(own.getId(), 999L), null);
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> expenseService.confirmPayments(dto));
+        assertThat(exception.getCode()).isEqualTo(404);
+    }
+
     @Test
     public void testDeleteExpense_Success() throws TechnicalException {
         // Given
@@ -451,6 +801,37 @@ public class ExpenseServiceTest extends AbstractTest {
         assertThat(exception.getMessage()).contains("Impossible de supprimer une dépense déjà réglée");
     }
 
+    @Test
+    public void testBalanceLedger_FollowsExpenseLifecycle() throws TechnicalException {
+        // Given
+        ExpenseReqDto dto = new ExpenseReqDto();
+        dto.setTitle("Test Expense");
+        dto.setDescription("Test Description");
+        dto.setAmount(BigDecimal.valueOf(100.00));
+        dto.setSpaceId(colocation.getId());
+        dto.setParticipantIds(Set.of(payerUser.getId(), participantUser.getId()));
+
+        // When : creation
+        ExpenseResDto first = expenseService.createExpense(dto);
+        ExpenseResDto second = expenseService.createExpense(dto);
+
+        // Then : the participant owes both shares to the payer, the payer's own share is ignored
+        List<BalanceLine> lines = colocationBalanceRepository.findLinesBySpaceId(colocation.getId());
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).getDebtorId()).isEqualTo(participantUser.getId());
+        assertThat(lines.get(0).getCreditorId()).isEqualTo(payerUser.getId());
+        assertThat(lines.get(0).getAmount()).isEqualByComparingTo("100.00");
+
+        // When : confirmation then deletion
+        expenseService.confirmPayment(first.getId(), participantUser.getId());
+        expenseService.confirmPayment(first.getId(), participantUser.getId());
+        expenseService.deleteExpense(second.getId());
+
+        // Then
+        assertThat(colocationBalanceRepository.findLinesBySpaceId(colocation.getId())).isEmpty();
+        assertThat(balanceLedger.reconcile(colocation.getId())).isZero();
+    }
+
     @Test
     public void testGetUserExpenses_Success() throws TechnicalException {
         // Given
@@ -464,12 +845,48 @@ public class ExpenseServiceTest extends AbstractTest {
         expenseRepository.save(expense2);
 
         // When
-        List<ExpenseResDto> result = expenseService.getUserExpenses();
+        CursorPageResDto<ExpenseResDto> result = expenseService.getUserExpenses(null, null);
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result.stream().map(ExpenseResDto::getTitle))
+        assertThat(result.getItems()).hasSize(2);
+        assertThat(result.getItems().stream().map(ExpenseResDto::getTitle))
                 .containsExactlyInAnyOrder("Expense 1", "Expense 2");
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testGetUserExpenses_PaginatedProjection() throws TechnicalException {
+        // Given : payer and participant of the first ones, participant only of the last one
+        for (int i = 0; i < 3; i++) {
+            expenseRepository.save(createTestExpense());
+        }
+        Expense shared = createTestExpense();
+        shared.setPayer(participantUser);
+        shared = expenseRepository.save(shared);
+
+        Expense foreign = createTestExpense();
+        foreign.setPayer(participantUser);
+        foreign.getParticipants().removeIf(participant -> participant.getUser() == payerUser);
+        expenseRepository.save(foreign);
+
+        // When
+        CursorPageResDto<ExpenseResDto> first = expenseService.getUserExpenses(null, 2);
+        CursorPageResDto<ExpenseResDto> second = expenseService.getUserExpenses(first.getNextCursor(), 2);
+
+        // Then : each expense once, most recent first, with its payer and participants
+        assertThat(first.getItems()).hasSize(2);
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getItems()).hasSize(2);
+        assertThat(second.getNextCursor()).isNull();
+
+        ExpenseResDto latest = first.getItems().get(0);
+        assertThat(latest.getId()).isEqualTo(shared.getId());
+        assertThat(latest.getPayer().getEmail()).isEqualTo(participantUser.getEmail());
+        assertThat(latest.getSpaceName()).isEqualTo(colocation.getName());
+        assertThat(latest.getParticipants()).extracting(participant -> participant.getUser().getEmail())
+                .containsExactlyInAnyOrder(payerUser.getEmail(), participantUser.getEmail());
+        assertThat(second.getItems()).extracting(ExpenseResDto::getId)
+                .doesNotContainAnyElementsOf(first.getItems().stream().map(ExpenseResDto::getId).toList());
     }
 
     @Test
@@ -479,11 +896,12 @@ public class ExpenseServiceTest extends AbstractTest {
         expense = expenseRepository.save(expense);
 
         // When
-        List<ExpenseResDto> result = expenseService.getPendingPayments();
+        CursorPageResDto<ExpenseResDto> result = expenseService.getPendingPayments(null, null);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getTitle()).isEqualTo("Test Expense");
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getTitle()).isEqualTo("Test Expense");
+        assertThat(result.getNextCursor()).isNull();
     }
 
     @Test
@@ -499,11 +917,124 @@ public class ExpenseServiceTest extends AbstractTest {
         expenseParticipantRepository.save(participant);
 
         // When
-        List<ExpenseResDto> result = expenseService.getPendingConfirmations();
+        CursorPageResDto<ExpenseResDto> result = expenseService.getPendingConfirmations(null, null);
+
+        // Then
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getTitle()).isEqualTo("Test Expense");
+    }
+
+    @Test
+    public void testGetExpensesBySpace_StatementBudget() throws TechnicalException {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            expenseRepository.save(createTestExpense());
+        }
+        currentUser.find();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When : user, colocation, membership, page and details, whatever the page size
+        CursorPageResDto<ExpenseResDto> result = SqlStatementBudget.assertAtMost(
+                5, () -> expenseService.getExpensesBySpace(colocation.getId(), null, null, null));
+
+        // Then
+        assertThat(result.getItems()).hasSize(10);
+        assertThat(result.getItems()).allSatisfy(expense -> {
+            assertThat(expense.getPayer().getEmail()).isEqualTo("payer@example.com");
+            assertThat(expense.getSpaceName()).isEqualTo("Test Colocation");
+            assertThat(expense.getParticipants()).hasSize(2);
+        });
+    }
+
+    @Test
+    public void testGetExpenseById_StatementBudget() throws TechnicalException {
+        // Given
+        Long expenseId = expenseRepository.save(createTestExpense()).getId();
+        currentUser.find();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        ExpenseResDto result = SqlStatementBudget.assertAtMost(3, () -> expenseService.getExpenseById(expenseId));
+
+        // Then
+        assertThat(result.getParticipants()).extracting(participant -> participant.getUser().getEmail())
+                .containsExactlyInAnyOrder("payer@example.com", "participant@example.com");
+    }
+
+    @Test
+    public void testGetPendingPayments_StatementBudget() throws TechnicalException {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            expenseRepository.save(createTestExpense());
+        }
+        currentUser.find();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When : user, page of pending expenses and their details
+        CursorPageResDto<ExpenseResDto> payments = SqlStatementBudget.assertAtMost(
+                3, () -> expenseService.getPendingPayments(null, null));
+        CursorPageResDto<ExpenseResDto> confirmations = SqlStatementBudget.assertAtMost(
+                3, () -> expenseService.getPendingConfirmations(null, null));
+        List<PendingSummaryResDto> summary = SqlStatementBudget.assertAtMost(
+                3, () -> expenseService.getPendingSummary());
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getTitle()).isEqualTo("Test Expense");
+        assertThat(payments.getItems()).hasSize(10);
+        assertThat(confirmations.getItems()).hasSize(10);
+        assertThat(confirmations.getItems()).allSatisfy(expense -> assertThat(expense.getParticipants()).hasSize(2));
+        assertThat(summary).hasSize(1);
+    }
+
+    @Test
+    public void testGetPendingSummary_CountsAndTotalsPerColocation() throws TechnicalException {
+        // Given : two expenses paid by the user, one paid by the participant
+        expenseRepository.save(createTestExpense());
+        Expense confirmed = expenseRepository.save(createTestExpense());
+        confirmed.confirmAllPayments();
+        expenseRepository.save(confirmed);
+        Expense owed = createTestExpense();
+        owed.setPayer(participantUser);
+        expenseRepository.save(owed);
+
+        // When
+        List<PendingSummaryResDto> summary = expenseService.getPendingSummary();
+
+        // Then : own shares are still to be validated, only the first expense is left to confirm
+        assertThat(summary).hasSize(1);
+        PendingSummaryResDto space = summary.get(0);
+        assertThat(space.getSpaceId()).isEqualTo(colocation.getId());
+        assertThat(space.getSpaceName()).isEqualTo("Test Colocation");
+        assertThat(space.getPendingPayments()).isEqualTo(3);
+        assertThat(space.getPendingPaymentsTotal()).isEqualByComparingTo("150.00");
+        assertThat(space.getPendingConfirmations()).isEqualTo(2);
+        assertThat(space.getPendingConfirmationsTotal()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    public void testGetPendingSummary_NothingPending() throws TechnicalException {
+        assertThat(expenseService.getPendingSummary()).isEmpty();
+    }
+
+    @Test
+    public void testGetPendingPayments_Paginated() throws TechnicalException {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            expenseRepository.save(createTestExpense());
+        }
+
+        // When
+        CursorPageResDto<ExpenseResDto> first = expenseService.getPendingPayments(null, 2);
+        CursorPageResDto<ExpenseResDto> second = expenseService.getPendingPayments(first.getNextCursor(), 2);
+
+        // Then
+        assertThat(first.getItems()).hasSize(2);
+        assertThat(second.getItems()).hasSize(1);
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getItems()).extracting(ExpenseResDto::getId)
+                .doesNotContainAnyElementsOf(first.getItems().stream().map(ExpenseResDto::getId).toList());
     }
 
     private Expense createTestExpense() {
@@ -519,4 +1050,13 @@ public class ExpenseServiceTest extends AbstractTest {
 
         return expense;
     }
+
+    private BigDecimal shareOf(ExpenseResDto expense, User user) {
+        return expense.getParticipants()
+                      .stream()
+                      .filter(participant -> participant.getUser().getEmail().equals(user.getEmail()))
+                      .findFirst()
+                      .orElseThrow()
+                      .getShareAmount();
+    }
 }
@@ -0,0 +1,89 @@
+package fr.esgi.service.expense;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringExpenseJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+
+    @Mock
+    private RecurringExpenseService recurringExpenseService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecurringExpenseJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job           = new RecurringExpenseJob(recurringExpenseService, meterRegistry);
+    }
+
+    @Test
+    void generateAll_ShouldRunChunksUntilNothingIsDue() {
+        when(recurringExpenseService.generateDue(eq(TODAY), anyCollection())).thenReturn(new RecurringExpenseService.Generation(50, 600),
+                                                                    new RecurringExpenseService.Generation(3, 7),
+                                                                    new RecurringExpenseService.Generation(0, 0));
+
+        assertThat(job.generateAll(TODAY)).isEqualTo(607);
+
+        verify(recurringExpenseService, times(3)).generateDue(eq(TODAY), anyCollection());
+        assertThat(meterRegistry.get("cohabit.recurring_expenses.generated").counter().count()).isEqualTo(607.0);
+    }
+
+    @Test
+    void generateAll_ShouldSkipTheDefinitionThatFailsAndGoOn() {
+        Set<Long> skippedIds = new HashSet<>();
+        when(recurringExpenseService.generateDue(eq(TODAY), anyCollection())).thenAnswer(invocation -> {
+            skippedIds.addAll(invocation.getArgument(1));
+            if (skippedIds.isEmpty()) {
+                throw new IllegalStateException("boom");
+            }
+            return new RecurringExpenseService.Generation(0, 0);
+        });
+        when(recurringExpenseService.findDueIds(eq(TODAY), anyCollection())).thenReturn(List.of(1L, 2L));
+        when(recurringExpenseService.generateDue(TODAY, 1L)).thenThrow(new IllegalStateException("poison"));
+        when(recurringExpenseService.generateDue(TODAY, 2L)).thenReturn(new RecurringExpenseService.Generation(1, 3));
+
+        assertThat(job.generateAll(TODAY)).isEqualTo(3);
+
+        // The chunks after the failing one leave it out
+        assertThat(skippedIds).containsExactly(1L);
+        verify(recurringExpenseService, times(2)).generateDue(eq(TODAY), anyCollection());
+        assertThat(meterRegistry.get("cohabit.recurring_expenses.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void generateAll_ShouldStopWhenTheDueDefinitionsCannotBeRead() {
+        when(recurringExpenseService.generateDue(eq(TODAY), anyCollection())).thenReturn(new RecurringExpenseService.Generation(1, 2))
+                                                                             .thenThrow(new IllegalStateException("boom"));
+        when(recurringExpenseService.findDueIds(eq(TODAY), anyCollection())).thenThrow(new IllegalStateException("boom"));
+
+        assertThat(job.generateAll(TODAY)).isEqualTo(2);
+
+        verify(recurringExpenseService, times(2)).generateDue(eq(TODAY), anyCollection());
+        verify(recurringExpenseService, never()).generateDue(eq(TODAY), anyLong());
+    }
+
+    @Test
+    void generateAll_ShouldBoundTheNumberOfChunks() {
+        when(recurringExpenseService.generateDue(eq(TODAY), anyCollection())).thenReturn(new RecurringExpenseService.Generation(1, 1));
+
+        assertThat(job.generateAll(TODAY)).isEqualTo(RecurringExpenseJob.MAX_CHUNKS_PER_RUN);
+
+        verify(recurringExpenseService, times(RecurringExpenseJob.MAX_CHUNKS_PER_RUN)).generateDue(eq(TODAY), anyCollection());
+    }
+}
@@ -0,0 +1,341 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.dto.expense.RecurrenceFrequency;
+import fr.esgi.domain.dto.expense.RecurringExpenseReqDto;
+import fr.esgi.domain.dto.expense.RecurringExpenseResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.expense.RecurringExpense;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.BalanceLine;
+import fr.esgi.persistence.repository.expense.ColocationBalanceRepository;
+import fr.esgi.persistence.repository.expense.ExpenseParticipantRepository;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.MonthlySpendingRepository;
+import fr.esgi.persistence.repository.expense.RecurringExpenseRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.expense.mapper.RecurringExpenseMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(RecurringExpenseServiceTest.TestConfig.class)
+@TestPropertySource(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+        }
+)
+@EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RecurringExpenseServiceTest extends AbstractTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+
+    @TestConfiguration
+    @EnableAutoConfiguration(
+            exclude = {
+                    ServletWebServerFactoryAutoConfiguration.class,
+                    ReactiveWebServerFactoryAutoConfiguration.class
+            }
+    )
+    static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
+        @Bean
+        public BalanceLedger balanceLedger(
+                ColocationBalanceRepository colocationBalanceRepository,
+                ExpenseParticipantRepository expenseParticipantRepository) {
+            return new BalanceLedger(colocationBalanceRepository, expenseParticipantRepository);
+        }
+
+        @Bean
+        public SpendingRollup spendingRollup(
+                MonthlySpendingRepository monthlySpendingRepository,
+                ExpenseRepository expenseRepository) {
+            return new SpendingRollup(monthlySpendingRepository, expenseRepository);
+        }
+
+        @Bean
+        public RecurringExpenseService recurringExpenseService(
+                RecurringExpenseRepository recurringExpenseRepository,
+                ExpenseRepository expenseRepository,
+                ColocationRepository colocationRepository,
+                UserRepository userRepository,
+                CurrentUser currentUser,
+                ColocationMembershipIndex membershipIndex,
+                BalanceLedger balanceLedger,
+                SpendingRollup spendingRollup) {
+            return new RecurringExpenseService(
+                    recurringExpenseRepository,
+                    expenseRepository,
+                    colocationRepository,
+                    userRepository,
+                    currentUser,
+                    membershipIndex,
+                    balanceLedger,
+                    spendingRollup,
+                    Mappers.getMapper(RecurringExpenseMapper.class)
+            );
+        }
+    }
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseParticipantRepository expenseParticipantRepository;
+
+    @Autowired
+    private ColocationRepository colocationRepository;
+
+    @Autowired
+    private ColocationBalanceRepository colocationBalanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User       alice;
+    private User       bob;
+    private Colocation colocation;
+
+    @BeforeEach
+    public void initData() {
+        initSecurityContextPlaceHolder();
+
+        alice = createUser("alice@example.com", TEST_USER_ID);
+        bob   = createUser("bob@example.com", "bob-sub");
+
+        colocation = new Colocation();
+        colocation.setName("Test Colocation");
+        colocation.setAddress("123 Test Street");
+        colocation.setManager(alice);
+        colocation.setInvitationCode("TEST123");
+        colocation.setRoommates(new HashSet<>());
+        colocation.addRoommate(alice);
+        colocation.addRoommate(bob);
+        colocation = colocationRepository.save(colocation);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        cleanupSecurityContext();
+
+        colocationBalanceRepository.deleteAll();
+        expenseParticipantRepository.deleteAll();
+        expenseRepository.deleteAll();
+        recurringExpenseRepository.deleteAll();
+        colocationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testCreateRecurringExpense_Success() throws TechnicalException {
+        // Given
+        RecurringExpenseReqDto dto = request(LocalDate.of(2025, 4, 1), null);
+        dto.setParticipantIds(Set.of(bob.getId()));
+
+        // When
+        RecurringExpenseResDto created = recurringExpenseService.createRecurringExpense(dto);
+
+        // Then
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getFrequency()).isEqualTo(RecurrenceFrequency.MONTHLY);
+        assertThat(created.getNextDueDate()).isEqualTo("2025-04-01");
+        assertThat(created.isActive()).isTrue();
+        assertThat(created.getPayer().getEmail()).isEqualTo("alice@example.com");
+        assertThat(created.getParticipants()).extracting("email").containsExactly("bob@example.com");
+        assertThat(recurringExpenseService.getRecurringExpensesBySpace(colocation.getId()))
+                .extracting(RecurringExpenseResDto::getId)
+                .containsExactly(created.getId());
+    }
+
+    @Test
+    public void testCreateRecurringExpense_EndBeforeStart() {
+        RecurringExpenseReqDto dto = request(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 3, 1));
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> recurringExpenseService.createRecurringExpense(dto));
+        assertThat(exception.getCode()).isEqualTo(400);
+    }
+
+    @Test
+    public void testCreateRecurringExpense_NotMember() {
+        createUser("outsider@example.com", "outsider-sub");
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolderWithSub("outsider-sub");
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> recurringExpenseService.createRecurringExpense(request(TODAY, null)));
+        assertThat(exception.getCode()).isEqualTo(403);
+    }
+
+    @Test
+    public void testGenerateDue_CatchesUpInBoundedChunks() throws TechnicalException {
+        // Given : a rent on the 31st, due 14 times by TODAY
+        Long id = recurringExpenseService.createRecurringExpense(request(LocalDate.of(2024, 1, 31), null)).getId();
+
+        // When
+        RecurringExpenseService.Generation first  = recurringExpenseService.generateDue(TODAY, Set.of());
+        RecurringExpenseService.Generation second = recurringExpenseService.generateDue(TODAY, Set.of());
+        RecurringExpenseService.Generation third  = recurringExpenseService.generateDue(TODAY, Set.of());
+
+        // Then
+        assertThat(first.expenses()).isEqualTo(RecurringExpenseService.MAX_OCCURRENCES_PER_CHUNK);
+        assertThat(second.expenses()).isEqualTo(2);
+        assertThat(third.definitions()).isZero();
+
+        entityManager.clear();
+        List<Expense> expenses = expenseRepository.findAll()
+                                                  .stream()
+                                                  .sorted(Comparator.comparing(Expense::getPeriod))
+                                                  .toList();
+        assertThat(expenses).hasSize(14);
+        assertThat(expenses).extracting(Expense::getPeriod)
+                            .startsWith(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31))
+                            .endsWith(LocalDate.of(2025, 2, 28));
+        assertThat(expenses.get(0).getCreatedAt()).isEqualTo(LocalDate.of(2024, 1, 31).atStartOfDay());
+        assertThat(recurringExpenseRepository.findById(id).orElseThrow().getNextDueDate()).isEqualTo(LocalDate.of(2025, 3, 31));
+
+        // Bob owes half of each rent to Alice
+        assertThat(colocationBalanceRepository.findLinesBySpaceId(colocation.getId()))
+                .extracting(BalanceLine::getDebtorId, BalanceLine::getCreditorId, BalanceLine::getAmount)
+                .containsExactly(tuple(bob.getId(), alice.getId(), new BigDecimal("4200.00")));
+    }
+
+    @Test
+    public void testGenerateDue_StopsAfterEndDate() throws TechnicalException {
+        Long id = recurringExpenseService.createRecurringExpense(request(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 15))).getId();
+
+        assertThat(recurringExpenseService.generateDue(TODAY, Set.of()).expenses()).isEqualTo(2);
+
+        RecurringExpense recurringExpense = recurringExpenseRepository.findById(id).orElseThrow();
+        assertThat(recurringExpense.isActive()).isFalse();
+        assertThat(recurringExpense.getOccurrences()).isEqualTo(2);
+        assertThat(recurringExpenseService.generateDue(TODAY, Set.of()).definitions()).isZero();
+    }
+
+    @Test
+    public void testGenerateDue_DeactivatesWhenPayerLeft() throws TechnicalException {
+        Long id = recurringExpenseService.createRecurringExpense(request(LocalDate.of(2025, 3, 1), null)).getId();
+        colocation.getRoommates().remove(alice);
+        colocationRepository.saveAndFlush(colocation);
+        entityManager.clear();
+
+        RecurringExpenseService.Generation generation = recurringExpenseService.generateDue(TODAY, Set.of());
+
+        assertThat(generation.definitions()).isEqualTo(1);
+        assertThat(generation.expenses()).isZero();
+        assertThat(recurringExpenseRepository.findById(id).orElseThrow().isActive()).isFalse();
+    }
+
+    @Test
+    public void testGenerateDue_LeavesOutSkippedDefinitions() throws TechnicalException {
+        Long skipped = recurringExpenseService.createRecurringExpense(request(LocalDate.of(2025, 3, 1), null)).getId();
+        Long other   = recurringExpenseService.createRecurringExpense(request(LocalDate.of(2025, 3, 2), null)).getId();
+
+        assertThat(recurringExpenseService.findDueIds(TODAY, Set.of())).containsExactly(skipped, other);
+        assertThat(recurringExpenseService.generateDue(TODAY, Set.of(skipped)).definitions()).isEqualTo(1);
+        assertThat(recurringExpenseService.findDueIds(TODAY, Set.of())).containsExactly(skipped);
+
+        // Generated alone, the skipped definition catches up
+        assertThat(recurringExpenseService.generateDue(TODAY, skipped).expenses()).isEqualTo(1);
+        assertThat(recurringExpenseService.generateDue(TODAY, skipped).definitions()).isZero();
+    }
+
+    @Test
+    public void testOccurrence_UniquePerPeriod() throws TechnicalException {
+        Long id = recurringExpenseService.createRecurringExpense(request(LocalDate.of(2025, 3, 1), null)).getId();
+        recurringExpenseService.generateDue(TODAY, Set.of());
+
+        // A second occurrence of the same period is rejected by the database
+        RecurringExpense recurringExpense = recurringExpenseRepository.findById(id).orElseThrow();
+        recurringExpense.setNextDueDate(LocalDate.of(2025, 3, 1));
+        Expense duplicate = recurringExpense.nextOccurrence(Set.of(alice, bob));
+
+        assertThrows(DataIntegrityViolationException.class, () -> expenseRepository.saveAndFlush(duplicate));
+        entityManager.clear();
+    }
+
+    @Test
+    public void testStopRecurringExpense_OnlyPayerOrManager() throws TechnicalException {
+        Long id = recurringExpenseService.createRecurringExpense(request(TODAY, null)).getId();
+
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolderWithSub("bob-sub");
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> recurringExpenseService.stopRecurringExpense(id));
+        assertThat(exception.getCode()).isEqualTo(403);
+
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolder();
+        recurringExpenseService.stopRecurringExpense(id);
+        assertThat(recurringExpenseService.getRecurringExpensesBySpace(colocation.getId())).isEmpty();
+    }
+
+    private RecurringExpenseReqDto request(LocalDate startDate, LocalDate endDate) {
+        return new RecurringExpenseReqDto("Loyer", "Loyer de l'appartement", new BigDecimal("600.00"),
+                                          RecurrenceFrequency.MONTHLY, startDate, endDate, colocation.getId(), null);
+    }
+
+    private User createUser(String email, String sub) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("Test");
+        user.setLastName("Test");
+        user.setKeyCloakSub(sub);
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,72 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.service.expense.SettlementPlanner.Transfer;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SettlementPlannerTest {
+
+    @Test
+    void plan_ShouldReturnNothingWhenBalanced() {
+        assertThat(SettlementPlanner.plan(Map.of())).isEmpty();
+        assertThat(SettlementPlanner.plan(Map.of(1L, 0L, 2L, 0L))).isEmpty();
+    }
+
+    @Test
+    void plan_ShouldSettleSingleDebt() {
+        List<Transfer> transfers = SettlementPlanner.plan(Map.of(1L, 1250L, 2L, -1250L));
+
+        assertThat(transfers).containsExactly(new Transfer(2L, 1L, 1250L));
+    }
+
+    @Test
+    void plan_ShouldFindZeroSumGroupsMissedByGreedy() {
+        // Largest debtor to largest creditor needs 5 transfers, {2, 3, 5} and {1, 4, 6} need 2 each
+        Map<Long, Long> balances = Map.of(1L, 300L, 2L, 100L, 3L, 400L, 4L, 300L, 5L, -500L, 6L, -600L);
+
+        List<Transfer> transfers = SettlementPlanner.plan(balances);
+
+        assertThat(transfers).hasSize(4);
+        assertSettles(balances, transfers);
+    }
+
+    @Test
+    void plan_ShouldSettleLargeColocationsWithAtMostOneTransferPerMember() {
+        Random          random   = new Random(42);
+        Map<Long, Long> balances = new HashMap<>();
+        long            total    = 0;
+        for (long userId = 1; userId < 40; userId++) {
+            long cents = random.nextInt(20_000) - 10_000;
+            balances.put(userId, cents);
+            total += cents;
+        }
+        balances.put(40L, -total);
+
+        List<Transfer> transfers = SettlementPlanner.plan(balances);
+
+        assertThat(transfers).hasSizeLessThan(40);
+        assertSettles(balances, transfers);
+    }
+
+    @Test
+    void plan_ShouldRejectUnbalancedInput() {
+        assertThrows(IllegalArgumentException.class, () -> SettlementPlanner.plan(Map.of(1L, 100L, 2L, -99L)));
+    }
+
+    private static void assertSettles(Map<Long, Long> balances, List<Transfer> transfers) {
+        Map<Long, Long> remaining = new HashMap<>(balances);
+        for (Transfer transfer : transfers) {
+            assertThat(transfer.amountCents()).isPositive();
+            remaining.merge(transfer.fromUserId(), transfer.amountCents(), Long::sum);
+            remaining.merge(transfer.toUserId(), -transfer.amountCents(), Long::sum);
+        }
+        assertThat(remaining.values()).containsOnly(0L);
+    }
+}
@@ -0,0 +1,63 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.MonthlySpendingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendingRollupJobTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private MonthlySpendingRepository monthlySpendingRepository;
+
+    @Mock
+    private SpendingRollup spendingRollup;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SpendingRollupJob   job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job           = new SpendingRollupJob(expenseRepository, monthlySpendingRepository, spendingRollup, meterRegistry);
+    }
+
+    @Test
+    void rebuildAll_ShouldVisitEachColocationOnceAndCountDrift() {
+        when(expenseRepository.findSpaceIds()).thenReturn(List.of(1L, 2L));
+        when(monthlySpendingRepository.findSpaceIds()).thenReturn(List.of(2L, 3L));
+        when(spendingRollup.rebuild(1L)).thenReturn(0);
+        when(spendingRollup.rebuild(2L)).thenReturn(2);
+        when(spendingRollup.rebuild(3L)).thenReturn(1);
+
+        assertThat(job.rebuildAll()).isEqualTo(3);
+
+        verify(spendingRollup, times(1)).rebuild(2L);
+        assertThat(meterRegistry.get("cohabit.spending.drift").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void rebuildAll_ShouldContinueAfterFailure() {
+        when(expenseRepository.findSpaceIds()).thenReturn(List.of(1L, 2L));
+        when(monthlySpendingRepository.findSpaceIds()).thenReturn(List.of());
+        when(spendingRollup.rebuild(1L)).thenThrow(new IllegalStateException("boom"));
+        when(spendingRollup.rebuild(2L)).thenReturn(1);
+
+        assertThat(job.rebuildAll()).isEqualTo(1);
+
+        verify(spendingRollup).rebuild(2L);
+    }
+}
@@ -0,0 +1,294 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.dto.expense.MemberSpendingResDto;
+import fr.esgi.domain.dto.expense.MonthlySpendingResDto;
+import fr.esgi.domain.dto.expense.SpendingStatsResDto;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.expense.Expense;
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.expense.ExpenseParticipantRepository;
+import fr.esgi.persistence.repository.expense.ExpenseRepository;
+import fr.esgi.persistence.repository.expense.MonthlySpendingRepository;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.SqlStatementBudget;
+import fr.esgi.service.expense.mapper.ExpenseMapper;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(SpendingStatsServiceTest.TestConfig.class)
+@TestPropertySource(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                SqlStatementBudget.PROPERTY
+        }
+)
+@EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SpendingStatsServiceTest extends AbstractTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2025, 1);
+    private static final YearMonth MARCH   = YearMonth.of(2025, 3);
+
+    @TestConfiguration
+    @EnableAutoConfiguration(
+            exclude = {
+                    ServletWebServerFactoryAutoConfiguration.class,
+                    ReactiveWebServerFactoryAutoConfiguration.class
+            }
+    )
+    static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
+        @Bean
+        public SpendingRollup spendingRollup(
+                MonthlySpendingRepository monthlySpendingRepository,
+                ExpenseRepository expenseRepository) {
+            return new SpendingRollup(monthlySpendingRepository, expenseRepository);
+        }
+
+        @Bean
+        public SpendingStatsService spendingStatsService(
+                MonthlySpendingRepository monthlySpendingRepository,
+                ColocationRepository colocationRepository,
+                UserRepository userRepository,
+                CurrentUser currentUser,
+                ColocationMembershipIndex membershipIndex) {
+            return new SpendingStatsService(
+                    monthlySpendingRepository,
+                    colocationRepository,
+                    userRepository,
+                    currentUser,
+                    membershipIndex,
+                    Mappers.getMapper(ExpenseMapper.class)
+            );
+        }
+    }
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseParticipantRepository expenseParticipantRepository;
+
+    @Autowired
+    private ColocationRepository colocationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MonthlySpendingRepository monthlySpendingRepository;
+
+    @Autowired
+    private SpendingRollup spendingRollup;
+
+    @Autowired
+    private SpendingStatsService spendingStatsService;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User       alice;
+    private User       bob;
+    private User       carol;
+    private Colocation colocation;
+    private Expense    bobJanuary;
+
+    @BeforeEach
+    public void initData() {
+        initSecurityContextPlaceHolder();
+
+        alice = createUser("alice@example.com", "Alice", TEST_USER_ID);
+        bob   = createUser("bob@example.com", "Bob", "bob-sub");
+        carol = createUser("carol@example.com", "Carol", "carol-sub");
+
+        colocation = new Colocation();
+        colocation.setName("Test Colocation");
+        colocation.setAddress("123 Test Street");
+        colocation.setCity("Test City");
+        colocation.setPostalCode("12345");
+        colocation.setManager(alice);
+        colocation.setInvitationCode("TEST123");
+        colocation.setRoommates(new HashSet<>());
+        colocation.addRoommate(alice);
+        colocation.addRoommate(bob);
+        colocation.addRoommate(carol);
+        colocation = colocationRepository.save(colocation);
+
+        createExpense(alice, "90.00", LocalDate.of(2025, 1, 3));
+        createExpense(alice, "10.50", LocalDate.of(2025, 3, 31));
+        bobJanuary = createExpense(bob, "30.00", LocalDate.of(2025, 1, 20));
+
+        // Hors période
+        createExpense(carol, "20.00", LocalDate.of(2024, 12, 31));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        cleanupSecurityContext();
+
+        monthlySpendingRepository.deleteAll();
+        expenseParticipantRepository.deleteAll();
+        expenseRepository.deleteAll();
+        colocationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testGetStats_AggregatesByMonthAndMember() throws TechnicalException {
+        SpendingStatsResDto stats = spendingStatsService.getStats(colocation.getId(), JANUARY, MARCH);
+
+        assertThat(stats.getFrom()).isEqualTo("2025-01");
+        assertThat(stats.getTo()).isEqualTo("2025-03");
+        assertThat(stats.getTotal()).isEqualTo(new BigDecimal("130.50"));
+        assertThat(stats.getExpenseCount()).isEqualTo(3);
+        assertThat(stats.getMembers()).extracting(member -> member.getUser().getEmail(),
+                                                  MemberSpendingResDto::getTotal,
+                                                  MemberSpendingResDto::getExpenseCount)
+                                      .containsExactly(tuple("alice@example.com", new BigDecimal("100.50"), 2L),
+                                                       tuple("bob@example.com", new BigDecimal("30.00"), 1L));
+
+        // Les mois sans dépense sont présents
+        assertThat(stats.getMonths()).extracting(MonthlySpendingResDto::getMonth,
+                                                 MonthlySpendingResDto::getTotal,
+                                                 MonthlySpendingResDto::getExpenseCount)
+                                     .containsExactly(tuple("2025-01", new BigDecimal("120.00"), 2L),
+                                                      tuple("2025-02", new BigDecimal("0.00"), 0L),
+                                                      tuple("2025-03", new BigDecimal("10.50"), 1L));
+        assertThat(stats.getMonths().get(0).getMembers()).extracting(member -> member.getUser().getEmail())
+                                                         .containsExactly("alice@example.com", "bob@example.com");
+    }
+
+    @Test
+    public void testGetStats_AfterDeletion() throws TechnicalException {
+        spendingRollup.recordDeletion(bobJanuary);
+        expenseRepository.delete(bobJanuary);
+
+        SpendingStatsResDto stats = spendingStatsService.getStats(colocation.getId(), JANUARY, JANUARY);
+
+        assertThat(stats.getTotal()).isEqualTo(new BigDecimal("90.00"));
+        assertThat(stats.getMembers()).extracting(member -> member.getUser().getEmail())
+                                      .containsExactly("alice@example.com");
+    }
+
+    @Test
+    public void testRebuild_RepairsDrift() throws TechnicalException {
+        // Une dépense écrite sans passer par le cumul, et une ligne obsolète
+        monthlySpendingRepository.addToTotals(colocation.getId(), JANUARY.atDay(1), alice.getId(), new BigDecimal("5.00"), 1);
+        monthlySpendingRepository.addToTotals(colocation.getId(), MARCH.atDay(1), carol.getId(), new BigDecimal("7.00"), 1);
+
+        assertThat(spendingRollup.rebuild(colocation.getId())).isEqualTo(2);
+        assertThat(spendingRollup.rebuild(colocation.getId())).isZero();
+
+        SpendingStatsResDto stats = spendingStatsService.getStats(colocation.getId(), JANUARY, MARCH);
+        assertThat(stats.getTotal()).isEqualTo(new BigDecimal("130.50"));
+        assertThat(stats.getExpenseCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testGetStats_StatementBudget() throws TechnicalException {
+        currentUser.find();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When : user, colocation, membership, rollup rows and payers, whatever the number of expenses
+        SpendingStatsResDto stats = SqlStatementBudget.assertAtMost(
+                5, () -> spendingStatsService.getStats(colocation.getId(), JANUARY.minusMonths(12), MARCH));
+
+        // Then
+        assertThat(stats.getMonths()).hasSize(15);
+        assertThat(stats.getTotal()).isEqualTo(new BigDecimal("150.50"));
+    }
+
+    @Test
+    public void testGetStats_InvalidPeriod() {
+        TechnicalException reversed = assertThrows(TechnicalException.class,
+                                                   () -> spendingStatsService.getStats(colocation.getId(), MARCH, JANUARY));
+        assertThat(reversed.getCode()).isEqualTo(400);
+
+        TechnicalException tooLong = assertThrows(TechnicalException.class,
+                                                  () -> spendingStatsService.getStats(colocation.getId(), JANUARY, JANUARY.plusMonths(24)));
+        assertThat(tooLong.getCode()).isEqualTo(400);
+        assertThat(tooLong.getMessage()).contains("24 mois");
+    }
+
+    @Test
+    public void testGetStats_AccessDenied_NotMember() {
+        User outsider = createUser("outsider@example.com", "Outsider", "outsider-sub");
+        cleanupSecurityContext();
+        initSecurityContextPlaceHolderWithSub(outsider.getKeyCloakSub());
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> spendingStatsService.getStats(colocation.getId(), JANUARY, MARCH));
+        assertThat(exception.getCode()).isEqualTo(403);
+    }
+
+    private User createUser(String email, String firstName, String sub) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName("Test");
+        user.setKeyCloakSub(sub);
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+
+    private Expense createExpense(User payer, String amount, LocalDate date) {
+        Expense expense = new Expense();
+        expense.setTitle("Dépense");
+        expense.setDescription("Dépense de " + payer.getFirstName());
+        expense.setAmount(new BigDecimal(amount));
+        expense.setPayer(payer);
+        expense.setSpace(colocation);
+        expense.setCreatedAt(date.atTime(12, 0));
+        expense.distributeEvenly(Set.of(alice, bob, carol));
+        expense = expenseRepository.save(expense);
+        spendingRollup.recordExpense(expense);
+        return expense;
+    }
+}
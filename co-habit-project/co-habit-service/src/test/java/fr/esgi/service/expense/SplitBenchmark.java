@@ -0,0 +1,111 @@
+package fr.esgi.service.expense;
+
+import fr.esgi.domain.SplitAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways of splitting an expense between its participants.
+ * <ul>
+ *     <li>{@code bigDecimalEven} : one {@code BigDecimal} division rounded half up per participant, which
+ *     is what {@code Expense.distributeEvenly} did before the split engine (and whose shares could miss
+ *     the amount by a few cents).</li>
+ *     <li>{@code even}, {@code weighted}, {@code percentages} : the {@link SplitAllocator} strategies, in
+ *     long cents with the largest remainder method.</li>
+ * </ul>
+ * Each invocation splits {@value #AMOUNTS} random amounts, from 1.00 to 2000.00.
+ * <br>
+ * Run with : {@code mvn -pl co-habit-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=fr.esgi.service.expense.SplitBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitBenchmark {
+
+    private static final int AMOUNTS = 1000;
+
+    @Param({"2", "5", "10", "50"})
+    private int participants;
+
+    private BigDecimal[] amounts;
+    private long[]       cents;
+    private long[]       weights;
+    private long[]       basisPoints;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new BigDecimal[AMOUNTS];
+        cents   = new long[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            cents[i]   = random.nextInt(200_000) + 100;
+            amounts[i] = BigDecimal.valueOf(cents[i], 2);
+        }
+
+        weights     = new long[participants];
+        basisPoints = new long[participants];
+        long left = SplitAllocator.FULL_PERCENTAGE;
+        for (int i = 0; i < participants; i++) {
+            weights[i]     = (random.nextInt(4) + 1) * 100L;
+            basisPoints[i] = i < participants - 1 ? SplitAllocator.FULL_PERCENTAGE / participants : left;
+            left -= basisPoints[i];
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalEven() {
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal count = BigDecimal.valueOf(participants);
+        for (BigDecimal amount : amounts) {
+            BigDecimal share = amount.divide(count, 2, RoundingMode.HALF_UP);
+            for (int i = 0; i < participants; i++) {
+                total = total.add(share);
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long even() {
+        long total = 0;
+        for (long amount : cents) {
+            total += SplitAllocator.even(amount, participants)[0];
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long weighted() {
+        long total = 0;
+        for (long amount : cents) {
+            total += SplitAllocator.weighted(amount, weights)[0];
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long percentages() {
+        long total = 0;
+        for (long amount : cents) {
+            total += SplitAllocator.percentages(amount, basisPoints)[0];
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws
+                                           RunnerException {
+        new Runner(new OptionsBuilder().include(SplitBenchmark.class.getSimpleName())
+                                       .build()).run();
+    }
+}
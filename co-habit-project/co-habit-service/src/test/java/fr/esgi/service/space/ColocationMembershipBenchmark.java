@@ -0,0 +1,105 @@
+package fr.esgi.service.space;
+
+import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.space.ColocationMembership;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the membership checks previously used by the services with {@link ColocationMembershipIndex}.
+ * <ul>
+ *     <li>{@code colocationIsRoommate} : {@code Colocation.isRoommate(User)} on an initialized roommates set.</li>
+ *     <li>{@code userColocationIds} : the {@code TaskService} pattern, collecting {@code user.getColocations()} ids into a set.</li>
+ *     <li>{@code membershipIndex} : primitive lookup on a warm index entry.</li>
+ * </ul>
+ * Entities are built in memory, so the lazy loading of the collections (one extra query per check
+ * in the services) is not even accounted for in the first two benchmarks.
+ * <br>
+ * Run with : {@code mvn -pl co-habit-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=fr.esgi.service.space.ColocationMembershipBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColocationMembershipBenchmark {
+
+    @Param({"4", "16"})
+    private int roommatesPerColocation;
+
+    @Param({"1", "5"})
+    private int colocationsPerUser;
+
+    private User                      user;
+    private Colocation                colocation;
+    private ColocationMembershipIndex membershipIndex;
+
+    @Setup
+    public void setUp() {
+        List<ColocationMembership> memberships = new ArrayList<>();
+        for (long colocationId = 1; colocationId <= colocationsPerUser; colocationId++) {
+            memberships.add(ColocationMembershipIndexTest.membership(colocationId, true, false));
+        }
+
+        user = user(0L);
+        for (long colocationId = 1; colocationId <= colocationsPerUser; colocationId++) {
+            Colocation current = new Colocation("Coloc " + colocationId, "Adresse", user(-colocationId));
+            current.setId(colocationId);
+            for (long roommateId = 1; roommateId < roommatesPerColocation; roommateId++) {
+                current.addRoommate(user(colocationId * 100 + roommateId));
+            }
+            current.addRoommate(user);
+            user.getColocations().add(current);
+            colocation = current;
+        }
+
+        ColocationRepository colocationRepository = Mockito.mock(ColocationRepository.class);
+        Mockito.when(colocationRepository.findMembershipsByUserId(user.getId())).thenReturn(memberships);
+        membershipIndex = new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        membershipIndex.isRoommate(user.getId(), colocation.getId());
+    }
+
+    @Benchmark
+    public boolean colocationIsRoommate() {
+        return colocation.isRoommate(user);
+    }
+
+    @Benchmark
+    public boolean userColocationIds() {
+        return user.getColocations()
+                   .stream()
+                   .map(Colocation::getId)
+                   .collect(Collectors.toSet())
+                   .contains(colocation.getId());
+    }
+
+    @Benchmark
+    public boolean membershipIndex() {
+        return membershipIndex.isRoommate(user.getId(), colocation.getId());
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setKeyCloakSub("sub-" + id);
+        return user;
+    }
+
+    public static void main(String[] args) throws
+                                           RunnerException {
+        new Runner(new OptionsBuilder().include(ColocationMembershipBenchmark.class.getSimpleName())
+                                       .build()).run();
+    }
+}
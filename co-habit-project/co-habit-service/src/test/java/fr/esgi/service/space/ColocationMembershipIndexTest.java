@@ -0,0 +1,175 @@
+package fr.esgi.service.space;
+
+import fr.esgi.persistence.repository.space.ColocationMembership;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColocationMembershipIndexTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private ColocationRepository colocationRepository;
+
+    private ColocationMembershipIndex membershipIndex;
+
+    @BeforeEach
+    void setUp() {
+        membershipIndex = new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+    }
+
+    @Test
+    void isRoommate_ShouldLoadOnceAndAnswerFromIndex() {
+        when(colocationRepository.findMembershipsByUserId(USER_ID))
+                .thenReturn(List.of(membership(10L, true, false), membership(30L, true, false)));
+
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isTrue();
+        assertThat(membershipIndex.isRoommate(USER_ID, 30L)).isTrue();
+        assertThat(membershipIndex.isMember(USER_ID, 10L)).isTrue();
+
+        verify(colocationRepository, times(1)).findMembershipsByUserId(USER_ID);
+    }
+
+    @Test
+    void isRoommate_ShouldConfirmADenialAgainstTheDatabase() {
+        when(colocationRepository.findMembershipsByUserId(USER_ID))
+                .thenReturn(List.of(membership(10L, true, false)))
+                .thenReturn(List.of(membership(10L, true, false), membership(20L, true, false)));
+
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isTrue();
+        // A join recorded by another node, whose eviction never reached this one
+        assertThat(membershipIndex.isRoommate(USER_ID, 20L)).isTrue();
+        assertThat(membershipIndex.isRoommate(USER_ID, 20L)).isTrue();
+        assertThat(membershipIndex.isManager(USER_ID, 20L)).isFalse();
+
+        verify(colocationRepository, times(3)).findMembershipsByUserId(USER_ID);
+    }
+
+    @Test
+    void isRoommate_ShouldNotKeepMembershipsLoadedDuringAnEviction() {
+        when(colocationRepository.findMembershipsByUserId(USER_ID))
+                .thenAnswer(invocation -> {
+                    // A join committed while the memberships are read
+                    membershipIndex.evictUser(USER_ID);
+                    return List.of();
+                })
+                .thenReturn(List.of(membership(10L, true, false)));
+
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isFalse();
+
+        assertThat(membershipIndex.size()).isZero();
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isTrue();
+    }
+
+    @Test
+    void isMember_ShouldAcceptManagerWhoIsNotRoommate() {
+        when(colocationRepository.findMembershipsByUserId(USER_ID))
+                .thenReturn(List.of(membership(10L, false, true)));
+
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isFalse();
+        assertThat(membershipIndex.isManager(USER_ID, 10L)).isTrue();
+        assertThat(membershipIndex.isMember(USER_ID, 10L)).isTrue();
+    }
+
+    @Test
+    void isRoommate_ShouldRejectNullIds() {
+        assertThat(membershipIndex.isRoommate(null, 10L)).isFalse();
+        assertThat(membershipIndex.isManager(USER_ID, null)).isFalse();
+
+        verifyNoInteractions(colocationRepository);
+    }
+
+    @Test
+    void evictUser_ShouldReloadMemberships() {
+        when(colocationRepository.findMembershipsByUserId(USER_ID))
+                .thenReturn(List.of())
+                .thenReturn(List.of(membership(10L, true, false)));
+
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isFalse();
+
+        membershipIndex.evictUser(USER_ID);
+
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isTrue();
+        verify(colocationRepository, times(2)).findMembershipsByUserId(USER_ID);
+    }
+
+    @Test
+    void evictColocation_ShouldOnlyReloadLinkedUsers() {
+        Long otherUserId = 2L;
+        when(colocationRepository.findMembershipsByUserId(USER_ID))
+                .thenReturn(List.of(membership(10L, true, false)))
+                .thenReturn(List.of());
+        when(colocationRepository.findMembershipsByUserId(otherUserId))
+                .thenReturn(List.of(membership(20L, true, false)));
+
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isTrue();
+        assertThat(membershipIndex.isRoommate(otherUserId, 20L)).isTrue();
+
+        membershipIndex.evictColocation(10L);
+
+        assertThat(membershipIndex.isRoommate(USER_ID, 10L)).isFalse();
+        assertThat(membershipIndex.isRoommate(otherUserId, 20L)).isTrue();
+        verify(colocationRepository, times(2)).findMembershipsByUserId(USER_ID);
+        verify(colocationRepository, times(1)).findMembershipsByUserId(otherUserId);
+    }
+
+    @Test
+    void isRoommate_ShouldReloadExpiredMemberships() {
+        ColocationMembershipIndex expiring = new ColocationMembershipIndex(colocationRepository, 1024, 0);
+        when(colocationRepository.findMembershipsByUserId(USER_ID))
+                .thenReturn(List.of(membership(10L, true, false)))
+                .thenReturn(List.of());
+
+        assertThat(expiring.isRoommate(USER_ID, 10L)).isTrue();
+        // A leave recorded by another node is seen once the entry expired
+        assertThat(expiring.isRoommate(USER_ID, 10L)).isFalse();
+
+        verify(colocationRepository, times(2)).findMembershipsByUserId(USER_ID);
+    }
+
+    @Test
+    void isRoommate_ShouldDropTheOldestUsersBeyondMaxEntries() {
+        ColocationMembershipIndex bounded = new ColocationMembershipIndex(colocationRepository, 2, 30_000);
+        when(colocationRepository.findMembershipsByUserId(anyLong())).thenReturn(List.of(membership(10L, true, false)));
+
+        bounded.isRoommate(1L, 10L);
+        bounded.isRoommate(2L, 10L);
+        bounded.isRoommate(3L, 10L);
+        assertThat(bounded.size()).isEqualTo(2);
+
+        bounded.isRoommate(3L, 10L);
+        bounded.isRoommate(1L, 10L);
+
+        verify(colocationRepository, times(1)).findMembershipsByUserId(3L);
+        verify(colocationRepository, times(2)).findMembershipsByUserId(1L);
+    }
+
+    static ColocationMembership membership(Long colocationId, boolean roommate, boolean manager) {
+        return new ColocationMembership() {
+            @Override
+            public Long getColocationId() {
+                return colocationId;
+            }
+
+            @Override
+            public boolean isRoommate() {
+                return roommate;
+            }
+
+            @Override
+            public boolean isManager() {
+                return manager;
+            }
+        };
+    }
+}
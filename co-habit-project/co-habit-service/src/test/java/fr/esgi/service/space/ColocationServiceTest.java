@@ -4,10 +4,16 @@ import fr.esgi.domain.dto.space.ColocationReqDto;
 import fr.esgi.domain.dto.space.ColocationResDto;
 import fr.esgi.domain.exception.TechnicalException;
 import fr.esgi.persistence.entity.space.Colocation;
+import fr.esgi.persistence.entity.space.InvitationCode;
 import fr.esgi.persistence.entity.user.User;
 import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.space.InvitationCodeRepository;
 import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.SqlStatementBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import fr.esgi.service.space.mapper.ColocationMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +32,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -41,7 +48,8 @@ import static org.mockito.Mockito.mock;
                 "spring.datasource.url=jdbc:h2:mem:testdb",
                 "spring.jpa.hibernate.ddl-auto=create-drop",
                 "spring.datasource.driver-class-name=org.h2.Driver",
-                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                SqlStatementBudget.PROPERTY
         }
 )
 @EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
@@ -56,11 +64,28 @@ public class ColocationServiceTest extends AbstractTest {
             }
     )
     static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
+        @Bean
+        public InvitationCodeAllocator invitationCodeAllocator(InvitationCodeRepository invitationCodeRepository) {
+            return new InvitationCodeAllocator(invitationCodeRepository, "test-secret");
+        }
+
         @Bean
         public ColocationService colocationService(
                 ColocationRepository colocationRepository,
-                UserRepository userRepository) {
-            return new ColocationService(colocationRepository, userRepository, Mappers.getMapper(ColocationMapper.class));
+                CurrentUser currentUser,
+                ColocationMembershipIndex membershipIndex,
+                InvitationCodeAllocator invitationCodeAllocator) {
+            return new ColocationService(colocationRepository, currentUser, membershipIndex, invitationCodeAllocator, Mappers.getMapper(ColocationMapper.class));
         }
     }
 
@@ -73,6 +98,18 @@ public class ColocationServiceTest extends AbstractTest {
     @Autowired
     private ColocationService colocationService;
 
+    @Autowired
+    private InvitationCodeAllocator invitationCodeAllocator;
+
+    @Autowired
+    private InvitationCodeRepository invitationCodeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CurrentUser currentUser;
+
     private User managerUser;
     private User roommateUser;
     private User otherUser;
@@ -476,6 +513,36 @@ public class ColocationServiceTest extends AbstractTest {
                            .size(), 2); // Manager + Roommate
     }
 
+    @Test
+    public void testListColocations_StatementBudget() throws
+                                                      TechnicalException {
+        // Given
+        userRepository.saveAll(List.of(managerUser, roommateUser, otherUser));
+        this.initSecurityContextPlaceHolder();
+
+        for (int i = 0; i < 5; i++) {
+            Colocation coloc = new Colocation("Coloc " + i, "Address " + i, managerUser);
+            coloc.addRoommate(roommateUser);
+            coloc.addRoommate(otherUser);
+            colocationRepository.save(coloc);
+        }
+        currentUser.find();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When : user, then the colocations with their manager and roommates
+        List<ColocationResDto> managed = SqlStatementBudget.assertAtMost(2, () -> colocationService.getManagedColocations());
+        entityManager.clear();
+        List<ColocationResDto> joined = SqlStatementBudget.assertAtMost(2, () -> colocationService.getUserColocations());
+
+        // Then : the roommates are complete, not only the one matching the filter
+        assertEquals(5, managed.size());
+        assertEquals(5, joined.size());
+        assertTrue(joined.stream()
+                         .allMatch(c -> c.getUsers()
+                                         .size() == 3));
+    }
+
     @Test
     public void testDeleteColocation_Success() throws
                                                TechnicalException {
@@ -555,7 +622,9 @@ public class ColocationServiceTest extends AbstractTest {
         Colocation updatedColocation = colocationRepository.findById(colocation.getId())
                                                            .orElse(null);
         assertNotNull(updatedColocation);
-        assertTrue(updatedColocation.isRoommate(roommateUser));
+        // Colocation relue après l'écriture : les colocataires sont de nouvelles instances
+        assertTrue(updatedColocation.getRoommates().stream().anyMatch(user -> user.getId().equals(roommateUser.getId())));
+        assertEquals(2, colocationRepository.countRoommatesByColocationId(colocation.getId()));
     }
 
     @Test
@@ -597,6 +666,116 @@ public class ColocationServiceTest extends AbstractTest {
         assertEquals("Vous êtes déjà membre de cette colocation", exception.getMessage());
     }
 
+    @Test
+    public void testJoinColocation_GeneratedCode_Success() throws
+                                                           TechnicalException {
+        // Given
+        userRepository.saveAll(List.of(managerUser, roommateUser));
+        this.initSecurityContextPlaceHolder();
+        String invitationCode = colocationService.createColocation(colocationReqDto)
+                                                 .getInvitationCode();
+
+        this.cleanupSecurityContext();
+        this.initSecurityContextPlaceHolderWithSub("roommate-sub");
+
+        // When
+        ColocationResDto result = colocationService.joinColocation(invitationCode);
+
+        // Then
+        assertEquals(invitationCode, result.getInvitationCode());
+        assertEquals(2, result.getNumberOfPeople());
+    }
+
+    @Test
+    public void testJoinColocation_ExpiredCode() throws
+                                                 TechnicalException {
+        // Given
+        userRepository.saveAll(List.of(managerUser, roommateUser));
+        this.initSecurityContextPlaceHolder();
+        String invitationCode = colocationService.createColocation(colocationReqDto)
+                                                 .getInvitationCode();
+
+        InvitationCode invitation = invitationCodeRepository.findById(invitationCodeAllocator.decode(invitationCode)
+                                                                                             .orElseThrow())
+                                                            .orElseThrow();
+        invitation.setCreatedAt(LocalDateTime.now()
+                                             .minus(InvitationCode.VALIDITY)
+                                             .minusDays(1));
+        invitationCodeRepository.saveAndFlush(invitation);
+        assertTrue(invitation.isExpired());
+
+        this.cleanupSecurityContext();
+        this.initSecurityContextPlaceHolderWithSub("roommate-sub");
+
+        // When & Then
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> colocationService.joinColocation(invitationCode));
+
+        assertEquals(404, exception.getCode());
+        assertEquals("Code d'invitation invalide", exception.getMessage());
+    }
+
+    @Test
+    public void testRenewInvitationCode_Success() throws
+                                                  TechnicalException {
+        // Given
+        userRepository.save(managerUser);
+        this.initSecurityContextPlaceHolder();
+        ColocationResDto created = colocationService.createColocation(colocationReqDto);
+
+        // When
+        ColocationResDto renewed = colocationService.renewInvitationCode(created.getId());
+
+        // Then
+        assertNotEquals(created.getInvitationCode(), renewed.getInvitationCode());
+        assertTrue(colocationRepository.findByInvitationCode(renewed.getInvitationCode())
+                                       .isPresent());
+    }
+
+    @Test
+    public void testRenewInvitationCode_NotManager() throws
+                                                     TechnicalException {
+        // Given
+        userRepository.saveAll(List.of(managerUser, otherUser));
+        this.initSecurityContextPlaceHolder();
+        Long colocationId = colocationService.createColocation(colocationReqDto)
+                                             .getId();
+
+        this.cleanupSecurityContext();
+        this.initSecurityContextPlaceHolderWithSub("other-sub");
+
+        // When & Then
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> colocationService.renewInvitationCode(colocationId));
+
+        assertEquals(403, exception.getCode());
+        assertEquals("Seul le gestionnaire peut renouveler le code d'invitation", exception.getMessage());
+    }
+
+    @Test
+    public void testJoinColocation_Full() {
+        // Given
+        List<User> users = List.of(managerUser, roommateUser);
+        userRepository.saveAll(users);
+
+        Colocation colocation = new Colocation("Test Coloc", "Test Address", managerUser);
+        colocation.setInvitationCode("TEST1234");
+        colocation.setMaxRoommates(1);
+        colocation = colocationRepository.save(colocation);
+
+        roommateUser.setKeyCloakSub("roommate-sub");
+        userRepository.save(roommateUser);
+        this.initSecurityContextPlaceHolderWithSub("roommate-sub");
+
+        // When & Then
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> colocationService.joinColocation("TEST1234"));
+
+        assertEquals(409, exception.getCode());
+        assertEquals("Cette colocation est pleine", exception.getMessage());
+        assertEquals(1, colocationRepository.countRoommatesByColocationId(colocation.getId()));
+    }
+
     @Test
     public void testLeaveColocation_Success() throws
                                               TechnicalException {
@@ -619,7 +798,35 @@ public class ColocationServiceTest extends AbstractTest {
         Colocation updatedColocation = colocationRepository.findById(colocation.getId())
                                                            .orElse(null);
         assertNotNull(updatedColocation);
-        assertFalse(updatedColocation.isRoommate(roommateUser));
+        assertFalse(updatedColocation.getRoommates().stream().anyMatch(user -> user.getId().equals(roommateUser.getId())));
+        assertEquals(1, colocationRepository.countRoommatesByColocationId(colocation.getId()));
+    }
+
+    @Test
+    public void testJoinAndLeaveColocation_CountOnlyTheRowsWritten() throws
+                                                                   TechnicalException {
+        // Given
+        userRepository.saveAll(List.of(managerUser, roommateUser));
+
+        Colocation colocation = new Colocation("Test Coloc", "Test Address", managerUser);
+        colocation.setInvitationCode("TEST1234");
+        colocation = colocationRepository.save(colocation);
+        Long colocationId = colocation.getId();
+
+        roommateUser.setKeyCloakSub("roommate-sub");
+        userRepository.save(roommateUser);
+        this.initSecurityContextPlaceHolderWithSub("roommate-sub");
+
+        // When
+        assertEquals(2, colocationService.joinColocation("TEST1234").getNumberOfPeople());
+        TechnicalException joinedTwice = assertThrows(TechnicalException.class, () -> colocationService.joinColocation("TEST1234"));
+        colocationService.leaveColocation(colocationId);
+        TechnicalException leftTwice = assertThrows(TechnicalException.class, () -> colocationService.leaveColocation(colocationId));
+
+        // Then
+        assertEquals(409, joinedTwice.getCode());
+        assertEquals(409, leftTwice.getCode());
+        assertEquals(1, colocationRepository.countRoommatesByColocationId(colocationId));
     }
 
     @Test
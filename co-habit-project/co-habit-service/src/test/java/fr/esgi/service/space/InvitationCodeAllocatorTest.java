@@ -0,0 +1,87 @@
+package fr.esgi.service.space;
+
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.entity.space.InvitationCode;
+import fr.esgi.persistence.repository.space.InvitationCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InvitationCodeAllocatorTest {
+
+    @Mock
+    private InvitationCodeRepository invitationCodeRepository;
+
+    private InvitationCodeAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new InvitationCodeAllocator(invitationCodeRepository, "test-secret");
+    }
+
+    @Test
+    void allocate_ShouldDeriveCodeFromSequenceId() throws
+                                                   TechnicalException {
+        when(invitationCodeRepository.save(any(InvitationCode.class))).thenAnswer(invocation -> {
+            InvitationCode invitation = invocation.getArgument(0);
+            invitation.setId(42L);
+            return invitation;
+        });
+
+        String code = allocator.allocate();
+
+        assertThat(code).hasSize(InvitationCodeAllocator.CODE_LENGTH)
+                        .matches("[" + InvitationCodeAllocator.ALPHABET + "]+");
+        assertThat(allocator.decode(code)).contains(42L);
+    }
+
+    @Test
+    void encode_ShouldBeCollisionFreeAndReversible() throws
+                                                     TechnicalException {
+        Set<String> codes = new HashSet<>();
+        for (long sequence = 1; sequence <= 100_000; sequence++) {
+            String code = allocator.encode(sequence);
+            assertThat(codes.add(code)).isTrue();
+            assertThat(allocator.decode(code)).contains(sequence);
+        }
+    }
+
+    @Test
+    void encode_ShouldDependOnSecret() throws
+                                       TechnicalException {
+        InvitationCodeAllocator other = new InvitationCodeAllocator(invitationCodeRepository, "other-secret");
+
+        assertThat(other.encode(1L)).isNotEqualTo(allocator.encode(1L));
+    }
+
+    @Test
+    void constructor_ShouldRefuseAMissingSecret() {
+        assertThrows(IllegalStateException.class, () -> new InvitationCodeAllocator(invitationCodeRepository, " "));
+    }
+
+    @Test
+    void encode_ShouldFailWhenCodeSpaceIsExhausted() {
+        TechnicalException exception = assertThrows(TechnicalException.class, () -> allocator.encode(1L << 25));
+
+        assertEquals(503, exception.getCode());
+    }
+
+    @Test
+    void decode_ShouldRejectForeignCodes() {
+        assertThat(allocator.decode("TEST1234")).isEmpty();
+        assertThat(allocator.decode("ABCIL")).isEmpty();
+        assertThat(allocator.decode(null)).isEmpty();
+    }
+}
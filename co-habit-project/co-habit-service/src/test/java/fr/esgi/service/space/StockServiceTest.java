@@ -14,6 +14,10 @@ import fr.esgi.persistence.repository.space.StockItemRepository;
 import fr.esgi.persistence.repository.space.StockRepository;
 import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.SqlStatementBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import fr.esgi.service.registration.mapper.UserMapper;
 import fr.esgi.service.space.mapper.StockMapper;
 import org.junit.jupiter.api.AfterEach;
@@ -46,7 +50,8 @@ import static org.junit.jupiter.api.Assertions.*;
                 "spring.datasource.url=jdbc:h2:mem:testdb",
                 "spring.jpa.hibernate.ddl-auto=create-drop",
                 "spring.datasource.driver-class-name=org.h2.Driver",
-                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                SqlStatementBudget.PROPERTY
         }
 )
 @EnableJpaRepositories(basePackages = "fr.esgi.persistence.repository")
@@ -62,6 +67,16 @@ public class StockServiceTest extends AbstractTest {
     )
     static class TestConfig {
 
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
         @Bean
         public StockMapper stockMapper() {
             return Mappers.getMapper(StockMapper.class);
@@ -77,10 +92,11 @@ public class StockServiceTest extends AbstractTest {
                 StockRepository stockRepository,
                 StockItemRepository stockItemRepository,
                 ColocationRepository colocationRepository,
-                UserRepository userRepository,
+                CurrentUser currentUser,
+                ColocationMembershipIndex membershipIndex,
                 StockMapper stockMapper,
                 UserMapper userMapper) {
-            return new StockService(stockRepository, stockItemRepository, colocationRepository, userRepository, stockMapper);
+            return new StockService(stockRepository, stockItemRepository, colocationRepository, currentUser, membershipIndex, stockMapper);
         }
     }
 
@@ -99,6 +115,12 @@ public class StockServiceTest extends AbstractTest {
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CurrentUser currentUser;
+
     private User       managerUser;
     private User       roommateUser;
     private User       otherUser;
@@ -262,6 +284,32 @@ public class StockServiceTest extends AbstractTest {
                                          .equals("Garde-manger")));
     }
 
+    @Test
+    public void testGetStocksByColocation_StatementBudget() throws
+                                                            TechnicalException {
+        // Given
+        this.initSecurityContextPlaceHolder();
+
+        for (int i = 0; i < 5; i++) {
+            StockEntity stock = new StockEntity("Stock " + i, colocation);
+            stock.addItem(new StockItemEntity("Item A", 2, managerUser));
+            stock.addItem(new StockItemEntity("Item B", 3, managerUser));
+            stockRepository.save(stock);
+        }
+        currentUser.find();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When : user, colocation, membership, then the stocks with their items
+        List<StockResDto> result = SqlStatementBudget.assertAtMost(
+                4, () -> stockService.getStocksByColocation(colocation.getId()));
+
+        // Then
+        assertEquals(5, result.size());
+        assertTrue(result.stream()
+                         .allMatch(s -> s.getItemCount() == 5));
+    }
+
     @Test
     public void testDeleteStock_Success() throws
                                           TechnicalException {
@@ -9,6 +9,9 @@ import fr.esgi.persistence.entity.user.UserRelationship;
 import fr.esgi.persistence.repository.user.UserRelationshipRepository;
 import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import fr.esgi.service.space.mapper.UserRelationshipMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,11 +56,17 @@ public class UserRelationServiceTest extends AbstractTest {
             }
     )
     static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
         @Bean
         public UserRelationService userRelationService(
                 UserRepository userRepository,
+                CurrentUser currentUser,
                 UserRelationshipRepository userRelationshipRepository) {
-            return new UserRelationService(userRepository, userRelationshipRepository, UserRelationshipMapper.INSTANCE);
+            return new UserRelationService(userRepository, currentUser, userRelationshipRepository, UserRelationshipMapper.INSTANCE);
         }
     }
 
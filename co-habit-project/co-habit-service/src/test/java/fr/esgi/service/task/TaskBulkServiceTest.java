@@ -0,0 +1,194 @@
+package fr.esgi.service.task;
+
+import fr.esgi.domain.dto.task.TaskBulkAssignReqDto;
+import fr.esgi.domain.dto.task.TaskBulkCreateReqDto;
+import fr.esgi.domain.dto.task.TaskBulkItemResDto;
+import fr.esgi.domain.dto.task.TaskBulkReqDto;
+import fr.esgi.domain.dto.task.TaskBulkResDto;
+import fr.esgi.domain.dto.task.TaskPriority;
+import fr.esgi.domain.dto.task.TaskReqDto;
+import fr.esgi.domain.dto.task.TaskStatus;
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.user.User;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.user.UserRepository;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import fr.esgi.service.task.mapper.TaskMapper;
+import fr.esgi.service.task.store.TaskStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskBulkServiceTest {
+
+    private static final Long COLOCATION_ID = 10L;
+
+    @Mock
+    private TaskStore                 taskStore;
+    @Mock
+    private UserRepository            userRepository;
+    @Mock
+    private CurrentUser               currentUser;
+    @Mock
+    private ColocationRepository      colocationRepository;
+    @Mock
+    private ColocationMembershipIndex membershipIndex;
+
+    private TaskBulkService taskBulkService;
+
+    @BeforeEach
+    void setUp() throws
+                 TechnicalException {
+        // Écriture synchrone : chaque écriture groupée va droit au magasin
+        TaskWriter taskWriter = new TaskWriter(taskStore, new SimpleMeterRegistry(), false, 1, 1, 0, 0, 0);
+        taskBulkService = new TaskBulkService(taskWriter, userRepository, currentUser, colocationRepository,
+                                              membershipIndex, Mappers.getMapper(TaskMapper.class), RefreshPolicy.WAIT_UNTIL);
+        when(currentUser.findId()).thenReturn(Optional.of(1L));
+        when(colocationRepository.existsById(COLOCATION_ID)).thenReturn(true);
+    }
+
+    @Test
+    void createTasks_ShouldWriteEveryTaskAtOnce() throws
+                                                TechnicalException {
+        when(membershipIndex.isRoommate(1L, COLOCATION_ID)).thenReturn(true);
+        when(taskStore.saveAll(anyList(), eq(RefreshPolicy.WAIT_UNTIL)))
+                .thenAnswer(invocation -> {
+                    List<TaskDocument> tasks = invocation.getArgument(0);
+                    tasks.get(0).setId("a");
+                    tasks.get(1).setId("b");
+                    return Map.of("b", new TaskBulkFailure(400, "mapper_parsing_exception"));
+                });
+
+        TaskBulkResDto result = taskBulkService.createTasks(COLOCATION_ID, new TaskBulkCreateReqDto(
+                List.of(taskReq("Sortir les poubelles"), taskReq("Passer l'aspirateur"))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaskDocument>> written = ArgumentCaptor.forClass(List.class);
+        verify(taskStore).saveAll(written.capture(), eq(RefreshPolicy.WAIT_UNTIL));
+        assertThat(written.getValue()).allSatisfy(task -> {
+            assertEquals(COLOCATION_ID, task.getColocationId());
+            assertEquals(1L, task.getCreatorId());
+        });
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertThat(result.getItems()).extracting(TaskBulkItemResDto::getTaskId).containsExactly("a", "b");
+        assertThat(result.getItems()).extracting(TaskBulkItemResDto::getStatus).containsExactly(201, 400);
+    }
+
+    @Test
+    void completeTasks_ShouldCompleteTheTasksFromTheirCurrentState() throws
+                                                                      TechnicalException {
+        when(membershipIndex.isRoommate(1L, COLOCATION_ID)).thenReturn(true);
+        TaskDocument found = task("a");
+        when(taskStore.updateAll(eq(COLOCATION_ID), anyCollection(), any(), eq(RefreshPolicy.WAIT_UNTIL)))
+                .thenAnswer(invocation -> {
+                    Consumer<TaskDocument> change = invocation.getArgument(2);
+                    change.accept(found);
+                    return Map.of("b", new TaskBulkFailure(404, "Tâche non trouvée"),
+                                  "c", new TaskBulkFailure(409, "version_conflict_engine_exception"));
+                });
+
+        TaskBulkResDto result = taskBulkService.completeTasks(COLOCATION_ID, new TaskBulkReqDto(List.of("a", "b", "c", "a")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> completed = ArgumentCaptor.forClass(Collection.class);
+        verify(taskStore).updateAll(eq(COLOCATION_ID), completed.capture(), any(), eq(RefreshPolicy.WAIT_UNTIL));
+        assertThat(completed.getValue()).containsExactly("a", "b", "c");
+        verify(membershipIndex, times(1)).isRoommate(1L, COLOCATION_ID);
+        assertEquals(TaskDocument.TaskStatus.COMPLETED, found.getStatus());
+        assertThat(found.getCompletedAt()).isNotNull();
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertThat(result.getItems()).extracting(TaskBulkItemResDto::getTaskId).containsExactly("a", "b", "c");
+        assertThat(result.getItems()).extracting(TaskBulkItemResDto::getStatus).containsExactly(200, 404, 409);
+        assertEquals("Tâche non trouvée", result.getItems().get(1).getError());
+    }
+
+    @Test
+    void deleteTasks_ShouldOnlyDeleteTheTasksFoundInTheColocation() throws
+                                                                   TechnicalException {
+        when(membershipIndex.isRoommate(1L, COLOCATION_ID)).thenReturn(true);
+        when(taskStore.findAllInColocation(eq(COLOCATION_ID), anyCollection())).thenReturn(List.of(task("a")));
+        when(taskStore.deleteAll(eq(COLOCATION_ID), anyCollection(), eq(RefreshPolicy.WAIT_UNTIL))).thenReturn(Map.of());
+
+        TaskBulkResDto result = taskBulkService.deleteTasks(COLOCATION_ID, new TaskBulkReqDto(List.of("a", "b")));
+
+        verify(taskStore).deleteAll(COLOCATION_ID, Set.of("a"), RefreshPolicy.WAIT_UNTIL);
+        assertThat(result.getItems()).extracting(TaskBulkItemResDto::getStatus).containsExactly(204, 404);
+    }
+
+    @Test
+    void assignTasks_ShouldRejectAnAssigneeOutsideTheColocation() {
+        User outsider = new User();
+        outsider.setId(2L);
+        when(membershipIndex.isRoommate(1L, COLOCATION_ID)).thenReturn(true);
+        when(membershipIndex.isRoommate(2L, COLOCATION_ID)).thenReturn(false);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(outsider));
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> taskBulkService.assignTasks(COLOCATION_ID,
+                                                                                      new TaskBulkAssignReqDto(List.of("a"), 2L)));
+
+        assertEquals(403, exception.getCode());
+        verify(taskStore, never()).updateAll(any(), anyCollection(), any(), any());
+    }
+
+    @Test
+    void deleteTasks_ShouldRejectANonRoommateOnceForTheBatch() {
+        when(membershipIndex.isRoommate(1L, COLOCATION_ID)).thenReturn(false);
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> taskBulkService.deleteTasks(COLOCATION_ID, new TaskBulkReqDto(List.of("a", "b"))));
+
+        assertEquals(403, exception.getCode());
+        verify(taskStore, never()).findAllInColocation(any(), anyCollection());
+        verify(taskStore, never()).deleteAll(any(), anyCollection(), any());
+    }
+
+    private static TaskReqDto taskReq(String title) {
+        TaskReqDto dto = new TaskReqDto();
+        dto.setTitle(title);
+        dto.setStatus(TaskStatus.TODO);
+        dto.setPriority(TaskPriority.MEDIUM);
+        dto.setTags(Set.of("menage"));
+        return dto;
+    }
+
+    private static TaskDocument task(String id) {
+        TaskDocument task = new TaskDocument();
+        task.setId(id);
+        task.setColocationId(COLOCATION_ID);
+        return task;
+    }
+}
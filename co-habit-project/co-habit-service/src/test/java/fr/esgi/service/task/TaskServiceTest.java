@@ -1,24 +1,41 @@
 package fr.esgi.service.task;
 
 import fr.esgi.domain.DateUtils;
+import fr.esgi.domain.dto.page.CursorPageResDto;
+import fr.esgi.domain.dto.task.TaskDashboardResDto;
+import fr.esgi.domain.dto.task.TaskPriority;
 import fr.esgi.domain.dto.task.TaskReqDto;
 import fr.esgi.domain.dto.task.TaskResDto;
+import fr.esgi.domain.dto.task.TaskSearchHitResDto;
+import fr.esgi.domain.dto.task.TaskSearchReqDto;
 import fr.esgi.domain.dto.task.TaskStatus;
 import fr.esgi.domain.exception.TechnicalException;
 import fr.esgi.persistence.document.TaskDocument;
 import fr.esgi.persistence.entity.space.Colocation;
 import fr.esgi.persistence.entity.user.User;
 import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.task.TaskCursorException;
+import fr.esgi.persistence.repository.task.TaskDashboard;
 import fr.esgi.persistence.repository.task.TaskRepository;
+import fr.esgi.persistence.repository.task.TaskSearchCriteria;
+import fr.esgi.persistence.repository.task.TaskSearchHit;
+import fr.esgi.persistence.repository.task.TaskSearchPage;
 import fr.esgi.persistence.repository.user.UserRepository;
 import fr.esgi.service.AbstractTest;
+import fr.esgi.service.CurrentUser;
+import fr.esgi.service.space.ColocationMembershipIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import fr.esgi.service.registration.mapper.UserMapper;
 import fr.esgi.service.task.mapper.TaskMapper;
+import fr.esgi.service.task.store.ElasticsearchTaskStore;
+import fr.esgi.service.task.store.TaskStore;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.web.reactive.ReactiveWebServerFactoryAutoConfiguration;
@@ -33,10 +50,13 @@ import org.springframework.test.context.TestPropertySource;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @DataJpaTest
@@ -61,6 +81,16 @@ public class TaskServiceTest extends AbstractTest {
             }
     )
     static class TestConfig {
+        @Bean
+        public CurrentUser currentUser(UserRepository userRepository, EntityManager entityManager) {
+            return new CurrentUser(userRepository, entityManager, new SimpleMeterRegistry(), 0);
+        }
+
+        @Bean
+        public ColocationMembershipIndex colocationMembershipIndex(ColocationRepository colocationRepository) {
+            return new ColocationMembershipIndex(colocationRepository, 1024, 30_000);
+        }
+
         @Bean
         public TaskMapper taskMapper() {
             return Mappers.getMapper(TaskMapper.class);
@@ -78,10 +108,16 @@ public class TaskServiceTest extends AbstractTest {
         public TaskService taskService(
                 TaskRepository taskRepository,
                 UserRepository userRepository,
+                CurrentUser currentUser,
                 ColocationRepository colocationRepository,
+                ColocationMembershipIndex membershipIndex,
                 TaskMapper taskMapper,
                 UserMapper userMapper) {
-            return new TaskService(taskRepository, userRepository, colocationRepository, taskMapper, userMapper);
+            // Synchronous writes : each change reaches the repository before the method returns
+            TaskStore  taskStore  = new ElasticsearchTaskStore(taskRepository);
+            TaskWriter taskWriter = new TaskWriter(taskStore, new SimpleMeterRegistry(), false, 1, 1, 0, 0, 0);
+            return new TaskService(taskStore, userRepository, currentUser, colocationRepository, membershipIndex, taskMapper,
+                                   userMapper, taskWriter);
         }
     }
 
@@ -257,19 +293,24 @@ public class TaskServiceTest extends AbstractTest {
         updatedTask.setDescription("Updated Description");
         updatedTask.setStatus(TaskDocument.TaskStatus.IN_PROGRESS);
 
-        when(taskRepository.findById("existing-task-id")).thenReturn(Optional.of(existingTask));
+        when(taskRepository.findInColocation(colocation.getId(), "existing-task-id")).thenReturn(Optional.of(existingTask));
         when(taskRepository.save(any(TaskDocument.class))).thenReturn(updatedTask);
 
         // When
-        TaskResDto result = taskService.updateTask("existing-task-id", updateDto);
+        TaskResDto result = taskService.updateTask(colocation.getId(), "existing-task-id", updateDto);
 
         // Then
         assertNotNull(result);
         assertEquals("Updated Title", result.getTitle());
         assertEquals("Updated Description", result.getDescription());
         assertEquals(TaskStatus.IN_PROGRESS, result.getStatus());
-        verify(taskRepository).findById("existing-task-id");
-        verify(taskRepository).save(any(TaskDocument.class));
+        verify(taskRepository).findInColocation(colocation.getId(), "existing-task-id");
+        ArgumentCaptor<TaskDocument> saved = ArgumentCaptor.forClass(TaskDocument.class);
+        verify(taskRepository).save(saved.capture());
+        assertEquals("existing-task-id", saved.getValue().getId());
+        assertEquals(colocation.getId(), saved.getValue().getColocationId());
+        assertEquals(managerUser.getId(), saved.getValue().getCreatorId());
+        assertEquals("Updated Title", saved.getValue().getTitle());
     }
 
     @Test
@@ -280,11 +321,11 @@ public class TaskServiceTest extends AbstractTest {
         TaskReqDto updateDto = new TaskReqDto();
         updateDto.setTitle("Updated Title");
 
-        when(taskRepository.findById("non-existing-id")).thenReturn(Optional.empty());
+        when(taskRepository.findInColocation(colocation.getId(), "non-existing-id")).thenReturn(Optional.empty());
 
         // When & Then
         TechnicalException exception = assertThrows(TechnicalException.class,
-                                                    () -> taskService.updateTask("non-existing-id", updateDto));
+                                                    () -> taskService.updateTask(colocation.getId(), "non-existing-id", updateDto));
 
         assertEquals(404, exception.getCode());
         assertEquals("Tâche non trouvée", exception.getMessage());
@@ -293,17 +334,17 @@ public class TaskServiceTest extends AbstractTest {
     @Test
     public void testGetTaskById_Success() throws TechnicalException {
         this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
-        when(taskRepository.findById("existing-task-id"))
+        when(taskRepository.findInColocation(colocation.getId(), "existing-task-id"))
                 .thenReturn(Optional.of(existingTask));
 
-        TaskResDto result = taskService.getTaskById("existing-task-id");
+        TaskResDto result = taskService.getTaskById(colocation.getId(), "existing-task-id");
 
         assertNotNull(result);
         assertEquals("Existing Task", result.getTitle());
         // NOUVEAU
         assertNotNull(result.getAssignedUsers());
         assertTrue(result.getAssignedUsers().isEmpty());
-        verify(taskRepository).findById("existing-task-id");
+        verify(taskRepository).findInColocation(colocation.getId(), "existing-task-id");
     }
 
     @Test
@@ -311,11 +352,11 @@ public class TaskServiceTest extends AbstractTest {
         // Given
         this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
 
-        when(taskRepository.findById("non-existing-id")).thenReturn(Optional.empty());
+        when(taskRepository.findInColocation(colocation.getId(), "non-existing-id")).thenReturn(Optional.empty());
 
         // When & Then
         TechnicalException exception = assertThrows(TechnicalException.class,
-                                                    () -> taskService.getTaskById("non-existing-id"));
+                                                    () -> taskService.getTaskById(colocation.getId(), "non-existing-id"));
 
         assertEquals(404, exception.getCode());
         assertEquals("Tâche non trouvée", exception.getMessage());
@@ -327,19 +368,78 @@ public class TaskServiceTest extends AbstractTest {
         // Given
         this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
 
-        List<TaskDocument> tasks = List.of(existingTask);
-        when(taskRepository.findByColocationId(colocation.getId())).thenReturn(tasks);
+        when(taskRepository.search(any(TaskSearchCriteria.class)))
+                .thenReturn(new TaskSearchPage(List.of(listHit(existingTask, "existing-task-id")), null));
 
         // When
-        List<TaskResDto> result = taskService.getTasksByColocation(colocation.getId());
+        CursorPageResDto<TaskResDto> result = taskService.getTasksByColocation(colocation.getId(), false, null, null, false);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(1, result.getItems().size());
         assertEquals("Existing Task",
-                     result.get(0)
+                     result.getItems()
+                           .get(0)
                            .getTitle());
-        verify(taskRepository).findByColocationId(colocation.getId());
+        assertNull(result.getNextCursor());
+
+        // Completed tasks are hidden by default
+        ArgumentCaptor<TaskSearchCriteria> criteria = ArgumentCaptor.forClass(TaskSearchCriteria.class);
+        verify(taskRepository).search(criteria.capture());
+        assertEquals(colocation.getId(), criteria.getValue().colocationId());
+        assertEquals(Set.of(TaskDocument.TaskStatus.COMPLETED), criteria.getValue().excludedStatuses());
+        assertFalse(criteria.getValue().pointInTime());
+        assertEquals(TaskService.DEFAULT_PAGE_SIZE + 1, criteria.getValue().size());
+        verify(taskRepository, never()).closePointInTime(any());
+    }
+
+    @Test
+    public void testGetTasksByColocation_PagesReadFromAPointInTime() throws
+                                                                     TechnicalException {
+        // Given
+        this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
+
+        when(taskRepository.search(any(TaskSearchCriteria.class)))
+                .thenReturn(new TaskSearchPage(List.of(listHit(existingTask, "first-task-id"),
+                                                       listHit(existingTask, "second-task-id")), "pit-1"));
+        CursorPageResDto<TaskResDto> first = taskService.getTasksByColocation(colocation.getId(), true, null, 1, true);
+        assertNotNull(first.getNextCursor());
+
+        reset(taskRepository);
+        when(taskRepository.search(any(TaskSearchCriteria.class)))
+                .thenReturn(new TaskSearchPage(List.of(listHit(existingTask, "second-task-id")), "pit-2"));
+
+        // When
+        CursorPageResDto<TaskResDto> second = taskService.getTasksByColocation(colocation.getId(), true, first.getNextCursor(), 1, false);
+
+        // Then : the cursor carries the point in time, released with the last page
+        assertNull(second.getNextCursor());
+        ArgumentCaptor<TaskSearchCriteria> criteria = ArgumentCaptor.forClass(TaskSearchCriteria.class);
+        verify(taskRepository).search(criteria.capture());
+        assertNull(criteria.getValue().excludedStatuses());
+        assertTrue(criteria.getValue().pointInTime());
+        assertEquals("pit-1", criteria.getValue().pointInTimeId());
+        assertEquals(List.of(1_750_000_000_000L, "first-task-id"), criteria.getValue().searchAfter());
+        verify(taskRepository).closePointInTime("pit-2");
+    }
+
+    @Test
+    public void testGetTasksByColocation_ExpiredPointInTime() throws
+                                                              TechnicalException {
+        // Given : a cursor whose point in time expired before the next page was asked
+        this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
+
+        when(taskRepository.search(any(TaskSearchCriteria.class)))
+                .thenReturn(new TaskSearchPage(List.of(listHit(existingTask, "first-task-id"),
+                                                       listHit(existingTask, "second-task-id")), "pit-1"));
+        String cursor = taskService.getTasksByColocation(colocation.getId(), true, null, 1, true).getNextCursor();
+        when(taskRepository.search(any(TaskSearchCriteria.class))).thenThrow(new TaskCursorException(true, null));
+
+        // When & Then : the client restarts from the first page
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> taskService.getTasksByColocation(colocation.getId(), true, cursor, 1, true));
+
+        assertEquals(410, exception.getCode());
     }
 
     @Test
@@ -349,12 +449,139 @@ public class TaskServiceTest extends AbstractTest {
 
         // When & Then
         TechnicalException exception = assertThrows(TechnicalException.class,
-                                                    () -> taskService.getTasksByColocation(colocation.getId()));
+                                                    () -> taskService.getTasksByColocation(colocation.getId(), false, null, null, false));
 
         assertEquals(403, exception.getCode());
         assertEquals("Vous n'avez pas accès à cette colocation", exception.getMessage());
     }
 
+    @Test
+    public void testSearchTasks_FirstPage() throws
+                                            TechnicalException {
+        // Given
+        this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
+
+        TaskSearchReqDto filter = new TaskSearchReqDto();
+        filter.setText("existing");
+        filter.setStatuses(Set.of(TaskStatus.TODO));
+        filter.setDueFrom(LocalDate.of(2025, 7, 1));
+        filter.setDueTo(LocalDate.of(2025, 7, 31));
+
+        when(taskRepository.search(any(TaskSearchCriteria.class))).thenReturn(new TaskSearchPage(List.of(
+                searchHit(existingTask, 2.5, "existing-task-id"),
+                searchHit(existingTask, 1.5, "second-task-id"),
+                searchHit(existingTask, 0.5, "third-task-id")), null));
+
+        // When
+        CursorPageResDto<TaskSearchHitResDto> result = taskService.searchTasks(colocation.getId(), filter, null, 2);
+
+        // Then
+        assertEquals(2, result.getItems().size());
+        assertEquals("Existing Task", result.getItems().get(0).getTask().getTitle());
+        assertEquals(List.of("<em>Existing</em> Task"), result.getItems().get(0).getHighlights().get("title"));
+        assertNotNull(result.getNextCursor());
+
+        ArgumentCaptor<TaskSearchCriteria> criteria = ArgumentCaptor.forClass(TaskSearchCriteria.class);
+        verify(taskRepository).search(criteria.capture());
+        assertEquals(colocation.getId(), criteria.getValue().colocationId());
+        assertEquals(Set.of(TaskDocument.TaskStatus.TODO), criteria.getValue().statuses());
+        assertEquals(LocalDateTime.of(2025, 7, 1, 0, 0), criteria.getValue().dueFrom());
+        assertEquals(LocalDateTime.of(2025, 8, 1, 0, 0), criteria.getValue().dueBefore());
+        assertNull(criteria.getValue().searchAfter());
+        assertEquals(3, criteria.getValue().size());
+    }
+
+    @Test
+    public void testSearchTasks_NextPageResumesAfterTheLastHit() throws
+                                                                 TechnicalException {
+        // Given
+        this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
+
+        when(taskRepository.search(any(TaskSearchCriteria.class))).thenReturn(new TaskSearchPage(List.of(
+                searchHit(existingTask, 2.5, "existing-task-id"),
+                searchHit(existingTask, 1.5, "second-task-id")), null));
+        String cursor = taskService.searchTasks(colocation.getId(), null, null, 1).getNextCursor();
+
+        reset(taskRepository);
+        when(taskRepository.search(any(TaskSearchCriteria.class)))
+                .thenReturn(new TaskSearchPage(List.of(searchHit(existingTask, 1.5, "second-task-id")), null));
+
+        // When
+        CursorPageResDto<TaskSearchHitResDto> result = taskService.searchTasks(colocation.getId(), null, cursor, 1);
+
+        // Then : the sort values are given back with their types
+        assertNull(result.getNextCursor());
+        ArgumentCaptor<TaskSearchCriteria> criteria = ArgumentCaptor.forClass(TaskSearchCriteria.class);
+        verify(taskRepository).search(criteria.capture());
+        assertEquals(List.of(2.5, "existing-task-id"), criteria.getValue().searchAfter());
+    }
+
+    @Test
+    public void testSearchTasks_InvalidCursor() {
+        // Given
+        this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
+
+        // When & Then
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> taskService.searchTasks(colocation.getId(), null, "not-a-cursor", null));
+
+        assertEquals(400, exception.getCode());
+        verify(taskRepository, never()).search(any(TaskSearchCriteria.class));
+    }
+
+    @Test
+    public void testSearchTasks_UserNotMember() {
+        // Given
+        this.initSecurityContextPlaceHolderWithSub("other-sub");
+
+        // When & Then
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> taskService.searchTasks(colocation.getId(), null, null, null));
+
+        assertEquals(403, exception.getCode());
+        verify(taskRepository, never()).search(any(TaskSearchCriteria.class));
+    }
+
+    @Test
+    public void testGetDashboard_Success() throws
+                                           TechnicalException {
+        // Given
+        this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
+
+        when(taskRepository.dashboard(eq(colocation.getId()), any(LocalDateTime.class))).thenReturn(new TaskDashboard(
+                7, 4, 2,
+                Map.of(TaskDocument.TaskStatus.TODO, 4L, TaskDocument.TaskStatus.COMPLETED, 3L),
+                Map.of(TaskDocument.TaskPriority.HIGH, 7L),
+                Map.of(managerUser.getId(), 1L, roommateUser.getId(), 3L)));
+
+        // When
+        TaskDashboardResDto result = taskService.getDashboard(colocation.getId());
+
+        // Then
+        assertEquals(7, result.getTotal());
+        assertEquals(4, result.getOpen());
+        assertEquals(2, result.getOverdue());
+        assertEquals(4L, result.getByStatus().get(TaskStatus.TODO));
+        assertEquals(7L, result.getByPriority().get(TaskPriority.HIGH));
+        // The busiest roommate first
+        assertEquals(2, result.getWorkload().size());
+        assertEquals(roommateUser.getId(), result.getWorkload().get(0).getUserId());
+        assertEquals(3, result.getWorkload().get(0).getOpenTasks());
+    }
+
+    @Test
+    public void testGetDashboard_UserNotMember() {
+        // Given
+        this.initSecurityContextPlaceHolderWithSub("other-sub");
+
+        // When & Then
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> taskService.getDashboard(colocation.getId()));
+
+        assertEquals(403, exception.getCode());
+        verify(taskRepository, never()).dashboard(any(), any());
+    }
+
     @Test
     public void testGetUserTasks_Success() throws
                                            TechnicalException {
@@ -386,15 +613,15 @@ public class TaskServiceTest extends AbstractTest {
         updatedTask.setId("existing-task-id");
         updatedTask.setTitle("Existing Task");
 
-        when(taskRepository.findById("existing-task-id")).thenReturn(Optional.of(existingTask));
+        when(taskRepository.findInColocation(colocation.getId(), "existing-task-id")).thenReturn(Optional.of(existingTask));
         when(taskRepository.save(any(TaskDocument.class))).thenReturn(updatedTask);
 
         // When
-        TaskResDto result = taskService.assignTask("existing-task-id", roommateUser.getId());
+        TaskResDto result = taskService.assignTask(colocation.getId(), "existing-task-id", roommateUser.getId());
 
         // Then
         assertNotNull(result);
-        verify(taskRepository).findById("existing-task-id");
+        verify(taskRepository).findInColocation(colocation.getId(), "existing-task-id");
         verify(taskRepository).save(any(TaskDocument.class));
     }
 
@@ -403,11 +630,11 @@ public class TaskServiceTest extends AbstractTest {
         // Given
         this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
 
-        when(taskRepository.findById("non-existing-id")).thenReturn(Optional.empty());
+        when(taskRepository.findInColocation(colocation.getId(), "non-existing-id")).thenReturn(Optional.empty());
 
         // When & Then
         TechnicalException exception = assertThrows(TechnicalException.class,
-                                                    () -> taskService.assignTask("non-existing-id", roommateUser.getId()));
+                                                    () -> taskService.assignTask(colocation.getId(), "non-existing-id", roommateUser.getId()));
 
         assertEquals(404, exception.getCode());
         assertEquals("Tâche non trouvée", exception.getMessage());
@@ -418,11 +645,11 @@ public class TaskServiceTest extends AbstractTest {
         // Given
         this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
 
-        when(taskRepository.findById("existing-task-id")).thenReturn(Optional.of(existingTask));
+        when(taskRepository.findInColocation(colocation.getId(), "existing-task-id")).thenReturn(Optional.of(existingTask));
 
         // When & Then
         TechnicalException exception = assertThrows(TechnicalException.class,
-                                                    () -> taskService.assignTask("existing-task-id", 999L));
+                                                    () -> taskService.assignTask(colocation.getId(), "existing-task-id", 999L));
 
         assertEquals(404, exception.getCode());
         assertEquals("Utilisateur assigné non trouvé", exception.getMessage());
@@ -438,16 +665,16 @@ public class TaskServiceTest extends AbstractTest {
         completedTask.setId("existing-task-id");
         completedTask.setStatus(TaskDocument.TaskStatus.COMPLETED);
 
-        when(taskRepository.findById("existing-task-id")).thenReturn(Optional.of(existingTask));
+        when(taskRepository.findInColocation(colocation.getId(), "existing-task-id")).thenReturn(Optional.of(existingTask));
         when(taskRepository.save(any(TaskDocument.class))).thenReturn(completedTask);
 
         // When
-        TaskResDto result = taskService.completeTask("existing-task-id");
+        TaskResDto result = taskService.completeTask(colocation.getId(), "existing-task-id");
 
         // Then
         assertNotNull(result);
         assertEquals(TaskStatus.COMPLETED, result.getStatus());
-        verify(taskRepository).findById("existing-task-id");
+        verify(taskRepository).findInColocation(colocation.getId(), "existing-task-id");
         verify(taskRepository).save(any(TaskDocument.class));
     }
 
@@ -456,11 +683,11 @@ public class TaskServiceTest extends AbstractTest {
         // Given
         this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
 
-        when(taskRepository.findById("non-existing-id")).thenReturn(Optional.empty());
+        when(taskRepository.findInColocation(colocation.getId(), "non-existing-id")).thenReturn(Optional.empty());
 
         // When & Then
         TechnicalException exception = assertThrows(TechnicalException.class,
-                                                    () -> taskService.completeTask("non-existing-id"));
+                                                    () -> taskService.completeTask(colocation.getId(), "non-existing-id"));
 
         assertEquals(404, exception.getCode());
         assertEquals("Tâche non trouvée", exception.getMessage());
@@ -472,13 +699,13 @@ public class TaskServiceTest extends AbstractTest {
         // Given
         this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
 
-        when(taskRepository.findById("existing-task-id")).thenReturn(Optional.of(existingTask));
+        when(taskRepository.findInColocation(colocation.getId(), "existing-task-id")).thenReturn(Optional.of(existingTask));
 
         // When
-        assertDoesNotThrow(() -> taskService.deleteTask("existing-task-id"));
+        assertDoesNotThrow(() -> taskService.deleteTask(colocation.getId(), "existing-task-id"));
 
         // Then
-        verify(taskRepository).findById("existing-task-id");
+        verify(taskRepository).findInColocation(colocation.getId(), "existing-task-id");
         verify(taskRepository).delete(existingTask);
     }
 
@@ -487,11 +714,11 @@ public class TaskServiceTest extends AbstractTest {
         // Given
         this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
 
-        when(taskRepository.findById("non-existing-id")).thenReturn(Optional.empty());
+        when(taskRepository.findInColocation(colocation.getId(), "non-existing-id")).thenReturn(Optional.empty());
 
         // When & Then
         TechnicalException exception = assertThrows(TechnicalException.class,
-                                                    () -> taskService.deleteTask("non-existing-id"));
+                                                    () -> taskService.deleteTask(colocation.getId(), "non-existing-id"));
 
         assertEquals(404, exception.getCode());
         assertEquals("Tâche non trouvée", exception.getMessage());
@@ -502,16 +729,33 @@ public class TaskServiceTest extends AbstractTest {
         // Given
         this.initSecurityContextPlaceHolderWithSub("other-sub");
 
-        when(taskRepository.findById("existing-task-id")).thenReturn(Optional.of(existingTask));
+        when(taskRepository.findInColocation(colocation.getId(), "existing-task-id")).thenReturn(Optional.of(existingTask));
 
         // When & Then
         TechnicalException exception = assertThrows(TechnicalException.class,
-                                                    () -> taskService.deleteTask("existing-task-id"));
+                                                    () -> taskService.deleteTask(colocation.getId(), "existing-task-id"));
 
         assertEquals(403, exception.getCode());
         assertEquals("Vous n'avez pas accès à cette tâche", exception.getMessage());
     }
 
+    @Test
+    public void testGetMostRecentTasks_ShouldReadTheRoutedRecentTasks() throws
+                                                                       TechnicalException {
+        // Given
+        this.initSecurityContextPlaceHolderWithSub(TEST_USER_ID);
+
+        when(taskRepository.findRecent(colocation.getId(), TaskService.RECENT_TASKS)).thenReturn(List.of(existingTask));
+
+        // When
+        List<TaskResDto> result = taskService.getMostRecentTasks(colocation.getId());
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("existing-task-id", result.get(0).getId());
+        verify(taskRepository).findRecent(colocation.getId(), TaskService.RECENT_TASKS);
+    }
+
     @Test
     public void testCreateTask_AsRoommate() throws
                                             TechnicalException {
@@ -542,4 +786,12 @@ public class TaskServiceTest extends AbstractTest {
         assertEquals(roommateUser.getId(), result.getCreatorId());
         verify(taskRepository).save(any(TaskDocument.class));
     }
+
+    private static TaskSearchHit searchHit(TaskDocument task, double score, String id) {
+        return new TaskSearchHit(task, Map.of("title", List.of("<em>Existing</em> Task")), List.of(score, id));
+    }
+
+    private static TaskSearchHit listHit(TaskDocument task, String id) {
+        return new TaskSearchHit(task, Map.of(), List.of(1_750_000_000_000L, id));
+    }
 }
@@ -0,0 +1,265 @@
+package fr.esgi.service.task;
+
+import fr.esgi.domain.exception.TechnicalException;
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.task.TaskRecord;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.task.TaskRepository;
+import fr.esgi.persistence.repository.taskrecord.TaskRecordBackfillRepository;
+import fr.esgi.persistence.repository.taskrecord.TaskRecordRepository;
+import fr.esgi.service.task.store.ElasticsearchTaskStore;
+import fr.esgi.service.task.store.FailoverTaskStore;
+import fr.esgi.service.task.store.JpaTaskStore;
+import fr.esgi.service.task.store.TaskStoreCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskWriterTest {
+
+    private static final Long COLOCATION_ID = 10L;
+    private static final Long ALICE         = 1L;
+    private static final Long BOB           = 2L;
+
+    @Mock
+    private TaskRepository       taskRepository;
+    @Mock
+    private TaskRecordRepository taskRecordRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FailoverTaskStore   taskStore;
+    private TaskWriter          writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Le magasin de production : la copie relationnelle d'abord, puis l'index ; chaque tâche y a sa ligne
+        Map<String, TaskRecord> rows = new HashMap<>();
+        lenient().when(taskRecordRepository.lockAllById(anyCollection()))
+                 .thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0)
+                                                     .stream()
+                                                     .map(taskId -> rows.computeIfAbsent(taskId, TaskRecord::new))
+                                                     .toList());
+        taskStore     = new FailoverTaskStore(new ElasticsearchTaskStore(taskRepository),
+                                              new JpaTaskStore(taskRecordRepository, mock(TaskRecordBackfillRepository.class)),
+                                              mock(ColocationRepository.class),
+                                              new TaskStoreCircuitBreaker(meterRegistry, 5, 1000, 60_000), meterRegistry);
+        // L'indexeur n'est pas démarré : les tests vident la file eux-mêmes
+        // Sans délai entre deux tentatives : un lot en échec est repris aussitôt
+        writer        = new TaskWriter(taskStore, meterRegistry, true, 2, 500, 200, 60_000, 0);
+    }
+
+    @Test
+    void save_ShouldAcknowledgeThenIndexTheLastChangeOnce() throws
+                                                         TechnicalException {
+        TaskDocument task = task(null, "Sortir les poubelles");
+
+        TaskWriter.Written created = writer.save(task, ALICE);
+        task.setStatus(TaskDocument.TaskStatus.COMPLETED);
+        TaskWriter.Written completed = writer.save(task, ALICE);
+
+        assertThat(created.task().getId()).isNotBlank();
+        assertThat(completed.version()).isGreaterThan(created.version());
+        assertEquals(2.0, meterRegistry.get("cohabit.tasks.write_behind.queue.depth").gauge().value());
+        verify(taskRepository, never()).bulkIndex(anyList(), eq(RefreshPolicy.NONE));
+        // Lue avant son indexation, la tâche a son dernier état acquitté
+        assertThat(writer.findInColocation(COLOCATION_ID, task.getId())).get()
+                                                                         .extracting(TaskDocument::getStatus)
+                                                                         .isEqualTo(TaskDocument.TaskStatus.COMPLETED);
+
+        writer.flush(writer.drainQueue());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaskDocument>> indexed = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).bulkIndex(indexed.capture(), eq(RefreshPolicy.NONE));
+        assertThat(indexed.getValue()).singleElement()
+                                      .extracting(TaskDocument::getStatus)
+                                      .isEqualTo(TaskDocument.TaskStatus.COMPLETED);
+        assertEquals(0.0, meterRegistry.get("cohabit.tasks.write_behind.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("cohabit.tasks.write_behind.writes").tag("outcome", "indexed").counter().count());
+        verify(taskRepository, never()).findInColocation(COLOCATION_ID, task.getId());
+    }
+
+    @Test
+    void delete_ShouldForgetATaskDeletedBeforeItWasIndexed() throws
+                                                          TechnicalException {
+        TaskDocument task = writer.save(task(null, "Passer l'aspirateur"), ALICE).task();
+        writer.delete(task, ALICE);
+        when(taskRepository.bulkDelete(COLOCATION_ID, List.of(task.getId()), RefreshPolicy.NONE))
+                .thenReturn(Map.of(task.getId(), new TaskBulkFailure(404, "document_missing_exception")));
+
+        writer.flush(writer.drainQueue());
+
+        verify(taskRepository).bulkIndex(List.of(), RefreshPolicy.NONE);
+        assertThat(writer.findInColocation(COLOCATION_ID, task.getId())).isEmpty();
+        assertEquals(1.0, meterRegistry.get("cohabit.tasks.write_behind.writes").tag("outcome", "indexed").counter().count());
+    }
+
+    @Test
+    void flush_ShouldLeaveAChangeTheIndexRejectedPendingWithoutRetryingIt() throws
+                                                                           TechnicalException {
+        TaskRecord record = new TaskRecord("task-1");
+        writer.save(task("task-1", "Faire les courses"), ALICE);
+        when(taskRecordRepository.lockAllById(List.of("task-1"))).thenReturn(List.of(record));
+        when(taskRepository.bulkIndex(anyList(), eq(RefreshPolicy.NONE)))
+                .thenReturn(Map.of("task-1", new TaskBulkFailure(429, "es_rejected_execution_exception")));
+
+        writer.flush(writer.drainQueue());
+
+        // Gardée en attente dans la copie relationnelle, rejouée plus tard dans l'index
+        assertThat(record.isPendingSync()).isTrue();
+        assertThat(writer.drainRetries()).isEmpty();
+        assertEquals(0.0, meterRegistry.get("cohabit.tasks.write_behind.writes").tag("outcome", "retried").counter().count());
+        assertEquals(1.0, meterRegistry.get("cohabit.tasks.write_behind.writes").tag("outcome", "indexed").counter().count());
+    }
+
+    @Test
+    void flush_ShouldRetryABatchTheStoreCouldNotWriteThenDropIt() throws
+                                                                TechnicalException {
+        TaskDocument task = writer.save(task("task-1", "Faire les courses"), ALICE).task();
+        when(taskRecordRepository.lockAllById(List.of("task-1"))).thenThrow(new IllegalStateException("base indisponible"));
+
+        writer.flush(writer.drainQueue());
+        for (int i = 1; i < TaskWriter.MAX_ATTEMPTS; i++) {
+            writer.flush(writer.drainRetries());
+        }
+
+        assertThat(writer.drainRetries()).isEmpty();
+        verify(taskRecordRepository, times(TaskWriter.MAX_ATTEMPTS)).lockAllById(List.of("task-1"));
+        verify(taskRepository, never()).bulkIndex(anyList(), eq(RefreshPolicy.NONE));
+        assertEquals(2.0, meterRegistry.get("cohabit.tasks.write_behind.writes").tag("outcome", "retried").counter().count());
+        assertEquals(1.0, meterRegistry.get("cohabit.tasks.write_behind.writes").tag("outcome", "failed").counter().count());
+        // Abandonnée, la modification n'est plus relue
+        assertThat(writer.findInColocation(COLOCATION_ID, task.getId())).isEmpty();
+    }
+
+    @Test
+    void flush_ShouldWaitTheBackoffBeforeRetryingABatch() throws
+                                                       TechnicalException {
+        TaskWriter patient = new TaskWriter(taskStore, new SimpleMeterRegistry(), true, 2, 500, 200, 60_000, 60_000);
+        patient.save(task("task-1", "Faire les courses"), ALICE);
+        when(taskRecordRepository.lockAllById(anyCollection())).thenThrow(new IllegalStateException("base indisponible"));
+
+        patient.flush(patient.drainQueue());
+
+        assertThat(patient.drainRetries()).isEmpty();
+        assertThat(patient.drainQueue()).isEmpty();
+    }
+
+    @Test
+    void updateAll_ShouldWriteTheWaitingChangeOfATaskFirst() throws
+                                                            TechnicalException {
+        writer.save(task("task-1", "Sortir les poubelles jaunes"), ALICE);
+
+        writer.updateAll(COLOCATION_ID, Set.of("task-1"), task -> task.setStatus(TaskDocument.TaskStatus.COMPLETED),
+                         RefreshPolicy.WAIT_UNTIL);
+        // Déjà écrite, la modification en attente n'est pas réindexée après l'écriture groupée
+        writer.flush(writer.drainQueue());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaskDocument>> indexed = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository, times(3)).bulkIndex(indexed.capture(), any());
+        assertThat(indexed.getAllValues()).extracting(tasks -> tasks.stream().map(TaskDocument::getStatus).toList())
+                                          .containsExactly(List.of(TaskDocument.TaskStatus.TODO),
+                                                           List.of(TaskDocument.TaskStatus.COMPLETED),
+                                                           List.of());
+        assertThat(indexed.getAllValues().get(1)).singleElement()
+                                                 .extracting(TaskDocument::getTitle)
+                                                 .isEqualTo("Sortir les poubelles jaunes");
+        // L'état acquitté avant l'écriture groupée n'est plus relu
+        when(taskRepository.findInColocation(COLOCATION_ID, "task-1")).thenReturn(Optional.empty());
+        assertThat(writer.findInColocation(COLOCATION_ID, "task-1")).isEmpty();
+    }
+
+    @Test
+    void findAllInColocation_ShouldReadTheWaitingChangesFirst() throws
+                                                               TechnicalException {
+        TaskDocument indexed = task("task-2", "Faire la vaisselle");
+        writer.save(task("task-1", "Sortir les poubelles"), ALICE);
+        writer.delete(task("task-3", "Nettoyer le four"), ALICE);
+        when(taskRepository.findAllInColocation(COLOCATION_ID, List.of("task-2"))).thenReturn(List.of(indexed));
+
+        assertThat(writer.findAllInColocation(COLOCATION_ID, List.of("task-1", "task-2", "task-3")))
+                .extracting(TaskDocument::getId)
+                .containsExactly("task-1", "task-2");
+    }
+
+    @Test
+    void save_ShouldRejectAChangeWhenTheQueueIsFull() throws
+                                                    TechnicalException {
+        writer.save(task("task-1", "Arroser les plantes"), ALICE);
+        writer.save(task("task-2", "Nettoyer le four"), ALICE);
+
+        TechnicalException exception = assertThrows(TechnicalException.class,
+                                                    () -> writer.save(task("task-1", "Arroser les plantes du balcon"), ALICE));
+
+        assertEquals(503, exception.getCode());
+        assertThat(writer.findInColocation(COLOCATION_ID, "task-1")).get()
+                                                                    .extracting(TaskDocument::getTitle)
+                                                                    .isEqualTo("Arroser les plantes");
+        assertEquals(1.0, meterRegistry.get("cohabit.tasks.write_behind.writes").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void withOwnChanges_ShouldOnlyApplyTheChangesOfTheUser() throws
+                                                            TechnicalException {
+        TaskDocument stale = task("task-1", "Sortir les poubelles");
+        writer.save(task("task-1", "Sortir les poubelles jaunes"), ALICE);
+        writer.save(task("task-2", "Faire la vaisselle"), BOB);
+
+        List<TaskDocument> tasks = writer.withOwnChanges(List.of(stale), ALICE, task -> true);
+
+        assertThat(tasks).extracting(TaskDocument::getTitle).containsExactly("Sortir les poubelles jaunes");
+    }
+
+    @Test
+    void save_ShouldIndexSynchronouslyWhenWriteBehindIsDisabled() throws
+                                                                 TechnicalException {
+        TaskWriter synchronous = new TaskWriter(taskStore, new SimpleMeterRegistry(), false, 1, 1, 0, 0, 0);
+        TaskDocument task = task("task-1", "Sortir les poubelles");
+        when(taskRepository.save(task)).thenReturn(task);
+
+        TaskWriter.Written written = synchronous.save(task, ALICE);
+
+        assertThat(written.version()).isNull();
+        verify(taskRepository).save(task);
+    }
+
+    private static TaskDocument task(String id, String title) {
+        TaskDocument task = new TaskDocument();
+        task.setId(id);
+        task.setTitle(title);
+        task.setColocationId(COLOCATION_ID);
+        task.setStatus(TaskDocument.TaskStatus.TODO);
+        task.setTags(Set.of("menage"));
+        return task;
+    }
+}
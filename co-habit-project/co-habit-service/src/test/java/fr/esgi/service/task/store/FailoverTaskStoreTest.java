@@ -0,0 +1,340 @@
+package fr.esgi.service.task.store;
+
+import fr.esgi.persistence.document.TaskDocument;
+import fr.esgi.persistence.entity.task.TaskRecord;
+import fr.esgi.persistence.entity.task.TaskRecordBackfill;
+import fr.esgi.persistence.repository.space.ColocationRepository;
+import fr.esgi.persistence.repository.task.TaskBulkFailure;
+import fr.esgi.persistence.repository.task.TaskCursorException;
+import fr.esgi.persistence.repository.task.TaskSearchCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.ResourceNotFoundException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FailoverTaskStoreTest {
+
+    private static final Long COLOCATION_ID = 10L;
+
+    @Mock
+    private ElasticsearchTaskStore elasticsearch;
+    @Mock
+    private JpaTaskStore           relational;
+    @Mock
+    private ColocationRepository   colocationRepository;
+
+    private SimpleMeterRegistry     meterRegistry;
+    private TaskStoreCircuitBreaker circuitBreaker;
+    private FailoverTaskStore       store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry  = new SimpleMeterRegistry();
+        circuitBreaker = new TaskStoreCircuitBreaker(meterRegistry, 2, 1000, 60_000);
+        store          = new FailoverTaskStore(elasticsearch, relational, colocationRepository, circuitBreaker, meterRegistry);
+        store.markBackfilled();
+    }
+
+    @Test
+    void findInColocation_ShouldOnlyReadTheIndexUntilTheCopyIsComplete() {
+        FailoverTaskStore copying = new FailoverTaskStore(elasticsearch, relational, colocationRepository, circuitBreaker, meterRegistry);
+        when(elasticsearch.findInColocation(COLOCATION_ID, "task-1")).thenThrow(new DataAccessResourceFailureException("timeout"));
+
+        assertThatThrownBy(() -> copying.findInColocation(COLOCATION_ID, "task-1")).isInstanceOf(DataAccessResourceFailureException.class);
+
+        verify(relational, never()).findInColocation(any(), any());
+    }
+
+    @Test
+    void findInColocation_ShouldReadTheRelationalCopyWhenTheIndexFails() {
+        TaskDocument task = task("task-1");
+        when(elasticsearch.findInColocation(COLOCATION_ID, "task-1")).thenThrow(new DataAccessResourceFailureException("timeout"));
+        when(relational.findInColocation(COLOCATION_ID, "task-1")).thenReturn(Optional.of(task));
+
+        assertThat(store.findInColocation(COLOCATION_ID, "task-1")).contains(task);
+        assertThat(store.findInColocation(COLOCATION_ID, "task-1")).contains(task);
+        // Circuit ouvert après deux échecs : l'index n'est plus appelé
+        assertThat(store.findInColocation(COLOCATION_ID, "task-1")).contains(task);
+
+        verify(elasticsearch, times(2)).findInColocation(COLOCATION_ID, "task-1");
+        assertThat(circuitBreaker.state()).isEqualTo(TaskStoreCircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.get("cohabit.tasks.store.fallbacks").tag("operation", "read").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void openTasksByAssignee_ShouldCountOnTheRelationalCopyWhenTheIndexFails() {
+        Map<Long, Map<Long, Long>> load = Map.of(COLOCATION_ID, Map.of(1L, 2L));
+        when(elasticsearch.openTasksByAssignee(Set.of(COLOCATION_ID))).thenThrow(new DataAccessResourceFailureException("timeout"));
+        when(relational.openTasksByAssignee(Set.of(COLOCATION_ID))).thenReturn(load);
+
+        assertThat(store.openTasksByAssignee(Set.of(COLOCATION_ID))).isEqualTo(load);
+        assertThat(meterRegistry.get("cohabit.tasks.store.fallbacks").tag("operation", "read").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void search_ShouldNotCountAnExpiredCursorAsAnOutage() {
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder().colocationId(COLOCATION_ID).searchAfter(List.of(1L, "task-1"))
+                                                        .pointInTime(true).pointInTimeId("pit-1").size(10).build();
+        when(elasticsearch.search(criteria)).thenThrow(new TaskCursorException(true, null));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> store.search(criteria)).isInstanceOf(TaskCursorException.class);
+        }
+
+        // Circuit toujours fermé, la copie relationnelle n'est pas lue
+        assertThat(circuitBreaker.state()).isEqualTo(TaskStoreCircuitBreaker.State.CLOSED);
+        verify(relational, never()).search(any());
+    }
+
+    @Test
+    void rejected_ShouldOnlyTellTheClientErrorsOfTheIndex() {
+        assertThat(FailoverTaskStore.rejected(new UncategorizedElasticsearchException("parse_exception", 400, null, null))).isTrue();
+        assertThat(FailoverTaskStore.rejected(new ResourceNotFoundException("search_context_missing_exception"))).isTrue();
+        assertThat(FailoverTaskStore.rejected(new UncategorizedElasticsearchException("es_rejected_execution_exception", 429, null, null)))
+                .isFalse();
+        assertThat(FailoverTaskStore.rejected(new UncategorizedElasticsearchException("unavailable_shards_exception", 503, null, null)))
+                .isFalse();
+        assertThat(FailoverTaskStore.rejected(new DataAccessResourceFailureException("timeout"))).isFalse();
+    }
+
+    @Test
+    void save_ShouldMarkTheTaskIndexedOnceTheIndexGotIt() {
+        TaskDocument task   = task("task-1");
+        TaskRecord   record = pending(task);
+        when(relational.write(task)).thenReturn(record);
+
+        assertThat(store.save(task)).isSameAs(task);
+
+        verify(elasticsearch).save(task);
+        assertThat(record.isPendingSync()).isFalse();
+        assertThat(store.isBehind()).isFalse();
+    }
+
+    @Test
+    void save_ShouldLeaveTheTaskPendingAndReadTheCopyWhenTheIndexFails() {
+        TaskDocument task   = task("task-1");
+        TaskRecord   record = pending(task);
+        when(relational.write(task)).thenReturn(record);
+        when(elasticsearch.save(task)).thenThrow(new DataAccessResourceFailureException("connection refused"));
+        when(relational.findRecent(COLOCATION_ID, 3)).thenReturn(List.of(task));
+
+        store.save(task);
+
+        assertThat(record.isPendingSync()).isTrue();
+        assertThat(store.isBehind()).isTrue();
+        // L'index n'est pas à jour : les lectures passent par la copie relationnelle
+        assertThat(store.findRecent(COLOCATION_ID, 3)).containsExactly(task);
+        verify(elasticsearch, never()).findRecent(any(), anyInt());
+        assertThat(meterRegistry.get("cohabit.tasks.store.fallbacks").tag("operation", "write").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void delete_ShouldForgetTheTombstoneOnceDeletedFromTheIndex() {
+        TaskDocument task      = task("task-1");
+        TaskRecord   tombstone = pending(task);
+        when(relational.remove(task)).thenReturn(tombstone);
+
+        store.delete(task);
+
+        verify(elasticsearch).delete(task);
+        verify(relational).forget(tombstone);
+    }
+
+    @Test
+    void delete_ShouldKeepTheTombstoneUntilTheCopyIsComplete() {
+        FailoverTaskStore copying   = new FailoverTaskStore(elasticsearch, relational, colocationRepository, circuitBreaker, meterRegistry);
+        TaskDocument      task      = task("task-1");
+        TaskRecord        tombstone = pending(task);
+        tombstone.setDeleted(true);
+        when(relational.remove(task)).thenReturn(tombstone);
+
+        copying.delete(task);
+
+        verify(relational, never()).forget(any());
+        assertThat(tombstone.isDeleted()).isTrue();
+        assertThat(tombstone.isPendingSync()).isFalse();
+    }
+
+    @Test
+    void saveAll_ShouldLeaveTheTasksTheIndexRejectedPending() {
+        TaskDocument first    = task("task-1");
+        TaskDocument second   = task("task-2");
+        TaskRecord   stored   = pending(first);
+        TaskRecord   rejected = pending(second);
+        when(relational.writeAll(List.of(first, second))).thenReturn(Map.of("task-1", stored, "task-2", rejected));
+        when(elasticsearch.saveAll(List.of(first, second), RefreshPolicy.WAIT_UNTIL))
+                .thenReturn(Map.of("task-2", new TaskBulkFailure(429, "es_rejected_execution_exception")));
+
+        assertThat(store.saveAll(List.of(first, second), RefreshPolicy.WAIT_UNTIL)).isEmpty();
+
+        assertThat(stored.isPendingSync()).isFalse();
+        assertThat(rejected.isPendingSync()).isTrue();
+        assertThat(store.isBehind()).isTrue();
+    }
+
+    @Test
+    void updateAll_ShouldReadATaskNotCopiedYetFromTheIndex() {
+        FailoverTaskStore copying = new FailoverTaskStore(elasticsearch, relational, colocationRepository, circuitBreaker, meterRegistry);
+        TaskRecord        copied  = pending(task("task-1"));
+        TaskDocument      indexed = task("task-2");
+        when(relational.lockAll(List.of("task-1", "task-2", "task-3"))).thenReturn(new HashMap<>(Map.of("task-1", copied)));
+        when(relational.createAbsent(COLOCATION_ID, List.of("task-2", "task-3"))).thenReturn(Set.of("task-2", "task-3"));
+        when(elasticsearch.findAllInColocation(COLOCATION_ID, Set.of("task-2", "task-3"))).thenReturn(List.of(indexed));
+        TaskRecord placeholder = new TaskRecord("task-3");
+        when(relational.lockAll(List.of("task-3"))).thenReturn(Map.of("task-3", placeholder));
+        when(relational.writeAll(anyList())).thenReturn(Map.of());
+        when(elasticsearch.saveAll(anyList(), any())).thenReturn(Map.of());
+
+        Map<String, TaskBulkFailure> failures = copying.updateAll(COLOCATION_ID, List.of("task-1", "task-2", "task-3"),
+                                                                  task -> task.setStatus(TaskDocument.TaskStatus.COMPLETED),
+                                                                  RefreshPolicy.WAIT_UNTIL);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaskDocument>> written = ArgumentCaptor.forClass(List.class);
+        verify(relational).writeAll(written.capture());
+        assertThat(written.getValue()).extracting(TaskDocument::getId).containsExactly("task-1", "task-2");
+        assertThat(written.getValue()).extracting(TaskDocument::getStatus).containsOnly(TaskDocument.TaskStatus.COMPLETED);
+        // Absente de l'index : la ligne créée pour la verrouiller est retirée
+        verify(relational).forget(placeholder);
+        assertThat(failures).containsOnlyKeys("task-3");
+        assertThat(failures.get("task-3").status()).isEqualTo(404);
+    }
+
+    @Test
+    void backfill_ShouldCopyTheNextColocationsThenComplete() {
+        FailoverTaskStore  copying  = new FailoverTaskStore(elasticsearch, relational, colocationRepository, circuitBreaker, meterRegistry);
+        TaskRecordBackfill progress = new TaskRecordBackfill();
+        progress.setLastColocationId(3L);
+        when(relational.lockBackfill()).thenReturn(Optional.of(progress));
+        when(colocationRepository.findIdsAfter(3L, Limit.of(2))).thenReturn(List.of(4L, 7L));
+        when(colocationRepository.findIdsAfter(7L, Limit.of(2))).thenReturn(List.of());
+        List<TaskDocument> tasks = List.of(task("task-1"), task("task-2"));
+        when(elasticsearch.findAll(4L)).thenReturn(tasks);
+        when(elasticsearch.findAll(7L)).thenReturn(List.of());
+        when(relational.copyAbsent(4L, tasks)).thenReturn(2);
+
+        assertThat(copying.backfill(2)).isEqualTo(new FailoverTaskStore.Backfill(2, 2, false));
+        assertThat(progress.getLastColocationId()).isEqualTo(7L);
+
+        assertThat(copying.backfill(2)).isEqualTo(new FailoverTaskStore.Backfill(0, 0, true));
+        assertThat(progress.getCompletedAt()).isNotNull();
+        verify(relational).purgeTombstones();
+    }
+
+    @Test
+    void backfill_ShouldSkipWhileAnotherNodeCopies() {
+        FailoverTaskStore copying = new FailoverTaskStore(elasticsearch, relational, colocationRepository, circuitBreaker, meterRegistry);
+        when(relational.lockBackfill()).thenReturn(Optional.empty());
+        when(relational.isBackfilled()).thenReturn(false);
+
+        assertThat(copying.backfill(2)).isEqualTo(new FailoverTaskStore.Backfill(0, 0, false));
+        verify(colocationRepository, never()).findIdsAfter(anyLong(), any());
+    }
+
+    @Test
+    void replayPending_ShouldIndexAndDeleteThePendingTasks() {
+        TaskRecord updated   = pending(task("task-1"));
+        TaskRecord tombstone = pending(task("task-2"));
+        tombstone.setDeleted(true);
+        TaskRecord rejected  = pending(task("task-3"));
+        when(relational.lockPending(500)).thenReturn(List.of(updated, tombstone, rejected));
+        when(elasticsearch.bulkWrite(anyList(), anyMap()))
+                .thenReturn(Map.of("task-3", new TaskBulkFailure(429, "es_rejected_execution_exception")));
+
+        FailoverTaskStore.Replay replay = store.replayPending(500);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaskDocument>> indexed = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearch).bulkWrite(indexed.capture(), any());
+        assertThat(indexed.getValue()).extracting(TaskDocument::getId).containsExactly("task-1", "task-3");
+
+        assertThat(replay).isEqualTo(new FailoverTaskStore.Replay(3, 2));
+        assertThat(updated.isPendingSync()).isFalse();
+        verify(relational).forget(tombstone);
+        // Rejet temporaire : rejouée au prochain passage
+        assertThat(rejected.isPendingSync()).isTrue();
+        assertThat(store.isBehind()).isTrue();
+    }
+
+    @Test
+    void replayPending_ShouldCatchUpOnceNothingIsPending() {
+        when(relational.lockPending(500)).thenReturn(List.of());
+        when(relational.hasPending()).thenReturn(false);
+
+        assertThat(store.replayPending(500)).isEqualTo(new FailoverTaskStore.Replay(0, 0));
+        assertThat(store.isBehind()).isFalse();
+    }
+
+    @Test
+    void replayPending_ShouldWaitWhileTheCircuitIsOpen() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        when(relational.lockPending(500)).thenReturn(List.of(pending(task("task-1"))));
+
+        assertThat(store.replayPending(500)).isEqualTo(new FailoverTaskStore.Replay(1, 0));
+        verify(elasticsearch, never()).bulkWrite(anyList(), anyMap());
+    }
+
+    @Test
+    void forIndex_ShouldRestartATextSearchResumedFromTheRelationalCopy() {
+        TaskSearchCriteria relationalCursor = TaskSearchCriteria.builder()
+                                                                .colocationId(COLOCATION_ID)
+                                                                .text("poubelles")
+                                                                .searchAfter(List.of(1L, 2L, "task-1"))
+                                                                .size(21)
+                                                                .build();
+        TaskSearchCriteria indexCursor = TaskSearchCriteria.builder()
+                                                           .colocationId(COLOCATION_ID)
+                                                           .text("poubelles")
+                                                           .searchAfter(List.of(1.5, "task-1"))
+                                                           .size(21)
+                                                           .build();
+
+        assertThat(FailoverTaskStore.forIndex(relationalCursor).searchAfter()).isNull();
+        assertThat(FailoverTaskStore.forIndex(relationalCursor).size()).isEqualTo(21);
+        assertThat(FailoverTaskStore.forIndex(indexCursor)).isSameAs(indexCursor);
+    }
+
+    private static TaskRecord pending(TaskDocument task) {
+        TaskRecord record = new TaskRecord(task.getId());
+        record.apply(task);
+        record.setPendingSync(true);
+        return record;
+    }
+
+    private static TaskDocument task(String id) {
+        return TaskDocument.builder()
+                           .id(id)
+                           .colocationId(COLOCATION_ID)
+                           .title("Sortir les poubelles")
+                           .status(TaskDocument.TaskStatus.TODO)
+                           .build();
+    }
+}
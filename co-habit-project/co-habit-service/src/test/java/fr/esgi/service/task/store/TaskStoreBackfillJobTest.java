@@ -0,0 +1,59 @@
+package fr.esgi.service.task.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStoreBackfillJobTest {
+
+    @Mock
+    private FailoverTaskStore failoverTaskStore;
+
+    private SimpleMeterRegistry  meterRegistry;
+    private TaskStoreBackfillJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job           = new TaskStoreBackfillJob(failoverTaskStore, meterRegistry);
+    }
+
+    @Test
+    void backfillAll_ShouldRunChunksUntilTheCopyIsComplete() {
+        when(failoverTaskStore.backfill(TaskStoreBackfillJob.CHUNK_SIZE)).thenReturn(new FailoverTaskStore.Backfill(50, 800, false),
+                                                                                   new FailoverTaskStore.Backfill(3, 12, false),
+                                                                                   new FailoverTaskStore.Backfill(0, 0, true));
+
+        assertThat(job.backfillAll()).isEqualTo(812);
+
+        verify(failoverTaskStore, times(3)).backfill(TaskStoreBackfillJob.CHUNK_SIZE);
+        verify(failoverTaskStore).markBackfilled();
+        assertThat(meterRegistry.get("cohabit.tasks.store.backfilled").counter().count()).isEqualTo(812.0);
+    }
+
+    @Test
+    void backfillAll_ShouldWaitWhileAnotherNodeCopies() {
+        when(failoverTaskStore.backfill(TaskStoreBackfillJob.CHUNK_SIZE)).thenReturn(new FailoverTaskStore.Backfill(0, 0, false));
+
+        assertThat(job.backfillAll()).isZero();
+
+        verify(failoverTaskStore, never()).markBackfilled();
+    }
+
+    @Test
+    void backfillAll_ShouldDoNothingOnceTheCopyIsComplete() {
+        when(failoverTaskStore.isBackfilled()).thenReturn(true);
+
+        assertThat(job.backfillAll()).isZero();
+
+        verify(failoverTaskStore, never()).backfill(anyInt());
+    }
+}
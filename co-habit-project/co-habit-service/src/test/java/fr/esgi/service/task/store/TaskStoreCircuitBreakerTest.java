@@ -0,0 +1,63 @@
+package fr.esgi.service.task.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskStoreCircuitBreakerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void onFailure_ShouldOpenAfterConsecutiveFailures() {
+        TaskStoreCircuitBreaker breaker = new TaskStoreCircuitBreaker(meterRegistry, 3, 1000, 60_000);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess(0);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(TaskStoreCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(meterRegistry.get("cohabit.tasks.store.circuit.opened").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cohabit.tasks.store.circuit.state").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void onSuccess_ShouldCountASlowCallAsAFailure() {
+        TaskStoreCircuitBreaker breaker = new TaskStoreCircuitBreaker(meterRegistry, 1, 100, 60_000);
+
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(breaker.state()).isEqualTo(TaskStoreCircuitBreaker.State.CLOSED);
+
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(150));
+        assertThat(breaker.state()).isEqualTo(TaskStoreCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void tryAcquire_ShouldLetASingleProbeThroughOnceOpenLongEnough() {
+        TaskStoreCircuitBreaker breaker = new TaskStoreCircuitBreaker(meterRegistry, 1, 1000, 0);
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(TaskStoreCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        // L'appel d'essai échoue : le circuit se rouvre
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(TaskStoreCircuitBreaker.State.OPEN);
+
+        // Le suivant réussit : le circuit se referme
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess(0);
+        assertThat(breaker.state()).isEqualTo(TaskStoreCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
@@ -0,0 +1,48 @@
+package fr.esgi.service.task.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStoreReplayJobTest {
+
+    @Mock
+    private FailoverTaskStore failoverTaskStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TaskStoreReplayJob  job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job           = new TaskStoreReplayJob(failoverTaskStore, meterRegistry);
+    }
+
+    @Test
+    void replayAll_ShouldRunChunksUntilNothingIsPending() {
+        when(failoverTaskStore.replayPending(TaskStoreReplayJob.CHUNK_SIZE)).thenReturn(new FailoverTaskStore.Replay(500, 500),
+                                                                                       new FailoverTaskStore.Replay(12, 12),
+                                                                                       new FailoverTaskStore.Replay(0, 0));
+
+        assertThat(job.replayAll()).isEqualTo(512);
+
+        verify(failoverTaskStore, times(3)).replayPending(TaskStoreReplayJob.CHUNK_SIZE);
+        assertThat(meterRegistry.get("cohabit.tasks.store.replayed").counter().count()).isEqualTo(512.0);
+    }
+
+    @Test
+    void replayAll_ShouldStopAtTheFirstChunkNotFullyReplayed() {
+        when(failoverTaskStore.replayPending(TaskStoreReplayJob.CHUNK_SIZE)).thenReturn(new FailoverTaskStore.Replay(500, 499));
+
+        assertThat(job.replayAll()).isEqualTo(499);
+
+        verify(failoverTaskStore, times(1)).replayPending(TaskStoreReplayJob.CHUNK_SIZE);
+    }
+}